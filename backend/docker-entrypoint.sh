@@ -18,6 +18,19 @@ if [ -z "$ADMIN_PASSWORD" ] || [ "$ADMIN_PASSWORD" = "changeme" ]; then
     echo "⚠️  Note: Save this password! It will change on each container restart unless set in .env file"
 fi
 
+APP_JAR=app.jar
+FAST_OPTS=""
+
+# Fast startup image (FAST_STARTUP build arg): AOT-generated context plus the AppCDS archive
+# recorded when the image was built (see Dockerfile)
+if [ "$FAST_STARTUP" = "true" ] && [ -f /app/extracted/app.jar ]; then
+    APP_JAR=/app/extracted/app.jar
+    FAST_OPTS="-Dspring.aot.enabled=true"
+    if [ -f /app/cds/app.jsa ]; then
+        FAST_OPTS="$FAST_OPTS -XX:SharedArchiveFile=/app/cds/app.jsa"
+    fi
+fi
+
 # Execute the main command
-exec java $JAVA_OPTS ${SPRING_PROFILES_ACTIVE:+-Dspring.profiles.active=$SPRING_PROFILES_ACTIVE} -jar app.jar
+exec java $JAVA_OPTS $FAST_OPTS ${SPRING_PROFILES_ACTIVE:+-Dspring.profiles.active=$SPRING_PROFILES_ACTIVE} -jar $APP_JAR
 
@@ -0,0 +1,40 @@
+package edu.howard.research.smsbackend.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Starts the long-running background workers (dashboard event listener, audit writer, click
+ * flusher) on virtual or platform daemon threads. Which one is a bean chosen by ThreadingConfig
+ * with the same spring.threads.virtual.enabled condition as Boot's own executors, so an AOT build
+ * (-Pfast-startup) fixes it at build time together with Tomcat and the scheduler instead of the
+ * workers reading the property at runtime and disagreeing with them.
+ */
+public class BackgroundThreads {
+
+    private final boolean virtual;
+
+    BackgroundThreads(boolean virtual) {
+        this.virtual = virtual;
+    }
+
+    public Thread start(String name, Runnable task) {
+        return virtual
+                ? Thread.ofVirtual().name(name).start(task)
+                : Thread.ofPlatform().name(name).daemon(true).start(task);
+    }
+
+    /**
+     * Executor for short hand-offs from a worker (e.g. per-client SSE sends): a thread per task when
+     * virtual, otherwise a cached pool of daemon threads. Callers bound how many tasks are in flight.
+     */
+    public ExecutorService executor(String namePrefix) {
+        return virtual
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix + "-", 0).factory())
+                : Executors.newCachedThreadPool(Thread.ofPlatform().name(namePrefix + "-", 0).daemon(true).factory());
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+}
@@ -0,0 +1,30 @@
+package edu.howard.research.smsbackend.config;
+
+import edu.howard.research.smsbackend.services.DeliveryRetryWorker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Scheduled task to re-attempt failed deliveries that are due (gift cards, invitation SMS)
+ * Runs every minute, on one instance only
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeliveryRetryScheduler {
+
+    private final DeliveryRetryWorker deliveryRetryWorker;
+    private final ScheduledJobRunner jobRunner;
+
+    @Scheduled(cron = "0 * * * * ?") // Every minute
+    public void retryDueDeliveries() {
+        jobRunner.run("delivery-retry", Duration.ofMinutes(10), Duration.ofSeconds(30), () -> {
+            int delivered = deliveryRetryWorker.processDue();
+            return "delivered " + delivered;
+        });
+    }
+}
@@ -0,0 +1,28 @@
+package edu.howard.research.smsbackend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Slf4j
+@Configuration
+public class FlywayConfig {
+
+    /**
+     * Migrates on startup as usual, except in the AppCDS training run (cds-training profile,
+     * recorded while the image is built), which has no database. Checked here at runtime rather
+     * than through spring.flyway.enabled, because an AOT build fixes that condition at build time.
+     */
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(Environment env) {
+        return flyway -> {
+            if (env.getProperty("app.cdsTraining", Boolean.class, false)) {
+                log.info("CDS training run: skipping Flyway migrations");
+                return;
+            }
+            flyway.migrate();
+        };
+    }
+}
@@ -6,9 +6,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 /**
  * Scheduled task to cleanup orphaned ASSIGNED pool cards
- * Runs daily at 2 AM
+ * Runs daily at 2 AM, on one instance only (see ScheduledJobRunner)
  */
 @Slf4j
 @Component
@@ -16,16 +18,15 @@ import org.springframework.stereotype.Component;
 public class GiftCardCleanupScheduler {
 
     private final GiftCardService giftCardService;
+    private final ScheduledJobRunner jobRunner;
 
     @Scheduled(cron = "0 0 2 * * ?") // Daily at 2 AM
     public void cleanupOrphanedPoolCards() {
-        log.info("Running scheduled cleanup of orphaned ASSIGNED pool cards");
-        try {
+        jobRunner.run("gift-card-pool-cleanup", Duration.ofMinutes(30), Duration.ofMinutes(5), () -> {
+            log.info("Running scheduled cleanup of orphaned ASSIGNED pool cards");
             int cleanedCount = giftCardService.cleanupOrphanedAssignedPoolCards();
             log.info("Scheduled cleanup completed. Reset {} orphaned cards to AVAILABLE", cleanedCount);
-        } catch (Exception e) {
-            log.error("Error during scheduled cleanup of orphaned pool cards", e);
-        }
+            return "reset " + cleanedCount + " orphaned cards";
+        });
     }
 }
-
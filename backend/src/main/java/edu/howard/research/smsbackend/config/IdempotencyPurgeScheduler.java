@@ -0,0 +1,31 @@
+package edu.howard.research.smsbackend.config;
+
+import edu.howard.research.smsbackend.services.IdempotencyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Scheduled task to delete expired idempotency records
+ * Runs hourly, on one instance only
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotencyPurgeScheduler {
+
+    private final IdempotencyService idempotencyService;
+    private final ScheduledJobRunner jobRunner;
+
+    @Scheduled(cron = "0 15 * * * ?") // Hourly at :15
+    public void purgeExpiredRecords() {
+        jobRunner.run("idempotency-purge", Duration.ofMinutes(10), Duration.ofMinutes(1), () -> {
+            int deleted = idempotencyService.purgeExpired();
+            log.info("Purged {} expired idempotency records", deleted);
+            return "deleted " + deleted + " records";
+        });
+    }
+}
@@ -0,0 +1,35 @@
+package edu.howard.research.smsbackend.config;
+
+import edu.howard.research.smsbackend.services.LogPartitionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Scheduled task to create upcoming monthly partitions of the log tables and, when
+ * app.logRetention.enabled is set, archive and drop partitions past the retention window
+ * Runs daily, on one instance only
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LogPartitionScheduler {
+
+    private final LogPartitionService logPartitionService;
+    private final ScheduledJobRunner jobRunner;
+
+    @Scheduled(cron = "0 30 3 * * ?") // Daily at 3:30 AM
+    public void maintainPartitions() {
+        jobRunner.run("log-partition-maintenance", Duration.ofHours(2), Duration.ofMinutes(5), () -> {
+            int created = logPartitionService.ensurePartitions();
+            int archived = logPartitionService.applyRetention();
+            if (archived > 0) {
+                log.info("Log retention archived and dropped {} partition(s)", archived);
+            }
+            return "created " + created + " partitions, archived " + archived;
+        });
+    }
+}
@@ -0,0 +1,25 @@
+package edu.howard.research.smsbackend.config;
+
+import edu.howard.research.smsbackend.services.ProviderGuard;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * /actuator/providers - circuit breaker state and bulkhead usage of every external provider
+ */
+@Component
+@Endpoint(id = "providers")
+@RequiredArgsConstructor
+public class ProvidersEndpoint {
+
+    private final ProviderGuard providerGuard;
+
+    @ReadOperation
+    public Map<String, Object> providers() {
+        return providerGuard.describe();
+    }
+}
@@ -0,0 +1,34 @@
+package edu.howard.research.smsbackend.config;
+
+import edu.howard.research.smsbackend.services.RateLimiter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Scheduled task to delete idle buckets from the shared rate limit store
+ * Runs every 10 minutes, on one instance only; a no-op with the in-memory store
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RateLimitPurgeScheduler {
+
+    private final RateLimiter rateLimiter;
+    private final ScheduledJobRunner jobRunner;
+
+    @Scheduled(cron = "0 */10 * * * ?") // Every 10 minutes
+    public void purgeIdleBuckets() {
+        if (!rateLimiter.isPostgresStore()) {
+            return;
+        }
+        jobRunner.run("rate-limit-purge", Duration.ofMinutes(5), Duration.ofMinutes(1), () -> {
+            int deleted = rateLimiter.purgeShared();
+            log.debug("Purged {} idle rate limit buckets", deleted);
+            return "deleted " + deleted + " buckets";
+        });
+    }
+}
@@ -0,0 +1,42 @@
+package edu.howard.research.smsbackend.config;
+
+import edu.howard.research.smsbackend.services.ReminderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Scheduled survey reminder waves
+ * Runs daily at 10 AM Eastern by default, on one instance only; disabled unless app.reminders.enabled=true
+ * A wave sleeps between sends to honour the rate cap and holds its scheduler thread for the whole run,
+ * so spring.task.scheduling.pool.size (application.yml) leaves threads for the other jobs meanwhile
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReminderScheduler {
+
+    private final ReminderService reminderService;
+    private final ScheduledJobRunner jobRunner;
+
+    @Value("${app.reminders.enabled:false}")
+    private boolean enabled;
+
+    @Scheduled(cron = "${app.reminders.cron:0 0 10 * * *}", zone = "${app.reminders.zone:America/New_York}")
+    public void sendReminderWave() {
+        if (!enabled) {
+            return;
+        }
+        // Lease covers a full wave at the default rate cap (2000 reminders at 60/min)
+        jobRunner.run("survey-reminder-wave", Duration.ofHours(2), Duration.ofMinutes(5), () -> {
+            log.info("Running scheduled survey reminder wave");
+            int reminded = reminderService.sendDueReminders();
+            log.info("Scheduled reminder wave completed. Reminded {} invitations", reminded);
+            return "reminded " + reminded + " invitations";
+        });
+    }
+}
@@ -0,0 +1,71 @@
+package edu.howard.research.smsbackend.config;
+
+import edu.howard.research.smsbackend.repositories.ScheduledJobLockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * Runs scheduled jobs under a lease in the scheduled_job_lock table so that, with several
+ * backend instances, each cron tick is executed by exactly one of them. The outcome and
+ * duration of every run are recorded on the same row (see /actuator/scheduledjobs).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ScheduledJobRunner {
+
+    private static final int MAX_RECORDED_LENGTH = 2000;
+
+    private final ScheduledJobLockRepository lockRepository;
+
+    /** Identifies this JVM in locked_by, e.g. "12345@backend-1/3f2a9c1e" */
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName()
+            + "/" + UUID.randomUUID().toString().substring(0, 8);
+
+    /**
+     * Run {@code task} if this instance can take the lease for {@code jobName}.
+     *
+     * @param lockAtMostFor  lease length; must exceed the longest expected run
+     * @param lockAtLeastFor minimum time the lease is held, to absorb clock skew between nodes
+     * @return true if the job ran here (successfully or not), false if another instance holds the lease
+     */
+    public boolean run(String jobName, Duration lockAtMostFor, Duration lockAtLeastFor, Callable<?> task) {
+        if (lockRepository.tryAcquire(jobName, instanceId, lockAtMostFor.toSeconds()) == 0) {
+            log.info("Skipping job {} - lease held by another instance", jobName);
+            return false;
+        }
+
+        long startNanos = System.nanoTime();
+        String outcome = "SUCCESS";
+        String error = null;
+        String result = null;
+        try {
+            Object value = task.call();
+            result = value != null ? truncate(String.valueOf(value)) : null;
+        } catch (Exception e) {
+            outcome = "FAILED";
+            error = truncate(e.getClass().getSimpleName() + ": " + e.getMessage());
+            log.error("Scheduled job {} failed", jobName, e);
+        } finally {
+            long durationMs = Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+            try {
+                lockRepository.release(jobName, instanceId, lockAtLeastFor.toSeconds(), durationMs, outcome, error, result);
+            } catch (Exception e) {
+                // Lease simply expires at lockAtMostFor if we can't record the run
+                log.error("Could not release lease for job {}: {}", jobName, e.getMessage());
+            }
+            log.info("Scheduled job {} finished: outcome={}, duration={}ms", jobName, outcome, durationMs);
+        }
+        return true;
+    }
+
+    private static String truncate(String value) {
+        return value.length() <= MAX_RECORDED_LENGTH ? value : value.substring(0, MAX_RECORDED_LENGTH);
+    }
+}
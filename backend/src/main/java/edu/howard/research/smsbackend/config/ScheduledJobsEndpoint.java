@@ -0,0 +1,46 @@
+package edu.howard.research.smsbackend.config;
+
+import edu.howard.research.smsbackend.models.entities.ScheduledJobLock;
+import edu.howard.research.smsbackend.repositories.ScheduledJobLockRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /actuator/scheduledjobs - lease holder and last run of every scheduled job
+ */
+@Component
+@Endpoint(id = "scheduledjobs")
+@RequiredArgsConstructor
+public class ScheduledJobsEndpoint {
+
+    private final ScheduledJobLockRepository lockRepository;
+
+    @ReadOperation
+    public Map<String, Object> jobs() {
+        OffsetDateTime now = OffsetDateTime.now();
+        Map<String, Object> jobs = new LinkedHashMap<>();
+        List<ScheduledJobLock> locks = lockRepository.findAllByOrderByJobNameAsc();
+        for (ScheduledJobLock lock : locks) {
+            Map<String, Object> job = new LinkedHashMap<>();
+            job.put("running", lock.getLockedBy() != null && lock.getLeaseUntil().isAfter(now));
+            job.put("lockedBy", lock.getLockedBy());
+            job.put("leaseUntil", lock.getLeaseUntil());
+            job.put("lastStartedAt", lock.getLastStartedAt());
+            job.put("lastFinishedAt", lock.getLastFinishedAt());
+            job.put("lastDurationMs", lock.getLastDurationMs());
+            job.put("lastOutcome", lock.getLastOutcome());
+            job.put("lastError", lock.getLastError());
+            job.put("lastResult", lock.getLastResult());
+            job.put("runCount", lock.getRunCount());
+            jobs.put(lock.getJobName(), job);
+        }
+        return jobs;
+    }
+}
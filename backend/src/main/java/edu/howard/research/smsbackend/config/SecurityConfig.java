@@ -1,6 +1,7 @@
 package edu.howard.research.smsbackend.config;
 
 import edu.howard.research.smsbackend.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -29,6 +30,8 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authz -> authz
+                // Async re-dispatches of an already-authorized request (SSE stream completion)
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // Public endpoints
                 .requestMatchers("/s/**").permitAll()  // Short link redirects - must be public
                 .requestMatchers("/api/otp/**").permitAll()
@@ -42,7 +45,9 @@ public class SecurityConfig {
                 .requestMatchers("/api/admin/links/cleanup-orphaned").permitAll()  // Allow cleanup without auth for now
                 .requestMatchers("/api/admin/test-email").permitAll()  // Allow test email without auth for now
                 .requestMatchers("/api/admin/gift-cards/test-email").permitAll()  // Allow gift card test email without auth for testing
-                .requestMatchers("/actuator/**").permitAll()
+                // Probes stay public; the rest of actuator (scheduledjobs, metrics, providers, mappings) is admin-only
+                .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/info").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 // Admin endpoints require authentication
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 // All other requests require authentication
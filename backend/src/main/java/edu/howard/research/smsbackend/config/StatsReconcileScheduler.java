@@ -0,0 +1,49 @@
+package edu.howard.research.smsbackend.config;
+
+import edu.howard.research.smsbackend.repositories.GiftCardPoolRepository;
+import edu.howard.research.smsbackend.repositories.GiftCardRepository;
+import edu.howard.research.smsbackend.repositories.SurveyLinkPoolRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Scheduled tasks for the trigger-maintained tables (link_pool_stats, gift_card_pool_counters,
+ * table_row_counts, gift_card_eligibility), on one instance only:
+ * - every minute, fold the pending counter deltas into the counter tables
+ * - hourly, reconcile everything against the base tables
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StatsReconcileScheduler {
+
+    private final SurveyLinkPoolRepository linkRepo;
+    private final GiftCardRepository giftCardRepository;
+    private final GiftCardPoolRepository giftCardPoolRepository;
+    private final ScheduledJobRunner jobRunner;
+
+    @Scheduled(cron = "30 * * * * ?") // Every minute, at :30
+    public void compactCounters() {
+        jobRunner.run("stats-compact", Duration.ofMinutes(5), Duration.ofSeconds(20), () -> {
+            int folded = linkRepo.compactStats() + giftCardPoolRepository.compactCounters();
+            return "folded " + folded + " counter deltas";
+        });
+    }
+
+    @Scheduled(cron = "0 45 * * * ?") // Hourly at :45
+    public void reconcileStats() {
+        jobRunner.run("stats-reconcile", Duration.ofMinutes(10), Duration.ofMinutes(1), () -> {
+            int corrected = linkRepo.reconcileStats() + giftCardPoolRepository.reconcileCounters();
+            int eligibility = giftCardRepository.reconcileEligibility();
+            if (corrected > 0 || eligibility > 0) {
+                log.warn("Stats reconciliation corrected {} counter rows and {} eligibility rows",
+                        corrected, eligibility);
+            }
+            return "corrected " + corrected + " counter rows, " + eligibility + " eligibility rows";
+        });
+    }
+}
@@ -0,0 +1,22 @@
+package edu.howard.research.smsbackend.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ThreadingConfig {
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public BackgroundThreads virtualBackgroundThreads() {
+        return new BackgroundThreads(true);
+    }
+
+    @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public BackgroundThreads platformBackgroundThreads() {
+        return new BackgroundThreads(false);
+    }
+}
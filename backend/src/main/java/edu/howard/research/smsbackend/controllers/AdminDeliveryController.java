@@ -0,0 +1,99 @@
+package edu.howard.research.smsbackend.controllers;
+
+import edu.howard.research.smsbackend.models.entities.DeliveryDeadLetter;
+import edu.howard.research.smsbackend.models.entities.DeliveryRetry;
+import edu.howard.research.smsbackend.security.JwtAuthenticationFilter;
+import edu.howard.research.smsbackend.services.DeliveryRetryQueue;
+import edu.howard.research.smsbackend.services.GiftCardService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Failed deliveries: the automatic retry queue and the dead letters (see DeliveryRetryQueue)
+ */
+@RestController
+@RequestMapping("/api/admin/deliveries")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminDeliveryController {
+
+    private final DeliveryRetryQueue deliveryRetryQueue;
+    private final GiftCardService giftCardService;
+
+    /**
+     * Deliveries waiting for their next automatic attempt, soonest first
+     */
+    @GetMapping("/retry-queue")
+    public ResponseEntity<Page<DeliveryRetry>> getRetryQueue(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return ResponseEntity.ok(deliveryRetryQueue.getQueued(PageRequest.of(page, Math.min(size, 200))));
+    }
+
+    /**
+     * Dead letters, newest first; optionally only one kind (GIFT_CARD, INVITATION_SMS)
+     */
+    @GetMapping("/dead-letters")
+    public ResponseEntity<Page<DeliveryDeadLetter>> getDeadLetters(
+            @RequestParam(required = false) String kind,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return ResponseEntity.ok(deliveryRetryQueue.getDeadLetters(kind, PageRequest.of(page, Math.min(size, 200))));
+    }
+
+    /**
+     * Put dead letters back on the retry queue (e.g. after fixing a participant's email or phone).
+     * Body: {"ids": [...]}
+     */
+    @PostMapping("/dead-letters/requeue")
+    public ResponseEntity<Map<String, Object>> requeue(@RequestBody Map<String, List<UUID>> body) {
+        List<UUID> ids = body.get("ids");
+        if (ids == null || ids.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "ids required"));
+        }
+        int requeued = deliveryRetryQueue.requeue(ids);
+        return ResponseEntity.ok(Map.of("ok", true, "requested", ids.size(), "requeued", requeued));
+    }
+
+    /**
+     * Give up on dead letters. Gift cards among them release the pool card they were holding.
+     * Body: {"ids": [...]}
+     */
+    @PostMapping("/dead-letters/discard")
+    public ResponseEntity<Map<String, Object>> discard(@RequestBody Map<String, List<UUID>> body) {
+        List<UUID> ids = body.get("ids");
+        if (ids == null || ids.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "ids required"));
+        }
+        String adminUsername = JwtAuthenticationFilter.getCurrentUsername();
+
+        List<DeliveryDeadLetter> discarded = deliveryRetryQueue.discard(ids);
+        int released = 0;
+        for (DeliveryDeadLetter deadLetter : discarded) {
+            if (DeliveryRetryQueue.KIND_GIFT_CARD.equals(deadLetter.getKind())) {
+                try {
+                    giftCardService.releaseUndeliveredCard(deadLetter.getTargetId(), adminUsername);
+                    released++;
+                } catch (Exception e) {
+                    log.warn("Could not release pool card for gift card {}: {}", deadLetter.getTargetId(), e.getMessage());
+                }
+            }
+        }
+        return ResponseEntity.ok(Map.of(
+                "ok", true,
+                "requested", ids.size(),
+                "discarded", discarded.size(),
+                "giftCardsReleased", released
+        ));
+    }
+}
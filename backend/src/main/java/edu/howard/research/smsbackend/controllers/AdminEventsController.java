@@ -0,0 +1,38 @@
+package edu.howard.research.smsbackend.controllers;
+
+import edu.howard.research.smsbackend.services.DashboardEventService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/admin/events")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminEventsController {
+
+    private final DashboardEventService dashboardEventService;
+
+    /**
+     * Live dashboard feed (Server-Sent Events). Each event is a compact change notice;
+     * clients refetch the affected view instead of polling every endpoint.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(HttpServletResponse response) {
+        SseEmitter emitter = dashboardEventService.subscribe();
+        if (emitter == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many live dashboard connections");
+        }
+        // Stop nginx and similar proxies from buffering the stream
+        response.setHeader("X-Accel-Buffering", "no");
+        response.setHeader("Cache-Control", "no-cache");
+        return emitter;
+    }
+}
@@ -6,6 +6,7 @@ import edu.howard.research.smsbackend.models.entities.GiftCardStatus;
 import edu.howard.research.smsbackend.security.JwtAuthenticationFilter;
 import edu.howard.research.smsbackend.services.EmailService;
 import edu.howard.research.smsbackend.services.GiftCardService;
+import edu.howard.research.smsbackend.services.IdempotencyService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,13 +33,18 @@ public class AdminGiftCardController {
 
     private final GiftCardService giftCardService;
     private final EmailService emailService;
+    private final IdempotencyService idempotencyService;
 
     /**
-     * Get participants eligible for gift cards (completed surveys, no gift card yet)
+     * Get one page of participants eligible for gift cards (completed surveys, no gift card yet)
      */
     @GetMapping("/eligible")
-    public ResponseEntity<List<EligibleParticipantDto>> getEligibleParticipants() {
-        List<EligibleParticipantDto> eligibleParticipants = giftCardService.getEligibleParticipants();
+    public ResponseEntity<Page<EligibleParticipantDto>> getEligibleParticipants(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        Pageable pageable = PageRequest.of(page, Math.min(size, 200));
+        Page<EligibleParticipantDto> eligibleParticipants = giftCardService.getEligibleParticipants(pageable);
         return ResponseEntity.ok(eligibleParticipants);
     }
 
@@ -83,30 +89,34 @@ public class AdminGiftCardController {
      * Send gift card to participant
      */
     @PostMapping("/send/{participantId}")
-    public ResponseEntity<GiftCardDto> sendGiftCard(
+    public ResponseEntity<?> sendGiftCard(
             @PathVariable UUID participantId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody SendGiftCardRequest request
     ) {
         String adminUsername = JwtAuthenticationFilter.getCurrentUsername();
         log.info("Send gift card request for participant: {}, admin: {}", participantId, adminUsername);
 
-        GiftCardDto giftCard = giftCardService.sendGiftCard(participantId, request, adminUsername);
-        return ResponseEntity.status(HttpStatus.CREATED).body(giftCard);
+        return idempotencyService.execute(idempotencyKey, "gift-cards/send/" + participantId, request, () -> {
+            GiftCardDto giftCard = giftCardService.sendGiftCard(participantId, request, adminUsername);
+            return ResponseEntity.status(HttpStatus.CREATED).body(giftCard);
+        });
     }
 
     /**
      * Batch send gift cards to multiple participants
      */
     @PostMapping("/batch-send")
-    public ResponseEntity<BatchSendGiftCardResult> batchSendGiftCards(
+    public ResponseEntity<?> batchSendGiftCards(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody BatchSendGiftCardRequest request
     ) {
         String adminUsername = JwtAuthenticationFilter.getCurrentUsername();
         log.info("Batch send gift cards request for {} participants, admin: {}", 
                 request.getParticipants().size(), adminUsername);
 
-        BatchSendGiftCardResult result = giftCardService.batchSendGiftCards(request, adminUsername);
-        return ResponseEntity.ok(result);
+        return idempotencyService.execute(idempotencyKey, "gift-cards/batch-send", request, () ->
+                ResponseEntity.ok(giftCardService.batchSendGiftCards(request, adminUsername)));
     }
 
     /**
@@ -354,7 +364,7 @@ public class AdminGiftCardController {
             @RequestParam(value = "participantName", required = false) String participantName,
             @RequestParam(value = "cardCode", required = false) String cardCode
     ) {
-        log.info("Test gift card email requested to: {}", toEmail);
+        log.info("Test gift card email requested to: {}", EmailService.mask(toEmail));
         
         try {
             String testName = participantName != null && !participantName.trim().isEmpty() 
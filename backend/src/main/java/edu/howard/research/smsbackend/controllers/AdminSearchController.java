@@ -0,0 +1,29 @@
+package edu.howard.research.smsbackend.controllers;
+
+import edu.howard.research.smsbackend.models.dto.AdminSearchResultDto;
+import edu.howard.research.smsbackend.services.SearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/search")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminSearchController {
+
+    private final SearchService searchService;
+
+    /**
+     * Search pool codes, participants (phone/email/name) and invitations (participant or link).
+     * Returns up to {@code limit} hits per section, newest first; no totals.
+     */
+    @GetMapping
+    public ResponseEntity<AdminSearchResultDto> search(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(searchService.search(query, limit));
+    }
+}
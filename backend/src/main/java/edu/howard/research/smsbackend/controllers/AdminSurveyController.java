@@ -1,9 +1,9 @@
 package edu.howard.research.smsbackend.controllers;
 
+import edu.howard.research.smsbackend.models.dto.BulkDeleteResultDto;
 import edu.howard.research.smsbackend.models.dto.LinkUploadRequest;
 import edu.howard.research.smsbackend.models.dto.UploadResult;
 import edu.howard.research.smsbackend.models.entities.GiftCard;
-import edu.howard.research.smsbackend.models.entities.GiftCardStatus;
 import edu.howard.research.smsbackend.models.entities.LinkStatus;
 import edu.howard.research.smsbackend.models.entities.Participant;
 import edu.howard.research.smsbackend.models.entities.ParticipantStatus;
@@ -14,11 +14,16 @@ import edu.howard.research.smsbackend.repositories.GiftCardRepository;
 import edu.howard.research.smsbackend.repositories.ParticipantRepository;
 import edu.howard.research.smsbackend.repositories.SurveyInvitationRepository;
 import edu.howard.research.smsbackend.repositories.SurveyLinkPoolRepository;
+import edu.howard.research.smsbackend.security.JwtAuthenticationFilter;
+import edu.howard.research.smsbackend.services.DeliveryRetryQueue;
 import edu.howard.research.smsbackend.services.ShortLinkService;
 import edu.howard.research.smsbackend.services.EmailService;
 import edu.howard.research.smsbackend.services.GiftCardService;
+import edu.howard.research.smsbackend.services.IdempotencyService;
 import edu.howard.research.smsbackend.services.InvitationsService;
+import edu.howard.research.smsbackend.services.ReminderService;
 import edu.howard.research.smsbackend.services.SmsService;
+import edu.howard.research.smsbackend.services.UserDeletionService;
 import edu.howard.research.smsbackend.util.PhoneNumberService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -55,6 +60,10 @@ public class AdminSurveyController {
     private final EmailService emailService;
     private final PhoneNumberService phoneNumberService;
     private final ShortLinkService shortLinkService;
+    private final ReminderService reminderService;
+    private final IdempotencyService idempotencyService;
+    private final DeliveryRetryQueue deliveryRetryQueue;
+    private final UserDeletionService userDeletionService;
 
     // ---------- Helper method to validate JWT token ----------
     private boolean isValidAdminToken(HttpServletRequest request) {
@@ -336,12 +345,33 @@ public class AdminSurveyController {
 
         if (phone != null && !phone.isBlank()) {
             String normalizedPhone = phoneNumberService.normalizeToE164(phone.trim());
-            return ResponseEntity.ok(inviteRepo.findByParticipant_Phone(normalizedPhone, pageable));
+            return ResponseEntity.ok(withClickStats(inviteRepo.findByParticipant_Phone(normalizedPhone, pageable)));
         }
         if (status != null && !status.isBlank()) {
-            return ResponseEntity.ok(inviteRepo.findByMessageStatus(status.trim().toLowerCase(Locale.ROOT), pageable));
+            return ResponseEntity.ok(withClickStats(
+                    inviteRepo.findByMessageStatus(status.trim().toLowerCase(Locale.ROOT), pageable)));
         }
-        return ResponseEntity.ok(inviteRepo.findAll(pageable));
+        return ResponseEntity.ok(withClickStats(inviteRepo.findAll(pageable)));
+    }
+
+    /** Fills in the short link click columns for one page of invitations with a single grouped query */
+    private Page<SurveyInvitation> withClickStats(Page<SurveyInvitation> invites) {
+        Set<String> shortCodes = invites.stream()
+                .map(inv -> inv.getLink().getShortCode())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (shortCodes.isEmpty()) {
+            return invites;
+        }
+        Map<String, SurveyInvitationRepository.ClickStatsRow> clicks = inviteRepo.findClickStats(shortCodes).stream()
+                .collect(Collectors.toMap(SurveyInvitationRepository.ClickStatsRow::getShortCode, row -> row));
+        for (SurveyInvitation inv : invites) {
+            SurveyInvitationRepository.ClickStatsRow row = clicks.get(inv.getLink().getShortCode());
+            if (row != null) {
+                inv.setClickStats(row.getClickCount(), row.getFirstClickAt(), row.getLastClickAt());
+            }
+        }
+        return invites;
     }
 
     // ---------- List verified participants without invitations ----------
@@ -371,10 +401,15 @@ public class AdminSurveyController {
                     .body(Map.of("error", "Unauthorized access"));
         }
         
-        long totalInvitations = inviteRepo.count();
-        long totalLinks = linkRepo.count();
-        long usedLinks = linkRepo.countByStatus(LinkStatus.CLAIMED);
-        long availableLinks = linkRepo.countByStatus(LinkStatus.AVAILABLE);
+        // Served from trigger-maintained counters, so this stays constant-time as the tables grow
+        long totalInvitations = inviteRepo.countFromCounters().orElseGet(inviteRepo::count);
+        Map<String, Long> linksByStatus = new HashMap<>();
+        for (SurveyLinkPoolRepository.LinkStatusCountRow row : linkRepo.fetchStatusTotals()) {
+            linksByStatus.put(row.getStatus(), row.getCnt());
+        }
+        long totalLinks = linksByStatus.values().stream().mapToLong(Long::longValue).sum();
+        long usedLinks = linksByStatus.getOrDefault(LinkStatus.CLAIMED.name(), 0L);
+        long availableLinks = linksByStatus.getOrDefault(LinkStatus.AVAILABLE.name(), 0L);
         
         return ResponseEntity.ok(Map.of(
             "totalVerifications", totalInvitations,
@@ -393,7 +428,14 @@ public class AdminSurveyController {
     // ---------- Send invitation with specific link ID ----------
     @PostMapping("/invitations/send-with-link")
     @Transactional
-    public Map<String, Object> sendWithSpecificLink(@RequestBody Map<String, String> body) {
+    public ResponseEntity<?> sendWithSpecificLink(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody Map<String, String> body) {
+        return idempotencyService.execute(idempotencyKey, "invitations/send-with-link", body,
+                () -> ResponseEntity.ok(doSendWithSpecificLink(body)));
+    }
+
+    private Map<String, Object> doSendWithSpecificLink(Map<String, String> body) {
         String rawPhone = Objects.requireNonNull(body.get("phone"), "phone required");
         String linkIdStr = Objects.requireNonNull(body.get("linkId"), "linkId required");
         String phone = phoneNumberService.normalizeToE164(rawPhone);
@@ -468,9 +510,9 @@ public class AdminSurveyController {
         if (p.getEmail() != null && !p.getEmail().trim().isEmpty()) {
             boolean emailSent = emailService.sendSurveyLink(p.getEmail(), p.getName(), linkToSend);
             if (!emailSent) {
-                log.warn("Failed to send initial survey link email to {} for participant {}", p.getEmail(), phone);
+                log.warn("Failed to send initial survey link email for invitation {}", inv.getId());
             } else {
-                log.info("Initial survey link email sent successfully to {} for participant {}", p.getEmail(), phone);
+                log.info("Initial survey link email sent for invitation {}", inv.getId());
             }
         }
 
@@ -488,7 +530,8 @@ public class AdminSurveyController {
                     "linkUrl", linkToSend
             );
         } else {
-            // Keep the invitation; report send failure
+            // Keep the invitation and its link; transient failures are re-sent automatically
+            deliveryRetryQueue.invitationSmsFailed(inv.getId(), smsBody, send, JwtAuthenticationFilter.getCurrentUsername());
             return Map.of(
                     "ok", false,
                     "invitationId", inv.getId(),
@@ -502,7 +545,14 @@ public class AdminSurveyController {
 
     // ---------- Send/Resend invitation (requires verified phone) ----------
     @PostMapping("/invitations/send")
-    public Map<String, Object> sendOrResend(@RequestBody Map<String, String> body) {
+    public ResponseEntity<?> sendOrResend(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody Map<String, String> body) {
+        return idempotencyService.execute(idempotencyKey, "invitations/send", body,
+                () -> ResponseEntity.ok(doSendOrResend(body)));
+    }
+
+    private Map<String, Object> doSendOrResend(Map<String, String> body) {
         String rawPhone = Objects.requireNonNull(body.get("phone"), "phone required");
         String phone = phoneNumberService.normalizeToE164(rawPhone);
         String batch = body.getOrDefault("batchLabel", null);
@@ -541,21 +591,13 @@ public class AdminSurveyController {
                 ? inv.getShortLinkUrl() 
                 : inv.getLinkUrl();
         
-        if (isReminder) {
-            log.info("Sending reminder for invitation {} - using original link: {} (shortLink: {}, longLink: {})", 
-                    inv.getId(), linkToSend, inv.getShortLinkUrl(), inv.getLinkUrl());
-        } else {
-            log.info("Sending first-time invitation for invitation {} - using link: {} (shortLink: {}, longLink: {})", 
-                    inv.getId(), linkToSend, inv.getShortLinkUrl(), inv.getLinkUrl());
-        }
+        // Survey links are bearer links for this participant: log which invitation, not the URL
+        log.info("Sending {} for invitation {} (link {}, short link: {})", isReminder ? "reminder" : "first-time invitation",
+                inv.getId(), inv.getLink() != null ? inv.getLink().getId() : null, Objects.equals(linkToSend, inv.getShortLinkUrl()));
         String smsBody;
         if (isReminder) {
             // Reminder message - more friendly and encouraging
-            String participantName = p.getName() != null && !p.getName().trim().isEmpty() 
-                    ? p.getName() 
-                    : "there";
-            smsBody = String.format("Hi %s! Just a friendly reminder: Please complete the Howard University AI for Health survey. Your link: %s. You can pause and restart anytime. Complete within 10 days to receive your Amazon gift card. Questions? Text us at (240) 428-8442.", 
-                    participantName, linkToSend);
+            smsBody = reminderService.buildReminderSms(p.getName(), linkToSend);
         } else {
             // First-time message
             smsBody = "Here's the Howard University AI for Health survey link: " + linkToSend + ". You can pause and restart at any time. The survey MUST be completed within 10 days. Once done, we'll send your Amazon gift card. For questions, text/email us at (240) 428-8442.";
@@ -567,16 +609,21 @@ public class AdminSurveyController {
         if (p.getEmail() != null && !p.getEmail().trim().isEmpty()) {
             boolean emailSent = emailService.sendSurveyLink(p.getEmail(), p.getName(), linkToSend);
             if (emailSent) {
-                log.info("Email {} sent successfully to {} for participant {}: {}", isReminder ? "reminder" : "invitation", p.getEmail(), phone, linkToSend);
+                log.info("Email {} sent for invitation {}", isReminder ? "reminder" : "invitation", inv.getId());
             } else {
-                log.warn("Failed to send email {} to {} for participant {}: {}", isReminder ? "reminder" : "invitation", p.getEmail(), phone, linkToSend);
+                log.warn("Failed to send email {} for invitation {}", isReminder ? "reminder" : "invitation", inv.getId());
             }
         }
 
         // 3) Persist queued state if accepted by Twilio
         if (Boolean.TRUE.equals(send.get("ok"))) {
             String sid = (String) send.get("sid");
-            invitationsService.markQueued(inv.getId(), sid);
+            if (isReminder) {
+                // Keep the original queuedAt so scheduled reminder stages stay anchored to the first send
+                invitationsService.markReminded(inv.getId(), sid);
+            } else {
+                invitationsService.markQueued(inv.getId(), sid);
+            }
 
             return Map.of(
                     "ok", true,
@@ -587,7 +634,10 @@ public class AdminSurveyController {
                     "linkUrl", linkToSend
             );
         } else {
-            // Keep the invitation; report send failure
+            // Keep the invitation; a failed first send is re-sent automatically if transient
+            if (!isReminder) {
+                deliveryRetryQueue.invitationSmsFailed(inv.getId(), smsBody, send, JwtAuthenticationFilter.getCurrentUsername());
+            }
             return Map.of(
                     "ok", false,
                     "invitationId", inv.getId(),
@@ -621,6 +671,36 @@ public class AdminSurveyController {
         );
     }
 
+    // ---------- Bulk assign links (no send) ----------
+    /**
+     * Claim links and create invitations for many participants in a few statements.
+     * Body: [participantIds...]; optional ?batchLabel=. Returns the participant -> invitation/link
+     * mapping for sending; ineligible participants, or those left over once the pool or the
+     * enrollment cap runs out, are not in it.
+     */
+    @PostMapping("/invitations/bulk-assign")
+    public ResponseEntity<Map<String, Object>> bulkAssign(
+            @RequestBody List<UUID> participantIds,
+            @RequestParam(required = false) String batchLabel
+    ) {
+        try {
+            List<SurveyInvitationRepository.AssignedLinkRow> assigned =
+                    invitationsService.bulkAssign(participantIds, batchLabel);
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "message", "Assigned links to " + assigned.size() + " participants",
+                    "assignedCount", assigned.size(),
+                    "totalRequested", participantIds.size(),
+                    "assignments", assigned
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "error", "Failed to assign links: " + e.getMessage()
+            ));
+        }
+    }
+
     // ---------- Bulk mark invitations as completed ----------
     @PostMapping("/invitations/bulk-complete")
     public ResponseEntity<Map<String, Object>> bulkComplete(@RequestBody List<UUID> invitationIds) {
@@ -850,7 +930,6 @@ public class AdminSurveyController {
 
     // ---------- Delete user/participant ----------
     @DeleteMapping("/delete-user/{id}")
-    @Transactional
     public ResponseEntity<?> deleteUser(
             @PathVariable UUID id,
             HttpServletRequest request
@@ -863,112 +942,27 @@ public class AdminSurveyController {
 
         try {
             // First, try to find as a participant (for "Verified Without Links" section)
-            Optional<Participant> participantOpt = participantRepo.findById(id);
-            if (participantOpt.isPresent()) {
-                Participant participant = participantOpt.get();
-                
-                // Check if participant has any invitations
-                long invitationCount = inviteRepo.countByParticipantId(participant.getId());
-                if (invitationCount > 0) {
-                    return ResponseEntity.badRequest()
-                        .body(Map.of("error", "Cannot delete participant as they have associated invitations. Please delete all invitations for this participant first."));
-                }
-                
-                // Check for gift cards
-                List<GiftCard> giftCards = giftCardRepo.findByParticipantId(participant.getId());
-                int giftCardCount = giftCards.size();
-                
-                // Unsend gift cards if any
-                for (GiftCard giftCard : giftCards) {
-                    if (giftCard.getStatus() != GiftCardStatus.UNSENT) {
-                        giftCardService.unsendGiftCard(giftCard.getId(), "SYSTEM_DELETE");
-                    }
-                }
-                
-                // Clear foreign key references
-                for (GiftCard giftCard : giftCards) {
-                    giftCard.setInvitation(null);
-                    giftCard.setParticipant(null);
-                    giftCardRepo.save(giftCard);
-                }
-                
-                // Delete the participant
-                participantRepo.delete(participant);
-                
-                Map<String, Object> response = new HashMap<>();
-                response.put("success", true);
-                response.put("message", "Participant deleted successfully");
-                response.put("deletedId", id);
-                
-                if (giftCardCount > 0) {
-                    response.put("giftCardsDeleted", giftCardCount);
-                    response.put("giftCardsAvailable", "The gift cards have been made available again and will appear in the unsent history.");
-                }
-                
-                return ResponseEntity.ok(response);
+            boolean isParticipant = participantRepo.existsById(id);
+            if (isParticipant && inviteRepo.countByParticipantId(id) > 0) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Cannot delete participant as they have associated invitations. Please delete all invitations for this participant first."));
             }
-            
-            // If not a participant, try to find as an invitation (for "All Invitations" section)
-            Optional<SurveyInvitation> invitationOpt = inviteRepo.findById(id);
-            if (invitationOpt.isEmpty()) {
+
+            // Otherwise it must be an invitation (for "All Invitations" section)
+            if (!isParticipant && !inviteRepo.existsById(id)) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", "Resource not found: No participant or invitation found with the given ID"));
             }
 
-            SurveyInvitation invitation = invitationOpt.get();
-            Participant participant = invitation.getParticipant();
-            SurveyLinkPool link = invitation.getLink();
-
-            // Get gift cards info before deletion for response
-            List<GiftCard> giftCards = giftCardRepo.findByInvitationId(id);
-            int giftCardCount = giftCards.size();
-
-            // First, unsend all gift cards associated with this invitation
-            for (GiftCard giftCard : giftCards) {
-                // Only unsend if not already unsent
-                if (giftCard.getStatus() != GiftCardStatus.UNSENT) {
-                    giftCardService.unsendGiftCard(giftCard.getId(), "SYSTEM_DELETE");
-                }
-            }
-
-            // Reset the link status to AVAILABLE before deleting
-            if (link != null) {
-                link.setStatus(LinkStatus.AVAILABLE);
-                linkRepo.save(link);
-            }
-
-            // Note: Gift cards are kept in UNSENT status for unsent history tracking
-            // They are not deleted so they appear in the unsent history
-            
-            // Clear foreign key references before deleting invitation and participant
-            // This is now allowed because participant_id and invitation_id are nullable
-            for (GiftCard giftCard : giftCards) {
-                giftCard.setInvitation(null);
-                giftCard.setParticipant(null);
-                giftCardRepo.save(giftCard);
-            }
-
-            // Check if participant has other invitations before deleting
-            // Count all invitations for this participant (including the one we're about to delete)
-            long totalInvitationCount = inviteRepo.findAll().stream()
-                .filter(inv -> inv.getParticipant().getId().equals(participant.getId()))
-                .count();
-            
-            // Delete the invitation
-            inviteRepo.delete(invitation);
-            
-            // Only delete participant if this was their only invitation
-            if (totalInvitationCount <= 1) {
-                participantRepo.delete(participant);
-            }
+            BulkDeleteResultDto result = userDeletionService.deleteUsers(List.of(id));
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("message", "User deleted successfully");
+            response.put("message", isParticipant ? "Participant deleted successfully" : "User deleted successfully");
             response.put("deletedId", id);
             
-            if (giftCardCount > 0) {
-                response.put("giftCardsDeleted", giftCardCount);
+            if (result.getGiftCardsUnsent() > 0) {
+                response.put("giftCardsDeleted", result.getGiftCardsUnsent());
                 response.put("giftCardsAvailable", "The gift cards have been made available again and will appear in the unsent history.");
             }
 
@@ -986,6 +980,26 @@ public class AdminSurveyController {
         }
     }
 
+    // ---------- Bulk delete users/participants ----------
+    @PostMapping("/delete-users")
+    public ResponseEntity<?> deleteUsers(
+            @RequestBody Map<String, List<UUID>> body,
+            HttpServletRequest request
+    ) {
+        // Check authentication
+        if (!isValidAdminToken(request)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Unauthorized access"));
+        }
+
+        List<UUID> ids = body.get("ids");
+        if (ids == null || ids.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "ids required"));
+        }
+        // IllegalStateException (redeemed gift card) rolls back and maps to 400
+        return ResponseEntity.ok(userDeletionService.deleteUsers(ids));
+    }
+
     // ---------- Delete link ----------
     @DeleteMapping("/delete-link/{id}")
     public ResponseEntity<?> deleteLink(
@@ -4,11 +4,14 @@ import edu.howard.research.smsbackend.models.dto.EnrollmentStatusDto;
 import edu.howard.research.smsbackend.services.EnrollmentService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.TimeUnit;
+
 @RestController
 @RequestMapping("/api/enrollment")
 @RequiredArgsConstructor
@@ -19,12 +22,23 @@ public class EnrollmentController {
 
     /**
      * Public endpoint to check enrollment status
-     * Used by frontend to determine if enrollment form should be shown
+     * Used by frontend to determine if enrollment form should be shown.
+     * Served from a short-lived cache, with an ETag and Cache-Control so nginx and browsers
+     * can revalidate instead of refetching (Spring answers a matching If-None-Match with 304).
      */
     @GetMapping("/status")
     public ResponseEntity<EnrollmentStatusDto> getEnrollmentStatus() {
-        EnrollmentStatusDto status = enrollmentService.getEnrollmentStatus();
-        return ResponseEntity.ok(status);
+        EnrollmentStatusDto status = enrollmentService.getCachedEnrollmentStatus();
+        return ResponseEntity.ok()
+                .eTag(etag(status))
+                .cacheControl(CacheControl.maxAge(enrollmentService.getStatusCacheSeconds(), TimeUnit.SECONDS).cachePublic())
+                .body(status);
     }
-}
 
+    /** Every field of the status is derived from these, so equal tags mean equal bodies */
+    private static String etag(EnrollmentStatusDto status) {
+        return "\"" + status.getStatus() + "-" + status.getCurrentCount() + "-"
+                + (status.getMaxParticipants() != null ? status.getMaxParticipants() : "u") + "-"
+                + (status.isEnrollmentActive() ? 1 : 0) + "\"";
+    }
+}
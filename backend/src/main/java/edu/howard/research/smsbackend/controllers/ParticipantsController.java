@@ -4,6 +4,7 @@ import edu.howard.research.smsbackend.models.dto.SendSmsRequest;
 import edu.howard.research.smsbackend.models.entities.Participant;
 import edu.howard.research.smsbackend.repositories.ParticipantRepository;
 import edu.howard.research.smsbackend.repositories.SurveyInvitationRepository;
+import edu.howard.research.smsbackend.services.DeliveryRetryQueue;
 import edu.howard.research.smsbackend.services.EmailService;
 import edu.howard.research.smsbackend.services.PhoneValidationService;
 import edu.howard.research.smsbackend.services.SmsService;
@@ -17,6 +18,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @RestController
@@ -32,6 +34,7 @@ public class ParticipantsController {
     private final SmsService smsService;
     private final EmailService emailService;
     private final PhoneValidationService phoneValidationService;
+    private final DeliveryRetryQueue deliveryRetryQueue;
 
     /**
      * Validate phone number type (check if VOIP)
@@ -142,15 +145,15 @@ public class ParticipantsController {
                                 && invitation.getCreatedAt().isBefore(java.time.OffsetDateTime.now().minusMinutes(5)));
                     
                     log.info("Resending survey link for phone: {}, isReminder: {}, queuedAt: {}, sentAt: {}, invitationId: {}", 
-                            phone, isReminder, invitation.getQueuedAt(), invitation.getSentAt(), invitation.getId());
+                            PhoneNumberService.mask(phone), isReminder, invitation.getQueuedAt(), invitation.getSentAt(), invitation.getId());
                     
                     // Use the SAME link from the original invitation (short link if available, otherwise long link)
                     String linkToSend = (invitation.getShortLinkUrl() != null && !invitation.getShortLinkUrl().isBlank()) 
                             ? invitation.getShortLinkUrl() 
                             : invitation.getLinkUrl();
                     
-                    log.info("Using original invitation link for reminder - shortLink: {}, longLink: {}, finalLink: {}", 
-                            invitation.getShortLinkUrl(), invitation.getLinkUrl(), linkToSend);
+                    log.info("Using original link for invitation {} (short link: {})",
+                            invitation.getId(), Objects.equals(linkToSend, invitation.getShortLinkUrl()));
                     
                     // Personalized message based on whether it's a reminder or first-time
                     String body;
@@ -172,7 +175,7 @@ public class ParticipantsController {
                     boolean emailSent = false;
                     if (participant.getEmail() != null && !participant.getEmail().trim().isEmpty()) {
                         emailSent = emailService.sendSurveyLink(participant.getEmail(), participant.getName(), linkToSend);
-                        log.info("Email resent to {} for participant {}: {} (using link: {})", participant.getEmail(), phone, emailSent ? "SUCCESS" : "FAILED", linkToSend);
+                        log.info("Email resent for invitation {}: {}", invitation.getId(), emailSent ? "SUCCESS" : "FAILED");
                     }
                     
                     // Update invitation status
@@ -198,6 +201,9 @@ public class ParticipantsController {
                         invitation.setErrorCode(error);
                         invitation.setFailedAt(java.time.OffsetDateTime.now());
                         invitationRepository.save(invitation);
+                        if (!isReminder) {
+                            deliveryRetryQueue.invitationSmsFailed(invitation.getId(), body, send, "SYSTEM");
+                        }
                         
                         return ResponseEntity.ok(Map.of(
                             "ok", false,
@@ -1,8 +1,10 @@
 package edu.howard.research.smsbackend.controllers;
 
 import edu.howard.research.smsbackend.repositories.SurveyLinkPoolRepository;
+import edu.howard.research.smsbackend.services.ShortLinkClickTracker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,6 +23,7 @@ import java.net.URI;
 public class ShortLinkController {
 
     private final SurveyLinkPoolRepository linkRepo;
+    private final ShortLinkClickTracker clickTracker;
 
     /**
      * Redirects a short code to the original URL.
@@ -48,11 +51,13 @@ public class ShortLinkController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
 
-        log.info("Redirecting short code {} to: {}", shortCode, originalUrl);
+        log.debug("Redirecting short code {} to: {}", shortCode, originalUrl);
+        clickTracker.record(link.getShortCode());
 
-        // Return HTTP 301 (permanent redirect) for better browser compatibility
-        return ResponseEntity.status(HttpStatus.MOVED_PERMANENTLY)
+        // 302 and no-store: a cached (301) redirect would skip this endpoint and the click count
+        return ResponseEntity.status(HttpStatus.FOUND)
                 .location(URI.create(originalUrl))
+                .cacheControl(CacheControl.noStore())
                 .build();
     }
 }
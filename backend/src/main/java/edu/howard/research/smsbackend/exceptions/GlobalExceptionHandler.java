@@ -51,6 +51,21 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
     }
 
+    @ExceptionHandler(ProviderUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleProviderUnavailableException(ProviderUnavailableException ex) {
+        log.warn("Provider unavailable: {}", ex.getMessage());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("ok", false);
+        response.put("error", "provider_unavailable");
+        response.put("message", ex.getMessage());
+        response.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(response);
+    }
+
     @ExceptionHandler(UnexpectedRollbackException.class)
     public ResponseEntity<Map<String, Object>> handleUnexpectedRollbackException(UnexpectedRollbackException ex) {
         log.error("Transaction rollback exception: {}", ex.getMessage(), ex);
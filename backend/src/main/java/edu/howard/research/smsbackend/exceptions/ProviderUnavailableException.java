@@ -0,0 +1,33 @@
+package edu.howard.research.smsbackend.exceptions;
+
+import edu.howard.research.smsbackend.services.ProviderGuard;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+
+/**
+ * Exception for a call that was refused without reaching the provider, because its
+ * circuit breaker is open or its bulkhead is full. Safe to retry later.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ProviderUnavailableException extends RuntimeException {
+
+    private final ProviderGuard.Provider provider;
+    private final Duration retryAfter;
+
+    public ProviderUnavailableException(ProviderGuard.Provider provider, String reason, Duration retryAfter) {
+        super(provider.key() + " unavailable: " + reason);
+        this.provider = provider;
+        this.retryAfter = retryAfter;
+    }
+
+    public ProviderGuard.Provider getProvider() {
+        return provider;
+    }
+
+    /** Rough hint for when the provider may accept calls again */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,21 @@
+package edu.howard.research.smsbackend.models.dto;
+
+import edu.howard.research.smsbackend.repositories.GiftCardPoolRepository;
+import edu.howard.research.smsbackend.repositories.ParticipantRepository;
+import edu.howard.research.smsbackend.repositories.SurveyInvitationRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminSearchResultDto {
+    private String query;
+    private int limit; // max results per section; sections are not counted or paged
+    private List<GiftCardPoolRepository.PoolCodeSearchRow> poolCards;
+    private List<ParticipantRepository.ParticipantSearchRow> participants;
+    private List<SurveyInvitationRepository.InvitationSearchRow> invitations;
+}
@@ -0,0 +1,21 @@
+package edu.howard.research.smsbackend.models.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeleteResultDto {
+    private int requested;
+    private int invitationsDeleted;
+    private int participantsDeleted;
+    private int giftCardsUnsent;
+    private List<UUID> notFound = new ArrayList<>();
+    private List<UUID> blocked = new ArrayList<>(); // participant ids that still have invitations
+}
@@ -0,0 +1,22 @@
+package edu.howard.research.smsbackend.models.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One recipient of a bulk email send. The reference id is echoed back as the key of the
+ * per-recipient results so callers can map outcomes onto their own records.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkEmailRecipient {
+    private String referenceId;
+    private String toEmail;
+    private String name;
+    private Map<String, String> substitutions = new HashMap<>();
+}
@@ -0,0 +1,34 @@
+package edu.howard.research.smsbackend.models.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Outcome of one re-attempt from the delivery retry queue */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryAttemptResult {
+
+    public enum Outcome {
+        DELIVERED,
+        TRANSIENT_FAILURE,
+        PERMANENT_FAILURE,
+        OBSOLETE // nothing left to deliver (already sent, completed, unsent, ...)
+    }
+
+    private Outcome outcome;
+    private String error;
+
+    public static DeliveryAttemptResult delivered() {
+        return new DeliveryAttemptResult(Outcome.DELIVERED, null);
+    }
+
+    public static DeliveryAttemptResult failed(boolean permanent, String error) {
+        return new DeliveryAttemptResult(permanent ? Outcome.PERMANENT_FAILURE : Outcome.TRANSIENT_FAILURE, error);
+    }
+
+    public static DeliveryAttemptResult obsolete(String reason) {
+        return new DeliveryAttemptResult(Outcome.OBSOLETE, reason);
+    }
+}
@@ -12,17 +12,21 @@ public class EmailSendResult {
     private String errorMessage;
     private Integer statusCode;
     private String responseBody;
+    private boolean retryable; // provider refused or unavailable; nothing was sent
     
     public static EmailSendResult success() {
-        return new EmailSendResult(true, null, null, null);
+        return new EmailSendResult(true, null, null, null, false);
     }
     
     public static EmailSendResult failure(String errorMessage) {
-        return new EmailSendResult(false, errorMessage, null, null);
+        return new EmailSendResult(false, errorMessage, null, null, false);
     }
     
     public static EmailSendResult failure(String errorMessage, Integer statusCode, String responseBody) {
-        return new EmailSendResult(false, errorMessage, statusCode, responseBody);
+        return new EmailSendResult(false, errorMessage, statusCode, responseBody, false);
     }
-}
 
+    public static EmailSendResult unavailable(String errorMessage) {
+        return new EmailSendResult(false, errorMessage, null, null, true);
+    }
+}
@@ -0,0 +1,61 @@
+package edu.howard.research.smsbackend.models.entities;
+
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * A delivery that failed permanently or ran out of retries; written with native queries
+ * (see DeliveryDeadLetterRepository), so the entity is read-only.
+ */
+@Entity
+@Table(name = "delivery_dead_letter")
+public class DeliveryDeadLetter {
+    @Id
+    @Column(name = "id", nullable = false, updatable = false, columnDefinition = "uuid")
+    private UUID id;
+
+    @Column(name = "kind", nullable = false, length = 32)
+    private String kind; // GIFT_CARD | INVITATION_SMS
+
+    @Column(name = "target_id", nullable = false, columnDefinition = "uuid")
+    private UUID targetId;
+
+    @Column(name = "channel", nullable = false, length = 16)
+    private String channel;
+
+    @Column(name = "message_body", columnDefinition = "text")
+    private String messageBody;
+
+    @Column(name = "performed_by", nullable = false, length = 100)
+    private String performedBy;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", columnDefinition = "text")
+    private String lastError;
+
+    @Column(name = "reason", nullable = false, length = 16)
+    private String reason; // PERMANENT | EXHAUSTED
+
+    @Column(name = "first_failed_at", nullable = false)
+    private OffsetDateTime firstFailedAt;
+
+    @Column(name = "dead_at", nullable = false)
+    private OffsetDateTime deadAt;
+
+    // --- getters ---
+    public UUID getId() { return id; }
+    public String getKind() { return kind; }
+    public UUID getTargetId() { return targetId; }
+    public String getChannel() { return channel; }
+    public String getMessageBody() { return messageBody; }
+    public String getPerformedBy() { return performedBy; }
+    public int getAttempts() { return attempts; }
+    public String getLastError() { return lastError; }
+    public String getReason() { return reason; }
+    public OffsetDateTime getFirstFailedAt() { return firstFailedAt; }
+    public OffsetDateTime getDeadAt() { return deadAt; }
+}
@@ -0,0 +1,65 @@
+package edu.howard.research.smsbackend.models.entities;
+
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * A delivery waiting to be re-attempted; rows are written with native queries
+ * (see DeliveryRetryRepository), so the entity is read-only.
+ */
+@Entity
+@Table(name = "delivery_retry_queue")
+public class DeliveryRetry {
+    @Id
+    @Column(name = "id", nullable = false, updatable = false, columnDefinition = "uuid")
+    private UUID id;
+
+    @Column(name = "kind", nullable = false, length = 32)
+    private String kind; // GIFT_CARD | INVITATION_SMS
+
+    @Column(name = "target_id", nullable = false, columnDefinition = "uuid")
+    private UUID targetId;
+
+    @Column(name = "channel", nullable = false, length = 16)
+    private String channel; // EMAIL | SMS | BOTH
+
+    @Column(name = "message_body", columnDefinition = "text")
+    private String messageBody;
+
+    @Column(name = "performed_by", nullable = false, length = 100)
+    private String performedBy;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "max_attempts", nullable = false)
+    private int maxAttempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private OffsetDateTime nextAttemptAt;
+
+    @Column(name = "last_error", columnDefinition = "text")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    // --- getters ---
+    public UUID getId() { return id; }
+    public String getKind() { return kind; }
+    public UUID getTargetId() { return targetId; }
+    public String getChannel() { return channel; }
+    public String getMessageBody() { return messageBody; }
+    public String getPerformedBy() { return performedBy; }
+    public int getAttempts() { return attempts; }
+    public int getMaxAttempts() { return maxAttempts; }
+    public OffsetDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public String getLastError() { return lastError; }
+    public OffsetDateTime getCreatedAt() { return createdAt; }
+    public OffsetDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -1,9 +1,9 @@
 package edu.howard.research.smsbackend.models.entities;
 
+import edu.howard.research.smsbackend.util.UuidV7;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
-import org.hibernate.annotations.UuidGenerator;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
@@ -23,8 +23,7 @@ import java.util.UUID;
 public class GiftCard {
 
     @Id
-    @GeneratedValue
-    @UuidGenerator
+    @UuidV7
     @Column(name = "id", nullable = false, updatable = false, columnDefinition = "uuid")
     private UUID id;
 
@@ -0,0 +1,48 @@
+package edu.howard.research.smsbackend.models.entities;
+
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+
+@Entity
+@Table(name = "idempotency_record")
+public class IdempotencyRecord {
+    @Id
+    @Column(name = "record_key", nullable = false, updatable = false, length = 400)
+    private String recordKey;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status; // PENDING | COMPLETED
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "response_body", columnDefinition = "text")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private OffsetDateTime completedAt;
+
+    @Column(name = "heartbeat_at")
+    private OffsetDateTime heartbeatAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+
+    // --- getters ---
+    public String getRecordKey() { return recordKey; }
+    public String getRequestHash() { return requestHash; }
+    public String getStatus() { return status; }
+    public Integer getResponseStatus() { return responseStatus; }
+    public String getResponseBody() { return responseBody; }
+    public OffsetDateTime getCreatedAt() { return createdAt; }
+    public OffsetDateTime getCompletedAt() { return completedAt; }
+    public OffsetDateTime getHeartbeatAt() { return heartbeatAt; }
+    public OffsetDateTime getExpiresAt() { return expiresAt; }
+}
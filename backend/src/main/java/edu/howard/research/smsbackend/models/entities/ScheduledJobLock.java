@@ -0,0 +1,56 @@
+package edu.howard.research.smsbackend.models.entities;
+
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+
+@Entity
+@Table(name = "scheduled_job_lock")
+public class ScheduledJobLock {
+    @Id
+    @Column(name = "job_name", nullable = false, updatable = false, length = 100)
+    private String jobName;
+
+    @Column(name = "locked_by")
+    private String lockedBy;
+
+    @Column(name = "locked_at")
+    private OffsetDateTime lockedAt;
+
+    @Column(name = "lease_until", nullable = false)
+    private OffsetDateTime leaseUntil;
+
+    @Column(name = "last_started_at")
+    private OffsetDateTime lastStartedAt;
+
+    @Column(name = "last_finished_at")
+    private OffsetDateTime lastFinishedAt;
+
+    @Column(name = "last_duration_ms")
+    private Long lastDurationMs;
+
+    @Column(name = "last_outcome", length = 20)
+    private String lastOutcome; // SUCCESS | FAILED
+
+    @Column(name = "last_error", columnDefinition = "text")
+    private String lastError;
+
+    @Column(name = "last_result", columnDefinition = "text")
+    private String lastResult;
+
+    @Column(name = "run_count", nullable = false)
+    private long runCount;
+
+    // --- getters ---
+    public String getJobName() { return jobName; }
+    public String getLockedBy() { return lockedBy; }
+    public OffsetDateTime getLockedAt() { return lockedAt; }
+    public OffsetDateTime getLeaseUntil() { return leaseUntil; }
+    public OffsetDateTime getLastStartedAt() { return lastStartedAt; }
+    public OffsetDateTime getLastFinishedAt() { return lastFinishedAt; }
+    public Long getLastDurationMs() { return lastDurationMs; }
+    public String getLastOutcome() { return lastOutcome; }
+    public String getLastError() { return lastError; }
+    public String getLastResult() { return lastResult; }
+    public long getRunCount() { return runCount; }
+}
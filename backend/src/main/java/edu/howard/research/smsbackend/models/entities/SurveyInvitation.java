@@ -1,17 +1,20 @@
 package edu.howard.research.smsbackend.models.entities;
 
+import edu.howard.research.smsbackend.util.UuidV7;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.UUID;
 
 @Entity
 @Table(name = "survey_invitation")
 public class SurveyInvitation {
     @Id
-    @GeneratedValue
+    @UuidV7
     @Column(name = "id", nullable = false, updatable = false, columnDefinition = "uuid")
     private UUID id;
 
@@ -53,6 +56,24 @@ public class SurveyInvitation {
     @Column(name = "completed_at")
     private OffsetDateTime completedAt;
 
+    @Column(name = "reminder_count", nullable = false)
+    private int reminderCount;
+
+    @Column(name = "last_reminder_at")
+    private OffsetDateTime lastReminderAt;
+
+    // Short link clicks for this invitation's link (short_link_click_stats, see ShortLinkClickTracker).
+    // Not loaded with the entity: the admin invitation list fills them in for its page with one
+    // grouped query (SurveyInvitationRepository.findClickStats).
+    @Transient
+    private long clickCount;
+
+    @Transient
+    private OffsetDateTime firstClickAt;
+
+    @Transient
+    private OffsetDateTime lastClickAt;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private OffsetDateTime createdAt;
@@ -100,6 +121,24 @@ public class SurveyInvitation {
     public OffsetDateTime getCompletedAt() { return completedAt; }
     public void setCompletedAt(OffsetDateTime completedAt) { this.completedAt = completedAt; }
 
+    public int getReminderCount() { return reminderCount; }
+    public void setReminderCount(int reminderCount) { this.reminderCount = reminderCount; }
+
+    public OffsetDateTime getLastReminderAt() { return lastReminderAt; }
+    public void setLastReminderAt(OffsetDateTime lastReminderAt) { this.lastReminderAt = lastReminderAt; }
+
+    public long getClickCount() { return clickCount; }
+
+    public OffsetDateTime getFirstClickAt() { return firstClickAt; }
+
+    public OffsetDateTime getLastClickAt() { return lastClickAt; }
+
+    public void setClickStats(long clickCount, Instant firstClickAt, Instant lastClickAt) {
+        this.clickCount = clickCount;
+        this.firstClickAt = firstClickAt != null ? firstClickAt.atOffset(ZoneOffset.UTC) : null;
+        this.lastClickAt = lastClickAt != null ? lastClickAt.atOffset(ZoneOffset.UTC) : null;
+    }
+
     public OffsetDateTime getCreatedAt() { return createdAt; }
 
     public void setCreatedAt(OffsetDateTime createdAt) { this.createdAt = createdAt; }
@@ -0,0 +1,43 @@
+package edu.howard.research.smsbackend.repositories;
+
+import edu.howard.research.smsbackend.models.entities.DeliveryDeadLetter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface DeliveryDeadLetterRepository extends JpaRepository<DeliveryDeadLetter, UUID> {
+
+    Page<DeliveryDeadLetter> findAllByOrderByDeadAtDescIdDesc(Pageable pageable);
+
+    Page<DeliveryDeadLetter> findByKindOrderByDeadAtDescIdDesc(String kind, Pageable pageable);
+
+    /**
+     * Put dead letters back on the retry queue, due now, with a fresh attempt budget.
+     * Returns the ids that were requeued.
+     */
+    @Query(value = """
+      WITH moved AS (
+          DELETE FROM delivery_dead_letter WHERE id IN (:ids) RETURNING *
+      )
+      INSERT INTO delivery_retry_queue (id, kind, target_id, channel, message_body, performed_by,
+                                        attempts, max_attempts, next_attempt_at, last_error, created_at)
+      SELECT id, kind, target_id, channel, message_body, performed_by,
+             0, :maxAttempts, now(), last_error, first_failed_at
+        FROM moved
+      ON CONFLICT (kind, target_id) DO UPDATE
+         SET next_attempt_at = now(),
+             updated_at = now()
+      RETURNING id
+      """, nativeQuery = true)
+    List<UUID> requeue(@Param("ids") Collection<UUID> ids, @Param("maxAttempts") int maxAttempts);
+
+    /** Delete dead letters; returns what was deleted so the caller can release what they held */
+    @Query(value = "DELETE FROM delivery_dead_letter WHERE id IN (:ids) RETURNING *", nativeQuery = true)
+    List<DeliveryDeadLetter> discard(@Param("ids") Collection<UUID> ids);
+}
@@ -0,0 +1,134 @@
+package edu.howard.research.smsbackend.repositories;
+
+import edu.howard.research.smsbackend.models.entities.DeliveryRetry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface DeliveryRetryRepository extends JpaRepository<DeliveryRetry, UUID> {
+
+    Page<DeliveryRetry> findAllByOrderByNextAttemptAtAsc(Pageable pageable);
+
+    @Query(value = """
+      SELECT * FROM delivery_retry_queue
+       WHERE next_attempt_at <= now()
+       ORDER BY next_attempt_at
+       LIMIT :limit
+      """, nativeQuery = true)
+    List<DeliveryRetry> findDue(@Param("limit") int limit);
+
+    /**
+     * Queue a target after its first failed attempt. A target that is already queued keeps its
+     * schedule and attempt count; a dead letter for the same target is replaced.
+     */
+    @Modifying
+    @Query(value = """
+      WITH revived AS (
+          DELETE FROM delivery_dead_letter WHERE kind = :kind AND target_id = :targetId
+      )
+      INSERT INTO delivery_retry_queue (kind, target_id, channel, message_body, performed_by,
+                                        attempts, max_attempts, next_attempt_at, last_error)
+      VALUES (:kind, :targetId, :channel, :messageBody, :performedBy,
+              1, :maxAttempts, now() + (:delaySeconds * interval '1 second'), :lastError)
+      ON CONFLICT (kind, target_id) DO UPDATE
+         SET channel = EXCLUDED.channel,
+             message_body = COALESCE(EXCLUDED.message_body, delivery_retry_queue.message_body),
+             last_error = EXCLUDED.last_error,
+             updated_at = now()
+      """, nativeQuery = true)
+    int enqueue(@Param("kind") String kind,
+                @Param("targetId") UUID targetId,
+                @Param("channel") String channel,
+                @Param("messageBody") String messageBody,
+                @Param("performedBy") String performedBy,
+                @Param("maxAttempts") int maxAttempts,
+                @Param("delaySeconds") long delaySeconds,
+                @Param("lastError") String lastError);
+
+    @Modifying
+    @Query(value = """
+      UPDATE delivery_retry_queue
+         SET attempts = :attempts,
+             next_attempt_at = now() + (:delaySeconds * interval '1 second'),
+             last_error = :lastError,
+             updated_at = now()
+       WHERE id = :id
+      """, nativeQuery = true)
+    int reschedule(@Param("id") UUID id,
+                   @Param("attempts") int attempts,
+                   @Param("delaySeconds") long delaySeconds,
+                   @Param("lastError") String lastError);
+
+    /** Move a queued item to the dead-letter table, keeping its id */
+    @Modifying
+    @Query(value = """
+      WITH moved AS (
+          DELETE FROM delivery_retry_queue WHERE id = :id RETURNING *
+      )
+      INSERT INTO delivery_dead_letter (id, kind, target_id, channel, message_body, performed_by,
+                                        attempts, last_error, reason, first_failed_at)
+      SELECT id, kind, target_id, channel, message_body, performed_by,
+             :attempts, :lastError, :reason, created_at
+        FROM moved
+      ON CONFLICT (kind, target_id) DO UPDATE
+         SET attempts = EXCLUDED.attempts,
+             last_error = EXCLUDED.last_error,
+             reason = EXCLUDED.reason,
+             dead_at = now()
+      """, nativeQuery = true)
+    int moveToDeadLetter(@Param("id") UUID id,
+                         @Param("attempts") int attempts,
+                         @Param("lastError") String lastError,
+                         @Param("reason") String reason);
+
+    /** Dead-letter a target straight away (permanent failure), dropping any queued retry for it */
+    @Modifying
+    @Query(value = """
+      WITH dropped AS (
+          DELETE FROM delivery_retry_queue WHERE kind = :kind AND target_id = :targetId
+          RETURNING attempts, created_at
+      )
+      INSERT INTO delivery_dead_letter (kind, target_id, channel, message_body, performed_by,
+                                        attempts, last_error, reason, first_failed_at)
+      VALUES (:kind, :targetId, :channel, :messageBody, :performedBy,
+              COALESCE((SELECT attempts FROM dropped), 0) + 1, :lastError, 'PERMANENT',
+              COALESCE((SELECT created_at FROM dropped), now()))
+      ON CONFLICT (kind, target_id) DO UPDATE
+         SET channel = EXCLUDED.channel,
+             message_body = COALESCE(EXCLUDED.message_body, delivery_dead_letter.message_body),
+             attempts = delivery_dead_letter.attempts + 1,
+             last_error = EXCLUDED.last_error,
+             reason = 'PERMANENT',
+             dead_at = now()
+      """, nativeQuery = true)
+    int deadLetter(@Param("kind") String kind,
+                   @Param("targetId") UUID targetId,
+                   @Param("channel") String channel,
+                   @Param("messageBody") String messageBody,
+                   @Param("performedBy") String performedBy,
+                   @Param("lastError") String lastError);
+
+    @Modifying
+    @Query(value = "DELETE FROM delivery_retry_queue WHERE id = :id", nativeQuery = true)
+    int remove(@Param("id") UUID id);
+
+    /**
+     * Forget a target in both tables (delivered some other way, or unsent); returns the rows removed.
+     * Not @Modifying: the statement ends in a SELECT, so it has to run as a query.
+     */
+    @Query(value = """
+      WITH queued AS (
+          DELETE FROM delivery_retry_queue WHERE kind = :kind AND target_id = :targetId RETURNING id
+      ), dead AS (
+          DELETE FROM delivery_dead_letter WHERE kind = :kind AND target_id = :targetId RETURNING id
+      )
+      SELECT (SELECT count(*) FROM queued) + (SELECT count(*) FROM dead)
+      """, nativeQuery = true)
+    long cancel(@Param("kind") String kind, @Param("targetId") UUID targetId);
+}
@@ -3,14 +3,18 @@ package edu.howard.research.smsbackend.repositories;
 import edu.howard.research.smsbackend.models.entities.GiftCardPool;
 import edu.howard.research.smsbackend.models.entities.GiftCardType;
 import edu.howard.research.smsbackend.models.entities.PoolStatus;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -57,6 +61,31 @@ public interface GiftCardPoolRepository extends JpaRepository<GiftCardPool, UUID
             @Param("code") String code,
             Pageable pageable);
 
+    // ---- Admin search (trigram index, see V39) ----
+    interface PoolCodeSearchRow {
+        UUID getId();
+        String getCardCode();
+        String getCardType();
+        java.math.BigDecimal getCardValue();
+        String getStatus();
+        String getBatchLabel();
+        java.time.Instant getUploadedAt();
+    }
+
+    /**
+     * Pool cards whose code contains the term (already lower-cased and LIKE-escaped); no total count
+     */
+    @QueryHints(@QueryHint(name = "jakarta.persistence.query.timeout", value = "2000"))
+    @Query(value = """
+        SELECT gcp.id AS id, gcp.card_code AS cardCode, gcp.card_type AS cardType, gcp.card_value AS cardValue,
+               gcp.status AS status, gcp.batch_label AS batchLabel, gcp.uploaded_at AS uploadedAt
+        FROM gift_card_pool gcp
+        WHERE LOWER(gcp.card_code::text) LIKE :pattern
+        ORDER BY gcp.uploaded_at DESC
+        LIMIT :limit
+    """, nativeQuery = true)
+    List<PoolCodeSearchRow> searchByCode(@Param("pattern") String pattern, @Param("limit") int limit);
+
     /**
      * Find all gift cards (no status filter)
      */
@@ -88,6 +117,37 @@ public interface GiftCardPoolRepository extends JpaRepository<GiftCardPool, UUID
     @Query("SELECT COUNT(gcp) FROM GiftCardPool gcp WHERE gcp.status = :status")
     long countByStatus(@Param("status") PoolStatus status);
 
+    // ---- Pool status (trigger-maintained counters, see V36) ----
+    interface PoolCounter {
+        String getStatus();
+        String getCardType();
+        java.math.BigDecimal getCardValue();
+        String getBatchLabel();
+        long getCardCount();
+    }
+
+    /**
+     * Current pool counts per (status, card_type, card_value, batch_label); one small read regardless of pool size
+     * (compacted counters plus the deltas not folded in yet, see V48)
+     */
+    @Query(value = """
+        SELECT status AS status, card_type AS cardType, card_value AS cardValue,
+               batch_label AS batchLabel, card_count AS cardCount
+        FROM v_gift_card_pool_counters
+        WHERE card_count > 0
+    """, nativeQuery = true)
+    List<PoolCounter> findPoolCounters();
+
+    /** Fold pending counter deltas into gift_card_pool_counters; returns the number of deltas folded */
+    @Transactional
+    @Query(value = "SELECT compact_gift_card_pool_counters()", nativeQuery = true)
+    int compactCounters();
+
+    /** Recount the pool and correct drifted counters; returns the number of buckets corrected */
+    @Transactional
+    @Query(value = "SELECT reconcile_gift_card_pool_counters()", nativeQuery = true)
+    int reconcileCounters();
+
     /**
      * Mark gift card as assigned
      */
@@ -5,11 +5,16 @@ import edu.howard.research.smsbackend.models.entities.GiftCardStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -75,15 +80,159 @@ public interface GiftCardRepository extends JpaRepository<GiftCard, UUID> {
      */
     boolean existsByParticipantIdAndInvitationId(UUID participantId, UUID invitationId);
 
+    // ---- User deletion (set-based) ----
+    @Query("SELECT gc.id FROM GiftCard gc WHERE gc.invitation.id IN :invitationIds")
+    List<UUID> findIdsByInvitationIds(@Param("invitationIds") Collection<UUID> invitationIds);
+
+    @Query("SELECT gc.id FROM GiftCard gc WHERE gc.participant.id IN :participantIds")
+    List<UUID> findIdsByParticipantIds(@Param("participantIds") Collection<UUID> participantIds);
+
+    @Query("SELECT COUNT(gc) FROM GiftCard gc WHERE gc.id IN :ids AND gc.status = 'REDEEMED'")
+    long countRedeemedByIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Set-based unsendGiftCard for user deletion: logs UNSENT (same details as the single path),
+     * records the unsend history, returns pool cards to AVAILABLE, marks the cards UNSENT and detaches them from the
+     * participant/invitation so they survive in the unsent history. Like DeliveryRetryQueue.cancel in the single path,
+     * their delivery retries and dead letters are dropped. Returns the number of cards unsent.
+     */
+    @Query(value = """
+      WITH affected AS (
+        SELECT gc.id, gc.status, gc.card_code, gc.card_type, gc.card_value, gc.pool_id,
+               gc.sent_at, gc.sent_by, gc.source, p.phone, p.email, p.name
+          FROM gift_cards gc
+          LEFT JOIN participant p ON p.id = gc.participant_id
+         WHERE gc.id IN (:giftCardIds) AND gc.status <> 'UNSENT'
+         FOR UPDATE OF gc
+      ), logged AS (
+        INSERT INTO gift_card_distribution_logs (gift_card_id, action, performed_by, details)
+        SELECT a.id, 'UNSENT', :performedBy,
+               jsonb_strip_nulls(jsonb_build_object(
+                 'card_code', a.card_code,
+                 'card_type', a.card_type,
+                 'card_value', a.card_value,
+                 'previous_status', a.status,
+                 'participant_phone', COALESCE(a.phone, 'Unknown'),
+                 'participant_email', a.email,
+                 'participant_name', a.name,
+                 'pool_id', a.pool_id::text,
+                 'sent_at', a.sent_at,
+                 'sent_by', a.sent_by,
+                 'source', a.source))
+          FROM affected a
+        RETURNING gift_card_id
+      ), history AS (
+        INSERT INTO gift_card_unsend_history (gift_card_id, card_code, card_type, card_value, previous_status,
+                                              participant_phone, participant_email, participant_name, pool_id,
+                                              sent_at, sent_by, source, unsent_by)
+        SELECT a.id, a.card_code, a.card_type, a.card_value, a.status,
+               COALESCE(a.phone, 'Unknown'), a.email, a.name, a.pool_id,
+               a.sent_at, a.sent_by, a.source, :performedBy
+          FROM affected a
+      ), released AS (
+        UPDATE gift_card_pool gcp
+           SET status = 'AVAILABLE', assigned_at = NULL, assigned_to_gift_card_id = NULL
+          FROM affected a
+         WHERE gcp.id = a.pool_id
+        RETURNING gcp.id
+      ), detached AS (
+        UPDATE gift_cards gc
+           SET status = 'UNSENT', participant_id = NULL, invitation_id = NULL
+         WHERE gc.id IN (:giftCardIds)
+        RETURNING gc.id
+      ), retries_cancelled AS (
+        DELETE FROM delivery_retry_queue
+         WHERE kind = 'GIFT_CARD' AND target_id IN (:giftCardIds)
+      ), dead_letters_cancelled AS (
+        DELETE FROM delivery_dead_letter
+         WHERE kind = 'GIFT_CARD' AND target_id IN (:giftCardIds)
+      )
+      SELECT COUNT(*) FROM logged
+      """, nativeQuery = true)
+    long unsendAndDetachForDeletion(@Param("giftCardIds") Collection<UUID> giftCardIds,
+                                   @Param("performedBy") String performedBy);
+
+    // ---- Unsend history (gift_card_unsend_history, see V43) ----
+    interface UnsendHistoryRow {
+        UUID getGiftCardId();
+        String getCardCode();
+        String getCardType();
+        BigDecimal getCardValue();
+        String getPreviousStatus();
+        String getParticipantPhone();
+        String getParticipantEmail();
+        String getParticipantName();
+        UUID getPoolId();
+        Instant getSentAt();
+        String getSentBy();
+        String getSource();
+        String getUnsentBy();
+        Instant getUnsentAt();
+    }
+
     /**
-     * Find participants eligible for gift cards (completed surveys, no gift card yet)
+     * Snapshot a gift card (and its participant's contact details) into the unsend history.
+     * Must run before the card itself is changed.
      */
-    @Query("SELECT DISTINCT p, si FROM Participant p " +
-           "JOIN SurveyInvitation si ON si.participant = p " +
-           "WHERE si.completedAt IS NOT NULL " +
-           "AND NOT EXISTS (SELECT 1 FROM GiftCard gc WHERE gc.participant = p AND gc.invitation = si AND gc.status != 'UNSENT') " +
-           "ORDER BY si.completedAt DESC")
-    List<Object[]> findEligibleParticipants();
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+      INSERT INTO gift_card_unsend_history (gift_card_id, card_code, card_type, card_value, previous_status,
+                                            participant_phone, participant_email, participant_name, pool_id,
+                                            sent_at, sent_by, source, unsent_by)
+      SELECT gc.id, gc.card_code, gc.card_type, gc.card_value, gc.status,
+             COALESCE(p.phone, 'Unknown'), p.email, p.name, gc.pool_id,
+             gc.sent_at, gc.sent_by, gc.source, :unsentBy
+        FROM gift_cards gc
+        LEFT JOIN participant p ON p.id = gc.participant_id
+       WHERE gc.id = :giftCardId
+      """, nativeQuery = true)
+    int recordUnsendHistory(@Param("giftCardId") UUID giftCardId, @Param("unsentBy") String unsentBy);
+
+    @Query(value = """
+        SELECT h.gift_card_id AS giftCardId, h.card_code AS cardCode, h.card_type AS cardType,
+               h.card_value AS cardValue, h.previous_status AS previousStatus,
+               h.participant_phone AS participantPhone, h.participant_email AS participantEmail,
+               h.participant_name AS participantName, h.pool_id AS poolId, h.sent_at AS sentAt,
+               h.sent_by AS sentBy, h.source AS source, h.unsent_by AS unsentBy, h.unsent_at AS unsentAt
+        FROM gift_card_unsend_history h
+        ORDER BY h.unsent_at DESC, h.id DESC
+        """,
+        countQuery = "SELECT COUNT(*) FROM gift_card_unsend_history",
+        nativeQuery = true)
+    Page<UnsendHistoryRow> findUnsendHistory(Pageable pageable);
+
+    // ---- Eligibility (gift_card_eligibility work queue, see V40) ----
+    interface EligibleParticipantRow {
+        UUID getParticipantId();
+        String getParticipantName();
+        String getParticipantPhone();
+        String getParticipantEmail();
+        UUID getInvitationId();
+        String getSurveyLinkUrl();
+        Instant getSurveyCompletedAt();
+        Instant getParticipantVerifiedAt();
+    }
+
+    /**
+     * Find participants eligible for gift cards (completed surveys, no gift card yet), newest completion first
+     */
+    @Query(value = """
+        SELECT p.id AS participantId, p.name AS participantName, p.phone AS participantPhone,
+               p.email AS participantEmail, si.id AS invitationId, si.link_url AS surveyLinkUrl,
+               e.completed_at AS surveyCompletedAt, p.verified_at AS participantVerifiedAt
+        FROM gift_card_eligibility e
+        JOIN survey_invitation si ON si.id = e.invitation_id
+        JOIN participant p ON p.id = e.participant_id
+        ORDER BY e.completed_at DESC, e.invitation_id
+        """,
+        countQuery = "SELECT COUNT(*) FROM gift_card_eligibility",
+        nativeQuery = true)
+    Page<EligibleParticipantRow> findEligibleParticipants(Pageable pageable);
+
+    /** Re-evaluate the invitations whose gift_card_eligibility entry drifted; returns how many */
+    @Transactional
+    @Query(value = "SELECT reconcile_gift_card_eligibility()", nativeQuery = true)
+    int reconcileEligibility();
 
     /**
      * Count gift cards by status
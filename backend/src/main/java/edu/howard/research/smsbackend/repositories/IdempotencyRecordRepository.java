@@ -0,0 +1,74 @@
+package edu.howard.research.smsbackend.repositories;
+
+import edu.howard.research.smsbackend.models.entities.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * All writes run in their own transaction so a claim is visible to concurrent
+ * duplicates immediately, independent of the request's own transaction.
+ */
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Claim a key as PENDING. Also takes over expired records and PENDING records whose owner
+     * has not sent a heartbeat for {@code abandonedSeconds} (e.g. the node died mid-request).
+     * Returns 1 if this caller now owns the key.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = """
+      INSERT INTO idempotency_record (record_key, request_hash, status, created_at, heartbeat_at, expires_at)
+      VALUES (:recordKey, :requestHash, 'PENDING', now(), now(), now() + (:ttlSeconds * interval '1 second'))
+      ON CONFLICT (record_key) DO UPDATE
+         SET request_hash = EXCLUDED.request_hash,
+             status = 'PENDING',
+             response_status = NULL,
+             response_body = NULL,
+             created_at = EXCLUDED.created_at,
+             heartbeat_at = EXCLUDED.heartbeat_at,
+             completed_at = NULL,
+             expires_at = EXCLUDED.expires_at
+       WHERE idempotency_record.expires_at < now()
+          OR (idempotency_record.status = 'PENDING'
+              AND COALESCE(idempotency_record.heartbeat_at, idempotency_record.created_at)
+                  < now() - (:abandonedSeconds * interval '1 second'))
+      """, nativeQuery = true)
+    int tryClaim(@Param("recordKey") String recordKey,
+                 @Param("requestHash") String requestHash,
+                 @Param("ttlSeconds") long ttlSeconds,
+                 @Param("abandonedSeconds") long abandonedSeconds);
+
+    /** Keep a PENDING claim alive while its request is still running */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "UPDATE idempotency_record SET heartbeat_at = now() WHERE record_key = :recordKey AND status = 'PENDING'",
+           nativeQuery = true)
+    int heartbeat(@Param("recordKey") String recordKey);
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = """
+      UPDATE idempotency_record
+         SET status = 'COMPLETED', response_status = :responseStatus, response_body = :responseBody, completed_at = now()
+       WHERE record_key = :recordKey AND status = 'PENDING'
+      """, nativeQuery = true)
+    int complete(@Param("recordKey") String recordKey,
+                 @Param("responseStatus") int responseStatus,
+                 @Param("responseBody") String responseBody);
+
+    /** Drop a PENDING claim so the client can retry after a failure */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_record WHERE record_key = :recordKey AND status = 'PENDING'", nativeQuery = true)
+    int release(@Param("recordKey") String recordKey);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_record WHERE expires_at < now()", nativeQuery = true)
+    int deleteExpired();
+}
@@ -1,18 +1,80 @@
 package edu.howard.research.smsbackend.repositories;
 
 import edu.howard.research.smsbackend.models.entities.Participant;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface ParticipantRepository extends JpaRepository<Participant, UUID> {
     Optional<Participant> findByPhone(String phone);
-    Page<Participant> findByPhoneContainingIgnoreCase(String phone, Pageable pageable);
+
+    /**
+     * Phone substring search (phone is E.164, so callers pass digits); served by idx_participant_phone_trgm
+     */
+    @Query("SELECT p FROM Participant p WHERE p.phone LIKE CONCAT('%', :phone, '%')")
+    Page<Participant> findByPhoneContaining(@Param("phone") String phone, Pageable pageable);
+
+    // ---- User deletion (set-based) ----
+    @Query("SELECT p.id FROM Participant p WHERE p.id IN :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT DISTINCT si.participant.id FROM SurveyInvitation si WHERE si.participant.id IN :ids")
+    List<UUID> findIdsWithInvitations(@Param("ids") Collection<UUID> ids);
+
+    /** Deletes the given participants that have no invitations left */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = """
+        DELETE FROM participant p
+        WHERE p.id IN (:ids)
+          AND NOT EXISTS (SELECT 1 FROM survey_invitation si WHERE si.participant_id = p.id)
+    """, nativeQuery = true)
+    int deleteAllWithoutInvitations(@Param("ids") Collection<UUID> ids);
+
+    // ---- Admin search (trigram indexes, see V39) ----
+    interface ParticipantSearchRow {
+        UUID getId();
+        String getPhone();
+        String getEmail();
+        String getName();
+        String getStatus();
+        Instant getCreatedAt();
+    }
+
+    /**
+     * Participants whose phone, email or name contains the term. Each arm keeps its newest
+     * matches (a trigram index scan plus a bounded top-N sort), so the union holds the overall
+     * newest; no total count is computed.
+     */
+    @QueryHints(@QueryHint(name = "jakarta.persistence.query.timeout", value = "2000"))
+    @Query(value = """
+        WITH matches AS (
+            (SELECT id FROM participant WHERE phone LIKE :phonePattern ORDER BY created_at DESC LIMIT :limit)
+            UNION
+            (SELECT id FROM participant WHERE lower(email) LIKE :pattern ORDER BY created_at DESC LIMIT :limit)
+            UNION
+            (SELECT id FROM participant WHERE lower(name) LIKE :pattern ORDER BY created_at DESC LIMIT :limit)
+        )
+        SELECT p.id AS id, p.phone AS phone, p.email AS email, p.name AS name,
+               p.status AS status, p.created_at AS createdAt
+        FROM participant p
+        JOIN matches m ON m.id = p.id
+        ORDER BY p.created_at DESC
+        LIMIT :limit
+    """, nativeQuery = true)
+    List<ParticipantSearchRow> search(@Param("pattern") String pattern,
+                                      @Param("phonePattern") String phonePattern,
+                                      @Param("limit") int limit);
 
     /**
      * Find verified participants who don't have any active invitations.
@@ -0,0 +1,61 @@
+package edu.howard.research.smsbackend.repositories;
+
+import edu.howard.research.smsbackend.models.entities.ScheduledJobLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface ScheduledJobLockRepository extends JpaRepository<ScheduledJobLock, String> {
+
+    /**
+     * Take the lease for a job if nobody holds an unexpired one.
+     * Returns 1 when acquired, 0 when another instance holds it.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+      INSERT INTO scheduled_job_lock (job_name, locked_by, locked_at, lease_until, last_started_at)
+      VALUES (:jobName, :owner, now(), now() + (:leaseSeconds * interval '1 second'), now())
+      ON CONFLICT (job_name) DO UPDATE
+         SET locked_by = EXCLUDED.locked_by,
+             locked_at = EXCLUDED.locked_at,
+             lease_until = EXCLUDED.lease_until,
+             last_started_at = EXCLUDED.last_started_at
+       WHERE scheduled_job_lock.lease_until < now()
+      """, nativeQuery = true)
+    int tryAcquire(@Param("jobName") String jobName,
+                   @Param("owner") String owner,
+                   @Param("leaseSeconds") long leaseSeconds);
+
+    /**
+     * Record the run and give the lease back. The lease is kept until at least
+     * locked_at + minHoldSeconds so a slightly late cron tick on another node doesn't re-run the job.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+      UPDATE scheduled_job_lock
+         SET lease_until = GREATEST(now(), locked_at + (:minHoldSeconds * interval '1 second')),
+             locked_by = NULL,
+             last_finished_at = now(),
+             last_duration_ms = :durationMs,
+             last_outcome = :outcome,
+             last_error = :error,
+             last_result = :result,
+             run_count = run_count + 1
+       WHERE job_name = :jobName AND locked_by = :owner
+      """, nativeQuery = true)
+    int release(@Param("jobName") String jobName,
+                @Param("owner") String owner,
+                @Param("minHoldSeconds") long minHoldSeconds,
+                @Param("durationMs") long durationMs,
+                @Param("outcome") String outcome,
+                @Param("error") String error,
+                @Param("result") String result);
+
+    List<ScheduledJobLock> findAllByOrderByJobNameAsc();
+}
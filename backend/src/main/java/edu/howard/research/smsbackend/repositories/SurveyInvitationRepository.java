@@ -1,12 +1,15 @@
 package edu.howard.research.smsbackend.repositories;
 
 import edu.howard.research.smsbackend.models.entities.SurveyInvitation;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -47,6 +50,22 @@ public interface SurveyInvitationRepository extends JpaRepository<SurveyInvitati
                   @Param("status") String status,
                   @Param("queuedAt") OffsetDateTime queuedAt);
 
+    /** Record a reminder send; keeps queuedAt so reminder stages stay anchored to the first send */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE SurveyInvitation i SET i.messageSid = :sid, i.messageStatus = 'queued', " +
+            "i.reminderCount = i.reminderCount + 1, i.lastReminderAt = :ts WHERE i.id = :id")
+    int markReminded(@Param("id") UUID id, @Param("sid") String sid, @Param("ts") OffsetDateTime ts);
+
+    /** Record a reminder that only went out by email; the SMS status fields are left alone */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE SurveyInvitation i SET i.reminderCount = i.reminderCount + 1, i.lastReminderAt = :ts WHERE i.id = :id")
+    int markRemindedByEmail(@Param("id") UUID id, @Param("ts") OffsetDateTime ts);
+
+    /** Note a failed reminder attempt so the same wave doesn't pick it up again */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE SurveyInvitation i SET i.lastReminderAt = :ts WHERE i.id = :id")
+    int markReminderAttempted(@Param("id") UUID id, @Param("ts") OffsetDateTime ts);
+
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query("UPDATE SurveyInvitation i SET i.messageStatus = 'sent', i.sentAt = CURRENT_TIMESTAMP " +
             "WHERE i.messageSid = :sid AND i.queuedAt IS NOT NULL AND i.sentAt IS NULL")
@@ -64,6 +83,210 @@ public interface SurveyInvitationRepository extends JpaRepository<SurveyInvitati
     @Query("UPDATE SurveyInvitation i SET i.messageStatus = 'completed', i.completedAt = :ts WHERE i.id = :id")
     int markCompletedById(@Param("id") UUID id, @Param("ts") OffsetDateTime ts);
 
+    /** Exact invitation count from the trigger-maintained table_row_counts plus pending deltas (see V37, V49) */
+    @Query(value = "select row_count from v_table_row_counts where table_name = 'survey_invitation'", nativeQuery = true)
+    Optional<Long> countFromCounters();
+
+    // ---- Bulk completion (set-based; callers chunk the id lists) ----
+    @Query(value = """
+      UPDATE survey_invitation
+         SET completed_at = :ts, message_status = 'completed'
+       WHERE id IN (:ids) AND completed_at IS NULL
+      RETURNING id
+      """, nativeQuery = true)
+    List<UUID> completeAll(@Param("ids") Collection<UUID> ids, @Param("ts") OffsetDateTime ts);
+
+    /**
+     * Undo completion. Only the most recently completed invitation per participant is reopened, and only
+     * when the participant has no other active invitation (uq_active_invitation_per_participant).
+     */
+    @Query(value = """
+      UPDATE survey_invitation si
+         SET completed_at = NULL, message_status = 'delivered'
+       WHERE si.id IN (
+               SELECT DISTINCT ON (c.participant_id) c.id
+                 FROM survey_invitation c
+                WHERE c.id IN (:ids) AND c.completed_at IS NOT NULL
+                ORDER BY c.participant_id, c.completed_at DESC)
+         AND NOT EXISTS (
+               SELECT 1 FROM survey_invitation o
+                WHERE o.participant_id = si.participant_id AND o.completed_at IS NULL)
+      RETURNING si.id
+      """, nativeQuery = true)
+    List<UUID> uncompleteAll(@Param("ids") Collection<UUID> ids);
+
+    // ---- User deletion (set-based) ----
+    @Query("SELECT si.id FROM SurveyInvitation si WHERE si.id IN :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    /** Deletes the invitations and returns their participant ids (one per deleted row) */
+    @Query(value = "DELETE FROM survey_invitation WHERE id IN (:ids) RETURNING participant_id", nativeQuery = true)
+    List<UUID> deleteAllReturningParticipantIds(@Param("ids") Collection<UUID> ids);
+
+    // ---- Bulk link assignment ----
+    interface AssignedLinkRow {
+        UUID getInvitationId();
+        UUID getParticipantId();
+        String getPhone();
+        UUID getLinkId();
+        String getLinkUrl();
+        String getShortLinkUrl();
+    }
+
+    /**
+     * Claims links (claim_available_links, V47) for up to {@code maxCount} of the given participants
+     * and creates their pending invitations, in one statement. Only verified, not opted-out
+     * participants without any invitation are eligible; if the pool runs short the remaining
+     * participants are left without one. Returns one row per invitation created.
+     */
+    @Query(value = """
+        WITH targets AS (
+            SELECT p.id AS participant_id, p.phone,
+                   row_number() OVER (ORDER BY p.verified_at NULLS LAST, p.id) AS rn
+            FROM participant p
+            WHERE p.id IN (:participantIds)
+              AND p.phone_verified
+              AND upper(p.status) <> 'OPTED_OUT'
+              AND NOT EXISTS (SELECT 1 FROM survey_invitation si WHERE si.participant_id = p.id)
+            ORDER BY rn
+            LIMIT :maxCount
+        ), claimed AS (
+            SELECT c.link_id, c.link_url, c.short_link_url, row_number() OVER () AS rn
+            FROM claim_available_links(CAST(:batchLabel AS TEXT), (SELECT count(*)::int FROM targets)) c
+        ), inserted AS (
+            INSERT INTO survey_invitation (participant_id, link_id, link_url, short_link_url, message_status, created_at, updated_at)
+            SELECT t.participant_id, c.link_id, c.link_url, c.short_link_url, 'pending', now(), now()
+            FROM targets t
+            JOIN claimed c ON c.rn = t.rn
+            RETURNING id, participant_id, link_id, link_url, short_link_url
+        )
+        SELECT i.id AS invitationId, i.participant_id AS participantId, t.phone AS phone,
+               i.link_id AS linkId, i.link_url AS linkUrl, i.short_link_url AS shortLinkUrl
+        FROM inserted i
+        JOIN targets t ON t.participant_id = i.participant_id
+        """, nativeQuery = true)
+    List<AssignedLinkRow> assignLinks(@Param("participantIds") Collection<UUID> participantIds,
+                                      @Param("batchLabel") String batchLabel,
+                                      @Param("maxCount") int maxCount);
+
+    // ---- Admin search (trigram indexes, see V39) ----
+    interface InvitationSearchRow {
+        UUID getId();
+        UUID getParticipantId();
+        String getPhone();
+        String getEmail();
+        String getName();
+        String getLinkUrl();
+        String getShortLinkUrl();
+        String getMessageStatus();
+        Instant getSentAt();
+        Instant getCompletedAt();
+        long getClickCount();
+        Instant getFirstClickAt();
+        Instant getLastClickAt();
+    }
+
+    /**
+     * Invitations whose participant phone/email/name or survey/short link contains the term.
+     * Each arm keeps its newest matches, so the union holds the overall newest. Participant
+     * matches are not capped: an old participant can have the newest invitation.
+     */
+    @QueryHints(@QueryHint(name = "jakarta.persistence.query.timeout", value = "2000"))
+    @Query(value = """
+        WITH participant_matches AS (
+            SELECT id FROM participant WHERE phone LIKE :phonePattern
+            UNION
+            SELECT id FROM participant WHERE lower(email) LIKE :pattern
+            UNION
+            SELECT id FROM participant WHERE lower(name) LIKE :pattern
+        ), matches AS (
+            (SELECT si.id FROM survey_invitation si
+               JOIN participant_matches pm ON pm.id = si.participant_id
+              ORDER BY si.created_at DESC LIMIT :limit)
+            UNION
+            (SELECT id FROM survey_invitation WHERE lower(short_link_url) LIKE :pattern
+              ORDER BY created_at DESC LIMIT :limit)
+            UNION
+            (SELECT id FROM survey_invitation WHERE lower(link_url) LIKE :pattern
+              ORDER BY created_at DESC LIMIT :limit)
+        )
+        SELECT si.id AS id, p.id AS participantId, p.phone AS phone, p.email AS email, p.name AS name,
+               si.link_url AS linkUrl, si.short_link_url AS shortLinkUrl,
+               si.message_status AS messageStatus, si.sent_at AS sentAt, si.completed_at AS completedAt,
+               COALESCE(clicks.click_count, 0) AS clickCount,
+               clicks.first_click_at AS firstClickAt, clicks.last_click_at AS lastClickAt
+        FROM survey_invitation si
+        JOIN matches m ON m.id = si.id
+        JOIN participant p ON p.id = si.participant_id
+        JOIN survey_link_pool l ON l.id = si.link_id
+        LEFT JOIN LATERAL (
+            SELECT CAST(SUM(c.click_count) AS BIGINT) AS click_count, MIN(c.first_click_at) AS first_click_at,
+                   MAX(c.last_click_at) AS last_click_at
+            FROM short_link_click_stats c
+            WHERE c.short_code = l.short_code
+        ) clicks ON true
+        ORDER BY si.created_at DESC
+        LIMIT :limit
+    """, nativeQuery = true)
+    List<InvitationSearchRow> search(@Param("pattern") String pattern,
+                                     @Param("phonePattern") String phonePattern,
+                                     @Param("limit") int limit);
+
+    // ---- Short link clicks for the admin invitation list ----
+    interface ClickStatsRow {
+        String getShortCode();
+        long getClickCount();
+        Instant getFirstClickAt();
+        Instant getLastClickAt();
+    }
+
+    /**
+     * Click totals for the given short codes (short_link_click_stats keeps one row per code and hour)
+     */
+    @Query(value = """
+        SELECT short_code AS shortCode, CAST(SUM(click_count) AS BIGINT) AS clickCount,
+               MIN(first_click_at) AS firstClickAt, MAX(last_click_at) AS lastClickAt
+        FROM short_link_click_stats
+        WHERE short_code IN (:shortCodes)
+        GROUP BY short_code
+    """, nativeQuery = true)
+    List<ClickStatsRow> findClickStats(@Param("shortCodes") Collection<String> shortCodes);
+
+    // ---- Reminder campaigns ----
+    interface ReminderCandidate {
+        UUID getInvitationId();
+        String getPhone();
+        String getEmail();
+        String getName();
+        String getLinkUrl();
+        String getShortLinkUrl();
+    }
+
+    /**
+     * Incomplete invitations that have had exactly {@code stage} reminders, were first queued
+     * inside the survey window and at least the stage age ago. Served by idx_invitation_reminder_due.
+     */
+    @Query(value = """
+      SELECT si.id AS invitationId, p.phone AS phone, p.email AS email, p.name AS name,
+             si.link_url AS linkUrl, si.short_link_url AS shortLinkUrl
+      FROM survey_invitation si
+      JOIN participant p ON p.id = si.participant_id
+      WHERE si.completed_at IS NULL
+        AND si.queued_at IS NOT NULL
+        AND si.reminder_count = :stage
+        AND si.queued_at <= :dueBefore
+        AND si.queued_at > :windowStart
+        AND (si.last_reminder_at IS NULL OR si.last_reminder_at < :retryBefore)
+        AND upper(p.status) <> 'OPTED_OUT'
+      ORDER BY si.queued_at
+      LIMIT :limit
+      """, nativeQuery = true)
+    List<ReminderCandidate> findReminderCandidates(@Param("stage") int stage,
+                                                   @Param("dueBefore") OffsetDateTime dueBefore,
+                                                   @Param("windowStart") OffsetDateTime windowStart,
+                                                   @Param("retryBefore") OffsetDateTime retryBefore,
+                                                   @Param("limit") int limit);
+
     /**
      * Count invitations by participant ID
      */
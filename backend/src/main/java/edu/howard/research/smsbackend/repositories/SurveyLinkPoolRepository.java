@@ -6,7 +6,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -49,6 +51,30 @@ public interface SurveyLinkPoolRepository extends JpaRepository<SurveyLinkPool,
     """)
     int markExhausted(@Param("id") UUID id);
 
+    /** Set-based markExhausted for the links behind a batch of completed invitations */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(
+            value = """
+            UPDATE survey_link_pool
+            SET status = 'EXHAUSTED'
+            WHERE id IN (SELECT si.link_id FROM survey_invitation si WHERE si.id IN (:invitationIds))
+        """,
+            nativeQuery = true
+    )
+    int markExhaustedForInvitations(@Param("invitationIds") Collection<UUID> invitationIds);
+
+    /** Return the links behind the given invitations to the pool (user deletion) */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(
+            value = """
+            UPDATE survey_link_pool
+            SET status = 'AVAILABLE'
+            WHERE id IN (SELECT si.link_id FROM survey_invitation si WHERE si.id IN (:invitationIds))
+        """,
+            nativeQuery = true
+    )
+    int resetForInvitations(@Param("invitationIds") Collection<UUID> invitationIds);
+
     // Use native SQL here to avoid JPQL enum validation issues
     @Modifying(clearAutomatically = true)
     @Query(
@@ -62,13 +88,35 @@ public interface SurveyLinkPoolRepository extends JpaRepository<SurveyLinkPool,
     )
     int markAssigned(@Param("id") UUID id);
 
-    // ---- Link-pool stats (from v_link_pool_stats view) ----
+    // ---- Link-pool stats (trigger-maintained link_pool_stats plus pending deltas, see V37, V49) ----
     @Query(
             value = "select batch_label as batchLabel, status as status, cnt as cnt from v_link_pool_stats",
             nativeQuery = true
     )
     List<LinkPoolStatsRow> fetchStats();
 
+    /** Link counts per status across all batches */
+    @Query(
+            value = "select status as status, sum(cnt)::bigint as cnt from v_link_pool_stats group by status",
+            nativeQuery = true
+    )
+    List<LinkStatusCountRow> fetchStatusTotals();
+
+    interface LinkStatusCountRow {
+        String getStatus();
+        Long getCnt();
+    }
+
+    /** Fold pending deltas into link_pool_stats and table_row_counts; returns the number of deltas folded */
+    @Transactional
+    @Query(value = "select compact_link_pool_stats()", nativeQuery = true)
+    int compactStats();
+
+    /** Recount link_pool_stats and table_row_counts; returns rows corrected */
+    @Transactional
+    @Query(value = "select reconcile_link_pool_stats()", nativeQuery = true)
+    int reconcileStats();
+
     interface LinkPoolStatsRow {
         String getBatchLabel();
         String getStatus();
@@ -0,0 +1,78 @@
+package edu.howard.research.smsbackend.security;
+
+import edu.howard.research.smsbackend.config.SqlStatementCounter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One access-log line per request on the "access" logger (asynchronous, see logback-spring.xml):
+ * method, route template (never the raw path, which can contain phone numbers), status,
+ * duration and the number of SQL statements Hibernate prepared while handling it.
+ *
+ * Successful requests are sampled at app.accessLog.sampleRate; errors (4xx/5xx) and requests
+ * slower than app.accessLog.slowMillis are always logged.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private static final Logger accessLog = LoggerFactory.getLogger("access");
+
+    @Value("${app.accessLog.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.accessLog.sampleRate:0.1}")
+    private double sampleRate;
+
+    @Value("${app.accessLog.slowMillis:1000}")
+    private long slowMillis;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        boolean failed = false;
+        SqlStatementCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            failed = true;
+            throw e;
+        } finally {
+            int statements = SqlStatementCounter.stop();
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            int status = failed ? 500 : response.getStatus();
+
+            String reason = status >= 400 ? "error" : millis >= slowMillis ? "slow" : null;
+            if (reason != null || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+                accessLog.info("method={} route={} status={} durationMs={} sql={} log={}",
+                        request.getMethod(), route(request), status, millis, statements,
+                        reason != null ? reason : "sampled");
+            }
+        }
+    }
+
+    /** Matched handler pattern, e.g. /api/participants/check-verification/{phone} */
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNMATCHED";
+    }
+}
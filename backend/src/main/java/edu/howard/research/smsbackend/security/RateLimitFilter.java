@@ -0,0 +1,262 @@
+package edu.howard.research.smsbackend.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.howard.research.smsbackend.services.RateLimiter;
+import edu.howard.research.smsbackend.services.RateLimiter.Dimension;
+import edu.howard.research.smsbackend.services.RateLimiter.Rule;
+import edu.howard.research.smsbackend.util.PhoneNumberService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UriUtils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rate limits the public endpoints (see RateLimiter) by client IP and by phone number, before
+ * the request reaches Spring Security, the controllers or any provider/database work.
+ *
+ * The client IP is the socket peer unless that peer is one of our proxies
+ * (app.rateLimit.trustedProxies). Only then is X-Forwarded-For used, counting
+ * app.rateLimit.forwardedHops entries from the right (the ones our proxies appended), so a client
+ * can't pick its bucket by sending the header itself, directly or through the proxy. The phone comes from the JSON body's "phone" field or, for
+ * /api/participants/check-verification/{phone}, from the path; the body is buffered and
+ * replayed to the controller. Rejected requests get 429 with Retry-After.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    /** Bodies larger than this are passed through without looking for a phone */
+    private static final int MAX_INSPECTED_BODY = 16 * 1024;
+
+    private static final String CHECK_VERIFICATION_PATH = "/api/participants/check-verification/";
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final PhoneNumberService phoneNumberService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimiter.isEnabled()
+                || "OPTIONS".equals(request.getMethod())
+                || Rule.forPath(request.getRequestURI()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Rule rule = Rule.forPath(request.getRequestURI());
+
+        String ip = clientIp(request);
+        long wait = rateLimiter.tryAcquire(rule, Dimension.IP, ip);
+        if (wait > 0) {
+            reject(response, rule, Dimension.IP, ip, wait);
+            return;
+        }
+
+        HttpServletRequest forwarded = request;
+        String phone = null;
+        if (request.getRequestURI().startsWith(CHECK_VERIFICATION_PATH)) {
+            phone = decodePathSegment(request.getRequestURI().substring(CHECK_VERIFICATION_PATH.length()));
+        } else if ("POST".equals(request.getMethod()) && isJson(request)) {
+            CachedBodyRequest cached = CachedBodyRequest.of(request);
+            forwarded = cached;
+            phone = cached.isComplete() ? phoneFromJson(cached.body()) : null;
+        }
+
+        String phoneKey = normalizePhone(phone);
+        if (phoneKey != null) {
+            wait = rateLimiter.tryAcquire(rule, Dimension.PHONE, phoneKey);
+            if (wait > 0) {
+                reject(response, rule, Dimension.PHONE, phoneKey, wait);
+                return;
+            }
+        }
+
+        filterChain.doFilter(forwarded, response);
+    }
+
+    /** Client address as seen by the outermost trusted proxy */
+    String clientIp(HttpServletRequest request) {
+        int hops = rateLimiter.getForwardedHops();
+        String header = request.getHeader("X-Forwarded-For");
+        if (hops <= 0 || header == null || header.isBlank() || !rateLimiter.isTrustedProxy(request.getRemoteAddr())) {
+            return request.getRemoteAddr();
+        }
+        String[] entries = header.split(",");
+        String ip = entries[Math.max(0, entries.length - hops)].trim();
+        return ip.isEmpty() ? request.getRemoteAddr() : ip;
+    }
+
+    private void reject(HttpServletResponse response, Rule rule, Dimension dimension, String key,
+                        long retryAfterSeconds) throws IOException {
+        log.warn("Rate limited {} request by {} {} (retry in {}s)", rule.key(), dimension.name().toLowerCase(),
+                dimension == Dimension.PHONE ? PhoneNumberService.mask(key) : key, retryAfterSeconds);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("ok", false);
+        body.put("error", "rate_limited");
+        body.put("message", "Too many requests. Please try again in " + retryAfterSeconds + " seconds.");
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private static boolean isJson(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase().startsWith(MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    private String phoneFromJson(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode phone = objectMapper.readTree(body).get("phone");
+            return phone != null && phone.isTextual() ? phone.asText() : null;
+        } catch (IOException e) {
+            // Malformed JSON; the controller will reject it
+            return null;
+        }
+    }
+
+    /** The path variable as the controller will see it, so "%2B1202..." and "+1202..." share a bucket */
+    private static String decodePathSegment(String segment) {
+        try {
+            return UriUtils.decode(segment, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            // Malformed escape; Spring rejects the request anyway
+            return segment;
+        }
+    }
+
+    /**
+     * Bucket key for a phone: its E.164 form, so every spelling Twilio would treat as the same
+     * number shares one bucket. Numbers libphonenumber rejects fall back to their digits.
+     */
+    private String normalizePhone(String phone) {
+        if (phone == null || phone.isBlank()) {
+            return null;
+        }
+        try {
+            return phoneNumberService.normalizeToE164(phone);
+        } catch (IllegalArgumentException e) {
+            String digits = phone.replaceAll("\\D", "");
+            return digits.isEmpty() ? null : digits;
+        }
+    }
+
+    /**
+     * Request whose body has been read (up to MAX_INSPECTED_BODY bytes) and is replayed to the
+     * rest of the chain, followed by whatever wasn't read.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] head;
+        private final boolean complete;
+        private final InputStream remainder;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] head, boolean complete, InputStream remainder) {
+            super(request);
+            this.head = head;
+            this.complete = complete;
+            this.remainder = remainder;
+        }
+
+        static CachedBodyRequest of(HttpServletRequest request) throws IOException {
+            InputStream in = request.getInputStream();
+            byte[] head = in.readNBytes(MAX_INSPECTED_BODY + 1);
+            boolean complete = head.length <= MAX_INSPECTED_BODY;
+            return new CachedBodyRequest(request, head, complete, complete ? InputStream.nullInputStream() : in);
+        }
+
+        boolean isComplete() {
+            return complete;
+        }
+
+        byte[] body() {
+            return head;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            InputStream replay = new SequenceInputStream(new ByteArrayInputStream(head), remainder);
+            return new ServletInputStream() {
+                private boolean finished;
+
+                @Override
+                public int read() throws IOException {
+                    int b = replay.read();
+                    finished = b < 0;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buf, int off, int len) throws IOException {
+                    int n = replay.read(buf, off, len);
+                    finished = n < 0;
+                    return n;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return finished;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // The buffered head is in memory and the remainder (if any) is read blocking, so
+                    // the data is always ready: let the listener read it all now.
+                    try {
+                        listener.onDataAvailable();
+                        if (finished) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -39,7 +39,7 @@ public class BitlyService {
     public String shortenUrl(String longUrl) {
         // If API token is not configured, return null (fail gracefully)
         if (apiToken == null || apiToken.isBlank()) {
-            log.warn("Bit.ly API token not configured. Skipping URL shortening for: {}", longUrl);
+            log.warn("Bit.ly API token not configured. Skipping URL shortening");
             return null;
         }
 
@@ -71,19 +71,19 @@ public class BitlyService {
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 String shortUrl = response.getBody().getLink();
-                log.info("Successfully shortened URL: {} -> {}", longUrl, shortUrl);
+                // Both URLs open the survey for one participant: keep them out of INFO logs
+                log.debug("Successfully shortened URL: {} -> {}", longUrl, shortUrl);
                 return shortUrl;
             } else {
-                log.warn("Bit.ly API returned non-success status: {} for URL: {}", 
-                        response.getStatusCode(), longUrl);
+                log.warn("Bit.ly API returned non-success status: {}", response.getStatusCode());
                 return null;
             }
 
         } catch (RestClientException e) {
-            log.error("Error calling Bit.ly API to shorten URL {}: {}", longUrl, e.getMessage());
+            log.error("Error calling Bit.ly API to shorten URL: {}", e.getMessage());
             return null;
         } catch (Exception e) {
-            log.error("Unexpected error shortening URL {}: {}", longUrl, e.getMessage(), e);
+            log.error("Unexpected error shortening URL: {}", e.getMessage(), e);
             return null;
         }
     }
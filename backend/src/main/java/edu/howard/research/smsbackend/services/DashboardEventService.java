@@ -0,0 +1,286 @@
+package edu.howard.research.smsbackend.services;
+
+import edu.howard.research.smsbackend.config.BackgroundThreads;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Live dashboard feed. One listener thread LISTENs on the dashboard_events channel (see V38)
+ * over a dedicated connection and fans each notification out to connected admin browsers
+ * as a Server-Sent Event, so clients refresh only what changed instead of polling.
+ *
+ * Event names match the notification "type" (invitations, gift_cards, gift_card_pool,
+ * link_pool); the data is the notification JSON as-is. A "resync" event is sent after the
+ * listener reconnects, since notifications raised while it was down are lost.
+ *
+ * The listener only queues events; each subscriber's queue is drained in order on a sender
+ * thread, so one slow browser cannot hold up the others. A subscriber that falls more than
+ * MAX_PENDING events behind is disconnected and resyncs when its EventSource reconnects.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardEventService implements SmartLifecycle {
+
+    static final String CHANNEL = "dashboard_events";
+
+    /** Events queued for one subscriber before it is dropped as too slow */
+    static final int MAX_PENDING = 100;
+
+    private final BackgroundThreads backgroundThreads;
+
+    @Value("${spring.datasource.url}")
+    private String jdbcUrl;
+
+    @Value("${spring.datasource.username}")
+    private String dbUser;
+
+    @Value("${spring.datasource.password}")
+    private String dbPassword;
+
+    @Value("${app.events.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.events.maxSubscribers:50}")
+    private int maxSubscribers;
+
+    @Value("${app.events.heartbeatSeconds:25}")
+    private long heartbeatSeconds;
+
+    @Value("${app.events.emitterTimeoutMinutes:30}")
+    private long emitterTimeoutMinutes;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private volatile boolean running;
+    private volatile Thread listenerThread;
+    private volatile ExecutorService sender;
+
+    // ---------- Subscribers ----------
+
+    /**
+     * Register a new SSE subscriber, or null when the subscriber limit is reached
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(Duration.ofMinutes(emitterTimeoutMinutes).toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        // Confirms the stream is open and tells the client to load a fresh snapshot
+        subscriber.enqueue(DashboardEventService::resync);
+        log.debug("Dashboard event subscriber added ({} connected)", subscribers.size());
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Queue an event for every subscriber. SseEventBuilder.build() is not idempotent,
+     * so each subscriber builds its own event from the supplier.
+     */
+    private void broadcast(Supplier<SseEmitter.SseEventBuilder> event) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(event);
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder resync() {
+        return SseEmitter.event().name("resync").data("{}", MediaType.APPLICATION_JSON);
+    }
+
+    /** One connected browser: its pending events, sent in order by at most one sender task at a time */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<Supplier<SseEmitter.SseEventBuilder>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(Supplier<SseEmitter.SseEventBuilder> event) {
+            if (pendingCount.incrementAndGet() > MAX_PENDING) {
+                drop(new IllegalStateException("Subscriber fell " + MAX_PENDING + " events behind"));
+                return;
+            }
+            pending.add(event);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            ExecutorService executor = sender;
+            if (executor != null && draining.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Supplier<SseEmitter.SseEventBuilder> event;
+                while ((event = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    try {
+                        emitter.send(event.get());
+                    } catch (IOException | IllegalStateException e) {
+                        // Client went away
+                        drop(e);
+                        return;
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            // Events queued after the last poll but before draining was cleared
+            if (!pending.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void drop(Throwable cause) {
+            if (subscribers.remove(this)) {
+                pending.clear();
+                emitter.completeWithError(cause);
+            }
+        }
+    }
+
+    // ---------- Listener ----------
+
+    private void listen() {
+        long backoffMillis = 1000;
+        boolean reconnecting = false;
+
+        while (running) {
+            try (Connection conn = DriverManager.getConnection(jdbcUrl, dbUser, dbPassword)) {
+                try (Statement st = conn.createStatement()) {
+                    st.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pg = conn.unwrap(PGConnection.class);
+                log.info("Listening for dashboard events on channel {}", CHANNEL);
+                if (reconnecting) {
+                    broadcast(DashboardEventService::resync);
+                }
+                backoffMillis = 1000;
+                reconnecting = true;
+
+                long heartbeatMillis = Duration.ofSeconds(heartbeatSeconds).toMillis();
+                long lastHeartbeat = System.currentTimeMillis();
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications((int) heartbeatMillis);
+                    if (notifications != null) {
+                        for (PGNotification n : notifications) {
+                            String payload = n.getParameter();
+                            broadcast(() -> SseEmitter.event()
+                                    .name(eventName(payload))
+                                    .data(payload, MediaType.APPLICATION_JSON));
+                        }
+                    }
+                    if (System.currentTimeMillis() - lastHeartbeat >= heartbeatMillis) {
+                        // Keeps proxies from closing idle streams and prunes dead clients
+                        broadcast(() -> SseEmitter.event().comment("ping"));
+                        lastHeartbeat = System.currentTimeMillis();
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("Dashboard event listener lost its connection, retrying in {} ms: {}",
+                        backoffMillis, e.getMessage());
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, 30_000);
+            }
+        }
+        log.info("Dashboard event listener stopped");
+    }
+
+    /** Pull "type" out of the notification payload without a full JSON parse */
+    static String eventName(String payload) {
+        int key = payload.indexOf("\"type\"");
+        if (key >= 0) {
+            int start = payload.indexOf('"', payload.indexOf(':', key) + 1);
+            int end = start >= 0 ? payload.indexOf('"', start + 1) : -1;
+            if (end > start) {
+                return payload.substring(start + 1, end);
+            }
+        }
+        return "change";
+    }
+
+    // ---------- Lifecycle ----------
+
+    @Override
+    public void start() {
+        sender = backgroundThreads.executor("dashboard-events-sender");
+        if (!enabled) {
+            log.info("Dashboard event feed disabled (app.events.enabled=false)");
+            return;
+        }
+        running = true;
+        listenerThread = backgroundThreads.start("dashboard-events-listener", this::listen);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = listenerThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        ExecutorService executor = sender;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
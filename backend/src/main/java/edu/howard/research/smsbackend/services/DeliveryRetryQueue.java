@@ -0,0 +1,222 @@
+package edu.howard.research.smsbackend.services;
+
+import edu.howard.research.smsbackend.models.dto.DeliveryAttemptResult;
+import edu.howard.research.smsbackend.models.dto.EmailSendResult;
+import edu.howard.research.smsbackend.models.entities.DeliveryDeadLetter;
+import edu.howard.research.smsbackend.models.entities.DeliveryRetry;
+import edu.howard.research.smsbackend.repositories.DeliveryDeadLetterRepository;
+import edu.howard.research.smsbackend.repositories.DeliveryRetryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry queue and dead-letter table for failed deliveries (gift cards, invitation SMS).
+ *
+ * Callers report a failed send together with the provider's answer, which decides where it goes:
+ * - permanent (invalid, unreachable or unsubscribed number; an address SendGrid rejects with a
+ *   4xx other than 429): straight to the dead-letter table;
+ * - anything else (provider unavailable, 429, 5xx, network errors): the retry queue. The
+ *   delivery-retry job re-attempts it after baseDelaySeconds * 2^(n-1), capped at
+ *   maxDelayMinutes, with the actual delay drawn between half and all of that so a burst of
+ *   failures doesn't retry in lockstep. After maxAttempts failures it is dead-lettered as EXHAUSTED.
+ *
+ * A retry re-sends what the target already holds (the same pool card, the same survey link);
+ * nothing is allocated again. Dead letters can be requeued or discarded from the admin view.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeliveryRetryQueue {
+
+    public static final String KIND_GIFT_CARD = "GIFT_CARD";
+    public static final String KIND_INVITATION_SMS = "INVITATION_SMS";
+
+    /**
+     * Twilio errors that will not go away by retrying: invalid/unreachable number (21211, 21214,
+     * 21217, 21401, 21612, 21614), region not enabled (21408), recipient unsubscribed (21610).
+     */
+    private static final Set<String> PERMANENT_SMS_ERRORS =
+            Set.of("21211", "21214", "21217", "21401", "21408", "21610", "21612", "21614", "no_phone");
+
+    private final DeliveryRetryRepository retryRepository;
+    private final DeliveryDeadLetterRepository deadLetterRepository;
+
+    @Value("${app.deliveryRetry.maxAttempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.deliveryRetry.baseDelaySeconds:60}")
+    private long baseDelaySeconds;
+
+    @Value("${app.deliveryRetry.maxDelayMinutes:360}")
+    private long maxDelayMinutes;
+
+    @Value("${app.deliveryRetry.batchSize:50}")
+    private int batchSize;
+
+    // ---------- Classification ----------
+
+    /** True when an SmsService.send result failed for a reason retrying won't fix */
+    public static boolean isPermanentSmsFailure(Map<String, Object> sendResult) {
+        if (Boolean.TRUE.equals(sendResult.get("retryable"))) {
+            return false;
+        }
+        return PERMANENT_SMS_ERRORS.contains(String.valueOf(sendResult.get("error")));
+    }
+
+    /** True when SendGrid rejected the message itself (bad address, 4xx other than 429) */
+    public static boolean isPermanentEmailFailure(EmailSendResult result) {
+        if (result.isRetryable() || result.getStatusCode() == null) {
+            return false;
+        }
+        int status = result.getStatusCode();
+        return status >= 400 && status < 500 && status != 429;
+    }
+
+    /** Delay before the next attempt after {@code failedAttempts} failures */
+    Duration backoff(int failedAttempts) {
+        long cap = Duration.ofMinutes(maxDelayMinutes).toSeconds();
+        int exponent = Math.min(Math.max(failedAttempts - 1, 0), 30);
+        long delay = Math.min(cap, baseDelaySeconds << exponent);
+        long half = delay / 2;
+        return Duration.ofSeconds(half + ThreadLocalRandom.current().nextLong(delay - half + 1));
+    }
+
+    // ---------- Reporting failures ----------
+
+    /**
+     * A gift card delivery failed. The card keeps its pool card either way; a permanent failure
+     * goes to the dead-letter table, anything else is queued for retry.
+     */
+    @Transactional
+    public void giftCardFailed(UUID giftCardId, String deliveryMethod, String error, boolean permanent, String performedBy) {
+        if (permanent) {
+            retryRepository.deadLetter(KIND_GIFT_CARD, giftCardId, deliveryMethod, null, performedBy, error);
+            log.warn("Gift card {} delivery failed permanently ({}); moved to dead letters", giftCardId, error);
+        } else {
+            enqueue(KIND_GIFT_CARD, giftCardId, deliveryMethod, null, performedBy, error);
+        }
+    }
+
+    /** A first-time invitation SMS failed; {@code sendResult} is what SmsService.send returned */
+    @Transactional
+    public void invitationSmsFailed(UUID invitationId, String body, Map<String, Object> sendResult, String performedBy) {
+        String error = String.valueOf(sendResult.get("error"));
+        if (isPermanentSmsFailure(sendResult)) {
+            retryRepository.deadLetter(KIND_INVITATION_SMS, invitationId, "SMS", body, performedBy, error);
+            log.warn("Invitation {} SMS failed permanently ({}); moved to dead letters", invitationId, error);
+        } else {
+            enqueue(KIND_INVITATION_SMS, invitationId, "SMS", body, performedBy, error);
+        }
+    }
+
+    private void enqueue(String kind, UUID targetId, String channel, String body, String performedBy, String error) {
+        Duration delay = backoff(1);
+        retryRepository.enqueue(kind, targetId, channel, body, performedBy, maxAttempts, delay.toSeconds(), error);
+        log.info("{} {} queued for retry in {}s ({})", kind, targetId, delay.toSeconds(), error);
+    }
+
+    /** Drop a target from the queue and the dead letters, e.g. when it was unsent or delivered by hand */
+    @Transactional
+    public void cancel(String kind, UUID targetId) {
+        retryRepository.cancel(kind, targetId);
+    }
+
+    // ---------- Worker side ----------
+
+    public List<DeliveryRetry> findDue() {
+        return retryRepository.findDue(batchSize);
+    }
+
+    /** Record the outcome of a re-attempt of {@code item} */
+    @Transactional
+    public void recordAttempt(DeliveryRetry item, DeliveryAttemptResult result) {
+        switch (result.getOutcome()) {
+            case DELIVERED -> {
+                retryRepository.remove(item.getId());
+                log.info("{} {} delivered on retry {}", item.getKind(), item.getTargetId(), item.getAttempts() + 1);
+            }
+            case OBSOLETE -> {
+                retryRepository.remove(item.getId());
+                log.info("{} {} dropped from retry queue: {}", item.getKind(), item.getTargetId(), result.getError());
+            }
+            case PERMANENT_FAILURE -> {
+                retryRepository.moveToDeadLetter(item.getId(), item.getAttempts() + 1, result.getError(), "PERMANENT");
+                log.warn("{} {} failed permanently on retry ({}); moved to dead letters",
+                        item.getKind(), item.getTargetId(), result.getError());
+            }
+            case TRANSIENT_FAILURE -> {
+                int failed = item.getAttempts() + 1;
+                if (failed >= item.getMaxAttempts()) {
+                    retryRepository.moveToDeadLetter(item.getId(), failed, result.getError(), "EXHAUSTED");
+                    log.warn("{} {} still failing after {} attempts ({}); moved to dead letters",
+                            item.getKind(), item.getTargetId(), failed, result.getError());
+                } else {
+                    Duration delay = backoff(failed);
+                    retryRepository.reschedule(item.getId(), failed, delay.toSeconds(), result.getError());
+                    log.info("{} {} retry {} failed ({}); next attempt in {}s",
+                            item.getKind(), item.getTargetId(), failed, result.getError(), delay.toSeconds());
+                }
+            }
+        }
+    }
+
+    // ---------- Admin view ----------
+
+    public Page<DeliveryRetry> getQueued(Pageable pageable) {
+        return retryRepository.findAllByOrderByNextAttemptAtAsc(pageable);
+    }
+
+    public Page<DeliveryDeadLetter> getDeadLetters(String kind, Pageable pageable) {
+        return kind == null || kind.isBlank()
+                ? deadLetterRepository.findAllByOrderByDeadAtDescIdDesc(pageable)
+                : deadLetterRepository.findByKindOrderByDeadAtDescIdDesc(kind.trim().toUpperCase(), pageable);
+    }
+
+    /** Requeue dead letters, due immediately and with a fresh attempt budget; returns how many */
+    @Transactional
+    public int requeue(List<UUID> ids) {
+        int requeued = 0;
+        for (List<UUID> chunk : chunks(ids)) {
+            requeued += deadLetterRepository.requeue(chunk, maxAttempts).size();
+        }
+        log.info("Requeued {} of {} dead letters", requeued, ids.size());
+        return requeued;
+    }
+
+    /** Delete dead letters; returns the deleted rows */
+    @Transactional
+    public List<DeliveryDeadLetter> discard(List<UUID> ids) {
+        List<DeliveryDeadLetter> discarded = new ArrayList<>();
+        for (List<UUID> chunk : chunks(ids)) {
+            discarded.addAll(deadLetterRepository.discard(chunk));
+        }
+        log.info("Discarded {} of {} dead letters", discarded.size(), ids.size());
+        return discarded;
+    }
+
+    // Max ids per set-based statement
+    private static final int BULK_CHUNK_SIZE = 1000;
+
+    private static List<List<UUID>> chunks(List<UUID> ids) {
+        List<UUID> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<List<UUID>> chunks = new ArrayList<>();
+        for (int start = 0; start < distinct.size(); start += BULK_CHUNK_SIZE) {
+            chunks.add(distinct.subList(start, Math.min(start + BULK_CHUNK_SIZE, distinct.size())));
+        }
+        return chunks;
+    }
+}
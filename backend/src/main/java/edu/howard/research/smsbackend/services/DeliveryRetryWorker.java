@@ -0,0 +1,57 @@
+package edu.howard.research.smsbackend.services;
+
+import edu.howard.research.smsbackend.models.dto.DeliveryAttemptResult;
+import edu.howard.research.smsbackend.models.entities.DeliveryRetry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Re-attempts due items from the delivery retry queue (see DeliveryRetryQueue), one batch per
+ * run of the delivery-retry job. Each item is re-sent with what it already holds and its
+ * outcome recorded on its own, so one bad item doesn't stop the batch.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeliveryRetryWorker {
+
+    private final DeliveryRetryQueue deliveryRetryQueue;
+    private final GiftCardService giftCardService;
+    private final InvitationsService invitationsService;
+
+    /** @return number of items delivered */
+    public int processDue() {
+        List<DeliveryRetry> due = deliveryRetryQueue.findDue();
+        int delivered = 0;
+        for (DeliveryRetry item : due) {
+            DeliveryAttemptResult result;
+            try {
+                result = attempt(item);
+            } catch (Exception e) {
+                log.error("Retry of {} {} threw: {}", item.getKind(), item.getTargetId(), e.getMessage(), e);
+                result = DeliveryAttemptResult.failed(false, "exception: " + e.getMessage());
+            }
+            deliveryRetryQueue.recordAttempt(item, result);
+            if (result.getOutcome() == DeliveryAttemptResult.Outcome.DELIVERED) {
+                delivered++;
+            }
+        }
+        if (!due.isEmpty()) {
+            log.info("Delivery retry: {} due, {} delivered", due.size(), delivered);
+        }
+        return delivered;
+    }
+
+    private DeliveryAttemptResult attempt(DeliveryRetry item) {
+        return switch (item.getKind()) {
+            case DeliveryRetryQueue.KIND_GIFT_CARD ->
+                    giftCardService.retryDelivery(item.getTargetId(), item.getChannel(), item.getPerformedBy());
+            case DeliveryRetryQueue.KIND_INVITATION_SMS ->
+                    invitationsService.retryInvitationSms(item.getTargetId(), item.getMessageBody());
+            default -> DeliveryAttemptResult.failed(true, "unknown kind " + item.getKind());
+        };
+    }
+}
@@ -0,0 +1,261 @@
+package edu.howard.research.smsbackend.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.howard.research.smsbackend.config.BackgroundThreads;
+import edu.howard.research.smsbackend.models.entities.DistributionAction;
+import edu.howard.research.smsbackend.util.UuidV7Generator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind for gift_card_distribution_logs. Entries are handed over when the surrounding
+ * transaction commits (dropped if it rolls back, as before) and a background thread inserts them
+ * in JDBC batches, so a batch send no longer pays one round trip per audit row.
+ *
+ * - The queue is bounded (app.audit.queueCapacity). When it is full the caller waits up to
+ *   app.audit.offerTimeoutMillis for room, then writes its entry itself in a new transaction
+ *   (the committed one's connection is still bound in afterCommit), once and without sleeping.
+ * - The flusher wakes at least every app.audit.flushIntervalMillis.
+ * - On shutdown the flusher is stopped and everything still queued is written before the
+ *   DataSource goes away. Entries are lost only if the JVM dies without a normal shutdown.
+ *
+ * Ids and created_at are assigned when the entry is recorded, so ordering and partition
+ * placement are the same as for a synchronous insert; the row just becomes visible up to one
+ * flush interval later.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DistributionAuditWriter implements SmartLifecycle {
+
+    private static final String INSERT_SQL = """
+        INSERT INTO gift_card_distribution_logs (id, gift_card_id, action, performed_by, details, created_at)
+        VALUES (?, ?, ?, ?, CAST(? AS jsonb), ?)
+        ON CONFLICT DO NOTHING
+        """;
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final BackgroundThreads backgroundThreads;
+
+    @Value("${app.audit.queueCapacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.audit.batchSize:200}")
+    private int batchSize;
+
+    @Value("${app.audit.offerTimeoutMillis:50}")
+    private long offerTimeoutMillis;
+
+    @Value("${app.audit.flushIntervalMillis:500}")
+    private long flushIntervalMillis;
+
+    @Value("${app.audit.shutdownTimeoutSeconds:10}")
+    private long shutdownTimeoutSeconds;
+
+    private volatile BlockingQueue<AuditEntry> queue;
+    private volatile TransactionTemplate requiresNew;
+    private volatile boolean running;
+    private volatile Thread flusherThread;
+
+    record AuditEntry(UUID id, UUID giftCardId, DistributionAction action, String performedBy,
+                      String detailsJson, OffsetDateTime createdAt) {}
+
+    /**
+     * Record an audit entry. Inside a transaction it is queued after commit; otherwise right away.
+     */
+    public void record(UUID giftCardId, DistributionAction action, String performedBy, Map<String, Object> details) {
+        AuditEntry entry = new AuditEntry(UuidV7Generator.next(), giftCardId, action, performedBy,
+                toJson(details), OffsetDateTime.now());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entry);
+                }
+            });
+        } else {
+            enqueue(entry);
+        }
+    }
+
+    public int getQueueSize() {
+        BlockingQueue<AuditEntry> q = queue;
+        return q != null ? q.size() : 0;
+    }
+
+    private void enqueue(AuditEntry entry) {
+        BlockingQueue<AuditEntry> q = queue;
+        if (running && q != null) {
+            try {
+                if (q.offer(entry, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Not started, shutting down, or backed up: write it ourselves
+        writeInline(entry);
+    }
+
+    /**
+     * Caller-side write. Runs in its own transaction: in afterCommit the finished transaction's
+     * connection is still bound to the thread, and a JdbcTemplate insert there would never commit.
+     */
+    private void writeInline(AuditEntry entry) {
+        try {
+            requiresNew().executeWithoutResult(status -> writeBatch(List.of(entry)));
+        } catch (RuntimeException e) {
+            log.error("Dropping audit entry {} {} for gift card {} by {} ({}): {}", entry.id(), entry.action(),
+                    entry.giftCardId(), entry.performedBy(), entry.detailsJson(), e.getMessage());
+        }
+    }
+
+    private TransactionTemplate requiresNew() {
+        TransactionTemplate template = requiresNew;
+        if (template == null) {
+            template = new TransactionTemplate(transactionManager);
+            template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            requiresNew = template;
+        }
+        return template;
+    }
+
+    private String toJson(Map<String, Object> details) {
+        if (details == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(details);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Audit details are not serializable: " + e.getMessage(), e);
+        }
+    }
+
+    // ---------- Flushing ----------
+
+    private void flushLoop() {
+        List<AuditEntry> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                AuditEntry first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeWithRetry(batch);
+            } catch (InterruptedException e) {
+                // stop() interrupts us; whatever is left is drained there
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void drainRemaining() {
+        List<AuditEntry> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeWithRetry(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Flusher-side insert of a batch, retrying transient failures. If the batch still fails, fall
+     * back to row by row so one bad entry (e.g. its gift card was deleted meanwhile) doesn't take
+     * the rest with it. Only the flusher and shutdown threads get here, so the backoff sleeps
+     * never hold up a request.
+     */
+    private void writeWithRetry(List<AuditEntry> batch) {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                writeBatch(batch);
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Audit batch of {} failed (attempt {}/{}): {}", batch.size(), attempt, MAX_ATTEMPTS, e.getMessage());
+                if (attempt < MAX_ATTEMPTS) {
+                    try {
+                        Thread.sleep(200L * attempt);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+        }
+        for (AuditEntry entry : batch) {
+            writeInline(entry);
+        }
+    }
+
+    private void writeBatch(List<AuditEntry> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, entry) -> {
+            ps.setObject(1, entry.id());
+            ps.setObject(2, entry.giftCardId());
+            ps.setString(3, entry.action().name());
+            ps.setString(4, entry.performedBy());
+            ps.setString(5, entry.detailsJson());
+            ps.setTimestamp(6, Timestamp.from(entry.createdAt().toInstant()));
+        });
+    }
+
+    // ---------- Lifecycle ----------
+
+    @Override
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        flusherThread = backgroundThreads.start("distribution-audit-writer", this::flushLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = flusherThread;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(shutdownTimeoutSeconds));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        int pending = getQueueSize();
+        if (pending > 0) {
+            log.info("Flushing {} queued audit entries before shutdown", pending);
+        }
+        drainRemaining();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -7,17 +7,100 @@ import com.sendgrid.SendGrid;
 import com.sendgrid.helpers.mail.Mail;
 import com.sendgrid.helpers.mail.objects.Content;
 import com.sendgrid.helpers.mail.objects.Email;
+import com.sendgrid.helpers.mail.objects.Personalization;
+import edu.howard.research.smsbackend.models.dto.BulkEmailRecipient;
+import edu.howard.research.smsbackend.exceptions.ProviderUnavailableException;
 import edu.howard.research.smsbackend.models.dto.EmailSendResult;
+import edu.howard.research.smsbackend.services.ProviderGuard.Provider;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailService {
 
+    /** SendGrid accepts at most 1000 personalizations per mail/send request */
+    static final int MAX_PERSONALIZATIONS_PER_REQUEST = 1000;
+
+    /** Custom arg carried on each personalization so webhook events can be traced back */
+    private static final String REFERENCE_ID_ARG = "reference_id";
+
+    private static final String SURVEY_LINK_SUBJECT = "HCAI (Howard University Research) Survey Link";
+
+    private static final String SURVEY_LINK_TEMPLATE = """
+            <!DOCTYPE html>
+            <html>
+            <head>
+                <meta charset="utf-8">
+                <meta name="viewport" content="width=device-width, initial-scale=1.0">
+                <title>HCAI (Howard University Research) Survey Link</title>
+            </head>
+            <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333; max-width: 600px; margin: 0 auto; padding: 20px;">
+                <div style="background-color: #f8f9fa; padding: 20px; border-radius: 8px; margin-bottom: 20px;">
+                </div>
+                
+                <div style="background-color: #ffffff; padding: 20px; border: 1px solid #e9ecef; border-radius: 8px;">
+                    <h2 style="color: #2c3e50;">Hello -participantName-!</h2>
+                    
+                    <p>Thank you for participating in our research study. Here's your survey link:</p>
+                    
+                    <div style="background-color: #e8f4fd; padding: 15px; border-radius: 5px; margin: 20px 0; text-align: center;">
+                        <a href="-surveyLink-" style="background-color: #007bff; color: white; padding: 12px 24px; text-decoration: none; border-radius: 5px; display: inline-block; font-weight: bold;">
+                            Take Survey Now
+                        </a>
+                    </div>
+                    
+                    <p><strong>Important Information:</strong></p>
+                    <ul>
+                        <li>You can pause and restart the survey at any time</li>
+                        <li>The survey must be completed within 10 days</li>
+                        <li>Once completed, we'll send your Amazon gift card</li>
+                    </ul>
+                    
+                    <p>If you have any questions, please contact us at <a href="tel:2404288442">(240) 428-8442</a> or reply to this email.</p>
+                    
+                    <p>Thank you for your participation!</p>
+                    
+                    <p style="margin-top: 30px;">
+                        <strong>The HCAI Research Team</strong><br>
+                        Howard University<br>
+                        HCAI (Howard University Research)
+                    </p>
+                </div>
+                
+                <div style="text-align: center; margin-top: 20px; color: #6c757d; font-size: 12px;">
+                    <p>This email was sent because you requested a survey link for our research study.</p>
+                </div>
+            </body>
+            </html>
+            """;
+
+    private final ProviderGuard providerGuard;
+
+    /**
+     * An email address as it may appear in logs: the first character of the local part and the
+     * domain (e.g. "j***@example.org"), like PhoneNumberService.mask does for phones.
+     */
+    public static String mask(String email) {
+        if (email == null) {
+            return null;
+        }
+        String trimmed = email.trim();
+        int at = trimmed.lastIndexOf('@');
+        if (at <= 0) {
+            return "***";
+        }
+        return trimmed.charAt(0) + "***" + trimmed.substring(at);
+    }
+
     @Value("${sendgrid.apiKey}")
     private String apiKey;
 
@@ -31,12 +114,12 @@ public class EmailService {
         try {
             // Validate that we have a link
             if (surveyLink == null || surveyLink.trim().isEmpty()) {
-                log.error("Cannot send survey link email - surveyLink is null or empty for {}", toEmail);
+                log.error("Cannot send survey link email - surveyLink is null or empty for {}", mask(toEmail));
                 return false;
             }
             
             Email from = new Email(fromEmail, fromName);
-            String subject = "HCAI (Howard University Research) Survey Link";
+            String subject = SURVEY_LINK_SUBJECT;
             
             log.debug("Building survey link email for {} with link: {}", toEmail, surveyLink);
             String htmlContent = buildSurveyLinkEmail(participantName, surveyLink);
@@ -51,15 +134,15 @@ public class EmailService {
             request.setEndpoint("mail/send");
             request.setBody(mail.build());
             
-            Response response = sg.api(request);
+            Response response = send(sg, request);
             
             log.info("Email sent to {}: Status={}, ResponseCode={}", 
-                    toEmail, response.getStatusCode(), response.getBody());
+                    mask(toEmail), response.getStatusCode(), response.getBody());
             
             return response.getStatusCode() >= 200 && response.getStatusCode() < 300;
             
         } catch (Exception e) {
-            log.error("Failed to send email to {}: {}", toEmail, e.getMessage());
+            log.error("Failed to send email to {}: {}", mask(toEmail), e.getMessage());
             return false;
         }
     }
@@ -81,15 +164,15 @@ public class EmailService {
             request.setEndpoint("mail/send");
             request.setBody(mail.build());
             
-            Response response = sg.api(request);
+            Response response = send(sg, request);
             
             log.info("Verification email sent to {}: Status={}, ResponseCode={}", 
-                    toEmail, response.getStatusCode(), response.getBody());
+                    mask(toEmail), response.getStatusCode(), response.getBody());
             
             return response.getStatusCode() >= 200 && response.getStatusCode() < 300;
             
         } catch (Exception e) {
-            log.error("Failed to send verification email to {}: {}", toEmail, e.getMessage());
+            log.error("Failed to send verification email to {}: {}", mask(toEmail), e.getMessage());
             return false;
         }
     }
@@ -113,77 +196,154 @@ public class EmailService {
             request.setEndpoint("mail/send");
             request.setBody(mail.build());
             
-            Response response = sg.api(request);
+            Response response = send(sg, request);
             
             int statusCode = response.getStatusCode();
             String responseBody = response.getBody();
             
             log.info("Gift card email sent to {}: Status={}, ResponseCode={}", 
-                    toEmail, statusCode, responseBody);
+                    mask(toEmail), statusCode, responseBody);
             
             if (statusCode >= 200 && statusCode < 300) {
                 return EmailSendResult.success();
             } else {
                 String errorMsg = String.format("SendGrid returned status %d: %s", statusCode, responseBody);
-                log.warn("Gift card email failed for {}: {}", toEmail, errorMsg);
+                log.warn("Gift card email failed for {}: {}", mask(toEmail), errorMsg);
                 return EmailSendResult.failure(errorMsg, statusCode, responseBody);
             }
             
+        } catch (ProviderUnavailableException e) {
+            log.warn("Gift card email to {} not sent: {}", mask(toEmail), e.getMessage());
+            return EmailSendResult.unavailable(e.getMessage());
         } catch (Exception e) {
             String errorMsg = e.getMessage() != null ? e.getMessage() : "Unknown error";
-            log.error("Failed to send gift card email to {}: {}", toEmail, errorMsg, e);
+            log.error("Failed to send gift card email to {}: {}", mask(toEmail), errorMsg, e);
+            return EmailSendResult.failure(errorMsg);
+        }
+    }
+
+    /**
+     * Send one template to many recipients using SendGrid personalizations.
+     * Recipients are grouped into requests of up to {@link #MAX_PERSONALIZATIONS_PER_REQUEST},
+     * each personalization carrying its own substitutions (e.g. {@code -name-}).
+     * Returns one result per recipient keyed by {@link BulkEmailRecipient#getReferenceId()}.
+     */
+    public Map<String, EmailSendResult> sendBulk(String subject, String htmlTemplate, List<BulkEmailRecipient> recipients) {
+        Map<String, EmailSendResult> results = new LinkedHashMap<>();
+        if (recipients == null || recipients.isEmpty()) {
+            return results;
+        }
+
+        SendGrid sg = new SendGrid(apiKey);
+        for (int start = 0; start < recipients.size(); start += MAX_PERSONALIZATIONS_PER_REQUEST) {
+            List<BulkEmailRecipient> chunk = recipients.subList(start,
+                    Math.min(start + MAX_PERSONALIZATIONS_PER_REQUEST, recipients.size()));
+            EmailSendResult chunkResult = sendPersonalizations(sg, subject, htmlTemplate, chunk);
+
+            if (chunkResult.isSuccess()) {
+                chunk.forEach(r -> results.put(r.getReferenceId(), EmailSendResult.success()));
+            } else if (chunk.size() == 1 || chunkResult.isRetryable()) {
+                // Nothing to isolate (or SendGrid is unavailable, where splitting won't help)
+                chunk.forEach(r -> results.put(r.getReferenceId(), chunkResult));
+            } else {
+                // SendGrid rejects the whole request when a single personalization is invalid,
+                // so retry the chunk one recipient at a time to isolate the bad addresses
+                log.warn("Bulk email batch of {} failed ({}), falling back to individual sends",
+                        chunk.size(), chunkResult.getErrorMessage());
+                for (BulkEmailRecipient recipient : chunk) {
+                    results.put(recipient.getReferenceId(),
+                            sendPersonalizations(sg, subject, htmlTemplate, List.of(recipient)));
+                }
+            }
+        }
+
+        long sent = results.values().stream().filter(EmailSendResult::isSuccess).count();
+        log.info("Bulk email '{}' finished: {} of {} recipients accepted", subject, sent, recipients.size());
+        return results;
+    }
+
+    /** Survey link email to many participants at once; each recipient's link goes in as a substitution */
+    public Map<String, EmailSendResult> sendSurveyLinks(List<BulkEmailRecipient> recipients) {
+        return sendBulk(SURVEY_LINK_SUBJECT, SURVEY_LINK_TEMPLATE, recipients);
+    }
+
+    public BulkEmailRecipient surveyLinkRecipient(String referenceId, String toEmail, String participantName, String surveyLink) {
+        return new BulkEmailRecipient(referenceId, toEmail, participantName,
+                new HashMap<>(surveyLinkSubstitutions(participantName, surveyLink)));
+    }
+
+    /** Replace substitution keys in a template, for sends that don't go through personalizations */
+    public String renderTemplate(String template, Map<String, String> substitutions) {
+        String rendered = template;
+        if (substitutions != null) {
+            for (Map.Entry<String, String> entry : substitutions.entrySet()) {
+                rendered = rendered.replace(entry.getKey(), entry.getValue() != null ? entry.getValue() : "");
+            }
+        }
+        return rendered;
+    }
+
+    /** sg.api through the SendGrid circuit breaker and bulkhead; 5xx and 429 count against the provider */
+    private Response send(SendGrid sg, Request request) throws Exception {
+        return providerGuard.call(Provider.SENDGRID, () -> sg.api(request),
+                response -> response.getStatusCode() >= 500 || response.getStatusCode() == 429);
+    }
+
+    private EmailSendResult sendPersonalizations(SendGrid sg, String subject, String htmlTemplate,
+                                                 List<BulkEmailRecipient> recipients) {
+        try {
+            Mail mail = new Mail();
+            mail.setFrom(new Email(fromEmail, fromName));
+            mail.setSubject(subject);
+            mail.addContent(new Content("text/html", htmlTemplate));
+
+            for (BulkEmailRecipient recipient : recipients) {
+                Personalization personalization = new Personalization();
+                personalization.addTo(new Email(recipient.getToEmail(), recipient.getName()));
+                if (recipient.getSubstitutions() != null) {
+                    recipient.getSubstitutions().forEach((key, value) ->
+                            personalization.addSubstitution(key, value != null ? value : ""));
+                }
+                if (recipient.getReferenceId() != null) {
+                    personalization.addCustomArg(REFERENCE_ID_ARG, recipient.getReferenceId());
+                }
+                mail.addPersonalization(personalization);
+            }
+
+            Request request = new Request();
+            request.setMethod(Method.POST);
+            request.setEndpoint("mail/send");
+            request.setBody(mail.build());
+
+            Response response = send(sg, request);
+
+            int statusCode = response.getStatusCode();
+            log.info("Bulk email sent to {} recipients: Status={}", recipients.size(), statusCode);
+
+            if (statusCode >= 200 && statusCode < 300) {
+                return EmailSendResult.success();
+            }
+            String errorMsg = String.format("SendGrid returned status %d: %s", statusCode, response.getBody());
+            return EmailSendResult.failure(errorMsg, statusCode, response.getBody());
+
+        } catch (ProviderUnavailableException e) {
+            log.warn("Bulk email to {} recipients not sent: {}", recipients.size(), e.getMessage());
+            return EmailSendResult.unavailable(e.getMessage());
+        } catch (Exception e) {
+            String errorMsg = e.getMessage() != null ? e.getMessage() : "Unknown error";
+            log.error("Failed to send bulk email to {} recipients: {}", recipients.size(), errorMsg);
             return EmailSendResult.failure(errorMsg);
         }
     }
 
     private String buildSurveyLinkEmail(String participantName, String surveyLink) {
-        return String.format("""
-            <!DOCTYPE html>
-            <html>
-            <head>
-                <meta charset="utf-8">
-                <meta name="viewport" content="width=device-width, initial-scale=1.0">
-                <title>HCAI (Howard University Research) Survey Link</title>
-            </head>
-            <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333; max-width: 600px; margin: 0 auto; padding: 20px;">
-                <div style="background-color: #f8f9fa; padding: 20px; border-radius: 8px; margin-bottom: 20px;">
-                </div>
-                
-                <div style="background-color: #ffffff; padding: 20px; border: 1px solid #e9ecef; border-radius: 8px;">
-                    <h2 style="color: #2c3e50;">Hello %s!</h2>
-                    
-                    <p>Thank you for participating in our research study. Here's your survey link:</p>
-                    
-                    <div style="background-color: #e8f4fd; padding: 15px; border-radius: 5px; margin: 20px 0; text-align: center;">
-                        <a href="%s" style="background-color: #007bff; color: white; padding: 12px 24px; text-decoration: none; border-radius: 5px; display: inline-block; font-weight: bold;">
-                            Take Survey Now
-                        </a>
-                    </div>
-                    
-                    <p><strong>Important Information:</strong></p>
-                    <ul>
-                        <li>You can pause and restart the survey at any time</li>
-                        <li>The survey must be completed within 10 days</li>
-                        <li>Once completed, we'll send your Amazon gift card</li>
-                    </ul>
-                    
-                    <p>If you have any questions, please contact us at <a href="tel:2404288442">(240) 428-8442</a> or reply to this email.</p>
-                    
-                    <p>Thank you for your participation!</p>
-                    
-                    <p style="margin-top: 30px;">
-                        <strong>The HCAI Research Team</strong><br>
-                        Howard University<br>
-                        HCAI (Howard University Research)
-                    </p>
-                </div>
-                
-                <div style="text-align: center; margin-top: 20px; color: #6c757d; font-size: 12px;">
-                    <p>This email was sent because you requested a survey link for our research study.</p>
-                </div>
-            </body>
-            </html>
-            """, participantName != null ? participantName : "Participant", surveyLink);
+        return renderTemplate(SURVEY_LINK_TEMPLATE, surveyLinkSubstitutions(participantName, surveyLink));
+    }
+
+    private Map<String, String> surveyLinkSubstitutions(String participantName, String surveyLink) {
+        return Map.of(
+                "-participantName-", participantName != null ? participantName : "Participant",
+                "-surveyLink-", surveyLink);
     }
 
     private String buildVerificationEmail(String participantName, String verificationCode) {
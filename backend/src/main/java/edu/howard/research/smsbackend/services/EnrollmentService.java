@@ -10,6 +10,18 @@ public interface EnrollmentService {
      */
     EnrollmentStatusDto getEnrollmentStatus();
 
+    /**
+     * Enrollment status for the public endpoint, served from a short-lived in-memory cache
+     * (invalidated when the config changes). Not for enrollment decisions; use isEnrollmentFull.
+     */
+    EnrollmentStatusDto getCachedEnrollmentStatus();
+
+    /**
+     * How long getCachedEnrollmentStatus serves the same status, which is also how long
+     * clients may cache it
+     */
+    int getStatusCacheSeconds();
+
     /**
      * Get enrollment configuration (admin only)
      */
@@ -8,8 +8,15 @@ import edu.howard.research.smsbackend.repositories.ParticipantRepository;
 import edu.howard.research.smsbackend.repositories.SurveyEnrollmentConfigRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Slf4j
 @Service
@@ -19,6 +26,18 @@ public class EnrollmentServiceImpl implements EnrollmentService {
     private final SurveyEnrollmentConfigRepository configRepository;
     private final ParticipantRepository participantRepository;
 
+    /** How long the public status is served from memory (app.enrollment.statusCacheSeconds) */
+    @Value("${app.enrollment.statusCacheSeconds:3}")
+    private int statusCacheSeconds;
+
+    /** Status computed at most once per TTL; loaders are serialised so a burst runs one count query */
+    private record CachedStatus(EnrollmentStatusDto status, long expiresAtNanos) { }
+
+    private volatile CachedStatus cachedStatus;
+    private final AtomicLong statusGeneration = new AtomicLong();
+    // One caller reloads an expired status; the others wait for it
+    private final ReentrantLock statusLoadLock = new ReentrantLock();
+
     @Override
     public EnrollmentStatusDto getEnrollmentStatus() {
         // Count participants who have received a survey link (enrolled), not just verified phones
@@ -53,6 +72,38 @@ public class EnrollmentServiceImpl implements EnrollmentService {
         );
     }
 
+    @Override
+    public EnrollmentStatusDto getCachedEnrollmentStatus() {
+        CachedStatus cached = cachedStatus;
+        if (cached != null && System.nanoTime() < cached.expiresAtNanos()) {
+            return cached.status();
+        }
+        statusLoadLock.lock();
+        try {
+            // Another caller may have loaded it while we waited
+            cached = cachedStatus;
+            if (cached != null && System.nanoTime() < cached.expiresAtNanos()) {
+                return cached.status();
+            }
+            long generation = statusGeneration.get();
+            EnrollmentStatusDto status = getEnrollmentStatus();
+            CachedStatus loaded = new CachedStatus(status,
+                    System.nanoTime() + TimeUnit.SECONDS.toNanos(getStatusCacheSeconds()));
+            // Don't publish a value read before a config change that invalidated the cache
+            if (statusGeneration.get() == generation) {
+                cachedStatus = loaded;
+            }
+            return status;
+        } finally {
+            statusLoadLock.unlock();
+        }
+    }
+
+    @Override
+    public int getStatusCacheSeconds() {
+        return Math.max(0, statusCacheSeconds);
+    }
+
     @Override
     public EnrollmentConfigDto getEnrollmentConfig() {
         // Count participants who have received a survey link (enrolled), not just verified phones
@@ -116,10 +167,26 @@ public class EnrollmentServiceImpl implements EnrollmentService {
         
         log.info("Enrollment config updated by {}: maxParticipants={}, isEnrollmentActive={}", 
             adminUsername, config.getMaxParticipants(), config.getIsEnrollmentActive());
+
+        invalidateStatusCache();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Again once committed, in case the status was reloaded from the old config meanwhile
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateStatusCache();
+                }
+            });
+        }
         
         return getEnrollmentConfig();
     }
 
+    private void invalidateStatusCache() {
+        statusGeneration.incrementAndGet();
+        cachedStatus = null;
+    }
+
     @Override
     public boolean isEnrollmentFull() {
         EnrollmentStatusDto status = getEnrollmentStatus();
@@ -17,9 +17,9 @@ public interface GiftCardService {
     void createPendingGiftCard(UUID participantId, UUID invitationId);
 
     /**
-     * Get participants eligible for gift cards (completed surveys, no gift card yet)
+     * Get one page of participants eligible for gift cards (completed surveys, no gift card yet)
      */
-    List<EligibleParticipantDto> getEligibleParticipants();
+    Page<EligibleParticipantDto> getEligibleParticipants(Pageable pageable);
 
     /**
      * Send gift card to participant (admin action)
@@ -58,6 +58,17 @@ public interface GiftCardService {
      */
     GiftCardDto resendGiftCard(UUID giftCardId, String adminUsername);
 
+    /**
+     * Re-attempt delivery of a card whose send failed, using the pool card it already holds
+     * (called by the delivery retry queue)
+     */
+    DeliveryAttemptResult retryDelivery(UUID giftCardId, String deliveryMethod, String performedBy);
+
+    /**
+     * Give up on an undelivered card: mark it FAILED and release its pool card
+     */
+    void releaseUndeliveredCard(UUID giftCardId, String adminUsername);
+
     /**
      * Add notes to gift card
      */
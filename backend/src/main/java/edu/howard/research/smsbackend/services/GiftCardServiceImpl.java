@@ -13,12 +13,15 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -30,10 +33,13 @@ public class GiftCardServiceImpl implements GiftCardService {
     private final GiftCardRepository giftCardRepository;
     private final GiftCardPoolRepository giftCardPoolRepository;
     private final GiftCardDistributionLogRepository distributionLogRepository;
+    private final DistributionAuditWriter auditWriter;
     private final ParticipantRepository participantRepository;
     private final SurveyInvitationRepository invitationRepository;
     private final EmailService emailService;
     private final SmsService smsService;
+    private final DeliveryRetryQueue deliveryRetryQueue;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     @Transactional
@@ -69,29 +75,43 @@ public class GiftCardServiceImpl implements GiftCardService {
     }
 
     @Override
-    public List<EligibleParticipantDto> getEligibleParticipants() {
-        List<Object[]> results = giftCardRepository.findEligibleParticipants();
-        
-        return results.stream().map(row -> {
-            Participant participant = (Participant) row[0];
-            SurveyInvitation invitation = (SurveyInvitation) row[1];
-            
-            return new EligibleParticipantDto(
-                    participant.getId(),
-                    participant.getName(),
-                    participant.getPhone(),
-                    participant.getEmail(),
-                    invitation.getId(),
-                    invitation.getLinkUrl(),
-                    invitation.getCompletedAt(),
-                    participant.getVerifiedAt()
-            );
-        }).collect(Collectors.toList());
+    public Page<EligibleParticipantDto> getEligibleParticipants(Pageable pageable) {
+        return giftCardRepository.findEligibleParticipants(pageable).map(row -> new EligibleParticipantDto(
+                row.getParticipantId(),
+                row.getParticipantName(),
+                row.getParticipantPhone(),
+                row.getParticipantEmail(),
+                row.getInvitationId(),
+                row.getSurveyLinkUrl(),
+                utc(row.getSurveyCompletedAt()),
+                utc(row.getParticipantVerifiedAt())
+        ));
+    }
+
+    /** Native queries return timestamptz columns as Instant; the DTOs carry OffsetDateTime */
+    private static OffsetDateTime utc(Instant instant) {
+        return instant != null ? instant.atOffset(ZoneOffset.UTC) : null;
     }
 
     @Override
     @Transactional(noRollbackFor = IllegalStateException.class)
     public GiftCardDto sendGiftCard(UUID participantId, SendGiftCardRequest request, String adminUsername) {
+        GiftCard giftCard = allocateGiftCard(participantId, request, adminUsername);
+
+        EmailSendResult emailResult = null;
+        if (includesEmail(request.getDeliveryMethod()) && hasText(giftCard.getParticipant().getEmail())) {
+            emailResult = sendGiftCardEmailWithDetails(giftCard);
+        }
+
+        finishDelivery(giftCard, request.getDeliveryMethod(), emailResult, adminUsername);
+        return convertToDto(giftCard);
+    }
+
+    /**
+     * Pick a pool card for the participant's invitation, persist the gift card and mark the pool card
+     * assigned. Delivery is left to the caller so batch sends can group emails into one request.
+     */
+    private GiftCard allocateGiftCard(UUID participantId, SendGiftCardRequest request, String adminUsername) {
         // Get participant
         Participant participant = participantRepository.findById(participantId)
                 .orElseThrow(() -> new NotFoundException("Participant not found: " + participantId));
@@ -116,8 +136,15 @@ public class GiftCardServiceImpl implements GiftCardService {
             }
         }
         
-        // Automatically pick an available card from the pool
-        GiftCardPool poolCard = giftCardPoolRepository.findAvailable(
+        // A card whose earlier send failed still holds its pool card; deliver that one again
+        GiftCardPool heldPoolCard = existingGiftCard.map(this::heldPoolCard).orElse(null);
+        if (heldPoolCard != null) {
+            // Sending by hand supersedes any queued retry or dead letter for the card
+            deliveryRetryQueue.cancel(DeliveryRetryQueue.KIND_GIFT_CARD, existingGiftCard.get().getId());
+        }
+
+        // Otherwise automatically pick an available card from the pool
+        GiftCardPool poolCard = heldPoolCard != null ? heldPoolCard : giftCardPoolRepository.findAvailable(
                 PageRequest.of(0, 1)
         ).getContent().stream().findFirst()
                 .orElseThrow(() -> new IllegalStateException("No available gift cards in the pool. Please add gift cards to the pool first."));
@@ -179,12 +206,14 @@ public class GiftCardServiceImpl implements GiftCardService {
         }
 
         // Mark pool card as assigned
-        log.info("Marking pool card {} as assigned to gift card {}", poolCard.getId(), giftCard.getId());
-        int updated = giftCardPoolRepository.markAssigned(poolCard.getId(), giftCard.getId());
-        log.info("Pool card marked as assigned - {} rows updated", updated);
-        if (updated == 0) {
-            // Another thread assigned this card after we selected it
-            throw new IllegalStateException("Gift card was just assigned to another participant. Please try again.");
+        if (heldPoolCard == null) {
+            log.info("Marking pool card {} as assigned to gift card {}", poolCard.getId(), giftCard.getId());
+            int updated = giftCardPoolRepository.markAssigned(poolCard.getId(), giftCard.getId());
+            log.info("Pool card marked as assigned - {} rows updated", updated);
+            if (updated == 0) {
+                // Another thread assigned this card after we selected it
+                throw new IllegalStateException("Gift card was just assigned to another participant. Please try again.");
+            }
         }
 
         // Validate delivery method requirements
@@ -204,29 +233,46 @@ public class GiftCardServiceImpl implements GiftCardService {
             }
         }
 
-        // Send via email/SMS
-        boolean emailSent = false;
-        boolean smsSent = false;
-        EmailSendResult emailResult = null;
+        return giftCard;
+    }
 
-        if ("EMAIL".equals(request.getDeliveryMethod()) || "BOTH".equals(request.getDeliveryMethod())) {
-            if (participant.getEmail() != null && !participant.getEmail().trim().isEmpty()) {
-                emailResult = sendGiftCardEmailWithDetails(giftCard);
-                emailSent = emailResult.isSuccess();
-            }
+    /**
+     * Send the SMS leg (if requested) and record the distribution logs. When no delivery succeeded
+     * the card keeps its pool card and goes to the delivery retry queue (PENDING) or, if the failure
+     * is permanent, to the dead letters (FAILED).
+     */
+    private void finishDelivery(GiftCard giftCard, String deliveryMethod, EmailSendResult emailResult, String adminUsername) {
+        Map<String, Object> smsResult = sendSmsLeg(giftCard, deliveryMethod);
+        String failure = recordDelivery(giftCard, deliveryMethod, emailResult, smsResult, adminUsername);
+        if (failure != null) {
+            // Surface an error to the caller without rolling back the recorded outcome
+            throw new IllegalStateException(failure);
         }
+    }
 
-        if ("SMS".equals(request.getDeliveryMethod()) || "BOTH".equals(request.getDeliveryMethod())) {
-            if (participant.getPhone() != null && !participant.getPhone().trim().isEmpty()) {
-                smsSent = sendGiftCardSms(giftCard);
-            }
+    /** SmsService.send result for the gift card SMS, or null when the delivery method has no SMS leg */
+    private Map<String, Object> sendSmsLeg(GiftCard giftCard, String deliveryMethod) {
+        if (includesSms(deliveryMethod) && hasText(giftCard.getParticipant().getPhone())) {
+            return sendGiftCardSmsWithDetails(giftCard);
         }
+        return null;
+    }
+
+    /**
+     * Write the distribution logs for a delivery attempt, and hand the card to the retry queue or
+     * the dead letters if no leg succeeded. Returns the error to report in that case, else null.
+     */
+    private String recordDelivery(GiftCard giftCard, String deliveryMethod, EmailSendResult emailResult,
+                                  Map<String, Object> smsResult, String adminUsername) {
+        Participant participant = giftCard.getParticipant();
+        boolean emailSent = emailResult != null && emailResult.isSuccess();
+        boolean smsSent = smsResult != null && Boolean.TRUE.equals(smsResult.get("ok"));
 
         // Log the sending with detailed error information
-        if ("EMAIL".equals(request.getDeliveryMethod()) || "BOTH".equals(request.getDeliveryMethod())) {
+        if (includesEmail(deliveryMethod)) {
             Map<String, Object> emailDetails = new HashMap<>();
             emailDetails.put("email_sent", emailSent);
-            emailDetails.put("delivery_method", request.getDeliveryMethod());
+            emailDetails.put("delivery_method", deliveryMethod);
             emailDetails.put("recipient_email", participant.getEmail());
             if (emailResult != null && !emailResult.isSuccess()) {
                 emailDetails.put("error_message", emailResult.getErrorMessage());
@@ -239,48 +285,84 @@ public class GiftCardServiceImpl implements GiftCardService {
             }
             logDistributionAction(giftCard.getId(), DistributionAction.EMAIL_SENT, adminUsername, emailDetails);
         }
-        
-        if (smsSent || "SMS".equals(request.getDeliveryMethod()) || "BOTH".equals(request.getDeliveryMethod())) {
-            logDistributionAction(giftCard.getId(), DistributionAction.SMS_SENT, adminUsername, 
-                    Map.of("sms_sent", smsSent, "delivery_method", request.getDeliveryMethod()));
+
+        if (smsSent || includesSms(deliveryMethod)) {
+            logDistributionAction(giftCard.getId(), DistributionAction.SMS_SENT, adminUsername,
+                    Map.of("sms_sent", smsSent, "delivery_method", deliveryMethod));
         }
 
         // Determine if delivery succeeded based on requested method
-        boolean deliverySucceeded = switch (request.getDeliveryMethod()) {
+        boolean deliverySucceeded = switch (deliveryMethod) {
             case "EMAIL" -> emailSent;
             case "SMS" -> smsSent;
             case "BOTH" -> emailSent || smsSent;
             default -> emailSent || smsSent;
         };
 
-        // If no delivery succeeded, fail gracefully and release the pool card
+        // If no delivery succeeded, keep the pool card and hand the card to the retry queue
         if (!deliverySucceeded) {
-            log.warn("No delivery succeeded for gift card {} (participant {}, invitation {}) - marking as FAILED and releasing pool card",
-                    giftCard.getId(), participantId, invitation.getId());
-
-            // Mark gift card as failed
-            giftCard.setStatus(GiftCardStatus.FAILED);
+            boolean permanent = isPermanentFailure(emailResult, smsResult);
+            String error = deliveryError(emailResult, smsResult);
+            log.warn("No delivery succeeded for gift card {} (participant {}, invitation {}) - {}: {}",
+                    giftCard.getId(), participant.getId(),
+                    giftCard.getInvitation() != null ? giftCard.getInvitation().getId() : null,
+                    permanent ? "moving to dead letters" : "queued for retry", error);
+
+            giftCard.setStatus(permanent ? GiftCardStatus.FAILED : GiftCardStatus.PENDING);
             giftCardRepository.save(giftCard);
+            deliveryRetryQueue.giftCardFailed(giftCard.getId(), deliveryMethod, error, permanent, adminUsername);
 
-            // Release the pool card back to AVAILABLE
-            if (giftCard.getPoolId() != null) {
-                giftCardPoolRepository.findById(giftCard.getPoolId()).ifPresent(availableCard -> {
-                    availableCard.setStatus(PoolStatus.AVAILABLE);
-                    availableCard.setAssignedAt(null);
-                    availableCard.setAssignedToGiftCardId(null);
-                    giftCardPoolRepository.save(availableCard);
-                });
-            }
+            return permanent
+                    ? "Failed to send gift card - delivery failed permanently (" + error + "); see delivery dead letters"
+                    : "Failed to send gift card - queued for automatic retry (" + error + ")";
+        }
+        return null;
+    }
 
-            // Surface an error to the caller without rolling back the above changes
-            throw new IllegalStateException("Failed to send gift card - no delivery method succeeded");
+    /**
+     * A failed delivery is permanent only when every leg that was attempted failed for a reason
+     * retrying won't fix
+     */
+    private static boolean isPermanentFailure(EmailSendResult emailResult, Map<String, Object> smsResult) {
+        if (emailResult == null && smsResult == null) {
+            return false;
         }
+        boolean emailPermanent = emailResult == null || DeliveryRetryQueue.isPermanentEmailFailure(emailResult);
+        boolean smsPermanent = smsResult == null || DeliveryRetryQueue.isPermanentSmsFailure(smsResult);
+        return emailPermanent && smsPermanent;
+    }
 
-        return convertToDto(giftCard);
+    private static String deliveryError(EmailSendResult emailResult, Map<String, Object> smsResult) {
+        List<String> errors = new ArrayList<>();
+        if (emailResult != null) {
+            errors.add("email: " + emailResult.getErrorMessage());
+        }
+        if (smsResult != null) {
+            errors.add("sms: " + smsResult.get("error"));
+        }
+        return errors.isEmpty() ? "no delivery attempted" : String.join("; ", errors);
+    }
+
+    /** The pool card a gift card still holds from an earlier (failed) send, if any */
+    private GiftCardPool heldPoolCard(GiftCard giftCard) {
+        if (giftCard.getPoolId() == null
+                || (giftCard.getStatus() != GiftCardStatus.PENDING && giftCard.getStatus() != GiftCardStatus.FAILED)) {
+            return null;
+        }
+        return giftCardPoolRepository.findById(giftCard.getPoolId())
+                .filter(poolCard -> poolCard.getStatus() == PoolStatus.ASSIGNED
+                        && giftCard.getId().equals(poolCard.getAssignedToGiftCardId()))
+                .orElse(null);
     }
 
+    /**
+     * Deliberately not one transaction: each card is allocated and committed in its own short
+     * transaction, the emails (one bulk SendGrid request) and SMS go out with no transaction open,
+     * and each card's outcome is then recorded in another short transaction. A slow provider no
+     * longer keeps the allocated pool rows locked and a pooled connection busy for the whole batch,
+     * and a card whose allocation fails is rolled back on its own.
+     */
     @Override
-    @Transactional(noRollbackFor = IllegalStateException.class)
     public BatchSendGiftCardResult batchSendGiftCards(BatchSendGiftCardRequest request, String adminUsername) {
         log.info("Batch sending gift cards to {} participants, admin: {}", request.getParticipants().size(), adminUsername);
         
@@ -292,49 +374,63 @@ public class GiftCardServiceImpl implements GiftCardService {
         if (availableCards < request.getParticipants().size()) {
             log.warn("Insufficient gift cards in pool. Available: {}, Requested: {}", availableCards, request.getParticipants().size());
         }
-        
-        // Process each participant
+
+        String deliveryMethod = request.getDeliveryMethod();
+
+        // Allocate a card for every participant first so the emails can go out as one bulk send
+        Map<BatchSendGiftCardRequest.ParticipantInvitationPair, GiftCard> allocated = new LinkedHashMap<>();
         for (BatchSendGiftCardRequest.ParticipantInvitationPair pair : request.getParticipants()) {
             try {
-                // Create a SendGiftCardRequest for this participant
                 SendGiftCardRequest sendRequest = new SendGiftCardRequest();
                 sendRequest.setInvitationId(pair.getInvitationId());
-                sendRequest.setDeliveryMethod(request.getDeliveryMethod());
+                sendRequest.setDeliveryMethod(deliveryMethod);
                 sendRequest.setNotes(request.getNotes());
-                
-                // Send the gift card
-                GiftCardDto giftCard = sendGiftCard(pair.getParticipantId(), sendRequest, adminUsername);
-                
-                // Get participant info for result
-                Participant participant = participantRepository.findById(pair.getParticipantId())
-                        .orElse(null);
-                
+
+                allocated.put(pair, transactionTemplate.execute(status ->
+                        allocateGiftCard(pair.getParticipantId(), sendRequest, adminUsername)));
+            } catch (Exception e) {
+                addBatchFailure(result, pair, null, e);
+            }
+        }
+
+        // One SendGrid request per 1000 recipients instead of one per gift card
+        Map<String, EmailSendResult> emailResults = new HashMap<>();
+        if (includesEmail(deliveryMethod)) {
+            List<BulkEmailRecipient> recipients = allocated.values().stream()
+                    .filter(giftCard -> hasText(giftCard.getParticipant().getEmail()))
+                    .map(giftCard -> new BulkEmailRecipient(
+                            giftCard.getId().toString(),
+                            giftCard.getParticipant().getEmail().trim(),
+                            giftCard.getParticipant().getName(),
+                            giftCardEmailSubstitutions(giftCard)))
+                    .collect(Collectors.toList());
+            emailResults = emailService.sendBulk(GIFT_CARD_EMAIL_SUBJECT, GIFT_CARD_EMAIL_TEMPLATE, recipients);
+        }
+
+        for (Map.Entry<BatchSendGiftCardRequest.ParticipantInvitationPair, GiftCard> entry : allocated.entrySet()) {
+            BatchSendGiftCardRequest.ParticipantInvitationPair pair = entry.getKey();
+            GiftCard giftCard = entry.getValue();
+            try {
+                EmailSendResult emailResult = emailResults.get(giftCard.getId().toString());
+                Map<String, Object> smsResult = sendSmsLeg(giftCard, deliveryMethod);
+                String failure = transactionTemplate.execute(status ->
+                        recordDelivery(giftCard, deliveryMethod, emailResult, smsResult, adminUsername));
+                if (failure != null) {
+                    addBatchFailure(result, pair, giftCard.getParticipant(), new IllegalStateException(failure));
+                    continue;
+                }
+
                 BatchSendGiftCardResult.SuccessResult success = new BatchSendGiftCardResult.SuccessResult();
                 success.setParticipantId(pair.getParticipantId());
                 success.setInvitationId(pair.getInvitationId());
                 success.setGiftCardId(giftCard.getId());
-                success.setParticipantPhone(participant != null ? participant.getPhone() : null);
-                success.setParticipantEmail(participant != null ? participant.getEmail() : null);
-                
+                success.setParticipantPhone(giftCard.getParticipant().getPhone());
+                success.setParticipantEmail(giftCard.getParticipant().getEmail());
+
                 result.getSuccesses().add(success);
                 result.setSuccessful(result.getSuccessful() + 1);
-                
             } catch (Exception e) {
-                log.error("Failed to send gift card to participant {}: {}", pair.getParticipantId(), e.getMessage());
-                
-                // Get participant info for error result
-                Participant participant = participantRepository.findById(pair.getParticipantId())
-                        .orElse(null);
-                
-                BatchSendGiftCardResult.FailureResult failure = new BatchSendGiftCardResult.FailureResult();
-                failure.setParticipantId(pair.getParticipantId());
-                failure.setInvitationId(pair.getInvitationId());
-                failure.setParticipantPhone(participant != null ? participant.getPhone() : null);
-                failure.setParticipantEmail(participant != null ? participant.getEmail() : null);
-                failure.setErrorMessage(e.getMessage() != null ? e.getMessage() : "Unknown error");
-                
-                result.getFailures().add(failure);
-                result.setFailed(result.getFailed() + 1);
+                addBatchFailure(result, pair, giftCard.getParticipant(), e);
             }
         }
         
@@ -342,6 +438,26 @@ public class GiftCardServiceImpl implements GiftCardService {
         return result;
     }
 
+    private void addBatchFailure(BatchSendGiftCardResult result, BatchSendGiftCardRequest.ParticipantInvitationPair pair,
+                                 Participant participant, Exception e) {
+        log.error("Failed to send gift card to participant {}: {}", pair.getParticipantId(), e.getMessage());
+
+        // Get participant info for error result
+        if (participant == null) {
+            participant = participantRepository.findById(pair.getParticipantId()).orElse(null);
+        }
+
+        BatchSendGiftCardResult.FailureResult failure = new BatchSendGiftCardResult.FailureResult();
+        failure.setParticipantId(pair.getParticipantId());
+        failure.setInvitationId(pair.getInvitationId());
+        failure.setParticipantPhone(participant != null ? participant.getPhone() : null);
+        failure.setParticipantEmail(participant != null ? participant.getEmail() : null);
+        failure.setErrorMessage(e.getMessage() != null ? e.getMessage() : "Unknown error");
+
+        result.getFailures().add(failure);
+        result.setFailed(result.getFailed() + 1);
+    }
+
     @Override
     public Page<GiftCardDto> getAllGiftCards(Pageable pageable) {
         log.info("Getting all gift cards");
@@ -410,6 +526,95 @@ public class GiftCardServiceImpl implements GiftCardService {
         return convertToDto(giftCard);
     }
 
+    /**
+     * Not one transaction, for the same reason as batchSendGiftCards: the card is read in a short
+     * transaction, SendGrid and Twilio are called with none open, and the outcome is recorded in
+     * another short transaction against a fresh copy of the card.
+     */
+    @Override
+    public DeliveryAttemptResult retryDelivery(UUID giftCardId, String deliveryMethod, String performedBy) {
+        GiftCard giftCard = transactionTemplate.execute(status -> giftCardRepository.findById(giftCardId).orElse(null));
+        if (giftCard == null) {
+            return DeliveryAttemptResult.obsolete("gift card no longer exists");
+        }
+        if (heldPoolCard(giftCard) == null) {
+            return DeliveryAttemptResult.obsolete("gift card is " + giftCard.getStatus() + " and holds no pool card");
+        }
+
+        Participant participant = giftCard.getParticipant();
+        EmailSendResult emailResult = includesEmail(deliveryMethod) && hasText(participant.getEmail())
+                ? sendGiftCardEmailWithDetails(giftCard) : null;
+        Map<String, Object> smsResult = includesSms(deliveryMethod) && hasText(participant.getPhone())
+                ? sendGiftCardSmsWithDetails(giftCard) : null;
+
+        return transactionTemplate.execute(status ->
+                recordRetry(giftCardId, deliveryMethod, performedBy, emailResult, smsResult));
+    }
+
+    private DeliveryAttemptResult recordRetry(UUID giftCardId, String deliveryMethod, String performedBy,
+                                              EmailSendResult emailResult, Map<String, Object> smsResult) {
+        GiftCard giftCard = giftCardRepository.findById(giftCardId).orElse(null);
+        if (giftCard == null) {
+            return DeliveryAttemptResult.obsolete("gift card was deleted during the retry");
+        }
+        boolean emailSent = emailResult != null && emailResult.isSuccess();
+        boolean smsSent = smsResult != null && Boolean.TRUE.equals(smsResult.get("ok"));
+
+        Map<String, Object> details = new HashMap<>();
+        details.put("automatic_retry", true);
+        details.put("delivery_method", deliveryMethod);
+        details.put("email_sent", emailSent);
+        details.put("sms_sent", smsSent);
+        if (emailResult != null && !emailSent) {
+            details.put("email_error_message", emailResult.getErrorMessage());
+            if (emailResult.getStatusCode() != null) {
+                details.put("email_status_code", emailResult.getStatusCode());
+            }
+        }
+        if (smsResult != null && !smsSent) {
+            details.put("sms_error", smsResult.get("error"));
+        }
+        logDistributionAction(giftCard.getId(), DistributionAction.RESENT, performedBy, details);
+
+        if (emailSent || smsSent) {
+            giftCard.setStatus(GiftCardStatus.SENT);
+            giftCard.setSentAt(OffsetDateTime.now());
+            giftCardRepository.save(giftCard);
+            return DeliveryAttemptResult.delivered();
+        }
+
+        boolean permanent = isPermanentFailure(emailResult, smsResult);
+        if (permanent && giftCard.getStatus() != GiftCardStatus.FAILED) {
+            giftCard.setStatus(GiftCardStatus.FAILED);
+            giftCardRepository.save(giftCard);
+        }
+        return DeliveryAttemptResult.failed(permanent, deliveryError(emailResult, smsResult));
+    }
+
+    @Override
+    @Transactional
+    public void releaseUndeliveredCard(UUID giftCardId, String adminUsername) {
+        GiftCard giftCard = giftCardRepository.findById(giftCardId)
+                .orElseThrow(() -> new NotFoundException("Gift card not found: " + giftCardId));
+
+        GiftCardPool poolCard = heldPoolCard(giftCard);
+        if (poolCard == null) {
+            return;
+        }
+        poolCard.setStatus(PoolStatus.AVAILABLE);
+        poolCard.setAssignedAt(null);
+        poolCard.setAssignedToGiftCardId(null);
+        giftCardPoolRepository.save(poolCard);
+
+        giftCard.setStatus(GiftCardStatus.FAILED);
+        giftCardRepository.save(giftCard);
+        deliveryRetryQueue.cancel(DeliveryRetryQueue.KIND_GIFT_CARD, giftCardId);
+
+        logDistributionAction(giftCardId, DistributionAction.STATUS_UPDATED, adminUsername,
+                Map.of("released_pool_id", poolCard.getId().toString(), "reason", "delivery_abandoned"));
+        log.info("Released pool card {} held by undelivered gift card {}", poolCard.getId(), giftCardId);
+    }
+
     @Override
     @Transactional
     public void addNotes(UUID giftCardId, String notes, String adminUsername) {
@@ -465,6 +670,49 @@ public class GiftCardServiceImpl implements GiftCardService {
 
     // Default Amazon redemption URL
     private static final String DEFAULT_REDEMPTION_URL = "https://www.amazon.com/gc/redeem";
+
+    private static final String GIFT_CARD_EMAIL_SUBJECT = "Your Gift Card - Howard Research Study";
+
+    // Uses SendGrid substitution keys so one template serves a whole personalization batch
+    private static final String GIFT_CARD_EMAIL_TEMPLATE = """
+            <!DOCTYPE html>
+            <html>
+            <head>
+                <title>Your Gift Card - Howard Research Study</title>
+            </head>
+            <body>
+                <h2>Thank you for completing our survey!</h2>
+                
+                <p>Dear -participantName-,</p>
+                
+                <p>As promised, here is your -cardType- gift card:</p>
+                
+                <div style="border: 2px solid #ff9900; padding: 20px; margin: 20px 0; text-align: center;">
+                    <h3>🎁 Your -cardType- Gift Card</h3>
+                    <p><strong>Code:</strong> -cardCode-</p>
+                    <p><strong>Expires:</strong> -expiresAt-</p>
+                    
+                    <a href="-redemptionUrl-" 
+                       style="background-color: #ff9900; color: white; padding: 12px 24px; text-decoration: none; border-radius: 4px; display: inline-block; margin-top: 10px;">
+                        Redeem Your Gift Card
+                    </a>
+                </div>
+                
+                <p><strong>How to redeem:</strong></p>
+                <ol>
+                    <li>Click the "Redeem Your Gift Card" button above</li>
+                    <li>Or visit <a href="-redemptionUrl-">-redemptionUrl-</a></li>
+                    <li>Enter your gift card code: <strong>-cardCode-</strong></li>
+                    <li>Start shopping!</li>
+                </ol>
+                
+                <p>If you have any questions, please contact us at (240) 428-8442.</p>
+                
+                <p>Thank you for participating in our research!</p>
+                <p>The Howard Research Team</p>
+            </body>
+            </html>
+            """;
     
     // Pattern for validating Amazon gift card codes (XXXX-XXXXXX-XXXX format)
     private static final java.util.regex.Pattern GIFT_CARD_CODE_PATTERN = 
@@ -570,20 +818,35 @@ public class GiftCardServiceImpl implements GiftCardService {
 
     @Override
     public PoolStatusDto getPoolStatus() {
-        long totalCards = giftCardPoolRepository.count();
-        long availableCards = giftCardPoolRepository.countByStatus(PoolStatus.AVAILABLE);
-        long assignedCards = giftCardPoolRepository.countByStatus(PoolStatus.ASSIGNED);
-        long expiredCards = giftCardPoolRepository.countByStatus(PoolStatus.EXPIRED);
-        long invalidCards = giftCardPoolRepository.countByStatus(PoolStatus.INVALID);
-
-        // Get cards by type
-        Map<String, Long> cardsByType = new HashMap<>();
+        long totalCards = 0;
+        Map<String, Long> byStatus = new HashMap<>();
+
+        // Available cards by type (untyped cards are Amazon) and by batch
+        Map<String, Long> cardsByType = new LinkedHashMap<>();
         for (GiftCardType type : GiftCardType.values()) {
-            cardsByType.put(type.name(), giftCardPoolRepository.countAvailableByTypeAndValue(type, BigDecimal.ZERO));
+            cardsByType.put(type.name(), 0L);
+        }
+        Map<String, Long> cardsByBatch = new TreeMap<>();
+
+        for (GiftCardPoolRepository.PoolCounter counter : giftCardPoolRepository.findPoolCounters()) {
+            long count = counter.getCardCount();
+            totalCards += count;
+            byStatus.merge(counter.getStatus(), count, Long::sum);
+
+            if (PoolStatus.AVAILABLE.name().equals(counter.getStatus())) {
+                String type = counter.getCardType() != null ? counter.getCardType() : GiftCardType.AMAZON.name();
+                cardsByType.merge(type, count, Long::sum);
+                String batch = counter.getBatchLabel() != null ? counter.getBatchLabel() : "(none)";
+                cardsByBatch.merge(batch, count, Long::sum);
+            }
         }
 
-        return new PoolStatusDto(totalCards, availableCards, assignedCards, expiredCards, invalidCards, 
-                cardsByType, new HashMap<>());
+        return new PoolStatusDto(totalCards,
+                byStatus.getOrDefault(PoolStatus.AVAILABLE.name(), 0L),
+                byStatus.getOrDefault(PoolStatus.ASSIGNED.name(), 0L),
+                byStatus.getOrDefault(PoolStatus.EXPIRED.name(), 0L),
+                byStatus.getOrDefault(PoolStatus.INVALID.name(), 0L),
+                cardsByType, cardsByBatch);
     }
 
     @Override
@@ -724,6 +987,9 @@ public class GiftCardServiceImpl implements GiftCardService {
         details.put("source", giftCard.getSource());
 
         logDistributionAction(giftCardId, DistributionAction.UNSENT, adminUsername, details);
+        // Typed snapshot for the unsent history page, taken before the card is changed below
+        giftCardRepository.recordUnsendHistory(giftCardId, adminUsername);
+        deliveryRetryQueue.cancel(DeliveryRetryQueue.KIND_GIFT_CARD, giftCardId);
 
         // Mark the gift card as UNSENT instead of deleting it
         // IMPORTANT: Do NOT set participant or invitation to null - keep the references
@@ -745,48 +1011,48 @@ public class GiftCardServiceImpl implements GiftCardService {
     @Override
     @Transactional(readOnly = true)
     public Page<UnsentGiftCardDto> getUnsentGiftCards(Pageable pageable) {
-        // Find gift cards that have ever been unsent (have UNSENT distribution log)
-        Page<GiftCardDistributionLog> unsentLogs = distributionLogRepository.findByActionOrderByCreatedAtDesc(
-                DistributionAction.UNSENT, pageable);
-
-        return unsentLogs.map(unsentLog -> {
+        // Gift cards that have ever been unsent, from the typed history snapshot (see V43)
+        return giftCardRepository.findUnsendHistory(pageable).map(row -> {
             UnsentGiftCardDto dto = new UnsentGiftCardDto();
-            
-            // Extract all data from distribution log details to avoid Hibernate issues
-            Map<String, Object> details = unsentLog.getDetails();
-            
-            dto.setCardCode((String) details.get("card_code"));
-            dto.setCardType((String) details.get("card_type"));
-            
-            // Handle BigDecimal conversion from Double
-            Object cardValueObj = details.get("card_value");
-            if (cardValueObj instanceof Double) {
-                dto.setCardValue(BigDecimal.valueOf((Double) cardValueObj));
-            } else if (cardValueObj instanceof BigDecimal) {
-                dto.setCardValue((BigDecimal) cardValueObj);
-            } else if (cardValueObj instanceof Number) {
-                dto.setCardValue(BigDecimal.valueOf(((Number) cardValueObj).doubleValue()));
+            dto.setCardCode(row.getCardCode());
+            dto.setCardType(row.getCardType());
+            dto.setCardValue(row.getCardValue());
+            dto.setStatus(row.getPreviousStatus());
+            dto.setParticipantPhone(row.getParticipantPhone());
+            dto.setParticipantEmail(row.getParticipantEmail());
+            dto.setParticipantName(row.getParticipantName());
+            dto.setSentAt(row.getSentAt() != null ? utc(row.getSentAt()).toString() : null);
+            dto.setSentBy(row.getSentBy());
+            dto.setSource(row.getSource());
+            dto.setPoolId(row.getPoolId() != null ? row.getPoolId().toString() : null);
+            dto.setUnsentBy(row.getUnsentBy());
+            dto.setUnsentAt(utc(row.getUnsentAt()));
+
+            // Same keys the UNSENT log details carry, for existing API consumers
+            Map<String, Object> details = new HashMap<>();
+            details.put("card_code", dto.getCardCode());
+            details.put("card_type", dto.getCardType());
+            details.put("card_value", dto.getCardValue());
+            details.put("previous_status", dto.getStatus());
+            details.put("participant_phone", dto.getParticipantPhone());
+            if (dto.getParticipantEmail() != null) {
+                details.put("participant_email", dto.getParticipantEmail());
             }
-            
-            dto.setStatus((String) details.get("previous_status")); // Use previous status from details
-            dto.setParticipantPhone((String) details.get("participant_phone"));
-            dto.setParticipantEmail((String) details.get("participant_email"));
-            dto.setParticipantName((String) details.get("participant_name"));
-            // Extract additional data from details
-            if (details.get("sent_at") != null) {
-                dto.setSentAt(details.get("sent_at").toString());
+            if (dto.getParticipantName() != null) {
+                details.put("participant_name", dto.getParticipantName());
             }
-            dto.setSentBy((String) details.get("sent_by"));
-            dto.setSource((String) details.get("source"));
-            if (details.get("pool_id") != null) {
-                dto.setPoolId(details.get("pool_id").toString());
+            if (dto.getPoolId() != null) {
+                details.put("pool_id", dto.getPoolId());
             }
-            
-            // Use the unsent log we already have
-            dto.setUnsentBy(unsentLog.getPerformedBy());
-            dto.setUnsentAt(unsentLog.getCreatedAt());
-            dto.setDetails(unsentLog.getDetails());
-            
+            if (dto.getSentAt() != null) {
+                details.put("sent_at", dto.getSentAt());
+            }
+            if (dto.getSentBy() != null) {
+                details.put("sent_by", dto.getSentBy());
+            }
+            details.put("source", dto.getSource());
+            dto.setDetails(details);
+
             return dto;
         });
     }
@@ -799,7 +1065,6 @@ public class GiftCardServiceImpl implements GiftCardService {
     
     private EmailSendResult sendGiftCardEmailWithDetails(GiftCard giftCard) {
         try {
-            String subject = "Your Gift Card - Howard Research Study";
             String htmlContent = buildGiftCardEmailHtml(giftCard);
             
             String email = giftCard.getParticipant().getEmail();
@@ -810,7 +1075,7 @@ public class GiftCardServiceImpl implements GiftCardService {
                 return EmailSendResult.failure("Participant has no email address");
             }
             
-            return emailService.sendGiftCardWithDetails(email, name, subject, htmlContent);
+            return emailService.sendGiftCardWithDetails(email, name, GIFT_CARD_EMAIL_SUBJECT, htmlContent);
         } catch (Exception e) {
             log.error("Failed to send gift card email for gift card {}: {}", giftCard.getId(), e.getMessage(), e);
             return EmailSendResult.failure("Exception: " + (e.getMessage() != null ? e.getMessage() : "Unknown error"));
@@ -818,72 +1083,51 @@ public class GiftCardServiceImpl implements GiftCardService {
     }
 
     private boolean sendGiftCardSms(GiftCard giftCard) {
+        return Boolean.TRUE.equals(sendGiftCardSmsWithDetails(giftCard).get("ok"));
+    }
+
+    /** SmsService.send result (ok, error, retryable, ...) for the gift card SMS */
+    private Map<String, Object> sendGiftCardSmsWithDetails(GiftCard giftCard) {
         try {
             String phone = giftCard.getParticipant().getPhone();
             if (phone == null || phone.trim().isEmpty()) {
                 log.warn("Cannot send SMS - participant has no phone number");
-                return false;
+                return Map.of("ok", false, "error", "no_phone");
             }
             
             String message = buildGiftCardSmsMessage(giftCard);
-            Map<String, Object> result = smsService.send(phone, message);
-            return Boolean.TRUE.equals(result.get("ok"));
+            return smsService.send(phone, message);
         } catch (Exception e) {
             log.error("Failed to send gift card SMS: {}", e.getMessage(), e);
-            return false;
+            return Map.of("ok", false, "error", "unknown_error");
         }
     }
 
     private String buildGiftCardEmailHtml(GiftCard giftCard) {
-        return String.format("""
-            <!DOCTYPE html>
-            <html>
-            <head>
-                <title>Your Gift Card - Howard Research Study</title>
-            </head>
-            <body>
-                <h2>Thank you for completing our survey!</h2>
-                
-                <p>Dear %s,</p>
-                
-                <p>As promised, here is your %s gift card:</p>
-                
-                <div style="border: 2px solid #ff9900; padding: 20px; margin: 20px 0; text-align: center;">
-                    <h3>🎁 Your %s Gift Card</h3>
-                    <p><strong>Code:</strong> %s</p>
-                    <p><strong>Expires:</strong> %s</p>
-                    
-                    <a href="%s" 
-                       style="background-color: #ff9900; color: white; padding: 12px 24px; text-decoration: none; border-radius: 4px; display: inline-block; margin-top: 10px;">
-                        Redeem Your Gift Card
-                    </a>
-                </div>
-                
-                <p><strong>How to redeem:</strong></p>
-                <ol>
-                    <li>Click the "Redeem Your Gift Card" button above</li>
-                    <li>Or visit <a href="%s">%s</a></li>
-                    <li>Enter your gift card code: <strong>%s</strong></li>
-                    <li>Start shopping!</li>
-                </ol>
-                
-                <p>If you have any questions, please contact us at (240) 428-8442.</p>
-                
-                <p>Thank you for participating in our research!</p>
-                <p>The Howard Research Team</p>
-            </body>
-            </html>
-            """, 
-            giftCard.getParticipant().getName() != null ? giftCard.getParticipant().getName() : "Participant",
-            giftCard.getCardType() != null ? giftCard.getCardType().toString() : "AMAZON",
-            giftCard.getCardType() != null ? giftCard.getCardType().toString() : "AMAZON",
-            giftCard.getCardCode() != null ? giftCard.getCardCode() : "",
-            giftCard.getExpiresAt() != null ? giftCard.getExpiresAt().toString() : "No expiration",
-            giftCard.getRedemptionUrl() != null ? giftCard.getRedemptionUrl() : DEFAULT_REDEMPTION_URL,
-            giftCard.getRedemptionUrl() != null ? giftCard.getRedemptionUrl() : DEFAULT_REDEMPTION_URL,
-            giftCard.getRedemptionUrl() != null ? giftCard.getRedemptionUrl() : DEFAULT_REDEMPTION_URL,
-            giftCard.getCardCode() != null ? giftCard.getCardCode() : ""
-        );
+        return emailService.renderTemplate(GIFT_CARD_EMAIL_TEMPLATE, giftCardEmailSubstitutions(giftCard));
+    }
+
+    /** Per-recipient values for the substitution keys in {@link #GIFT_CARD_EMAIL_TEMPLATE} */
+    private Map<String, String> giftCardEmailSubstitutions(GiftCard giftCard) {
+        Map<String, String> substitutions = new HashMap<>();
+        substitutions.put("-participantName-", giftCard.getParticipant().getName() != null ? giftCard.getParticipant().getName() : "Participant");
+        substitutions.put("-cardType-", giftCard.getCardType() != null ? giftCard.getCardType().toString() : "AMAZON");
+        substitutions.put("-cardCode-", giftCard.getCardCode() != null ? giftCard.getCardCode() : "");
+        substitutions.put("-expiresAt-", giftCard.getExpiresAt() != null ? giftCard.getExpiresAt().toString() : "No expiration");
+        substitutions.put("-redemptionUrl-", giftCard.getRedemptionUrl() != null ? giftCard.getRedemptionUrl() : DEFAULT_REDEMPTION_URL);
+        return substitutions;
+    }
+
+    private static boolean includesEmail(String deliveryMethod) {
+        return "EMAIL".equals(deliveryMethod) || "BOTH".equals(deliveryMethod);
+    }
+
+    private static boolean includesSms(String deliveryMethod) {
+        return "SMS".equals(deliveryMethod) || "BOTH".equals(deliveryMethod);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
     }
 
     private String buildGiftCardSmsMessage(GiftCard giftCard) {
@@ -910,15 +1154,8 @@ public class GiftCardServiceImpl implements GiftCardService {
     }
 
     private void logDistributionAction(UUID giftCardId, DistributionAction action, String performedBy, Map<String, Object> details) {
-        GiftCardDistributionLog distributionLog = new GiftCardDistributionLog();
-        GiftCard giftCard = new GiftCard();
-        giftCard.setId(giftCardId);
-        distributionLog.setGiftCard(giftCard);
-        distributionLog.setAction(action);
-        distributionLog.setPerformedBy(performedBy);
-        distributionLog.setDetails(details);
-        
-        distributionLogRepository.save(distributionLog);
+        // Written in batches after commit, see DistributionAuditWriter
+        auditWriter.record(giftCardId, action, performedBy, details);
         log.debug("Logged {} action for gift card: {}", action, giftCardId);
     }
 
@@ -0,0 +1,258 @@
+package edu.howard.research.smsbackend.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import edu.howard.research.smsbackend.models.entities.IdempotencyRecord;
+import edu.howard.research.smsbackend.repositories.IdempotencyRecordRepository;
+import edu.howard.research.smsbackend.security.JwtAuthenticationFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Honours the Idempotency-Key header on send endpoints. The first request with a key runs and
+ * its response is stored (in-memory LRU + idempotency_record table); retries with the same key
+ * get the stored response back without touching Twilio/SendGrid or the link/card pools.
+ * While the first request runs, its PENDING claim is kept alive by a heartbeat, so however
+ * long a batch send takes, a retry gets 409 instead of running it again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 128;
+
+    /** A PENDING claim without a heartbeat for this long is assumed to belong to a crashed request */
+    private static final Duration ABANDONED_AFTER = Duration.ofMinutes(5);
+
+    private static final Duration HEARTBEAT_EVERY = Duration.ofMinutes(1);
+
+    /** Replayed when the action committed but its response could not be stored */
+    static final String UNKNOWN_RESPONSE_BODY = """
+            {"error":"response_unavailable","message":"This request already ran, but its response was not stored. Check the current state instead of retrying."}""";
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+    private final TaskScheduler taskScheduler;
+
+    @Value("${app.idempotency.ttlHours:24}")
+    private long ttlHours;
+
+    @Value("${app.idempotency.cacheSize:1000}")
+    private int cacheSize;
+
+    private final Map<String, StoredResponse> recent = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+            return size() > cacheSize;
+        }
+    };
+    /** Guards recent; get() reorders it too */
+    private final ReentrantLock recentLock = new ReentrantLock();
+
+    private record StoredResponse(String requestHash, int status, String body, OffsetDateTime expiresAt) { }
+
+    /**
+     * Run {@code action} at most once per idempotency key within {@code scope}.
+     * Without a key the action simply runs.
+     */
+    public ResponseEntity<?> execute(String idempotencyKey, String scope, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "ok", false,
+                    "error", "invalid_idempotency_key",
+                    "message", "Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters."));
+        }
+
+        String recordKey = scope + ":" + JwtAuthenticationFilter.getCurrentUsername() + ":" + idempotencyKey.trim();
+        String requestHash = hash(request);
+
+        StoredResponse cached = cacheGet(recordKey);
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+
+        if (recordRepository.tryClaim(recordKey, requestHash, Duration.ofHours(ttlHours).toSeconds(),
+                ABANDONED_AFTER.toSeconds()) == 0) {
+            return existing(recordKey, requestHash);
+        }
+
+        ScheduledFuture<?> heartbeat = taskScheduler.scheduleAtFixedRate(
+                () -> heartbeat(recordKey), Instant.now().plus(HEARTBEAT_EVERY), HEARTBEAT_EVERY);
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            heartbeat.cancel(false);
+            recordRepository.release(recordKey);
+            throw e;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Only store the response once the caller's transaction has actually committed
+            ResponseEntity<?> committed = response;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        if (status == STATUS_COMMITTED) {
+                            store(recordKey, requestHash, committed);
+                        } else {
+                            recordRepository.release(recordKey);
+                        }
+                    } finally {
+                        heartbeat.cancel(false);
+                    }
+                }
+            });
+        } else {
+            try {
+                store(recordKey, requestHash, response);
+            } finally {
+                heartbeat.cancel(false);
+            }
+        }
+        return response;
+    }
+
+    private void heartbeat(String recordKey) {
+        try {
+            recordRepository.heartbeat(recordKey);
+        } catch (Exception e) {
+            // A later beat may get through; an exception would cancel the schedule
+            log.warn("Could not refresh idempotency claim {}: {}", recordKey, e.getMessage());
+        }
+    }
+
+    /** Remove expired records; returns the number deleted */
+    public int purgeExpired() {
+        recentLock.lock();
+        try {
+            OffsetDateTime now = OffsetDateTime.now();
+            recent.values().removeIf(stored -> stored.expiresAt().isBefore(now));
+        } finally {
+            recentLock.unlock();
+        }
+        return recordRepository.deleteExpired();
+    }
+
+    private ResponseEntity<?> existing(String recordKey, String requestHash) {
+        IdempotencyRecord record = recordRepository.findById(recordKey).orElse(null);
+        if (record != null && "COMPLETED".equals(record.getStatus())) {
+            StoredResponse stored = new StoredResponse(record.getRequestHash(), record.getResponseStatus(),
+                    record.getResponseBody(), record.getExpiresAt());
+            cachePut(recordKey, stored);
+            return replay(stored, requestHash);
+        }
+        if (record != null && !record.getRequestHash().equals(requestHash)) {
+            return keyReused();
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "ok", false,
+                "error", "request_in_progress",
+                "message", "A request with this Idempotency-Key is still being processed."));
+    }
+
+    private void store(String recordKey, String requestHash, ResponseEntity<?> response) {
+        int status = response.getStatusCode().value();
+        try {
+            String body = objectMapper.writeValueAsString(response.getBody());
+            recordRepository.complete(recordKey, status, body);
+            cachePut(recordKey, new StoredResponse(requestHash, status, body,
+                    OffsetDateTime.now().plusHours(ttlHours)));
+        } catch (Exception e) {
+            // The action has run: never leave the claim PENDING for a retry to take over and repeat it
+            log.warn("Could not store idempotent response for {}: {}", recordKey, e.getMessage());
+            try {
+                recordRepository.complete(recordKey, status, UNKNOWN_RESPONSE_BODY);
+                cachePut(recordKey, new StoredResponse(requestHash, status, UNKNOWN_RESPONSE_BODY,
+                        OffsetDateTime.now().plusHours(ttlHours)));
+            } catch (Exception retryFailure) {
+                log.error("Could not complete idempotency claim {}; a retry after {} may repeat the request: {}",
+                        recordKey, ABANDONED_AFTER, retryFailure.getMessage());
+            }
+        }
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            return keyReused();
+        }
+        try {
+            return ResponseEntity.status(stored.status())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(stored.body() != null ? objectMapper.readTree(stored.body()) : null);
+        } catch (Exception e) {
+            throw new IllegalStateException("Stored idempotent response is unreadable", e);
+        }
+    }
+
+    private ResponseEntity<?> keyReused() {
+        return ResponseEntity.unprocessableEntity().body(Map.of(
+                "ok", false,
+                "error", "idempotency_key_reused",
+                "message", "This Idempotency-Key was already used with a different request."));
+    }
+
+    private StoredResponse cacheGet(String recordKey) {
+        recentLock.lock();
+        try {
+            StoredResponse stored = recent.get(recordKey);
+            if (stored != null && stored.expiresAt().isBefore(OffsetDateTime.now())) {
+                recent.remove(recordKey);
+                return null;
+            }
+            return stored;
+        } finally {
+            recentLock.unlock();
+        }
+    }
+
+    private void cachePut(String recordKey, StoredResponse stored) {
+        recentLock.lock();
+        try {
+            recent.put(recordKey, stored);
+        } finally {
+            recentLock.unlock();
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] json = objectMapper.writer()
+                    .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                    .writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+}
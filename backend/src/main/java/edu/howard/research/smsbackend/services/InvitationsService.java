@@ -1,20 +1,29 @@
 package edu.howard.research.smsbackend.services;
 
+import edu.howard.research.smsbackend.models.dto.DeliveryAttemptResult;
+import edu.howard.research.smsbackend.models.dto.EnrollmentStatusDto;
 import edu.howard.research.smsbackend.models.entities.Participant;
+import edu.howard.research.smsbackend.models.entities.ParticipantStatus;
 import edu.howard.research.smsbackend.models.entities.SurveyInvitation;
 import edu.howard.research.smsbackend.models.entities.SurveyLinkPool;
 import edu.howard.research.smsbackend.repositories.ParticipantRepository;
 import edu.howard.research.smsbackend.repositories.SurveyInvitationRepository;
 import edu.howard.research.smsbackend.repositories.SurveyLinkPoolRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class InvitationsService {
@@ -22,6 +31,11 @@ public class InvitationsService {
     private final SurveyInvitationRepository inviteRepo;
     private final SurveyLinkPoolRepository linkRepo;
     private final ParticipantRepository participantRepo;
+    private final SmsService smsService;
+    private final EnrollmentService enrollmentService;
+
+    // Max ids per set-based statement
+    private static final int BULK_CHUNK_SIZE = 1000;
 
     /**
      * Idempotent: if an active invitation already exists for the phone, return it (resend same link).
@@ -65,14 +79,43 @@ public class InvitationsService {
         inv.setLinkUrl(claim.getLinkUrl());  // denormalized URL for easy sending
         inv.setShortLinkUrl(claim.getShortLinkUrl());  // denormalized short URL
 
+        // claim_available_link already flipped the pool row to CLAIMED
         inv = inviteRepo.save(inv);
 
-        // 5) Flip the pool row to ASSIGNED (if that matches your state machine)
-        linkRepo.markAssigned(claim.getLinkId());
-
         return Optional.of(inv);
     }
 
+    /**
+     * Assign survey links to many participants at once: per chunk, one statement claims the links
+     * and creates the pending invitations (SurveyInvitationRepository.assignLinks). Nothing is sent;
+     * the returned rows (invitation, participant, link) feed the send pipeline. Participants who
+     * are not eligible, or for whom no link or enrollment spot is left, are skipped.
+     */
+    @Transactional
+    public List<SurveyInvitationRepository.AssignedLinkRow> bulkAssign(List<UUID> participantIds, String batchLabel) {
+        EnrollmentStatusDto enrollment = enrollmentService.getEnrollmentStatus();
+        if (!enrollment.isEnrollmentActive()) {
+            throw new IllegalStateException("Enrollment is disabled");
+        }
+        // -1 means unlimited
+        int remaining = enrollment.getRemainingSpots() < 0 ? Integer.MAX_VALUE : enrollment.getRemainingSpots();
+        String batch = (batchLabel != null && !batchLabel.isBlank()) ? batchLabel.trim() : null;
+
+        List<SurveyInvitationRepository.AssignedLinkRow> assigned = new ArrayList<>();
+        for (List<UUID> chunk : chunks(participantIds)) {
+            if (remaining <= 0) {
+                break;
+            }
+            List<SurveyInvitationRepository.AssignedLinkRow> rows = inviteRepo.assignLinks(chunk, batch, remaining);
+            assigned.addAll(rows);
+            remaining -= rows.size();
+        }
+
+        log.info("Bulk assigned links to {} of {} requested participants (batch {})",
+                assigned.size(), participantIds.size(), batch != null ? batch : "any");
+        return assigned;
+    }
+
     /**
      * Same as getOrAssignByPhone but resilient to a race where two requests try simultaneously.
      * If the unique index on "active invite" trips, we fetch and return the existing invite.
@@ -109,58 +152,101 @@ public class InvitationsService {
     }
 
     /**
-     * Bulk mark invitations as completed
+     * Bulk mark invitations as completed and their links EXHAUSTED, with set-based statements.
+     * No gift card rows are created here: the completed invitations enter gift_card_eligibility
+     * through its trigger, which is what the admin eligible list reads.
      */
     @Transactional
-    public int bulkComplete(java.util.List<UUID> invitationIds) {
-        int completedCount = 0;
+    public int bulkComplete(List<UUID> invitationIds) {
         OffsetDateTime now = OffsetDateTime.now();
-        
-        for (UUID invitationId : invitationIds) {
-            try {
-                SurveyInvitation inv = inviteRepo.findById(invitationId).orElse(null);
-                if (inv != null && inv.getCompletedAt() == null) {
-                    inv.setCompletedAt(now);
-                    inv.setMessageStatus("completed");
-                    inviteRepo.save(inv);
-                    completedCount++;
-                }
-            } catch (Exception e) {
-                // Log error but continue with other invitations
-                System.err.println("Failed to complete invitation " + invitationId + ": " + e.getMessage());
-            }
+        List<UUID> completed = new ArrayList<>();
+        for (List<UUID> chunk : chunks(invitationIds)) {
+            completed.addAll(inviteRepo.completeAll(chunk, now));
         }
-        
-        return completedCount;
+
+        for (List<UUID> chunk : chunks(completed)) {
+            linkRepo.markExhaustedForInvitations(chunk);
+        }
+
+        log.info("Bulk completed {} of {} requested invitations", completed.size(), invitationIds.size());
+        return completed.size();
     }
 
     /**
-     * Bulk mark invitations as not completed
+     * Bulk mark invitations as not completed. At most one invitation per participant is reopened
+     * (the latest), and none for a participant who already has an active one; see uncompleteAll.
      */
     @Transactional
-    public int bulkUncomplete(java.util.List<UUID> invitationIds) {
+    public int bulkUncomplete(List<UUID> invitationIds) {
         int uncompletedCount = 0;
-        
-        for (UUID invitationId : invitationIds) {
-            try {
-                SurveyInvitation inv = inviteRepo.findById(invitationId).orElse(null);
-                if (inv != null && inv.getCompletedAt() != null) {
-                    inv.setCompletedAt(null);
-                    inv.setMessageStatus("delivered"); // Reset to previous status
-                    inviteRepo.save(inv);
-                    uncompletedCount++;
-                }
-            } catch (Exception e) {
-                // Log error but continue with other invitations
-                System.err.println("Failed to uncomplete invitation " + invitationId + ": " + e.getMessage());
-            }
+        for (List<UUID> chunk : chunks(invitationIds)) {
+            uncompletedCount += inviteRepo.uncompleteAll(chunk).size();
         }
-        
+
+        log.info("Bulk uncompleted {} of {} requested invitations", uncompletedCount, invitationIds.size());
         return uncompletedCount;
     }
 
+    private static List<List<UUID>> chunks(List<UUID> ids) {
+        List<UUID> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<List<UUID>> chunks = new ArrayList<>();
+        for (int start = 0; start < distinct.size(); start += BULK_CHUNK_SIZE) {
+            chunks.add(distinct.subList(start, Math.min(start + BULK_CHUNK_SIZE, distinct.size())));
+        }
+        return chunks;
+    }
+
     @Transactional
     public void markQueued(java.util.UUID invitationId, String sid) {
         inviteRepo.setQueued(invitationId, sid, "queued", java.time.OffsetDateTime.now());
     }
+
+    /**
+     * Re-send a first-time invitation SMS that failed (called by the delivery retry queue).
+     * Nothing to do once the invitation went out some other way or was completed.
+     */
+    @Transactional
+    public DeliveryAttemptResult retryInvitationSms(UUID invitationId, String body) {
+        SurveyInvitation inv = inviteRepo.findById(invitationId).orElse(null);
+        if (inv == null) {
+            return DeliveryAttemptResult.obsolete("invitation no longer exists");
+        }
+        if (inv.getCompletedAt() != null || inv.getQueuedAt() != null) {
+            return DeliveryAttemptResult.obsolete("invitation already sent or completed");
+        }
+        Participant p = inv.getParticipant();
+        if (p == null || p.getStatus() == ParticipantStatus.OPTED_OUT) {
+            return DeliveryAttemptResult.obsolete("participant removed or opted out");
+        }
+        if (p.getPhone() == null || p.getPhone().isBlank()) {
+            return DeliveryAttemptResult.failed(true, "no_phone");
+        }
+
+        Map<String, Object> send = smsService.send(p.getPhone(), body);
+        if (Boolean.TRUE.equals(send.get("ok"))) {
+            markQueued(invitationId, (String) send.get("sid"));
+            return DeliveryAttemptResult.delivered();
+        }
+        String error = String.valueOf(send.get("error"));
+        inv.setMessageStatus("failed");
+        inv.setErrorCode(error);
+        inv.setFailedAt(OffsetDateTime.now());
+        inviteRepo.save(inv);
+        return DeliveryAttemptResult.failed(DeliveryRetryQueue.isPermanentSmsFailure(send), error);
+    }
+
+    @Transactional
+    public void markReminded(UUID invitationId, String sid) {
+        inviteRepo.markReminded(invitationId, sid, OffsetDateTime.now());
+    }
+
+    @Transactional
+    public void markRemindedByEmail(UUID invitationId) {
+        inviteRepo.markRemindedByEmail(invitationId, OffsetDateTime.now());
+    }
+
+    @Transactional
+    public void markReminderAttempted(UUID invitationId) {
+        inviteRepo.markReminderAttempted(invitationId, OffsetDateTime.now());
+    }
 }
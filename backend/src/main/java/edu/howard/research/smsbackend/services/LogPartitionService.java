@@ -0,0 +1,165 @@
+package edu.howard.research.smsbackend.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Housekeeping for the monthly-partitioned log tables (sms_event_log,
+ * gift_card_distribution_logs; see V42).
+ *
+ * - Creates partitions a few months ahead so inserts never land in the default partition.
+ * - Optionally applies a retention policy: partitions whose whole month is older than
+ *   app.logRetention.months are detached, written to {archiveDir}/{partition}.jsonl.gz
+ *   (one JSON object per row) and then dropped. A partition is only dropped after its
+ *   archive file has been written and moved into place, so a failed run leaves the
+ *   detached table behind and the next run picks it up again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LogPartitionService {
+
+    public static final List<String> PARTITIONED_TABLES = List.of("sms_event_log", "gift_card_distribution_logs");
+
+    private static final Pattern MONTH_SUFFIX = Pattern.compile("_y(\\d{4})m(\\d{2})$");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    @Value("${app.logRetention.monthsAhead:3}")
+    private int monthsAhead;
+
+    @Value("${app.logRetention.enabled:false}")
+    private boolean retentionEnabled;
+
+    @Value("${app.logRetention.months:12}")
+    private int retentionMonths;
+
+    @Value("${app.logRetention.archiveDir:./log-archive}")
+    private String archiveDir;
+
+    public boolean isRetentionEnabled() {
+        return retentionEnabled;
+    }
+
+    /**
+     * Make sure partitions exist from the current month through {@code monthsAhead} months out.
+     * @return number of partitions created
+     */
+    public int ensurePartitions() {
+        int created = 0;
+        for (String table : PARTITIONED_TABLES) {
+            Integer n = jdbcTemplate.queryForObject(
+                    "SELECT ensure_log_partitions(?, now(), now() + make_interval(months => ?))",
+                    Integer.class, table, monthsAhead);
+            if (n != null && n > 0) {
+                log.info("Created {} partition(s) for {}", n, table);
+                created += n;
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Detach, archive and drop every monthly partition older than the retention window.
+     * @return number of partitions archived and dropped
+     */
+    public int applyRetention() throws IOException, SQLException {
+        if (!retentionEnabled) {
+            return 0;
+        }
+        if (retentionMonths < 1) {
+            throw new IllegalStateException("app.logRetention.months must be at least 1");
+        }
+        YearMonth cutoff = YearMonth.now(ZoneOffset.UTC).minusMonths(retentionMonths);
+        Path dir = Paths.get(archiveDir);
+        Files.createDirectories(dir);
+
+        int archived = 0;
+        for (String table : PARTITIONED_TABLES) {
+            for (String partition : findExpiredPartitions(table, cutoff)) {
+                if (isAttached(partition)) {
+                    jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+                    log.info("Detached partition {} from {}", partition, table);
+                }
+                Path file = archive(partition, dir);
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                log.info("Archived partition {} to {} and dropped it", partition, file);
+                archived++;
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * Monthly partitions of {@code table} (attached, or detached by an earlier failed run)
+     * whose month is strictly before {@code cutoff}
+     */
+    private List<String> findExpiredPartitions(String table, YearMonth cutoff) {
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_class c " +
+                "WHERE c.relkind = 'r' AND c.relnamespace = current_schema()::regnamespace " +
+                "AND c.relname ~ ('^' || ? || '_y[0-9]{4}m[0-9]{2}$') ORDER BY c.relname",
+                String.class, table);
+
+        List<String> expired = new ArrayList<>();
+        for (String name : names) {
+            Matcher m = MONTH_SUFFIX.matcher(name);
+            if (m.find()) {
+                YearMonth month = YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)));
+                if (month.isBefore(cutoff)) {
+                    expired.add(name);
+                }
+            }
+        }
+        return expired;
+    }
+
+    private boolean isAttached(String partition) {
+        Boolean attached = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_inherits WHERE inhrelid = to_regclass(?))",
+                Boolean.class, partition);
+        return Boolean.TRUE.equals(attached);
+    }
+
+    /** COPY the partition out as gzipped JSON lines; written to a temp file and renamed when complete */
+    private Path archive(String partition, Path dir) throws IOException, SQLException {
+        Path target = dir.resolve(partition + ".jsonl.gz");
+        Path tmp = dir.resolve(partition + ".jsonl.gz.part");
+
+        try (Connection conn = dataSource.getConnection();
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp), 64 * 1024)) {
+            // CSV with control-character quote/delimiter so the JSON is written verbatim
+            // (text format would double every backslash)
+            long rows = conn.unwrap(PGConnection.class).getCopyAPI().copyOut(
+                    "COPY (SELECT row_to_json(t) FROM " + partition + " t) TO STDOUT " +
+                    "WITH (FORMAT csv, QUOTE E'\\x01', DELIMITER E'\\x02')", out);
+            log.debug("Copied {} rows from {}", rows, partition);
+        } catch (IOException | SQLException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        return Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
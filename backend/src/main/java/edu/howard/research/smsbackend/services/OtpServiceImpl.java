@@ -3,11 +3,14 @@ package edu.howard.research.smsbackend.services;
 import com.twilio.exception.ApiException;
 import com.twilio.rest.verify.v2.service.Verification;
 import com.twilio.rest.verify.v2.service.VerificationCheck;
+import edu.howard.research.smsbackend.exceptions.ProviderUnavailableException;
 import edu.howard.research.smsbackend.models.dto.OtpCheckRequest;
 import edu.howard.research.smsbackend.models.dto.OtpStartRequest;
 import edu.howard.research.smsbackend.models.entities.Participant;
 import edu.howard.research.smsbackend.models.entities.ParticipantStatus;
 import edu.howard.research.smsbackend.repositories.ParticipantRepository;
+import edu.howard.research.smsbackend.services.ProviderGuard.Provider;
+import edu.howard.research.smsbackend.util.PhoneNumberService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -22,28 +25,35 @@ import java.util.Optional;
 @Service
 public class OtpServiceImpl implements OtpService {
 
+    /** Shown when Verify is refused by its circuit breaker/bulkhead */
+    private static final String VERIFY_UNAVAILABLE_MESSAGE =
+            "Phone verification is temporarily unavailable. Please try again in a few minutes.";
+
     private final String verifyServiceSid;
     private final ParticipantRepository participantRepo;
     private final PhoneValidationService phoneValidationService;
     private final EnrollmentService enrollmentService;
+    private final ProviderGuard providerGuard;
 
     public OtpServiceImpl(
             @Value("${twilio.verifyServiceSid}") String verifyServiceSid,
             ParticipantRepository participantRepo,
             PhoneValidationService phoneValidationService,
-            EnrollmentService enrollmentService
+            EnrollmentService enrollmentService,
+            ProviderGuard providerGuard
     ) {
         this.verifyServiceSid = verifyServiceSid;
         this.participantRepo = participantRepo;
         this.phoneValidationService = phoneValidationService;
         this.enrollmentService = enrollmentService;
+        this.providerGuard = providerGuard;
     }
 
     @Override
     public Map<String, Object> start(OtpStartRequest req) {
         // Checkpoint 1: Check enrollment status before sending OTP
         if (enrollmentService.isEnrollmentFull()) {
-            log.info("Enrollment full - rejecting OTP start for phone: {}", req.getPhone());
+            log.debug("Enrollment full - rejecting OTP start for phone: {}", req.getPhone());
             return Map.of(
                     "ok", false,
                     "error", "enrollment_full",
@@ -56,7 +66,7 @@ public class OtpServiceImpl implements OtpService {
                 phoneValidationService.validatePhoneNumber(req.getPhone());
         
         if (!validation.isValid()) {
-            log.warn("Rejected OTP start for VOIP number: {}", req.getPhone());
+            log.warn("Rejected OTP start for VOIP number: {}", PhoneNumberService.mask(req.getPhone()));
             return Map.of(
                     "ok", false, 
                     "error", validation.getErrorMessage()
@@ -64,9 +74,9 @@ public class OtpServiceImpl implements OtpService {
         }
 
         try {
-            Verification v = Verification
+            Verification v = providerGuard.call(Provider.TWILIO_VERIFY, () -> Verification
                     .creator(verifyServiceSid, req.getPhone(), req.getChannel())
-                    .create();
+                    .create());
 
             return Map.of(
                     "ok", true,
@@ -75,6 +85,9 @@ public class OtpServiceImpl implements OtpService {
                     "status", v.getStatus(),
                     "channel", req.getChannel()
             );
+        } catch (ProviderUnavailableException e) {
+            log.warn("Verify start refused: {}", e.getMessage());
+            return Map.of("ok", false, "error", "verification_unavailable", "message", VERIFY_UNAVAILABLE_MESSAGE);
         } catch (ApiException e) {
             log.warn("Verify start failed: code={} msg={}", e.getCode(), e.getMessage());
             return Map.of("ok", false, "error", e.getMessage());
@@ -86,10 +99,13 @@ public class OtpServiceImpl implements OtpService {
     public Map<String, Object> check(OtpCheckRequest req) {
         VerificationCheck check;
         try {
-            check = VerificationCheck.creator(verifyServiceSid)
+            check = providerGuard.call(Provider.TWILIO_VERIFY, () -> VerificationCheck.creator(verifyServiceSid)
                     .setTo(req.getPhone())
                     .setCode(req.getCode())
-                    .create();
+                    .create());
+        } catch (ProviderUnavailableException e) {
+            log.warn("Verify check refused: {}", e.getMessage());
+            return Map.of("verified", false, "error", "verification_unavailable", "message", VERIFY_UNAVAILABLE_MESSAGE);
         } catch (ApiException e) {
             log.warn("Verify check failed: code={} msg={}", e.getCode(), e.getMessage());
             return Map.of("verified", false, "error", e.getMessage());
@@ -109,7 +125,7 @@ public class OtpServiceImpl implements OtpService {
         // This allows phone verification to happen first, then enrollment is checked before creating invitation
         Optional<Participant> existingParticipant = participantRepo.findByPhone(req.getPhone());
         Participant participant = existingParticipant.orElseGet(() -> {
-            log.info("Creating new participant for verified phone: {}", req.getPhone());
+            log.debug("Creating new participant for verified phone: {}", req.getPhone());
             Participant newParticipant = new Participant();
             newParticipant.setPhone(req.getPhone());
             newParticipant.setStatus(ParticipantStatus.SUBSCRIBED);
@@ -138,8 +154,7 @@ public class OtpServiceImpl implements OtpService {
         
         if (updated) {
             participantRepo.save(participant);
-            log.info("Updated participant {} with email: {}, name: {}", 
-                    req.getPhone(), req.getEmail(), req.getName());
+            log.info("Updated participant {} with email and name", PhoneNumberService.mask(req.getPhone()));
         }
 
         Map<String, Object> resp = new HashMap<>();
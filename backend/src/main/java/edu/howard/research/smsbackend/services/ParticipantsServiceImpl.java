@@ -33,9 +33,16 @@ public class ParticipantsServiceImpl implements ParticipantsService {
         int pageSize  = Math.max(limit, 1);
         Pageable pageable = PageRequest.of(pageIndex, pageSize, Sort.by(Sort.Direction.DESC, "createdAt"));
 
-        Page<Participant> result = (search != null && !search.isBlank())
-                ? participantRepository.findByPhoneContainingIgnoreCase(search.trim(), pageable)
-                : participantRepository.findAll(pageable);
+        Page<Participant> result;
+        if (search == null || search.isBlank()) {
+            result = participantRepository.findAll(pageable);
+        } else {
+            // Phones are stored as E.164, so match on the digits of the search term
+            String digits = SearchService.phoneDigits(search);
+            result = digits.isEmpty()
+                    ? Page.empty(pageable)
+                    : participantRepository.findByPhoneContaining(digits, pageable);
+        }
 
         List<ParticipantSummary> data = result.getContent().stream()
                 .map(this::toSummary)
@@ -68,7 +75,7 @@ public class ParticipantsServiceImpl implements ParticipantsService {
         if (p.getStatus() != ParticipantStatus.OPTED_OUT) {
             p.setStatus(ParticipantStatus.OPTED_OUT);
             participantRepository.save(p);
-            log.info("Participant {} set to opted_out", e164);
+            log.info("Participant {} set to opted_out", PhoneNumberService.mask(e164));
         }
 
         return Map.of("ok", true, "phone", p.getPhone(), "status", toStatusString(p.getStatus()));
@@ -84,7 +91,7 @@ public class ParticipantsServiceImpl implements ParticipantsService {
         if (p.getStatus() != ParticipantStatus.SUBSCRIBED) {
             p.setStatus(ParticipantStatus.SUBSCRIBED);
             participantRepository.save(p);
-            log.info("Participant {} set to subscribed", e164);
+            log.info("Participant {} set to subscribed", PhoneNumberService.mask(e164));
         }
 
         return Map.of("ok", true, "phone", p.getPhone(), "status", toStatusString(p.getStatus()));
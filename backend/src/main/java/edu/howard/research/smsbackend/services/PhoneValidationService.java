@@ -2,6 +2,10 @@ package edu.howard.research.smsbackend.services;
 
 import com.twilio.exception.ApiException;
 import com.twilio.rest.lookups.v2.PhoneNumber;
+import edu.howard.research.smsbackend.exceptions.ProviderUnavailableException;
+import edu.howard.research.smsbackend.services.ProviderGuard.Provider;
+import edu.howard.research.smsbackend.util.PhoneNumberService;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -13,8 +17,11 @@ import java.util.Map;
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class PhoneValidationService {
 
+    private final ProviderGuard providerGuard;
+
     /**
      * Validates that a phone number is not a VOIP number.
      * Uses Twilio Lookup API v2 with Line Type Intelligence.
@@ -26,16 +33,16 @@ public class PhoneValidationService {
         try {
             // Fetch phone number information with line type intelligence
             // Using Twilio Lookup API v2 - must explicitly request line_type_intelligence field
-            PhoneNumber phoneNumberInfo = PhoneNumber.fetcher(phoneNumber)
+            PhoneNumber phoneNumberInfo = providerGuard.call(Provider.TWILIO_LOOKUP, () -> PhoneNumber.fetcher(phoneNumber)
                     .setFields("line_type_intelligence")
-                    .fetch();
+                    .fetch());
 
             // Get line type intelligence data as a Map
             // The SDK returns it as a Map<String, Object>
             Map<String, Object> lineTypeIntelligence = phoneNumberInfo.getLineTypeIntelligence();
             
             if (lineTypeIntelligence == null || lineTypeIntelligence.isEmpty()) {
-                log.warn("Line type intelligence not available for phone: {}", phoneNumber);
+                log.warn("Line type intelligence not available for phone: {}", PhoneNumberService.mask(phoneNumber));
                 // If we can't determine line type, allow it (fail open for now)
                 // You might want to change this to fail closed depending on your requirements
                 return ValidationResult.valid();
@@ -46,11 +53,11 @@ public class PhoneValidationService {
             String lineType = typeObj != null ? typeObj.toString() : null;
 
             if (lineType == null || lineType.isEmpty()) {
-                log.warn("Line type is null or empty for phone: {}", phoneNumber);
+                log.warn("Line type is null or empty for phone: {}", PhoneNumberService.mask(phoneNumber));
                 return ValidationResult.valid();
             }
 
-            log.info("Phone {} has line type: {}", phoneNumber, lineType);
+            log.debug("Phone {} has line type: {}", phoneNumber, lineType);
 
             // Reject VOIP and non-fixed VOIP numbers
             if ("voip".equalsIgnoreCase(lineType) || 
@@ -58,34 +65,38 @@ public class PhoneValidationService {
                 String errorMessage = "Only mobile and landline numbers are accepted. " +
                         "VOIP numbers cannot be used for verification. " +
                         "Please use a phone number from a mobile carrier or landline service.";
-                log.warn("Rejected VOIP number: {} (type: {})", phoneNumber, lineType);
+                log.warn("Rejected VOIP number: {} (type: {})", PhoneNumberService.mask(phoneNumber), lineType);
                 return ValidationResult.invalid(errorMessage);
             }
 
             // Accept mobile and landline numbers
             if ("mobile".equalsIgnoreCase(lineType) || 
                 "landline".equalsIgnoreCase(lineType)) {
-                log.info("Accepted {} number: {}", lineType, phoneNumber);
+                log.debug("Accepted {} number: {}", lineType, phoneNumber);
                 return ValidationResult.valid();
             }
 
             // For unknown types, log and allow (you may want to change this)
-            log.warn("Unknown line type '{}' for phone: {}. Allowing for now.", lineType, phoneNumber);
+            log.warn("Unknown line type '{}' for phone: {}. Allowing for now.", lineType, PhoneNumberService.mask(phoneNumber));
             return ValidationResult.valid();
 
+        } catch (ProviderUnavailableException e) {
+            // Lookup is down or saturated: same fail-open policy as an API error, minus the wait
+            log.warn("Allowing phone {} without lookup ({})", PhoneNumberService.mask(phoneNumber), e.getMessage());
+            return ValidationResult.valid();
         } catch (ApiException e) {
             log.error("Twilio Lookup API error for phone {}: code={}, message={}", 
-                    phoneNumber, e.getCode(), e.getMessage());
+                    PhoneNumberService.mask(phoneNumber), e.getCode(), e.getMessage());
             
             // If lookup fails, we have a few options:
             // 1. Fail closed (reject) - more secure but might block valid numbers
             // 2. Fail open (allow) - less secure but better UX
             // For now, we'll fail open with a warning
             // You can change this based on your security requirements
-            log.warn("Allowing phone {} due to lookup API error (failing open)", phoneNumber);
+            log.warn("Allowing phone {} due to lookup API error (failing open)", PhoneNumberService.mask(phoneNumber));
             return ValidationResult.valid();
         } catch (Exception e) {
-            log.error("Unexpected error validating phone {}: {}", phoneNumber, e.getMessage(), e);
+            log.error("Unexpected error validating phone {}: {}", PhoneNumberService.mask(phoneNumber), e.getMessage(), e);
             // Fail open on unexpected errors
             return ValidationResult.valid();
         }
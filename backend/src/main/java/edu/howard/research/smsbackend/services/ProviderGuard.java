@@ -0,0 +1,370 @@
+package edu.howard.research.smsbackend.services;
+
+import com.twilio.exception.ApiException;
+import edu.howard.research.smsbackend.exceptions.ProviderUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker + bulkhead per external provider (Twilio Messaging, Verify, Lookup, SendGrid).
+ *
+ * - Bulkhead: at most app.providers.maxConcurrent calls in flight per provider; a caller waits up
+ *   to app.providers.maxWaitMillis for a slot, then is refused.
+ * - Circuit breaker: over the last app.providers.windowSize calls (once at least minimumCalls
+ *   are recorded), opens when the failure rate or the slow-call rate reaches its threshold. While
+ *   open, calls are refused for openSeconds; then a few trial calls decide whether it closes again.
+ *
+ * Refused calls throw {@link ProviderUnavailableException} immediately, so a provider outage
+ * costs callers nothing instead of a connect/read timeout each. Callers report them as retryable,
+ * and gift card / invitation SMS deliveries then go to {@link DeliveryRetryQueue}. Client errors
+ * (Twilio 4xx other than 429) are the caller's problem, not the provider's, and count as successes.
+ *
+ * Every setting can be overridden per provider, e.g. app.providers.sendgrid.maxConcurrent.
+ * State is on /actuator/providers; meters are provider.calls, provider.rejections,
+ * provider.circuit.state and provider.in_flight, tagged by provider.
+ */
+@Slf4j
+@Component
+public class ProviderGuard {
+
+    public enum Provider {
+        TWILIO_MESSAGING("twilio-messaging"),
+        TWILIO_VERIFY("twilio-verify"),
+        TWILIO_LOOKUP("twilio-lookup"),
+        SENDGRID("sendgrid");
+
+        private final String key;
+
+        Provider(String key) {
+            this.key = key;
+        }
+
+        public String key() {
+            return key;
+        }
+    }
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final Map<Provider, Guard> guards = new EnumMap<>(Provider.class);
+
+    public ProviderGuard(Environment env, MeterRegistry meterRegistry) {
+        for (Provider provider : Provider.values()) {
+            Guard guard = new Guard(provider, env);
+            guards.put(provider, guard);
+
+            Gauge.builder("provider.circuit.state", guard, g -> g.state().ordinal())
+                    .description("0 = closed, 1 = open, 2 = half-open")
+                    .tag("provider", provider.key())
+                    .register(meterRegistry);
+            Gauge.builder("provider.in_flight", guard, g -> g.inFlight())
+                    .tag("provider", provider.key())
+                    .register(meterRegistry);
+            guard.successTimer = callTimer(meterRegistry, provider, "success");
+            guard.failureTimer = callTimer(meterRegistry, provider, "failure");
+            guard.circuitOpenRejections = rejectionCounter(meterRegistry, provider, "circuit_open");
+            guard.bulkheadFullRejections = rejectionCounter(meterRegistry, provider, "bulkhead_full");
+        }
+    }
+
+    private static Timer callTimer(MeterRegistry registry, Provider provider, String outcome) {
+        return Timer.builder("provider.calls")
+                .tag("provider", provider.key())
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static Counter rejectionCounter(MeterRegistry registry, Provider provider, String reason) {
+        return Counter.builder("provider.rejections")
+                .tag("provider", provider.key())
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    /**
+     * Run a provider call that reports failure by throwing (the Twilio SDK).
+     */
+    public <T> T call(Provider provider, Supplier<T> call) {
+        Guard guard = guards.get(provider);
+        guard.acquire();
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            guard.record(false, System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException e) {
+            guard.record(!isClientError(e), System.nanoTime() - start);
+            throw e;
+        } finally {
+            guard.release();
+        }
+    }
+
+    /**
+     * Run a provider call that reports failure through its result (SendGrid responses).
+     *
+     * @param failed whether a returned result means the provider itself failed (5xx, 429)
+     */
+    public <T> T call(Provider provider, Callable<T> call, Predicate<? super T> failed) throws Exception {
+        Guard guard = guards.get(provider);
+        guard.acquire();
+        long start = System.nanoTime();
+        try {
+            T result = call.call();
+            guard.record(failed.test(result), System.nanoTime() - start);
+            return result;
+        } catch (Exception e) {
+            guard.record(true, System.nanoTime() - start);
+            throw e;
+        } finally {
+            guard.release();
+        }
+    }
+
+    /** True when calls to the provider are currently being refused by its circuit breaker */
+    public boolean isOpen(Provider provider) {
+        return guards.get(provider).state() == State.OPEN;
+    }
+
+    /** Snapshot for /actuator/providers */
+    public Map<String, Object> describe() {
+        Map<String, Object> providers = new LinkedHashMap<>();
+        guards.forEach((provider, guard) -> providers.put(provider.key(), guard.describe()));
+        return providers;
+    }
+
+    /** A Twilio 4xx (bad number, invalid code, ...) says nothing about the provider's health; 429 does */
+    private static boolean isClientError(RuntimeException e) {
+        if (e instanceof ApiException api && api.getStatusCode() != null) {
+            int status = api.getStatusCode();
+            return status >= 400 && status < 500 && status != 429;
+        }
+        return false;
+    }
+
+    // ---------- Per-provider state ----------
+
+    private static final class Guard {
+
+        private final Provider provider;
+        private final int failureRateThreshold;
+        private final int slowCallRateThreshold;
+        private final long slowCallNanos;
+        private final int minimumCalls;
+        private final Duration openDuration;
+        private final int halfOpenCalls;
+        private final int maxConcurrent;
+        private final long maxWaitMillis;
+
+        private final Semaphore bulkhead;
+
+        // Guards the window and the breaker state below
+        private final ReentrantLock lock = new ReentrantLock();
+
+        // Sliding window of the last windowSize outcomes; guarded by lock
+        private final boolean[] failures;
+        private final boolean[] slow;
+        private int next;
+        private int recorded;
+        private int failureCount;
+        private int slowCount;
+
+        private State state = State.CLOSED;
+        private OffsetDateTime openedAt;
+        private int halfOpenStarted;
+        private int halfOpenSucceeded;
+
+        private Timer successTimer;
+        private Timer failureTimer;
+        private Counter circuitOpenRejections;
+        private Counter bulkheadFullRejections;
+
+        Guard(Provider provider, Environment env) {
+            this.provider = provider;
+            this.failureRateThreshold = setting(env, "failureRateThreshold", 50);
+            this.slowCallRateThreshold = setting(env, "slowCallRateThreshold", 80);
+            this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(setting(env, "slowCallMillis", 5000));
+            this.minimumCalls = setting(env, "minimumCalls", 10);
+            this.openDuration = Duration.ofSeconds(setting(env, "openSeconds", 30));
+            this.halfOpenCalls = setting(env, "halfOpenCalls", 3);
+            this.maxConcurrent = setting(env, "maxConcurrent", 10);
+            this.maxWaitMillis = setting(env, "maxWaitMillis", 200);
+
+            int windowSize = Math.max(setting(env, "windowSize", 20), minimumCalls);
+            this.failures = new boolean[windowSize];
+            this.slow = new boolean[windowSize];
+            this.bulkhead = new Semaphore(maxConcurrent);
+        }
+
+        private int setting(Environment env, String name, int defaultValue) {
+            Integer shared = env.getProperty("app.providers." + name, Integer.class, defaultValue);
+            return env.getProperty("app.providers." + provider.key() + "." + name, Integer.class, shared);
+        }
+
+        void acquire() {
+            if (!tryPermit()) {
+                circuitOpenRejections.increment();
+                throw new ProviderUnavailableException(provider, "circuit open", openDuration);
+            }
+            boolean slot;
+            try {
+                slot = bulkhead.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                slot = false;
+            }
+            if (!slot) {
+                releasePermit();
+                bulkheadFullRejections.increment();
+                throw new ProviderUnavailableException(provider, "too many concurrent calls", Duration.ofSeconds(1));
+            }
+        }
+
+        void release() {
+            bulkhead.release();
+        }
+
+        int inFlight() {
+            return maxConcurrent - bulkhead.availablePermits();
+        }
+
+        private boolean tryPermit() {
+            lock.lock();
+            try {
+                if (state == State.OPEN) {
+                    if (OffsetDateTime.now().isBefore(openedAt.plus(openDuration))) {
+                        return false;
+                    }
+                    transition(State.HALF_OPEN);
+                }
+                if (state == State.HALF_OPEN) {
+                    if (halfOpenStarted >= halfOpenCalls) {
+                        return false;
+                    }
+                    halfOpenStarted++;
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void releasePermit() {
+            lock.lock();
+            try {
+                if (state == State.HALF_OPEN && halfOpenStarted > 0) {
+                    halfOpenStarted--;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void record(boolean failed, long durationNanos) {
+            (failed ? failureTimer : successTimer).record(durationNanos, TimeUnit.NANOSECONDS);
+            boolean wasSlow = durationNanos >= slowCallNanos;
+            lock.lock();
+            try {
+                switch (state) {
+                    case HALF_OPEN -> {
+                        if (failed || wasSlow) {
+                            transition(State.OPEN);
+                        } else if (++halfOpenSucceeded >= halfOpenCalls) {
+                            transition(State.CLOSED);
+                        }
+                    }
+                    case CLOSED -> {
+                        addToWindow(failed, wasSlow);
+                        if (recorded >= minimumCalls
+                                && (failureCount * 100 >= failureRateThreshold * recorded
+                                    || slowCount * 100 >= slowCallRateThreshold * recorded)) {
+                            transition(State.OPEN);
+                        }
+                    }
+                    case OPEN -> {
+                        // A call admitted before the breaker opened; nothing to decide
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void addToWindow(boolean failed, boolean wasSlow) {
+            if (recorded == failures.length) {
+                if (failures[next]) failureCount--;
+                if (slow[next]) slowCount--;
+            } else {
+                recorded++;
+            }
+            failures[next] = failed;
+            slow[next] = wasSlow;
+            if (failed) failureCount++;
+            if (wasSlow) slowCount++;
+            next = (next + 1) % failures.length;
+        }
+
+        private void transition(State to) {
+            if (to == State.OPEN) {
+                openedAt = OffsetDateTime.now();
+                log.warn("Circuit for {} opened (failures {}/{}, slow {}/{}); refusing calls for {}s",
+                        provider.key(), failureCount, recorded, slowCount, recorded, openDuration.toSeconds());
+            } else {
+                log.info("Circuit for {} {}", provider.key(), to == State.CLOSED ? "closed" : "half-open, trying calls");
+            }
+            state = to;
+            halfOpenStarted = 0;
+            halfOpenSucceeded = 0;
+            if (to != State.HALF_OPEN) {
+                // Each closed period starts from an empty window
+                next = 0;
+                recorded = 0;
+                failureCount = 0;
+                slowCount = 0;
+            }
+        }
+
+        State state() {
+            lock.lock();
+            try {
+                return state;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Map<String, Object> describe() {
+            lock.lock();
+            try {
+                Map<String, Object> m = new LinkedHashMap<>();
+                m.put("state", state);
+                m.put("openedAt", openedAt);
+                m.put("recordedCalls", recorded);
+                m.put("failedCalls", failureCount);
+                m.put("slowCalls", slowCount);
+                m.put("inFlight", inFlight());
+                m.put("maxConcurrent", maxConcurrent);
+                return m;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package edu.howard.research.smsbackend.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token buckets for the public endpoints (OTP start/check, participants, messages), one per
+ * rule and client IP and one per rule and phone number. A bucket holds {@code capacity} tokens
+ * and refills evenly over {@code periodSeconds}; each request takes one.
+ *
+ * - memory store (default): buckets live in a fixed number of stripes, each an LRU map with its
+ *   own lock, so concurrent requests for different keys rarely contend. A bucket idle for its
+ *   whole period is full again and is dropped; app.rateLimit.maxKeys bounds the total.
+ * - postgres store: buckets live in rate_limit_bucket (rate_limit_take, V45) and are shared by
+ *   every node. If the database can't be reached the node falls back to its own buckets.
+ *
+ * Limits are app.rateLimit.{rule}.{ip|phone}.{capacity|periodSeconds}; rejections are counted
+ * in rate_limit.rejections, tagged by rule and dimension. X-Forwarded-For is only believed from
+ * the peers listed in app.rateLimit.trustedProxies (loopback by default).
+ */
+@Slf4j
+@Service
+public class RateLimiter {
+
+    public enum Rule {
+        OTP_START("otp-start", "/api/otp/start", 3, 600, 30, 3600),
+        OTP_CHECK("otp-check", "/api/otp/check", 10, 600, 60, 600),
+        PARTICIPANTS("participants", "/api/participants/", 20, 600, 120, 600),
+        MESSAGES("messages", "/api/messages/", 5, 600, 20, 600);
+
+        private final String key;
+        private final String path;
+        private final int phoneCapacity;
+        private final int phonePeriodSeconds;
+        private final int ipCapacity;
+        private final int ipPeriodSeconds;
+
+        Rule(String key, String path, int phoneCapacity, int phonePeriodSeconds, int ipCapacity, int ipPeriodSeconds) {
+            this.key = key;
+            this.path = path;
+            this.phoneCapacity = phoneCapacity;
+            this.phonePeriodSeconds = phonePeriodSeconds;
+            this.ipCapacity = ipCapacity;
+            this.ipPeriodSeconds = ipPeriodSeconds;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        /** Rule for a request path; paths ending in '/' match everything below them */
+        public static Rule forPath(String uri) {
+            for (Rule rule : values()) {
+                if (rule.path.endsWith("/") ? uri.startsWith(rule.path) : uri.equals(rule.path)) {
+                    return rule;
+                }
+            }
+            return null;
+        }
+    }
+
+    public enum Dimension { IP, PHONE }
+
+    private record Limit(int capacity, int periodSeconds) { }
+
+    private static final int STRIPES = 64;
+
+    private static final String[] DEFAULT_TRUSTED_PROXIES = {"127.0.0.0/8", "::1"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final boolean postgresStore;
+    private final int forwardedHops;
+    private final List<IpAddressMatcher> trustedProxies = new ArrayList<>();
+    private final Map<Rule, Map<Dimension, Limit>> limits = new EnumMap<>(Rule.class);
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public RateLimiter(Environment env, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = env.getProperty("app.rateLimit.enabled", Boolean.class, true);
+        this.postgresStore = "postgres".equalsIgnoreCase(env.getProperty("app.rateLimit.store", "memory"));
+        this.forwardedHops = env.getProperty("app.rateLimit.forwardedHops", Integer.class, 1);
+        for (String proxy : env.getProperty("app.rateLimit.trustedProxies", String[].class, DEFAULT_TRUSTED_PROXIES)) {
+            if (!proxy.isBlank()) {
+                trustedProxies.add(new IpAddressMatcher(proxy.trim()));
+            }
+        }
+
+        for (Rule rule : Rule.values()) {
+            Map<Dimension, Limit> byDimension = new EnumMap<>(Dimension.class);
+            byDimension.put(Dimension.IP, limit(env, rule, "ip", rule.ipCapacity, rule.ipPeriodSeconds));
+            byDimension.put(Dimension.PHONE, limit(env, rule, "phone", rule.phoneCapacity, rule.phonePeriodSeconds));
+            limits.put(rule, byDimension);
+        }
+
+        int maxKeysPerStripe = Math.max(1, env.getProperty("app.rateLimit.maxKeys", Integer.class, 100_000) / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(maxKeysPerStripe);
+        }
+    }
+
+    private static Limit limit(Environment env, Rule rule, String dimension, int capacity, int periodSeconds) {
+        String prefix = "app.rateLimit." + rule.key() + "." + dimension + ".";
+        return new Limit(
+                Math.max(1, env.getProperty(prefix + "capacity", Integer.class, capacity)),
+                Math.max(1, env.getProperty(prefix + "periodSeconds", Integer.class, periodSeconds)));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isPostgresStore() {
+        return postgresStore;
+    }
+
+    /** X-Forwarded-For entries appended by trusted proxies (nginx); 0 means use the socket address */
+    public int getForwardedHops() {
+        return forwardedHops;
+    }
+
+    /** Whether a peer address is one of our proxies (app.rateLimit.trustedProxies, addresses or CIDRs) */
+    public boolean isTrustedProxy(String address) {
+        if (address == null || address.isBlank()) {
+            return false;
+        }
+        for (IpAddressMatcher proxy : trustedProxies) {
+            try {
+                if (proxy.matches(address)) {
+                    return true;
+                }
+            } catch (IllegalArgumentException e) {
+                // Not an IP address (e.g. a unix socket peer)
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Take a token for {@code key} under {@code rule}.
+     * @return 0 if the request may proceed, otherwise the seconds to wait before retrying
+     */
+    public long tryAcquire(Rule rule, Dimension dimension, String key) {
+        Limit limit = limits.get(rule).get(dimension);
+        String bucketKey = rule.key() + ":" + dimension.name().toLowerCase() + ":" + key;
+
+        double waitSeconds = postgresStore
+                ? takeShared(bucketKey, limit)
+                : takeLocal(bucketKey, limit);
+        if (waitSeconds <= 0) {
+            return 0;
+        }
+        Counter.builder("rate_limit.rejections")
+                .tag("rule", rule.key())
+                .tag("dimension", dimension.name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+        return Math.max(1, (long) Math.ceil(waitSeconds));
+    }
+
+    /** Drop idle rows from the shared store; returns how many */
+    public int purgeShared() {
+        if (!postgresStore) {
+            return 0;
+        }
+        return jdbcTemplate.update("DELETE FROM rate_limit_bucket WHERE expires_at < now()");
+    }
+
+    private double takeShared(String bucketKey, Limit limit) {
+        try {
+            Double wait = jdbcTemplate.queryForObject("SELECT rate_limit_take(?, ?, ?)", Double.class,
+                    bucketKey, limit.capacity(), limit.periodSeconds());
+            return wait != null ? wait : 0;
+        } catch (RuntimeException e) {
+            log.warn("Shared rate limit store unavailable, using local buckets: {}", e.getMessage());
+            return takeLocal(bucketKey, limit);
+        }
+    }
+
+    private double takeLocal(String bucketKey, Limit limit) {
+        Stripe stripe = stripes[Math.floorMod(bucketKey.hashCode(), STRIPES)];
+        long now = System.nanoTime();
+        stripe.lock.lock();
+        try {
+            Bucket bucket = stripe.buckets.get(bucketKey);
+            if (bucket != null) {
+                return bucket.take(now);
+            }
+            // Take before inserting, so the new bucket isn't full (and evicted) on insert
+            bucket = new Bucket(limit, now);
+            double wait = bucket.take(now);
+            stripe.buckets.put(bucketKey, bucket);
+            return wait;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // ---------- In-memory buckets ----------
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<String, Bucket> buckets;
+
+        Stripe(int maxKeys) {
+            this.buckets = new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    // Least recently used first; a bucket idle for its full period has refilled anyway
+                    return size() > maxKeys || eldest.getValue().isFullAt(System.nanoTime());
+                }
+            };
+        }
+    }
+
+    /** Guarded by its stripe's lock */
+    private static final class Bucket {
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long updatedNanos;
+
+        Bucket(Limit limit, long now) {
+            this.capacity = limit.capacity();
+            this.tokensPerNano = limit.capacity() / (double) TimeUnit.SECONDS.toNanos(limit.periodSeconds());
+            this.tokens = capacity;
+            this.updatedNanos = now;
+        }
+
+        /** @return 0 if a token was taken, otherwise seconds until one is available */
+        double take(long now) {
+            tokens = Math.min(capacity, tokens + (now - updatedNanos) * tokensPerNano);
+            updatedNanos = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (1 - tokens) / tokensPerNano / TimeUnit.SECONDS.toNanos(1);
+        }
+
+        boolean isFullAt(long now) {
+            return tokens + (now - updatedNanos) * tokensPerNano >= capacity;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package edu.howard.research.smsbackend.services;
+
+import edu.howard.research.smsbackend.models.dto.BulkEmailRecipient;
+import edu.howard.research.smsbackend.models.dto.EmailSendResult;
+import edu.howard.research.smsbackend.repositories.SurveyInvitationRepository;
+import edu.howard.research.smsbackend.repositories.SurveyInvitationRepository.ReminderCandidate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.*;
+
+/**
+ * Sends survey reminders in waves. Each stage (e.g. day 3, day 7 of the survey window) picks
+ * incomplete invitations that have had that many reminders so far, sends SMS under a global
+ * per-minute cap and emails each chunk as one bulk SendGrid request.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReminderService {
+
+    /** A failed reminder is not retried until this much time has passed */
+    private static final Duration RETRY_AFTER = Duration.ofHours(1);
+
+    private final SurveyInvitationRepository inviteRepo;
+    private final InvitationsService invitationsService;
+    private final SmsService smsService;
+    private final EmailService emailService;
+    private final ProviderGuard providerGuard;
+
+    @Value("${app.reminders.stageDays:3,7}")
+    private int[] stageDays;
+
+    @Value("${app.reminders.windowDays:10}")
+    private int windowDays;
+
+    @Value("${app.reminders.chunkSize:100}")
+    private int chunkSize;
+
+    @Value("${app.reminders.maxPerMinute:60}")
+    private int maxPerMinute;
+
+    @Value("${app.reminders.maxPerWave:2000}")
+    private int maxPerWave;
+
+    /** SMS text used for both scheduled and manual reminders */
+    public String buildReminderSms(String participantName, String link) {
+        String name = participantName != null && !participantName.trim().isEmpty() ? participantName : "there";
+        return String.format("Hi %s! Just a friendly reminder: Please complete the Howard University AI for Health survey. Your link: %s. You can pause and restart anytime. Complete within 10 days to receive your Amazon gift card. Questions? Text us at (240) 428-8442.",
+                name, link);
+    }
+
+    /**
+     * Run one reminder wave. Callers are expected to hold the scheduled job lease
+     * (see ScheduledJobRunner) so only one instance fires each wave.
+     * Returns the number of invitations reminded.
+     */
+    public int sendDueReminders() {
+        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime windowStart = now.minusDays(windowDays);
+        OffsetDateTime retryBefore = now.minus(RETRY_AFTER);
+        long sendIntervalMs = 60_000L / Math.max(1, maxPerMinute);
+
+        Set<UUID> attempted = new HashSet<>();
+        int reminded = 0;
+
+        for (int stage = 0; stage < stageDays.length && reminded < maxPerWave; stage++) {
+            OffsetDateTime dueBefore = now.minusDays(stageDays[stage]);
+
+            while (reminded < maxPerWave) {
+                if (providerGuard.isOpen(ProviderGuard.Provider.TWILIO_MESSAGING)) {
+                    // Don't burn through candidates (and mark them attempted) while Twilio is refusing calls
+                    log.warn("Twilio Messaging circuit is open, ending reminder wave after {} reminders", reminded);
+                    return reminded;
+                }
+                List<ReminderCandidate> chunk = inviteRepo.findReminderCandidates(
+                        stage, dueBefore, windowStart, retryBefore, Math.min(chunkSize, maxPerWave - reminded));
+                chunk = chunk.stream().filter(c -> attempted.add(c.getInvitationId())).toList();
+                if (chunk.isEmpty()) {
+                    break;
+                }
+
+                try {
+                    reminded += sendChunk(chunk, sendIntervalMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    log.warn("Reminder wave interrupted after {} reminders", reminded);
+                    return reminded;
+                }
+            }
+            log.info("Reminder stage {} (day {}) done, {} reminded so far", stage + 1, stageDays[stage], reminded);
+        }
+
+        return reminded;
+    }
+
+    private int sendChunk(List<ReminderCandidate> chunk, long sendIntervalMs) throws InterruptedException {
+        Map<UUID, String> smsSids = new HashMap<>();
+        List<BulkEmailRecipient> emailRecipients = new ArrayList<>();
+
+        for (ReminderCandidate candidate : chunk) {
+            String link = candidate.getShortLinkUrl() != null && !candidate.getShortLinkUrl().isBlank()
+                    ? candidate.getShortLinkUrl()
+                    : candidate.getLinkUrl();
+
+            Map<String, Object> send = smsService.send(candidate.getPhone(), buildReminderSms(candidate.getName(), link));
+            if (Boolean.TRUE.equals(send.get("ok"))) {
+                smsSids.put(candidate.getInvitationId(), (String) send.get("sid"));
+            } else {
+                log.warn("Reminder SMS failed for invitation {}: {}", candidate.getInvitationId(), send.get("error"));
+            }
+
+            if (candidate.getEmail() != null && !candidate.getEmail().trim().isEmpty()) {
+                emailRecipients.add(emailService.surveyLinkRecipient(
+                        candidate.getInvitationId().toString(), candidate.getEmail().trim(), candidate.getName(), link));
+            }
+
+            // Global send-rate cap
+            Thread.sleep(sendIntervalMs);
+        }
+
+        Map<String, EmailSendResult> emailResults = emailService.sendSurveyLinks(emailRecipients);
+
+        int reminded = 0;
+        for (ReminderCandidate candidate : chunk) {
+            UUID id = candidate.getInvitationId();
+            EmailSendResult emailResult = emailResults.get(id.toString());
+            try {
+                if (smsSids.containsKey(id)) {
+                    invitationsService.markReminded(id, smsSids.get(id));
+                    reminded++;
+                } else if (emailResult != null && emailResult.isSuccess()) {
+                    invitationsService.markRemindedByEmail(id);
+                    reminded++;
+                } else {
+                    invitationsService.markReminderAttempted(id);
+                }
+            } catch (Exception e) {
+                log.error("Failed to record reminder for invitation {}: {}", id, e.getMessage());
+            }
+        }
+        return reminded;
+    }
+}
@@ -0,0 +1,67 @@
+package edu.howard.research.smsbackend.services;
+
+import edu.howard.research.smsbackend.models.dto.AdminSearchResultDto;
+import edu.howard.research.smsbackend.repositories.GiftCardPoolRepository;
+import edu.howard.research.smsbackend.repositories.ParticipantRepository;
+import edu.howard.research.smsbackend.repositories.SurveyInvitationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Locale;
+
+/**
+ * Unified admin search across pool codes, participants and invitations.
+ * Every query is a LIMITed trigram index scan (see V39) with a statement timeout,
+ * so latency stays bounded as the tables grow.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchService {
+
+    // Trigrams need at least 3 characters to use the index
+    public static final int MIN_QUERY_LENGTH = 3;
+    public static final int MAX_LIMIT = 50;
+
+    private final GiftCardPoolRepository giftCardPoolRepository;
+    private final ParticipantRepository participantRepository;
+    private final SurveyInvitationRepository inviteRepository;
+
+    @Transactional(readOnly = true)
+    public AdminSearchResultDto search(String query, int limit) {
+        String term = query == null ? "" : query.trim();
+        if (term.length() < MIN_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query must be at least " + MIN_QUERY_LENGTH + " characters");
+        }
+        int cappedLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        String pattern = containsPattern(term.toLowerCase(Locale.ROOT));
+        String digits = phoneDigits(term);
+        String phonePattern = digits.length() >= MIN_QUERY_LENGTH ? containsPattern(digits) : null;
+
+        AdminSearchResultDto result = new AdminSearchResultDto(
+                term,
+                cappedLimit,
+                giftCardPoolRepository.searchByCode(pattern, cappedLimit),
+                participantRepository.search(pattern, phonePattern, cappedLimit),
+                inviteRepository.search(pattern, phonePattern, cappedLimit));
+        log.debug("Admin search '{}' -> {} pool cards, {} participants, {} invitations", term,
+                result.getPoolCards().size(), result.getParticipants().size(), result.getInvitations().size());
+        return result;
+    }
+
+    /**
+     * Digits of a phone-like search term ("(202) 555-12" -> "20255512"), matched against E.164 phones
+     */
+    public static String phoneDigits(String term) {
+        return term.replaceAll("\\D", "");
+    }
+
+    /** %term% with LIKE wildcards in the term escaped */
+    private static String containsPattern(String term) {
+        String escaped = term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
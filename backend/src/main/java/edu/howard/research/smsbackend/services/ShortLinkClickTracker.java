@@ -0,0 +1,168 @@
+package edu.howard.research.smsbackend.services;
+
+import edu.howard.research.smsbackend.config.BackgroundThreads;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Click counts for short links (/s/{code}), written behind to short_link_click_stats (V46).
+ *
+ * The redirect only bumps an in-memory counter for its code and hour; ConcurrentHashMap.compute
+ * locks just that key's bin, so concurrent clicks on different links don't contend and no I/O
+ * happens on the redirect path. A background thread takes the counters out every
+ * app.shortlinkClicks.flushIntervalSeconds and adds them to the table in one JDBC batch; a batch
+ * that fails is merged back and retried on the next flush. Pending counts are flushed on
+ * shutdown, so clicks are lost only if the JVM dies without a normal shutdown.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShortLinkClickTracker implements SmartLifecycle {
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO short_link_click_stats (short_code, hour_start, click_count, first_click_at, last_click_at)
+        VALUES (?, ?, ?, ?, ?)
+        ON CONFLICT (short_code, hour_start) DO UPDATE
+           SET click_count    = short_link_click_stats.click_count + EXCLUDED.click_count,
+               first_click_at = LEAST(short_link_click_stats.first_click_at, EXCLUDED.first_click_at),
+               last_click_at  = GREATEST(short_link_click_stats.last_click_at, EXCLUDED.last_click_at)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BackgroundThreads backgroundThreads;
+
+    @Value("${app.shortlinkClicks.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.shortlinkClicks.flushIntervalSeconds:5}")
+    private long flushIntervalSeconds;
+
+    private record Key(String shortCode, Instant hourStart) { }
+
+    /** Mutated only inside compute() for its key, and read by the flusher after it was removed */
+    private static final class Counter {
+        long count;
+        Instant first;
+        Instant last;
+
+        void add(long clicks, Instant firstAt, Instant lastAt) {
+            count += clicks;
+            first = first == null || firstAt.isBefore(first) ? firstAt : first;
+            last = last == null || lastAt.isAfter(last) ? lastAt : last;
+        }
+    }
+
+    private final Map<Key, Counter> pending = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    private volatile Thread flusherThread;
+
+    /**
+     * Count one click on a short code
+     */
+    public void record(String shortCode) {
+        if (!enabled) {
+            return;
+        }
+        Instant now = Instant.now();
+        pending.compute(new Key(shortCode, now.truncatedTo(ChronoUnit.HOURS)), (key, counter) -> {
+            Counter c = counter != null ? counter : new Counter();
+            c.add(1, now, now);
+            return c;
+        });
+    }
+
+    public int getPendingKeys() {
+        return pending.size();
+    }
+
+    // ---------- Flushing ----------
+
+    private void flushLoop() {
+        while (running) {
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(flushIntervalSeconds));
+            } catch (InterruptedException e) {
+                // stop() interrupts us and flushes what is left
+                break;
+            }
+            flush();
+        }
+    }
+
+    /** Take every counter out of the map and add it to the table; returns the rows written */
+    int flush() {
+        List<Map.Entry<Key, Counter>> batch = new ArrayList<>();
+        for (Key key : pending.keySet()) {
+            Counter counter = pending.remove(key);
+            if (counter != null) {
+                batch.add(Map.entry(key, counter));
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch, batch.size(), (ps, entry) -> {
+                ps.setString(1, entry.getKey().shortCode());
+                ps.setTimestamp(2, Timestamp.from(entry.getKey().hourStart()));
+                ps.setLong(3, entry.getValue().count);
+                ps.setTimestamp(4, Timestamp.from(entry.getValue().first));
+                ps.setTimestamp(5, Timestamp.from(entry.getValue().last));
+            });
+            return batch.size();
+        } catch (RuntimeException e) {
+            log.warn("Could not write {} short link click counters, keeping them for the next flush: {}",
+                    batch.size(), e.getMessage());
+            for (Map.Entry<Key, Counter> entry : batch) {
+                Counter failed = entry.getValue();
+                pending.compute(entry.getKey(), (key, counter) -> {
+                    Counter c = counter != null ? counter : new Counter();
+                    c.add(failed.count, failed.first, failed.last);
+                    return c;
+                });
+            }
+            return 0;
+        }
+    }
+
+    // ---------- Lifecycle ----------
+
+    @Override
+    public void start() {
+        running = true;
+        flusherThread = backgroundThreads.start("short-link-click-flusher", this::flushLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = flusherThread;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -17,6 +17,9 @@ public interface SmsService {
      *   - to (String)
      *   - body (String)
      *   - error (String, short code or message)   [present when ok=false]
+     *   - retryable (Boolean)                     [true when the call was refused before reaching
+     *                                              Twilio, error=provider_unavailable; callers hand
+     *                                              it to DeliveryRetryQueue]
      */
     Map<String, Object> send(String toE164, String body);
 }
@@ -3,6 +3,9 @@ package edu.howard.research.smsbackend.services;
 import com.twilio.exception.ApiException;
 import com.twilio.rest.api.v2010.account.Message;
 import com.twilio.type.PhoneNumber;
+import edu.howard.research.smsbackend.exceptions.ProviderUnavailableException;
+import edu.howard.research.smsbackend.services.ProviderGuard.Provider;
+import edu.howard.research.smsbackend.util.PhoneNumberService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,6 +18,8 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class SmsServiceImpl implements SmsService {
 
+    private final ProviderGuard providerGuard;
+
     /**
      * Twilio Messaging Service SID (MGxxxxxxxxxxxxxxxxxxxxxxxxxxxxx).
      * Provide via application.yml or env:
@@ -26,13 +31,13 @@ public class SmsServiceImpl implements SmsService {
     @Override
     public Map<String, Object> send(String toE164, String body) {
         try {
-            Message msg = Message
+            Message msg = providerGuard.call(Provider.TWILIO_MESSAGING, () -> Message
                     .creator(new PhoneNumber(toE164), (String) null, body)
                     .setMessagingServiceSid(messagingServiceSid)
-                    .create();
+                    .create());
 
             String status = msg.getStatus() == null ? null : msg.getStatus().toString().toLowerCase();
-            log.info("Twilio SMS queued: to={} sid={} status={}", toE164, msg.getSid(), status);
+            log.info("Twilio SMS queued: to={} sid={} status={}", PhoneNumberService.mask(toE164), msg.getSid(), status);
 
             return Map.of(
                     "ok", true,
@@ -42,9 +47,18 @@ public class SmsServiceImpl implements SmsService {
                     "body", body
             );
 
+        } catch (ProviderUnavailableException e) {
+            log.warn("Twilio SMS not sent: to={} reason={}", PhoneNumberService.mask(toE164), e.getMessage());
+            return Map.of(
+                    "ok", false,
+                    "to", toE164,
+                    "body", body,
+                    "error", "provider_unavailable",
+                    "retryable", true
+            );
         } catch (ApiException e) {
             // Twilio error codes: https://www.twilio.com/docs/api/errors
-            log.warn("Twilio SMS failed: to={} code={} msg={}", toE164, e.getCode(), e.getMessage());
+            log.warn("Twilio SMS failed: to={} code={} msg={}", PhoneNumberService.mask(toE164), e.getCode(), e.getMessage());
             return Map.of(
                     "ok", false,
                     "to", toE164,
@@ -52,7 +66,7 @@ public class SmsServiceImpl implements SmsService {
                     "error", (e.getCode() == null ? "api_exception" : String.valueOf(e.getCode()))
             );
         } catch (Exception e) {
-            log.error("SMS send error: to={} err={}", toE164, e.getMessage(), e);
+            log.error("SMS send error: to={} err={}", PhoneNumberService.mask(toE164), e.getMessage(), e);
             return Map.of(
                     "ok", false,
                     "to", toE164,
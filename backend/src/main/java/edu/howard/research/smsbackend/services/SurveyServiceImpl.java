@@ -36,6 +36,7 @@ public class SurveyServiceImpl implements SurveyService {
     private final PhoneNumberService phoneNumberService;
     private final GiftCardService giftCardService;
     private final EnrollmentService enrollmentService;
+    private final DeliveryRetryQueue deliveryRetryQueue;
 
     @Override
     @Transactional
@@ -45,7 +46,7 @@ public class SurveyServiceImpl implements SurveyService {
             // Enrollment counts participants who have received a survey link, not just verified phones
             // This check happens BEFORE creating the invitation, preventing race conditions
             if (enrollmentService.isEnrollmentFull()) {
-                log.info("Enrollment full - cannot assign survey link for phone: {}", phone);
+                log.info("Enrollment full - cannot assign survey link for phone: {}", PhoneNumberService.mask(phone));
                 return new AssignResult(
                     false, 
                     "enrollment_full",
@@ -70,7 +71,7 @@ public class SurveyServiceImpl implements SurveyService {
                 participantRepository.save(p);
             }
             if (p.getStatus() == ParticipantStatus.OPTED_OUT) {
-                log.warn("Opted-out participant {}; not sending.", e164);
+                log.warn("Opted-out participant {}; not sending.", PhoneNumberService.mask(e164));
                 return new AssignResult(false, "participant_error", null, null);
             }
 
@@ -106,7 +107,7 @@ public class SurveyServiceImpl implements SurveyService {
             boolean emailSent = false;
             if (p.getEmail() != null && !p.getEmail().trim().isEmpty()) {
                 emailSent = emailService.sendSurveyLink(p.getEmail(), p.getName(), linkToSend);
-                log.info("Email sent to {} for participant {}: {}", p.getEmail(), e164, emailSent ? "SUCCESS" : "FAILED");
+                log.info("Email sent for participant {}: {}", PhoneNumberService.mask(e164), emailSent ? "SUCCESS" : "FAILED");
             }
 
             // 6) persist outcome
@@ -129,6 +130,8 @@ public class SurveyServiceImpl implements SurveyService {
                 inv.setErrorCode(error);
                 inv.setFailedAt(OffsetDateTime.now());
                 invitationRepository.save(inv);
+                // Same link, re-sent later if the failure was transient
+                deliveryRetryQueue.invitationSmsFailed(inv.getId(), body, send, "SYSTEM");
                 // Return the link that was actually sent (short link if available)
                 return new AssignResult(false, "sms_send_failed", linkToSend, null);
             }
@@ -192,7 +195,7 @@ public class SurveyServiceImpl implements SurveyService {
         var now = OffsetDateTime.now();
 
         int updated = invitationRepository.markCompletedById(inv.getId(), now);
-        log.info("Marked invitation {} completed (updated={}) for url={}", inv.getId(), updated, url);
+        log.info("Marked invitation {} completed (updated={})", inv.getId(), updated);
 
         if (inv.getLink() != null && inv.getLink().getId() != null) {
             try { linkPoolRepository.markExhausted(inv.getLink().getId()); }
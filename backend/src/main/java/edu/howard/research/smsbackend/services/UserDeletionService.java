@@ -0,0 +1,113 @@
+package edu.howard.research.smsbackend.services;
+
+import edu.howard.research.smsbackend.models.dto.BulkDeleteResultDto;
+import edu.howard.research.smsbackend.repositories.GiftCardRepository;
+import edu.howard.research.smsbackend.repositories.ParticipantRepository;
+import edu.howard.research.smsbackend.repositories.SurveyInvitationRepository;
+import edu.howard.research.smsbackend.repositories.SurveyLinkPoolRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Deletes invitations and participants ("users" in the admin dashboard) with a fixed number of
+ * set-based statements per chunk, so the cost follows the users' own data, not table sizes.
+ *
+ * An id may be an invitation id (the invitation is deleted, its link returns to the pool, and the
+ * participant is deleted when no other invitation remains) or the id of a participant without
+ * invitations. Gift cards are unsent (pool card released, UNSENT logged) and kept, detached, for
+ * the unsent history.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserDeletionService {
+
+    // Gift card log performer for deletions, as in the single-user path
+    public static final String DELETE_PERFORMER = "SYSTEM_DELETE";
+
+    // Max ids per set-based statement
+    private static final int BULK_CHUNK_SIZE = 1000;
+
+    private final SurveyInvitationRepository inviteRepo;
+    private final ParticipantRepository participantRepo;
+    private final SurveyLinkPoolRepository linkRepo;
+    private final GiftCardRepository giftCardRepo;
+
+    @Transactional
+    public BulkDeleteResultDto deleteUsers(Collection<UUID> ids) {
+        List<UUID> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        BulkDeleteResultDto result = new BulkDeleteResultDto();
+        result.setRequested(distinct.size());
+
+        for (int start = 0; start < distinct.size(); start += BULK_CHUNK_SIZE) {
+            deleteChunk(distinct.subList(start, Math.min(start + BULK_CHUNK_SIZE, distinct.size())), result);
+        }
+
+        log.info("Deleted {} invitations and {} participants ({} gift cards unsent, {} not found, {} blocked)",
+                result.getInvitationsDeleted(), result.getParticipantsDeleted(), result.getGiftCardsUnsent(),
+                result.getNotFound().size(), result.getBlocked().size());
+        return result;
+    }
+
+    private void deleteChunk(List<UUID> ids, BulkDeleteResultDto result) {
+        // Classify: invitation ids, participant ids without invitations, everything else
+        List<UUID> invitationIds = inviteRepo.findExistingIds(ids);
+        Set<UUID> remaining = new LinkedHashSet<>(ids);
+        invitationIds.forEach(remaining::remove);
+
+        List<UUID> participantIds = new ArrayList<>();
+        if (!remaining.isEmpty()) {
+            List<UUID> existing = participantRepo.findExistingIds(remaining);
+            Set<UUID> withInvitations = existing.isEmpty()
+                    ? Set.of() : new HashSet<>(participantRepo.findIdsWithInvitations(existing));
+            for (UUID id : existing) {
+                if (withInvitations.contains(id)) {
+                    result.getBlocked().add(id);
+                } else {
+                    participantIds.add(id);
+                }
+                remaining.remove(id);
+            }
+            remaining.remove(null);
+            result.getNotFound().addAll(remaining);
+        }
+
+        // Gift cards for these users; refuse the whole request if any was redeemed
+        Set<UUID> giftCardIds = new LinkedHashSet<>();
+        if (!invitationIds.isEmpty()) {
+            giftCardIds.addAll(giftCardRepo.findIdsByInvitationIds(invitationIds));
+        }
+        if (!participantIds.isEmpty()) {
+            giftCardIds.addAll(giftCardRepo.findIdsByParticipantIds(participantIds));
+        }
+        if (!giftCardIds.isEmpty()) {
+            if (giftCardRepo.countRedeemedByIds(giftCardIds) > 0) {
+                throw new IllegalStateException("Cannot delete: a selected user has a redeemed gift card.");
+            }
+            result.setGiftCardsUnsent(result.getGiftCardsUnsent()
+                    + (int) giftCardRepo.unsendAndDetachForDeletion(giftCardIds, DELETE_PERFORMER));
+        }
+
+        // Invitations: release links, delete, then drop participants left without invitations
+        if (!invitationIds.isEmpty()) {
+            linkRepo.resetForInvitations(invitationIds);
+            List<UUID> affectedParticipants = inviteRepo.deleteAllReturningParticipantIds(invitationIds);
+            result.setInvitationsDeleted(result.getInvitationsDeleted() + affectedParticipants.size());
+            participantIds.addAll(new LinkedHashSet<>(affectedParticipants));
+        }
+        if (!participantIds.isEmpty()) {
+            result.setParticipantsDeleted(result.getParticipantsDeleted()
+                    + participantRepo.deleteAllWithoutInvitations(participantIds));
+        }
+    }
+}
@@ -3,17 +3,64 @@ package edu.howard.research.smsbackend.util;
 import com.google.i18n.phonenumbers.NumberParseException;
 import com.google.i18n.phonenumbers.PhoneNumberUtil;
 import com.google.i18n.phonenumbers.Phonenumber;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * E.164 normalisation with libphonenumber.
+ *
+ * Results are kept in an LRU cache keyed by the trimmed input (app.phone.cacheSize entries),
+ * rejections included, since the same number is normalised several times per request. The
+ * metadata for app.phone.warmupRegions is loaded and exercised once at startup, before the
+ * web server accepts requests, instead of on the first participant's call.
+ */
+@Slf4j
 @Component
-public class PhoneNumberService {
+public class PhoneNumberService implements SmartInitializingSingleton {
+
+    /** Inputs longer than this are never valid numbers and aren't worth a cache slot */
+    private static final int MAX_CACHED_INPUT = 64;
 
     private final PhoneNumberUtil phoneUtil = PhoneNumberUtil.getInstance();
     private final String defaultRegion;
+    private final List<String> warmupRegions;
+    private final Map<String, Normalized> cache;
+    /** Guards cache, which is access-ordered, so get() writes too */
+    private final ReentrantLock cacheLock = new ReentrantLock();
 
-    public PhoneNumberService(@Value("${app.phone.defaultRegion:US}") String defaultRegion) {
+    /** Either the E.164 form or the reason the input was rejected */
+    private record Normalized(String e164, String error) { }
+
+    public PhoneNumberService(@Value("${app.phone.defaultRegion:US}") String defaultRegion,
+                              @Value("${app.phone.warmupRegions:US}") List<String> warmupRegions,
+                              @Value("${app.phone.cacheSize:10000}") int cacheSize) {
         this.defaultRegion = defaultRegion;
+        this.warmupRegions = warmupRegions;
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Normalized> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * A phone number as it may appear in logs: the digits with all but the last four masked
+     * (e.g. "*******4567"), enough to tell participants apart without recording the number.
+     */
+    public static String mask(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        String digits = phone.replaceAll("\\D", "");
+        return digits.length() <= 4 ? "****" : "*".repeat(digits.length() - 4) + digits.substring(digits.length() - 4);
     }
 
     /**
@@ -26,16 +73,42 @@ public class PhoneNumberService {
         }
         final String trimmed = raw.trim();
 
+        Normalized result;
+        cacheLock.lock();
+        try {
+            result = cache.get(trimmed);
+        } finally {
+            cacheLock.unlock();
+        }
+        if (result == null) {
+            result = normalize(trimmed);
+            if (trimmed.length() <= MAX_CACHED_INPUT) {
+                cacheLock.lock();
+                try {
+                    cache.put(trimmed, result);
+                } finally {
+                    cacheLock.unlock();
+                }
+            }
+        }
+
+        if (result.error() != null) {
+            throw new IllegalArgumentException(result.error());
+        }
+        return result.e164();
+    }
+
+    private Normalized normalize(String trimmed) {
         try {
             // If the input already starts with '+', region is ignored; otherwise we use defaultRegion.
             Phonenumber.PhoneNumber parsed = phoneUtil.parse(trimmed, defaultRegion);
 
             // Hard validation: must be possible + valid per lib rules
             if (!phoneUtil.isPossibleNumber(parsed)) {
-                throw new IllegalArgumentException("phone number not possible");
+                return new Normalized(null, "phone number not possible");
             }
             if (!phoneUtil.isValidNumber(parsed)) {
-                throw new IllegalArgumentException("phone number not valid");
+                return new Normalized(null, "phone number not valid");
             }
 
             // Optional: restrict to mobile-capable types only. Comment out if you want to allow fixed-lines.
@@ -45,15 +118,42 @@ public class PhoneNumberService {
                     // OK: SMS-capable
                 }
                 default -> {
-                    throw new IllegalArgumentException(
-                            "Phone number type " + type + " is not SMS-capable"
-                    );
+                    return new Normalized(null, "Phone number type " + type + " is not SMS-capable");
                 }
             }
 
-            return phoneUtil.format(parsed, PhoneNumberUtil.PhoneNumberFormat.E164);
+            return new Normalized(phoneUtil.format(parsed, PhoneNumberUtil.PhoneNumberFormat.E164), null);
         } catch (NumberParseException e) {
-            throw new IllegalArgumentException("invalid phone format");
+            return new Normalized(null, "invalid phone format");
+        }
+    }
+
+    /**
+     * Load region metadata and run the full parse/validate/format path once per warm-up region
+     * (uncached), so class loading and metadata parsing happen during startup.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        int warmed = 0;
+        for (String region : warmupRegions) {
+            String code = region.trim().toUpperCase();
+            if (!phoneUtil.getSupportedRegions().contains(code)) {
+                log.warn("Unknown phone warm-up region: {}", region);
+                continue;
+            }
+            for (PhoneNumberUtil.PhoneNumberType type :
+                    List.of(PhoneNumberUtil.PhoneNumberType.MOBILE, PhoneNumberUtil.PhoneNumberType.FIXED_LINE)) {
+                Phonenumber.PhoneNumber example = phoneUtil.getExampleNumberForType(code, type);
+                if (example != null) {
+                    normalize(phoneUtil.format(example, PhoneNumberUtil.PhoneNumberFormat.NATIONAL));
+                    normalize(phoneUtil.format(example, PhoneNumberUtil.PhoneNumberFormat.E164));
+                }
+            }
+            warmed++;
         }
+        normalize("not a number");
+        log.info("Phone number metadata warmed for {} region(s) in {} ms",
+                warmed, (System.nanoTime() - start) / 1_000_000);
     }
 }
@@ -0,0 +1,21 @@
+package edu.howard.research.smsbackend.util;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Generate the id as a time-ordered UUIDv7 (RFC 9562). Use in place of
+ * {@code @GeneratedValue @UuidGenerator} on append-heavy tables so new rows land at the
+ * right-hand edge of the primary key index instead of at random pages.
+ */
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface UuidV7 {
+}
@@ -0,0 +1,47 @@
+package edu.howard.research.smsbackend.util;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UUIDv7 generator: 48-bit Unix millisecond timestamp, version 7, a 12-bit counter that keeps
+ * ids monotonic within the same millisecond (RFC 9562 method 1), variant bits and 62 random bits.
+ * If the counter overflows, the timestamp field is borrowed forward by a millisecond, so ids
+ * from this JVM never go backwards even if the wall clock does.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // (unix millis << 12) | counter of the last id handed out
+    private static final AtomicLong LAST = new AtomicLong();
+
+    public static UUID next() {
+        long candidate = System.currentTimeMillis() << 12;
+        long state = LAST.updateAndGet(last -> Math.max(candidate, last + 1));
+
+        long millis = state >>> 12;
+        long counter = state & 0xFFFL;
+        long msb = (millis << 16) | 0x7000L | counter;
+        long lsb = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -0,0 +1,11 @@
+-- Track automated/manual reminders per invitation
+ALTER TABLE survey_invitation
+    ADD COLUMN IF NOT EXISTS reminder_count INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS last_reminder_at TIMESTAMPTZ;
+
+-- Reminder waves select incomplete invitations by stage (reminder_count) and age (queued_at)
+CREATE INDEX IF NOT EXISTS idx_invitation_reminder_due
+    ON survey_invitation (reminder_count, queued_at)
+    WHERE completed_at IS NULL AND queued_at IS NOT NULL;
+
+COMMENT ON COLUMN survey_invitation.reminder_count IS 'Number of reminders sent for this invitation (scheduled or manual).';
@@ -0,0 +1,17 @@
+-- Lease-based lock and last-run bookkeeping for scheduled jobs, so only one
+-- backend instance runs each job when several are deployed behind nginx
+CREATE TABLE IF NOT EXISTS scheduled_job_lock (
+    job_name          VARCHAR(100) PRIMARY KEY,
+    locked_by         VARCHAR(255),
+    locked_at         TIMESTAMPTZ,
+    lease_until       TIMESTAMPTZ NOT NULL DEFAULT now(),
+    last_started_at   TIMESTAMPTZ,
+    last_finished_at  TIMESTAMPTZ,
+    last_duration_ms  BIGINT,
+    last_outcome      VARCHAR(20),              -- SUCCESS | FAILED
+    last_error        TEXT,
+    last_result       TEXT,
+    run_count         BIGINT NOT NULL DEFAULT 0
+);
+
+COMMENT ON TABLE scheduled_job_lock IS 'One row per scheduled job. A job may run only while it holds an unexpired lease (lease_until > now()).';
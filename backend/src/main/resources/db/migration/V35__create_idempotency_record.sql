@@ -0,0 +1,14 @@
+-- Stored responses for requests sent with an Idempotency-Key header.
+-- record_key = <endpoint scope>:<admin user>:<client key>
+CREATE TABLE IF NOT EXISTS idempotency_record (
+    record_key       VARCHAR(400) PRIMARY KEY,
+    request_hash     VARCHAR(64) NOT NULL,           -- SHA-256 of the request body, to catch key reuse
+    status           VARCHAR(20) NOT NULL,           -- PENDING | COMPLETED
+    response_status  INTEGER,
+    response_body    TEXT,
+    created_at       TIMESTAMPTZ NOT NULL DEFAULT now(),
+    completed_at     TIMESTAMPTZ,
+    expires_at       TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_record_expires ON idempotency_record(expires_at);
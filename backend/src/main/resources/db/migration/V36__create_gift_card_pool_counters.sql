@@ -0,0 +1,101 @@
+-- Trigger-maintained counters for gift_card_pool so pool status is one small read
+-- instead of a COUNT(*) per status / card type.
+
+CREATE TABLE IF NOT EXISTS gift_card_pool_counters (
+    status      VARCHAR(32)   NOT NULL,
+    card_type   VARCHAR(32),
+    card_value  DECIMAL(10,2),
+    batch_label VARCHAR(100),
+    card_count  BIGINT        NOT NULL DEFAULT 0,
+    CONSTRAINT uq_gift_card_pool_counters
+        UNIQUE NULLS NOT DISTINCT (status, card_type, card_value, batch_label)
+);
+
+COMMENT ON TABLE gift_card_pool_counters IS 'Row counts of gift_card_pool per (status, card_type, card_value, batch_label). Maintained by triggers; do not write directly.';
+
+-- Applies signed deltas for every (status, card_type, card_value, batch_label) touched by a statement.
+-- Statement-level with transition tables, so a CSV import or batch update costs one upsert per group.
+CREATE OR REPLACE FUNCTION gift_card_pool_counters_apply() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO gift_card_pool_counters AS c (status, card_type, card_value, batch_label, card_count)
+        SELECT status, card_type, card_value, batch_label, COUNT(*)
+          FROM new_rows
+         GROUP BY status, card_type, card_value, batch_label
+        ON CONFLICT ON CONSTRAINT uq_gift_card_pool_counters
+        DO UPDATE SET card_count = c.card_count + EXCLUDED.card_count;
+
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE gift_card_pool_counters c
+           SET card_count = c.card_count - d.cnt
+          FROM (SELECT status, card_type, card_value, batch_label, COUNT(*) AS cnt
+                  FROM old_rows
+                 GROUP BY status, card_type, card_value, batch_label) d
+         WHERE c.status = d.status
+           AND c.card_type IS NOT DISTINCT FROM d.card_type
+           AND c.card_value IS NOT DISTINCT FROM d.card_value
+           AND c.batch_label IS NOT DISTINCT FROM d.batch_label;
+
+    ELSIF TG_OP = 'UPDATE' THEN
+        -- Only rows whose counter key changed move between buckets
+        INSERT INTO gift_card_pool_counters AS c (status, card_type, card_value, batch_label, card_count)
+        SELECT status, card_type, card_value, batch_label, SUM(delta)
+          FROM (
+                SELECT o.status, o.card_type, o.card_value, o.batch_label, -1 AS delta
+                  FROM old_rows o JOIN new_rows n ON n.id = o.id
+                 WHERE (o.status, o.card_type, o.card_value, o.batch_label)
+                       IS DISTINCT FROM (n.status, n.card_type, n.card_value, n.batch_label)
+                UNION ALL
+                SELECT n.status, n.card_type, n.card_value, n.batch_label, 1 AS delta
+                  FROM old_rows o JOIN new_rows n ON n.id = o.id
+                 WHERE (o.status, o.card_type, o.card_value, o.batch_label)
+                       IS DISTINCT FROM (n.status, n.card_type, n.card_value, n.batch_label)
+               ) moved
+         GROUP BY status, card_type, card_value, batch_label
+        HAVING SUM(delta) <> 0
+        ON CONFLICT ON CONSTRAINT uq_gift_card_pool_counters
+        DO UPDATE SET card_count = c.card_count + EXCLUDED.card_count;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION gift_card_pool_counters_truncate() RETURNS trigger AS $$
+BEGIN
+    DELETE FROM gift_card_pool_counters;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_gift_card_pool_counters_ins ON gift_card_pool;
+CREATE TRIGGER trg_gift_card_pool_counters_ins
+    AFTER INSERT ON gift_card_pool
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION gift_card_pool_counters_apply();
+
+DROP TRIGGER IF EXISTS trg_gift_card_pool_counters_upd ON gift_card_pool;
+CREATE TRIGGER trg_gift_card_pool_counters_upd
+    AFTER UPDATE ON gift_card_pool
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION gift_card_pool_counters_apply();
+
+DROP TRIGGER IF EXISTS trg_gift_card_pool_counters_del ON gift_card_pool;
+CREATE TRIGGER trg_gift_card_pool_counters_del
+    AFTER DELETE ON gift_card_pool
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION gift_card_pool_counters_apply();
+
+DROP TRIGGER IF EXISTS trg_gift_card_pool_counters_trunc ON gift_card_pool;
+CREATE TRIGGER trg_gift_card_pool_counters_trunc
+    AFTER TRUNCATE ON gift_card_pool
+    FOR EACH STATEMENT EXECUTE FUNCTION gift_card_pool_counters_truncate();
+
+-- Seed from the existing pool (triggers above only see changes from here on)
+LOCK TABLE gift_card_pool IN SHARE MODE;
+
+DELETE FROM gift_card_pool_counters;
+
+INSERT INTO gift_card_pool_counters (status, card_type, card_value, batch_label, card_count)
+SELECT status, card_type, card_value, batch_label, COUNT(*)
+  FROM gift_card_pool
+ GROUP BY status, card_type, card_value, batch_label;
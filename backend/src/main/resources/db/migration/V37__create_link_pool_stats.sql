@@ -0,0 +1,193 @@
+-- Incrementally maintained link-pool / invitation statistics.
+-- Replaces the GROUP BY behind v_link_pool_stats and the COUNT(*)s behind /api/admin/stats.
+
+-- ---- Link pool counts per (batch_label, status) ----
+CREATE TABLE IF NOT EXISTS link_pool_stats (
+    batch_label TEXT,
+    status      TEXT   NOT NULL,
+    cnt         BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uq_link_pool_stats UNIQUE NULLS NOT DISTINCT (batch_label, status)
+);
+
+COMMENT ON TABLE link_pool_stats IS 'Row counts of survey_link_pool per (batch_label, status). Maintained by triggers, reconciled by reconcile_link_pool_stats().';
+
+CREATE OR REPLACE FUNCTION link_pool_stats_apply() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO link_pool_stats AS s (batch_label, status, cnt)
+        SELECT batch_label, status, COUNT(*)
+          FROM new_rows
+         GROUP BY batch_label, status
+        ON CONFLICT ON CONSTRAINT uq_link_pool_stats
+        DO UPDATE SET cnt = s.cnt + EXCLUDED.cnt;
+
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE link_pool_stats s
+           SET cnt = s.cnt - d.cnt
+          FROM (SELECT batch_label, status, COUNT(*) AS cnt
+                  FROM old_rows
+                 GROUP BY batch_label, status) d
+         WHERE s.batch_label IS NOT DISTINCT FROM d.batch_label
+           AND s.status = d.status;
+
+    ELSIF TG_OP = 'UPDATE' THEN
+        -- Status transitions (claim, exhaust, reset) and batch relabels move rows between buckets
+        INSERT INTO link_pool_stats AS s (batch_label, status, cnt)
+        SELECT batch_label, status, SUM(delta)
+          FROM (
+                SELECT o.batch_label, o.status, -1 AS delta
+                  FROM old_rows o JOIN new_rows n ON n.id = o.id
+                 WHERE (o.batch_label, o.status) IS DISTINCT FROM (n.batch_label, n.status)
+                UNION ALL
+                SELECT n.batch_label, n.status, 1 AS delta
+                  FROM old_rows o JOIN new_rows n ON n.id = o.id
+                 WHERE (o.batch_label, o.status) IS DISTINCT FROM (n.batch_label, n.status)
+               ) moved
+         GROUP BY batch_label, status
+        HAVING SUM(delta) <> 0
+        ON CONFLICT ON CONSTRAINT uq_link_pool_stats
+        DO UPDATE SET cnt = s.cnt + EXCLUDED.cnt;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_link_pool_stats_ins ON survey_link_pool;
+CREATE TRIGGER trg_link_pool_stats_ins
+    AFTER INSERT ON survey_link_pool
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION link_pool_stats_apply();
+
+DROP TRIGGER IF EXISTS trg_link_pool_stats_upd ON survey_link_pool;
+CREATE TRIGGER trg_link_pool_stats_upd
+    AFTER UPDATE ON survey_link_pool
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION link_pool_stats_apply();
+
+DROP TRIGGER IF EXISTS trg_link_pool_stats_del ON survey_link_pool;
+CREATE TRIGGER trg_link_pool_stats_del
+    AFTER DELETE ON survey_link_pool
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION link_pool_stats_apply();
+
+-- ---- Exact row counts for tables the dashboard totals ----
+CREATE TABLE IF NOT EXISTS table_row_counts (
+    table_name TEXT   PRIMARY KEY,
+    row_count  BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE OR REPLACE FUNCTION table_row_counts_apply() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE table_row_counts SET row_count = row_count + (SELECT COUNT(*) FROM new_rows)
+         WHERE table_name = TG_TABLE_NAME;
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE table_row_counts SET row_count = row_count - (SELECT COUNT(*) FROM old_rows)
+         WHERE table_name = TG_TABLE_NAME;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_survey_invitation_count_ins ON survey_invitation;
+CREATE TRIGGER trg_survey_invitation_count_ins
+    AFTER INSERT ON survey_invitation
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION table_row_counts_apply();
+
+DROP TRIGGER IF EXISTS trg_survey_invitation_count_del ON survey_invitation;
+CREATE TRIGGER trg_survey_invitation_count_del
+    AFTER DELETE ON survey_invitation
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION table_row_counts_apply();
+
+-- ---- Reconciliation ----
+-- Recounts from the base tables and fixes any drift (e.g. after TRUNCATE or a manual
+-- data fix with triggers disabled). Returns the number of counter rows corrected.
+CREATE OR REPLACE FUNCTION reconcile_link_pool_stats() RETURNS INTEGER
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_fixed INTEGER := 0;
+    v_rows  INTEGER;
+BEGIN
+    -- Block writers (but not readers) so the recount and the triggers cannot interleave
+    LOCK TABLE survey_link_pool IN SHARE MODE;
+    LOCK TABLE survey_invitation IN SHARE MODE;
+    LOCK TABLE gift_card_pool IN SHARE MODE;
+
+    WITH actual AS (
+        SELECT batch_label, status, COUNT(*) AS cnt
+          FROM survey_link_pool
+         GROUP BY batch_label, status
+    ), upserted AS (
+        INSERT INTO link_pool_stats AS s (batch_label, status, cnt)
+        SELECT batch_label, status, cnt FROM actual
+        ON CONFLICT ON CONSTRAINT uq_link_pool_stats
+        DO UPDATE SET cnt = EXCLUDED.cnt
+         WHERE s.cnt <> EXCLUDED.cnt
+        RETURNING 1
+    ), zeroed AS (
+        UPDATE link_pool_stats s
+           SET cnt = 0
+         WHERE s.cnt <> 0
+           AND NOT EXISTS (SELECT 1 FROM actual a
+                            WHERE a.batch_label IS NOT DISTINCT FROM s.batch_label
+                              AND a.status = s.status)
+        RETURNING 1
+    )
+    SELECT (SELECT COUNT(*) FROM upserted) + (SELECT COUNT(*) FROM zeroed) INTO v_rows;
+    v_fixed := v_fixed + v_rows;
+
+    WITH actual AS (
+        SELECT status, card_type, card_value, batch_label, COUNT(*) AS cnt
+          FROM gift_card_pool
+         GROUP BY status, card_type, card_value, batch_label
+    ), upserted AS (
+        INSERT INTO gift_card_pool_counters AS c (status, card_type, card_value, batch_label, card_count)
+        SELECT status, card_type, card_value, batch_label, cnt FROM actual
+        ON CONFLICT ON CONSTRAINT uq_gift_card_pool_counters
+        DO UPDATE SET card_count = EXCLUDED.card_count
+         WHERE c.card_count <> EXCLUDED.card_count
+        RETURNING 1
+    ), zeroed AS (
+        UPDATE gift_card_pool_counters c
+           SET card_count = 0
+         WHERE c.card_count <> 0
+           AND NOT EXISTS (SELECT 1 FROM actual a
+                            WHERE a.status = c.status
+                              AND a.card_type IS NOT DISTINCT FROM c.card_type
+                              AND a.card_value IS NOT DISTINCT FROM c.card_value
+                              AND a.batch_label IS NOT DISTINCT FROM c.batch_label)
+        RETURNING 1
+    )
+    SELECT (SELECT COUNT(*) FROM upserted) + (SELECT COUNT(*) FROM zeroed) INTO v_rows;
+    v_fixed := v_fixed + v_rows;
+
+    INSERT INTO table_row_counts AS t (table_name, row_count)
+    SELECT 'survey_invitation', COUNT(*) FROM survey_invitation
+    ON CONFLICT (table_name) DO UPDATE SET row_count = EXCLUDED.row_count
+     WHERE t.row_count <> EXCLUDED.row_count;
+    GET DIAGNOSTICS v_rows = ROW_COUNT;
+    v_fixed := v_fixed + v_rows;
+
+    -- Drop buckets that have stayed empty (e.g. deleted batches)
+    DELETE FROM link_pool_stats WHERE cnt = 0;
+    DELETE FROM gift_card_pool_counters WHERE card_count = 0;
+
+    RETURN v_fixed;
+END;
+$$;
+
+-- Seed (the counter row must exist before the invitation triggers can update it)
+INSERT INTO table_row_counts (table_name, row_count) VALUES ('survey_invitation', 0)
+ON CONFLICT (table_name) DO NOTHING;
+
+SELECT reconcile_link_pool_stats();
+
+-- Keep the view for ad-hoc queries, now backed by the summary table
+DROP VIEW IF EXISTS v_link_pool_stats;
+CREATE VIEW v_link_pool_stats AS
+SELECT batch_label, status, cnt
+FROM link_pool_stats
+WHERE cnt > 0;
@@ -0,0 +1,122 @@
+-- Push dashboard changes to the backend over LISTEN/NOTIFY (channel: dashboard_events).
+-- One compact JSON notification per statement, delivered on commit:
+--   {"type":"invitations","op":"update","count":3,"ids":["..."]}
+-- ids is omitted for large statements so the payload stays well under the 8000 byte limit.
+
+CREATE OR REPLACE FUNCTION notify_dashboard_event() RETURNS trigger AS $$
+DECLARE
+    v_type  TEXT   := TG_ARGV[0];
+    -- Remaining trigger arguments: columns whose change is worth a notification on UPDATE
+    v_cols  TEXT[] := TG_ARGV[1:];
+    v_count INTEGER;
+    v_ids   JSONB;
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        SELECT COUNT(*), (SELECT jsonb_agg(id) FROM (SELECT id FROM new_rows LIMIT 50) x)
+          INTO v_count, v_ids
+          FROM new_rows;
+    ELSIF TG_OP = 'DELETE' THEN
+        SELECT COUNT(*), (SELECT jsonb_agg(id) FROM (SELECT id FROM old_rows LIMIT 50) x)
+          INTO v_count, v_ids
+          FROM old_rows;
+    ELSE
+        WITH changed AS (
+            SELECT n.id
+              FROM old_rows o JOIN new_rows n ON n.id = o.id
+             WHERE EXISTS (SELECT 1 FROM unnest(v_cols) c
+                            WHERE to_jsonb(o) -> c IS DISTINCT FROM to_jsonb(n) -> c)
+        )
+        SELECT COUNT(*), (SELECT jsonb_agg(id) FROM (SELECT id FROM changed LIMIT 50) x)
+          INTO v_count, v_ids
+          FROM changed;
+    END IF;
+
+    IF v_count = 0 THEN
+        RETURN NULL;
+    END IF;
+
+    PERFORM pg_notify('dashboard_events', jsonb_strip_nulls(jsonb_build_object(
+        'type',  v_type,
+        'op',    lower(TG_OP),
+        'count', v_count,
+        'ids',   CASE WHEN v_count <= 50 THEN v_ids END
+    ))::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- ---- survey_invitation: sends, delivery status, completions ----
+DROP TRIGGER IF EXISTS trg_notify_invitations_ins ON survey_invitation;
+CREATE TRIGGER trg_notify_invitations_ins
+    AFTER INSERT ON survey_invitation
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_dashboard_event('invitations');
+
+DROP TRIGGER IF EXISTS trg_notify_invitations_upd ON survey_invitation;
+CREATE TRIGGER trg_notify_invitations_upd
+    AFTER UPDATE ON survey_invitation
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_dashboard_event('invitations', 'message_status', 'completed_at', 'sent_at');
+
+DROP TRIGGER IF EXISTS trg_notify_invitations_del ON survey_invitation;
+CREATE TRIGGER trg_notify_invitations_del
+    AFTER DELETE ON survey_invitation
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_dashboard_event('invitations');
+
+-- ---- gift_cards: creation, sends, unsends ----
+DROP TRIGGER IF EXISTS trg_notify_gift_cards_ins ON gift_cards;
+CREATE TRIGGER trg_notify_gift_cards_ins
+    AFTER INSERT ON gift_cards
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_dashboard_event('gift_cards');
+
+DROP TRIGGER IF EXISTS trg_notify_gift_cards_upd ON gift_cards;
+CREATE TRIGGER trg_notify_gift_cards_upd
+    AFTER UPDATE ON gift_cards
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_dashboard_event('gift_cards', 'status');
+
+DROP TRIGGER IF EXISTS trg_notify_gift_cards_del ON gift_cards;
+CREATE TRIGGER trg_notify_gift_cards_del
+    AFTER DELETE ON gift_cards
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_dashboard_event('gift_cards');
+
+-- ---- gift_card_pool: uploads, assignment, expiry ----
+DROP TRIGGER IF EXISTS trg_notify_gift_card_pool_ins ON gift_card_pool;
+CREATE TRIGGER trg_notify_gift_card_pool_ins
+    AFTER INSERT ON gift_card_pool
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_dashboard_event('gift_card_pool');
+
+DROP TRIGGER IF EXISTS trg_notify_gift_card_pool_upd ON gift_card_pool;
+CREATE TRIGGER trg_notify_gift_card_pool_upd
+    AFTER UPDATE ON gift_card_pool
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_dashboard_event('gift_card_pool', 'status', 'card_code');
+
+DROP TRIGGER IF EXISTS trg_notify_gift_card_pool_del ON gift_card_pool;
+CREATE TRIGGER trg_notify_gift_card_pool_del
+    AFTER DELETE ON gift_card_pool
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_dashboard_event('gift_card_pool');
+
+-- ---- survey_link_pool: uploads and claims (drives the link stats) ----
+DROP TRIGGER IF EXISTS trg_notify_link_pool_ins ON survey_link_pool;
+CREATE TRIGGER trg_notify_link_pool_ins
+    AFTER INSERT ON survey_link_pool
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_dashboard_event('link_pool');
+
+DROP TRIGGER IF EXISTS trg_notify_link_pool_upd ON survey_link_pool;
+CREATE TRIGGER trg_notify_link_pool_upd
+    AFTER UPDATE ON survey_link_pool
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_dashboard_event('link_pool', 'status');
+
+DROP TRIGGER IF EXISTS trg_notify_link_pool_del ON survey_link_pool;
+CREATE TRIGGER trg_notify_link_pool_del
+    AFTER DELETE ON survey_link_pool
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_dashboard_event('link_pool');
@@ -0,0 +1,25 @@
+-- Trigram indexes so substring search (LIKE '%term%') on codes, phones, emails, names and
+-- links is an index scan instead of a sequential scan of the whole table.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Gift card pool codes (matches LOWER(card_code::text) LIKE ... in GiftCardPoolRepository)
+CREATE INDEX IF NOT EXISTS idx_gift_card_pool_code_trgm
+    ON gift_card_pool USING gin (lower(card_code::text) gin_trgm_ops);
+
+-- Participants: phone is stored as E.164 (+digits), so digit substrings match it directly
+CREATE INDEX IF NOT EXISTS idx_participant_phone_trgm
+    ON participant USING gin (phone gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_participant_email_trgm
+    ON participant USING gin (lower(email) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_participant_name_trgm
+    ON participant USING gin (lower(name) gin_trgm_ops);
+
+-- Invitations: admins paste the survey or short link they were sent
+CREATE INDEX IF NOT EXISTS idx_invitation_link_url_trgm
+    ON survey_invitation USING gin (lower(link_url) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_invitation_short_link_url_trgm
+    ON survey_invitation USING gin (lower(short_link_url) gin_trgm_ops);
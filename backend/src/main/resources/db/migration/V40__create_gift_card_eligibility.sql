@@ -0,0 +1,157 @@
+-- Work queue of invitations eligible for a gift card: survey completed and no gift card
+-- for it other than UNSENT ones. Kept current by triggers on survey_invitation and
+-- gift_cards, so the admin "eligible" list is an indexed read instead of an anti-join over
+-- every completed invitation.
+
+CREATE TABLE IF NOT EXISTS gift_card_eligibility (
+    invitation_id  UUID PRIMARY KEY REFERENCES survey_invitation(id) ON DELETE CASCADE,
+    participant_id UUID NOT NULL,
+    completed_at   TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_gift_card_eligibility_completed
+    ON gift_card_eligibility (completed_at DESC, invitation_id);
+
+-- Supports the NOT EXISTS probe below (and the old eligibility query)
+CREATE INDEX IF NOT EXISTS idx_gift_cards_invitation_active
+    ON gift_cards (invitation_id) WHERE status <> 'UNSENT';
+
+-- Re-evaluates eligibility for the given invitations
+CREATE OR REPLACE FUNCTION refresh_gift_card_eligibility(p_invitation_ids UUID[]) RETURNS VOID
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF p_invitation_ids IS NULL OR cardinality(p_invitation_ids) = 0 THEN
+        RETURN;
+    END IF;
+
+    INSERT INTO gift_card_eligibility AS e (invitation_id, participant_id, completed_at)
+    SELECT si.id, si.participant_id, si.completed_at
+      FROM survey_invitation si
+     WHERE si.id = ANY(p_invitation_ids)
+       AND si.completed_at IS NOT NULL
+       AND NOT EXISTS (SELECT 1 FROM gift_cards gc
+                        WHERE gc.invitation_id = si.id
+                          AND gc.participant_id = si.participant_id
+                          AND gc.status <> 'UNSENT')
+    ON CONFLICT (invitation_id) DO UPDATE SET completed_at = EXCLUDED.completed_at;
+
+    DELETE FROM gift_card_eligibility e
+     WHERE e.invitation_id = ANY(p_invitation_ids)
+       AND NOT EXISTS (SELECT 1 FROM survey_invitation si
+                        WHERE si.id = e.invitation_id
+                          AND si.completed_at IS NOT NULL
+                          AND NOT EXISTS (SELECT 1 FROM gift_cards gc
+                                           WHERE gc.invitation_id = si.id
+                                             AND gc.participant_id = si.participant_id
+                                             AND gc.status <> 'UNSENT'));
+END;
+$$;
+
+-- survey_invitation: completion / un-completion (deletes cascade through the FK)
+CREATE OR REPLACE FUNCTION gift_card_eligibility_from_invitations() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM refresh_gift_card_eligibility(ARRAY(
+            SELECT id FROM new_rows WHERE completed_at IS NOT NULL));
+    ELSE
+        PERFORM refresh_gift_card_eligibility(ARRAY(
+            SELECT n.id FROM old_rows o JOIN new_rows n ON n.id = o.id
+             WHERE o.completed_at IS DISTINCT FROM n.completed_at));
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_gift_card_eligibility_inv_ins ON survey_invitation;
+CREATE TRIGGER trg_gift_card_eligibility_inv_ins
+    AFTER INSERT ON survey_invitation
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION gift_card_eligibility_from_invitations();
+
+DROP TRIGGER IF EXISTS trg_gift_card_eligibility_inv_upd ON survey_invitation;
+CREATE TRIGGER trg_gift_card_eligibility_inv_upd
+    AFTER UPDATE ON survey_invitation
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION gift_card_eligibility_from_invitations();
+
+-- gift_cards: a card being created, sent, unsent or deleted changes its invitation's eligibility
+CREATE OR REPLACE FUNCTION gift_card_eligibility_from_gift_cards() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM refresh_gift_card_eligibility(ARRAY(
+            SELECT DISTINCT invitation_id FROM new_rows WHERE invitation_id IS NOT NULL));
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM refresh_gift_card_eligibility(ARRAY(
+            SELECT DISTINCT invitation_id FROM old_rows WHERE invitation_id IS NOT NULL));
+    ELSE
+        PERFORM refresh_gift_card_eligibility(ARRAY(
+            SELECT n.invitation_id FROM old_rows o JOIN new_rows n ON n.id = o.id
+             WHERE n.invitation_id IS NOT NULL
+               AND (o.status, o.invitation_id, o.participant_id)
+                   IS DISTINCT FROM (n.status, n.invitation_id, n.participant_id)
+            UNION
+            SELECT o.invitation_id FROM old_rows o JOIN new_rows n ON n.id = o.id
+             WHERE o.invitation_id IS NOT NULL
+               AND o.invitation_id IS DISTINCT FROM n.invitation_id));
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_gift_card_eligibility_gc_ins ON gift_cards;
+CREATE TRIGGER trg_gift_card_eligibility_gc_ins
+    AFTER INSERT ON gift_cards
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION gift_card_eligibility_from_gift_cards();
+
+DROP TRIGGER IF EXISTS trg_gift_card_eligibility_gc_upd ON gift_cards;
+CREATE TRIGGER trg_gift_card_eligibility_gc_upd
+    AFTER UPDATE ON gift_cards
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION gift_card_eligibility_from_gift_cards();
+
+DROP TRIGGER IF EXISTS trg_gift_card_eligibility_gc_del ON gift_cards;
+CREATE TRIGGER trg_gift_card_eligibility_gc_del
+    AFTER DELETE ON gift_cards
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION gift_card_eligibility_from_gift_cards();
+
+-- Rebuilds the queue from scratch; returns the number of rows added or removed
+CREATE OR REPLACE FUNCTION reconcile_gift_card_eligibility() RETURNS INTEGER
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_added   INTEGER;
+    v_removed INTEGER;
+BEGIN
+    LOCK TABLE survey_invitation IN SHARE MODE;
+    LOCK TABLE gift_cards IN SHARE MODE;
+
+    INSERT INTO gift_card_eligibility (invitation_id, participant_id, completed_at)
+    SELECT si.id, si.participant_id, si.completed_at
+      FROM survey_invitation si
+     WHERE si.completed_at IS NOT NULL
+       AND NOT EXISTS (SELECT 1 FROM gift_card_eligibility e WHERE e.invitation_id = si.id)
+       AND NOT EXISTS (SELECT 1 FROM gift_cards gc
+                        WHERE gc.invitation_id = si.id
+                          AND gc.participant_id = si.participant_id
+                          AND gc.status <> 'UNSENT');
+    GET DIAGNOSTICS v_added = ROW_COUNT;
+
+    DELETE FROM gift_card_eligibility e
+     WHERE NOT EXISTS (SELECT 1 FROM survey_invitation si
+                        WHERE si.id = e.invitation_id
+                          AND si.completed_at IS NOT NULL
+                          AND NOT EXISTS (SELECT 1 FROM gift_cards gc
+                                           WHERE gc.invitation_id = si.id
+                                             AND gc.participant_id = si.participant_id
+                                             AND gc.status <> 'UNSENT'));
+    GET DIAGNOSTICS v_removed = ROW_COUNT;
+
+    RETURN v_added + v_removed;
+END;
+$$;
+
+-- Seed from existing data
+SELECT reconcile_gift_card_eligibility();
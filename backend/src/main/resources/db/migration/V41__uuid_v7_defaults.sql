@@ -0,0 +1,27 @@
+-- Time-ordered UUIDv7 ids (RFC 9562) for append-heavy tables.
+-- The application generates v7 ids itself (@UuidV7); this default covers rows inserted by
+-- SQL (set-based statements, triggers, manual fixes). Existing ids are left as they are;
+-- only new rows are time-ordered. (Postgres 18 ships uuidv7(); until then, this function.)
+
+CREATE OR REPLACE FUNCTION uuid_generate_v7() RETURNS UUID
+LANGUAGE plpgsql
+VOLATILE
+AS $$
+DECLARE
+    v_ms    BIGINT := floor(extract(epoch FROM clock_timestamp()) * 1000);
+    v_bytes BYTEA  := gen_random_bytes(16);
+BEGIN
+    -- Bytes 0-5: big-endian Unix milliseconds
+    v_bytes := overlay(v_bytes PLACING substring(int8send(v_ms) FROM 3) FROM 1 FOR 6);
+    -- Byte 6 high nibble: version 7
+    v_bytes := set_byte(v_bytes, 6, (b'0111' || get_byte(v_bytes, 6)::bit(4))::bit(8)::int);
+    -- Byte 8 high bits: RFC 4122 variant (10)
+    v_bytes := set_byte(v_bytes, 8, (b'10' || get_byte(v_bytes, 8)::bit(6))::bit(8)::int);
+    RETURN encode(v_bytes, 'hex')::uuid;
+END;
+$$;
+
+ALTER TABLE sms_event_log               ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE gift_card_distribution_logs ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE survey_invitation           ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE gift_cards                  ALTER COLUMN id SET DEFAULT uuid_generate_v7();
@@ -0,0 +1,91 @@
+-- Monthly range partitioning on created_at for the two append-only log tables.
+-- New partitions are created ahead of time by the log-partition-maintenance job
+-- (ensure_log_partitions); old ones are detached, archived and dropped by the retention policy.
+-- Partition names: <table>_yYYYYmMM, bounds are UTC month starts.
+
+-- ---- Partition helper ----
+CREATE OR REPLACE FUNCTION ensure_log_partitions(p_parent TEXT, p_from TIMESTAMPTZ, p_to TIMESTAMPTZ)
+RETURNS INTEGER
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_month   TIMESTAMP := date_trunc('month', p_from AT TIME ZONE 'UTC');
+    v_last    TIMESTAMP := date_trunc('month', p_to AT TIME ZONE 'UTC');
+    v_name    TEXT;
+    v_created INTEGER := 0;
+BEGIN
+    WHILE v_month <= v_last LOOP
+        v_name := format('%s_y%sm%s', p_parent, to_char(v_month, 'YYYY'), to_char(v_month, 'MM'));
+        IF to_regclass(v_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           v_name, p_parent,
+                           v_month AT TIME ZONE 'UTC',
+                           (v_month + INTERVAL '1 month') AT TIME ZONE 'UTC');
+            v_created := v_created + 1;
+        END IF;
+        v_month := v_month + INTERVAL '1 month';
+    END LOOP;
+    RETURN v_created;
+END;
+$$;
+
+-- ---- sms_event_log ----
+ALTER TABLE sms_event_log RENAME TO sms_event_log_unpartitioned;
+
+CREATE TABLE sms_event_log (
+    id             UUID        NOT NULL DEFAULT uuid_generate_v7(),
+    invitation_id  UUID        REFERENCES survey_invitation(id) ON DELETE SET NULL,
+    message_sid    TEXT,
+    event_type     TEXT        NOT NULL,
+    payload        JSONB,
+    created_at     TIMESTAMPTZ NOT NULL DEFAULT now()
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE sms_event_log_default PARTITION OF sms_event_log DEFAULT;
+
+SELECT ensure_log_partitions('sms_event_log',
+       COALESCE((SELECT MIN(created_at) FROM sms_event_log_unpartitioned), now()),
+       now() + INTERVAL '3 months');
+
+INSERT INTO sms_event_log (id, invitation_id, message_sid, event_type, payload, created_at)
+SELECT id, invitation_id, message_sid, event_type, payload, created_at
+FROM sms_event_log_unpartitioned;
+
+DROP TABLE sms_event_log_unpartitioned;
+
+-- Partition key must be part of the primary key
+ALTER TABLE sms_event_log ADD CONSTRAINT sms_event_log_pkey PRIMARY KEY (id, created_at);
+CREATE INDEX IF NOT EXISTS idx_sms_event_log_sid   ON sms_event_log(message_sid);
+CREATE INDEX IF NOT EXISTS idx_sms_event_log_event ON sms_event_log(event_type);
+CREATE INDEX IF NOT EXISTS idx_sms_event_log_time  ON sms_event_log(created_at);
+
+-- ---- gift_card_distribution_logs ----
+ALTER TABLE gift_card_distribution_logs RENAME TO gift_card_distribution_logs_unpartitioned;
+
+CREATE TABLE gift_card_distribution_logs (
+    id           UUID         NOT NULL DEFAULT uuid_generate_v7(),
+    gift_card_id UUID         NOT NULL REFERENCES gift_cards(id),
+    action       VARCHAR(32)  NOT NULL,
+    performed_by VARCHAR(100) NOT NULL,
+    details      JSONB,
+    created_at   TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE gift_card_distribution_logs_default PARTITION OF gift_card_distribution_logs DEFAULT;
+
+SELECT ensure_log_partitions('gift_card_distribution_logs',
+       COALESCE((SELECT MIN(created_at) FROM gift_card_distribution_logs_unpartitioned), now()),
+       now() + INTERVAL '3 months');
+
+INSERT INTO gift_card_distribution_logs (id, gift_card_id, action, performed_by, details, created_at)
+SELECT id, gift_card_id, action, performed_by, details, created_at
+FROM gift_card_distribution_logs_unpartitioned;
+
+DROP TABLE gift_card_distribution_logs_unpartitioned;
+
+ALTER TABLE gift_card_distribution_logs
+    ADD CONSTRAINT gift_card_distribution_logs_pkey PRIMARY KEY (id, created_at);
+CREATE INDEX IF NOT EXISTS idx_gift_card_logs_gift_card    ON gift_card_distribution_logs(gift_card_id);
+CREATE INDEX IF NOT EXISTS idx_gift_card_logs_action       ON gift_card_distribution_logs(action);
+CREATE INDEX IF NOT EXISTS idx_gift_card_logs_performed_by ON gift_card_distribution_logs(performed_by);
+CREATE INDEX IF NOT EXISTS idx_gift_card_logs_created_at   ON gift_card_distribution_logs(created_at);
@@ -0,0 +1,50 @@
+-- Typed snapshot of each unsent gift card, written at unsend time. The unsent history page
+-- reads this table instead of paging UNSENT distribution logs and unpacking their JSONB details.
+-- Rows are independent of gift_cards/participant so the history survives user deletion and
+-- log partition retention.
+
+CREATE TABLE IF NOT EXISTS gift_card_unsend_history (
+    id                UUID PRIMARY KEY DEFAULT uuid_generate_v7(),
+    gift_card_id      UUID NOT NULL,
+    card_code         VARCHAR(100),
+    card_type         VARCHAR(32),
+    card_value        DECIMAL(10,2),
+    previous_status   VARCHAR(32),
+    participant_phone TEXT,
+    participant_email TEXT,
+    participant_name  TEXT,
+    pool_id           UUID,
+    sent_at           TIMESTAMPTZ,
+    sent_by           VARCHAR(100),
+    source            VARCHAR(20),
+    unsent_by         VARCHAR(100) NOT NULL,
+    unsent_at         TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_gift_card_unsend_history_unsent_at
+    ON gift_card_unsend_history (unsent_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_gift_card_unsend_history_gift_card
+    ON gift_card_unsend_history (gift_card_id);
+
+-- Backfill from existing UNSENT logs (same id, so ordering is unchanged)
+INSERT INTO gift_card_unsend_history (id, gift_card_id, card_code, card_type, card_value, previous_status,
+                                      participant_phone, participant_email, participant_name, pool_id,
+                                      sent_at, sent_by, source, unsent_by, unsent_at)
+SELECT l.id,
+       l.gift_card_id,
+       l.details->>'card_code',
+       l.details->>'card_type',
+       (l.details->>'card_value')::numeric,
+       l.details->>'previous_status',
+       l.details->>'participant_phone',
+       l.details->>'participant_email',
+       l.details->>'participant_name',
+       (l.details->>'pool_id')::uuid,
+       (l.details->>'sent_at')::timestamptz,
+       l.details->>'sent_by',
+       l.details->>'source',
+       l.performed_by,
+       l.created_at
+  FROM gift_card_distribution_logs l
+ WHERE l.action = 'UNSENT'
+ON CONFLICT (id) DO NOTHING;
@@ -0,0 +1,42 @@
+-- Persistent retry queue for deliveries that failed for a transient reason (provider outage,
+-- rate limit, 5xx), and a dead-letter table for the ones that failed permanently (invalid
+-- number, unsubscribed, rejected address) or ran out of attempts.
+-- target_id is the gift card or survey invitation; the retry reuses what is already allocated
+-- to it (the same pool card, the same survey link). One row per target in each table.
+
+CREATE TABLE IF NOT EXISTS delivery_retry_queue (
+    id              UUID PRIMARY KEY DEFAULT uuid_generate_v7(),
+    kind            VARCHAR(32)  NOT NULL,           -- GIFT_CARD | INVITATION_SMS
+    target_id       UUID         NOT NULL,
+    channel         VARCHAR(16)  NOT NULL,           -- EMAIL | SMS | BOTH
+    message_body    TEXT,                            -- SMS text to resend (INVITATION_SMS)
+    performed_by    VARCHAR(100) NOT NULL,
+    attempts        INTEGER      NOT NULL DEFAULT 1, -- failed attempts so far, including the original send
+    max_attempts    INTEGER      NOT NULL,
+    next_attempt_at TIMESTAMPTZ  NOT NULL,
+    last_error      TEXT,
+    created_at      TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    updated_at      TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    CONSTRAINT uq_delivery_retry_queue_target UNIQUE (kind, target_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_delivery_retry_queue_due
+    ON delivery_retry_queue (next_attempt_at);
+
+CREATE TABLE IF NOT EXISTS delivery_dead_letter (
+    id              UUID PRIMARY KEY DEFAULT uuid_generate_v7(),
+    kind            VARCHAR(32)  NOT NULL,
+    target_id       UUID         NOT NULL,
+    channel         VARCHAR(16)  NOT NULL,
+    message_body    TEXT,
+    performed_by    VARCHAR(100) NOT NULL,
+    attempts        INTEGER      NOT NULL,
+    last_error      TEXT,
+    reason          VARCHAR(16)  NOT NULL,           -- PERMANENT | EXHAUSTED
+    first_failed_at TIMESTAMPTZ  NOT NULL,
+    dead_at         TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    CONSTRAINT uq_delivery_dead_letter_target UNIQUE (kind, target_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_delivery_dead_letter_dead_at
+    ON delivery_dead_letter (dead_at DESC, id DESC);
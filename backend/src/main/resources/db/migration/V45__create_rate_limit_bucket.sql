@@ -0,0 +1,46 @@
+-- Shared token buckets for the public-endpoint rate limiter (app.rateLimit.store=postgres),
+-- so every node draws from the same bucket. Unused with the default in-memory store.
+-- Idle rows are purged by the rate-limit-purge job.
+
+CREATE UNLOGGED TABLE IF NOT EXISTS rate_limit_bucket (
+    bucket_key  TEXT             PRIMARY KEY,
+    tokens      DOUBLE PRECISION NOT NULL,
+    updated_at  TIMESTAMPTZ      NOT NULL,
+    expires_at  TIMESTAMPTZ      NOT NULL  -- bucket is full again (as good as absent) from here on
+);
+
+CREATE INDEX IF NOT EXISTS idx_rate_limit_bucket_expires ON rate_limit_bucket (expires_at);
+
+-- Take one token from p_key (capacity p_capacity, refilled evenly over p_period_seconds).
+-- Returns 0 when a token was taken, otherwise the seconds until one becomes available.
+CREATE OR REPLACE FUNCTION rate_limit_take(p_key TEXT, p_capacity INTEGER, p_period_seconds INTEGER)
+RETURNS DOUBLE PRECISION
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_now     TIMESTAMPTZ      := clock_timestamp();
+    v_rate    DOUBLE PRECISION := p_capacity::DOUBLE PRECISION / p_period_seconds;  -- tokens per second
+    v_tokens  DOUBLE PRECISION;
+    v_updated TIMESTAMPTZ;
+BEGIN
+    INSERT INTO rate_limit_bucket (bucket_key, tokens, updated_at, expires_at)
+    VALUES (p_key, p_capacity, v_now, v_now)
+    ON CONFLICT (bucket_key) DO NOTHING;
+
+    SELECT tokens, updated_at INTO v_tokens, v_updated
+      FROM rate_limit_bucket WHERE bucket_key = p_key FOR UPDATE;
+
+    v_tokens := LEAST(p_capacity, v_tokens + GREATEST(extract(epoch FROM v_now - v_updated), 0) * v_rate);
+    IF v_tokens >= 1 THEN
+        v_tokens := v_tokens - 1;
+        UPDATE rate_limit_bucket
+           SET tokens = v_tokens,
+               updated_at = v_now,
+               expires_at = v_now + make_interval(secs => (p_capacity - v_tokens) / v_rate)
+         WHERE bucket_key = p_key;
+        RETURN 0;
+    END IF;
+
+    RETURN (1 - v_tokens) / v_rate;
+END;
+$$;
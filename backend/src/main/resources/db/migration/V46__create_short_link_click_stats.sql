@@ -0,0 +1,13 @@
+-- Short link clicks, aggregated per short code and hour. Redirects count clicks in memory;
+-- each node upserts its counts here every few seconds (ShortLinkClickTracker), so rows are
+-- added to, never overwritten. The primary key also serves the per-code lookups in the
+-- admin invitation views.
+
+CREATE TABLE IF NOT EXISTS short_link_click_stats (
+    short_code      VARCHAR(10)  NOT NULL,
+    hour_start      TIMESTAMPTZ  NOT NULL,
+    click_count     BIGINT       NOT NULL,
+    first_click_at  TIMESTAMPTZ  NOT NULL,
+    last_click_at   TIMESTAMPTZ  NOT NULL,
+    PRIMARY KEY (short_code, hour_start)
+);
@@ -0,0 +1,27 @@
+-- Set-based counterpart of claim_available_link: claim up to p_count AVAILABLE links (oldest
+-- upload first, optionally from one batch) in a single statement. Rows locked by concurrent
+-- claimers are skipped, so parallel callers never get the same link. Claimed links are CLAIMED
+-- and their reservation cleared, exactly as with the single-link function.
+
+CREATE OR REPLACE FUNCTION claim_available_links(p_batch_label TEXT, p_count INTEGER)
+RETURNS TABLE (link_id UUID, link_url TEXT, short_link_url TEXT)
+LANGUAGE sql
+AS $$
+  WITH picked AS (
+    SELECT slp.id
+    FROM survey_link_pool slp
+    WHERE slp.status = 'AVAILABLE'
+      AND (p_batch_label IS NULL OR slp.batch_label = p_batch_label)
+    ORDER BY slp.uploaded_at
+    LIMIT GREATEST(p_count, 0)
+    FOR UPDATE SKIP LOCKED
+  )
+  UPDATE survey_link_pool l
+     SET status = 'CLAIMED',
+         reserved_at = NULL,
+         reserved_until = NULL,
+         reserved_by = NULL
+    FROM picked
+   WHERE l.id = picked.id
+  RETURNING l.id, l.link_url::TEXT, l.short_link_url::TEXT;
+$$;
@@ -0,0 +1,174 @@
+-- gift_card_pool_counters becomes a compacted base plus an append-only delta log.
+-- Every allocation used to UPDATE the same (AVAILABLE, card_type, card_value, batch_label) row, so
+-- concurrent sends queued behind whichever transaction touched it first, for as long as that
+-- transaction ran. The triggers now only INSERT signed deltas, which never conflict with each other.
+-- compact_gift_card_pool_counters() (every minute) folds the deltas into the base table, and readers
+-- add the two up through v_gift_card_pool_counters.
+
+CREATE TABLE IF NOT EXISTS gift_card_pool_counter_deltas (
+    status      VARCHAR(32)   NOT NULL,
+    card_type   VARCHAR(32),
+    card_value  DECIMAL(10,2),
+    batch_label VARCHAR(100),
+    delta       BIGINT        NOT NULL
+);
+
+COMMENT ON TABLE gift_card_pool_counter_deltas IS 'Pending changes to gift_card_pool_counters, appended by triggers and folded in by compact_gift_card_pool_counters(). Read through v_gift_card_pool_counters.';
+
+CREATE OR REPLACE FUNCTION gift_card_pool_counters_apply() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO gift_card_pool_counter_deltas (status, card_type, card_value, batch_label, delta)
+        SELECT status, card_type, card_value, batch_label, COUNT(*)
+          FROM new_rows
+         GROUP BY status, card_type, card_value, batch_label;
+
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO gift_card_pool_counter_deltas (status, card_type, card_value, batch_label, delta)
+        SELECT status, card_type, card_value, batch_label, -COUNT(*)
+          FROM old_rows
+         GROUP BY status, card_type, card_value, batch_label;
+
+    ELSIF TG_OP = 'UPDATE' THEN
+        -- Only rows whose counter key changed move between buckets
+        INSERT INTO gift_card_pool_counter_deltas (status, card_type, card_value, batch_label, delta)
+        SELECT status, card_type, card_value, batch_label, SUM(delta)
+          FROM (
+                SELECT o.status, o.card_type, o.card_value, o.batch_label, -1 AS delta
+                  FROM old_rows o JOIN new_rows n ON n.id = o.id
+                 WHERE (o.status, o.card_type, o.card_value, o.batch_label)
+                       IS DISTINCT FROM (n.status, n.card_type, n.card_value, n.batch_label)
+                UNION ALL
+                SELECT n.status, n.card_type, n.card_value, n.batch_label, 1 AS delta
+                  FROM old_rows o JOIN new_rows n ON n.id = o.id
+                 WHERE (o.status, o.card_type, o.card_value, o.batch_label)
+                       IS DISTINCT FROM (n.status, n.card_type, n.card_value, n.batch_label)
+               ) moved
+         GROUP BY status, card_type, card_value, batch_label
+        HAVING SUM(delta) <> 0;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION gift_card_pool_counters_truncate() RETURNS trigger AS $$
+BEGIN
+    DELETE FROM gift_card_pool_counters;
+    DELETE FROM gift_card_pool_counter_deltas;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE VIEW v_gift_card_pool_counters AS
+SELECT status, card_type, card_value, batch_label, SUM(card_count)::BIGINT AS card_count
+  FROM (
+        SELECT status, card_type, card_value, batch_label, card_count FROM gift_card_pool_counters
+        UNION ALL
+        SELECT status, card_type, card_value, batch_label, delta FROM gift_card_pool_counter_deltas
+       ) c
+ GROUP BY status, card_type, card_value, batch_label;
+
+-- Folds the pending deltas into the base table; returns the number of deltas folded.
+-- Only this function and the reconciliation write the base table, so nothing waits on its rows.
+CREATE OR REPLACE FUNCTION compact_gift_card_pool_counters() RETURNS INTEGER
+LANGUAGE sql
+AS $$
+    WITH moved AS (
+        DELETE FROM gift_card_pool_counter_deltas
+        RETURNING status, card_type, card_value, batch_label, delta
+    ), folded AS (
+        INSERT INTO gift_card_pool_counters AS c (status, card_type, card_value, batch_label, card_count)
+        SELECT status, card_type, card_value, batch_label, SUM(delta)
+          FROM moved
+         GROUP BY status, card_type, card_value, batch_label
+        ON CONFLICT ON CONSTRAINT uq_gift_card_pool_counters
+        DO UPDATE SET card_count = c.card_count + EXCLUDED.card_count
+        RETURNING 1
+    )
+    SELECT COUNT(*)::INTEGER FROM moved;
+$$;
+
+-- Recounts the pool and appends a correcting delta for every bucket that drifted; returns the
+-- number of buckets corrected. No table lock: the recount and the counters are read in one
+-- statement, so a concurrent transaction's pool rows and its deltas are either both visible or
+-- both invisible to it.
+CREATE OR REPLACE FUNCTION reconcile_gift_card_pool_counters() RETURNS INTEGER
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_fixed INTEGER;
+BEGIN
+    WITH drift AS (
+        SELECT status, card_type, card_value, batch_label, SUM(cnt) AS delta
+          FROM (
+                SELECT status, card_type, card_value, batch_label, COUNT(*) AS cnt
+                  FROM gift_card_pool
+                 GROUP BY status, card_type, card_value, batch_label
+                UNION ALL
+                SELECT status, card_type, card_value, batch_label, -card_count
+                  FROM v_gift_card_pool_counters
+               ) x
+         GROUP BY status, card_type, card_value, batch_label
+        HAVING SUM(cnt) <> 0
+    ), fixed AS (
+        INSERT INTO gift_card_pool_counter_deltas (status, card_type, card_value, batch_label, delta)
+        SELECT status, card_type, card_value, batch_label, delta FROM drift
+        RETURNING 1
+    )
+    SELECT COUNT(*) INTO v_fixed FROM fixed;
+
+    -- Drop buckets that have stayed empty (e.g. deleted batches)
+    DELETE FROM gift_card_pool_counters WHERE card_count = 0;
+
+    RETURN v_fixed;
+END;
+$$;
+
+-- The link pool reconciliation no longer covers the gift card counters (or locks gift_card_pool)
+CREATE OR REPLACE FUNCTION reconcile_link_pool_stats() RETURNS INTEGER
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_fixed INTEGER := 0;
+    v_rows  INTEGER;
+BEGIN
+    -- Block writers (but not readers) so the recount and the triggers cannot interleave
+    LOCK TABLE survey_link_pool IN SHARE MODE;
+    LOCK TABLE survey_invitation IN SHARE MODE;
+
+    WITH actual AS (
+        SELECT batch_label, status, COUNT(*) AS cnt
+          FROM survey_link_pool
+         GROUP BY batch_label, status
+    ), upserted AS (
+        INSERT INTO link_pool_stats AS s (batch_label, status, cnt)
+        SELECT batch_label, status, cnt FROM actual
+        ON CONFLICT ON CONSTRAINT uq_link_pool_stats
+        DO UPDATE SET cnt = EXCLUDED.cnt
+         WHERE s.cnt <> EXCLUDED.cnt
+        RETURNING 1
+    ), zeroed AS (
+        UPDATE link_pool_stats s
+           SET cnt = 0
+         WHERE s.cnt <> 0
+           AND NOT EXISTS (SELECT 1 FROM actual a
+                            WHERE a.batch_label IS NOT DISTINCT FROM s.batch_label
+                              AND a.status = s.status)
+        RETURNING 1
+    )
+    SELECT (SELECT COUNT(*) FROM upserted) + (SELECT COUNT(*) FROM zeroed) INTO v_rows;
+    v_fixed := v_fixed + v_rows;
+
+    INSERT INTO table_row_counts AS t (table_name, row_count)
+    SELECT 'survey_invitation', COUNT(*) FROM survey_invitation
+    ON CONFLICT (table_name) DO UPDATE SET row_count = EXCLUDED.row_count
+     WHERE t.row_count <> EXCLUDED.row_count;
+    GET DIAGNOSTICS v_rows = ROW_COUNT;
+    v_fixed := v_fixed + v_rows;
+
+    -- Drop buckets that have stayed empty (e.g. deleted batches)
+    DELETE FROM link_pool_stats WHERE cnt = 0;
+
+    RETURN v_fixed;
+END;
+$$;
@@ -0,0 +1,166 @@
+-- link_pool_stats and table_row_counts get the same treatment as the gift card counters in V48:
+-- triggers append signed deltas instead of updating shared rows, a job folds them in every minute,
+-- and readers add base + deltas. Before this, every invitation insert/delete updated the single
+-- table_row_counts row and every claim updated its batch's AVAILABLE/CLAIMED rows, so sends were
+-- serialized on them, for as long as the sending transaction lasted (sendWithSpecificLink held
+-- them across the Twilio call).
+
+CREATE TABLE IF NOT EXISTS link_pool_stat_deltas (
+    batch_label TEXT,
+    status      TEXT   NOT NULL,
+    delta       BIGINT NOT NULL
+);
+
+COMMENT ON TABLE link_pool_stat_deltas IS 'Pending changes to link_pool_stats, appended by triggers and folded in by compact_link_pool_stats(). Read through v_link_pool_stats.';
+
+CREATE TABLE IF NOT EXISTS table_row_count_deltas (
+    table_name TEXT   NOT NULL,
+    delta      BIGINT NOT NULL
+);
+
+COMMENT ON TABLE table_row_count_deltas IS 'Pending changes to table_row_counts, appended by triggers and folded in by compact_link_pool_stats()';
+
+CREATE OR REPLACE FUNCTION link_pool_stats_apply() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO link_pool_stat_deltas (batch_label, status, delta)
+        SELECT batch_label, status, COUNT(*)
+          FROM new_rows
+         GROUP BY batch_label, status;
+
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO link_pool_stat_deltas (batch_label, status, delta)
+        SELECT batch_label, status, -COUNT(*)
+          FROM old_rows
+         GROUP BY batch_label, status;
+
+    ELSIF TG_OP = 'UPDATE' THEN
+        -- Status transitions (claim, exhaust, reset) and batch relabels move rows between buckets
+        INSERT INTO link_pool_stat_deltas (batch_label, status, delta)
+        SELECT batch_label, status, SUM(delta)
+          FROM (
+                SELECT o.batch_label, o.status, -1 AS delta
+                  FROM old_rows o JOIN new_rows n ON n.id = o.id
+                 WHERE (o.batch_label, o.status) IS DISTINCT FROM (n.batch_label, n.status)
+                UNION ALL
+                SELECT n.batch_label, n.status, 1 AS delta
+                  FROM old_rows o JOIN new_rows n ON n.id = o.id
+                 WHERE (o.batch_label, o.status) IS DISTINCT FROM (n.batch_label, n.status)
+               ) moved
+         GROUP BY batch_label, status
+        HAVING SUM(delta) <> 0;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION table_row_counts_apply() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO table_row_count_deltas (table_name, delta)
+        SELECT TG_TABLE_NAME, COUNT(*) FROM new_rows;
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO table_row_count_deltas (table_name, delta)
+        SELECT TG_TABLE_NAME, -COUNT(*) FROM old_rows;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE VIEW v_link_pool_stats AS
+SELECT batch_label, status, SUM(cnt)::BIGINT AS cnt
+  FROM (
+        SELECT batch_label, status, cnt FROM link_pool_stats
+        UNION ALL
+        SELECT batch_label, status, delta FROM link_pool_stat_deltas
+       ) s
+ GROUP BY batch_label, status
+HAVING SUM(cnt) > 0;
+
+CREATE OR REPLACE VIEW v_table_row_counts AS
+SELECT table_name, SUM(row_count)::BIGINT AS row_count
+  FROM (
+        SELECT table_name, row_count FROM table_row_counts
+        UNION ALL
+        SELECT table_name, delta FROM table_row_count_deltas
+       ) c
+ GROUP BY table_name;
+
+-- Folds the pending deltas into link_pool_stats and table_row_counts; returns the number folded.
+-- Only this function and the reconciliation write the base tables, so nothing waits on their rows.
+CREATE OR REPLACE FUNCTION compact_link_pool_stats() RETURNS INTEGER
+LANGUAGE sql
+AS $$
+    WITH moved_stats AS (
+        DELETE FROM link_pool_stat_deltas
+        RETURNING batch_label, status, delta
+    ), folded_stats AS (
+        INSERT INTO link_pool_stats AS s (batch_label, status, cnt)
+        SELECT batch_label, status, SUM(delta)
+          FROM moved_stats
+         GROUP BY batch_label, status
+        ON CONFLICT ON CONSTRAINT uq_link_pool_stats
+        DO UPDATE SET cnt = s.cnt + EXCLUDED.cnt
+        RETURNING 1
+    ), moved_counts AS (
+        DELETE FROM table_row_count_deltas
+        RETURNING table_name, delta
+    ), folded_counts AS (
+        INSERT INTO table_row_counts AS t (table_name, row_count)
+        SELECT table_name, SUM(delta)
+          FROM moved_counts
+         GROUP BY table_name
+        ON CONFLICT (table_name) DO UPDATE SET row_count = t.row_count + EXCLUDED.row_count
+        RETURNING 1
+    )
+    SELECT ((SELECT COUNT(*) FROM moved_stats) + (SELECT COUNT(*) FROM moved_counts))::INTEGER;
+$$;
+
+-- Recounts from the base tables and appends a correcting delta wherever the counters drifted
+-- (e.g. after TRUNCATE or a manual data fix with triggers disabled); returns the number of
+-- corrections. No table locks: each recount reads the base table and the counters in one
+-- statement, so a concurrent transaction's rows and its deltas are both visible or both not.
+CREATE OR REPLACE FUNCTION reconcile_link_pool_stats() RETURNS INTEGER
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_fixed INTEGER := 0;
+    v_rows  INTEGER;
+BEGIN
+    WITH drift AS (
+        SELECT batch_label, status, SUM(cnt) AS delta
+          FROM (
+                SELECT batch_label, status, COUNT(*) AS cnt
+                  FROM survey_link_pool
+                 GROUP BY batch_label, status
+                UNION ALL
+                SELECT batch_label, status, -cnt
+                  FROM v_link_pool_stats
+               ) x
+         GROUP BY batch_label, status
+        HAVING SUM(cnt) <> 0
+    ), fixed AS (
+        INSERT INTO link_pool_stat_deltas (batch_label, status, delta)
+        SELECT batch_label, status, delta FROM drift
+        RETURNING 1
+    )
+    SELECT COUNT(*) INTO v_rows FROM fixed;
+    v_fixed := v_fixed + v_rows;
+
+    WITH drift AS (
+        SELECT (SELECT COUNT(*) FROM survey_invitation)
+             - COALESCE((SELECT row_count FROM v_table_row_counts WHERE table_name = 'survey_invitation'), 0) AS delta
+    ), fixed AS (
+        INSERT INTO table_row_count_deltas (table_name, delta)
+        SELECT 'survey_invitation', delta FROM drift WHERE delta <> 0
+        RETURNING 1
+    )
+    SELECT COUNT(*) INTO v_rows FROM fixed;
+    v_fixed := v_fixed + v_rows;
+
+    -- Drop buckets that have stayed empty (e.g. deleted batches)
+    DELETE FROM link_pool_stats WHERE cnt = 0;
+
+    RETURN v_fixed;
+END;
+$$;
@@ -0,0 +1,45 @@
+-- reconcile_gift_card_eligibility() used to take SHARE locks on survey_invitation and gift_cards,
+-- stalling every completion webhook and gift card send for the length of a full rebuild. It now
+-- finds the drifted invitations in one lock-free statement, locks only those invitations (and
+-- their gift cards), and re-evaluates them through the same function the triggers use.
+CREATE OR REPLACE FUNCTION reconcile_gift_card_eligibility() RETURNS INTEGER
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_ids UUID[];
+BEGIN
+    v_ids := ARRAY(
+        SELECT si.id
+          FROM survey_invitation si
+         WHERE si.completed_at IS NOT NULL
+           AND NOT EXISTS (SELECT 1 FROM gift_card_eligibility e WHERE e.invitation_id = si.id)
+           AND NOT EXISTS (SELECT 1 FROM gift_cards gc
+                            WHERE gc.invitation_id = si.id
+                              AND gc.participant_id = si.participant_id
+                              AND gc.status <> 'UNSENT')
+        UNION
+        SELECT e.invitation_id
+          FROM gift_card_eligibility e
+         WHERE NOT EXISTS (SELECT 1 FROM survey_invitation si
+                            WHERE si.id = e.invitation_id
+                              AND si.completed_at IS NOT NULL
+                              AND NOT EXISTS (SELECT 1 FROM gift_cards gc
+                                               WHERE gc.invitation_id = si.id
+                                                 AND gc.participant_id = si.participant_id
+                                                 AND gc.status <> 'UNSENT')));
+
+    IF cardinality(v_ids) = 0 THEN
+        RETURN 0;
+    END IF;
+
+    -- The drift above may come from transactions still in flight. Waiting for them on just these
+    -- rows (new gift cards hold a key share lock on their invitation) means the refresh below,
+    -- which takes a fresh snapshot, sees what they committed.
+    PERFORM 1 FROM survey_invitation WHERE id = ANY(v_ids) ORDER BY id FOR UPDATE;
+    PERFORM 1 FROM gift_cards WHERE invitation_id = ANY(v_ids) ORDER BY id FOR UPDATE;
+
+    PERFORM refresh_gift_card_eligibility(v_ids);
+
+    RETURN cardinality(v_ids);
+END;
+$$;
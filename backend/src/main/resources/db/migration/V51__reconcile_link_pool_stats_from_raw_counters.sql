@@ -0,0 +1,52 @@
+-- reconcile_link_pool_stats() compared survey_link_pool against v_link_pool_stats, whose
+-- HAVING SUM(cnt) > 0 hides buckets that went negative. Such a bucket was never repaired
+-- (or took several runs when it also had real rows), and DELETE ... WHERE cnt = 0 kept it.
+-- Drift is now measured against link_pool_stats + link_pool_stat_deltas directly; the
+-- positive-only filter stays in the read view.
+CREATE OR REPLACE FUNCTION reconcile_link_pool_stats() RETURNS INTEGER
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_fixed INTEGER := 0;
+    v_rows  INTEGER;
+BEGIN
+    WITH drift AS (
+        SELECT batch_label, status, SUM(cnt) AS delta
+          FROM (
+                SELECT batch_label, status, COUNT(*) AS cnt
+                  FROM survey_link_pool
+                 GROUP BY batch_label, status
+                UNION ALL
+                SELECT batch_label, status, -cnt
+                  FROM link_pool_stats
+                UNION ALL
+                SELECT batch_label, status, -delta
+                  FROM link_pool_stat_deltas
+               ) x
+         GROUP BY batch_label, status
+        HAVING SUM(cnt) <> 0
+    ), fixed AS (
+        INSERT INTO link_pool_stat_deltas (batch_label, status, delta)
+        SELECT batch_label, status, delta FROM drift
+        RETURNING 1
+    )
+    SELECT COUNT(*) INTO v_rows FROM fixed;
+    v_fixed := v_fixed + v_rows;
+
+    WITH drift AS (
+        SELECT (SELECT COUNT(*) FROM survey_invitation)
+             - COALESCE((SELECT row_count FROM v_table_row_counts WHERE table_name = 'survey_invitation'), 0) AS delta
+    ), fixed AS (
+        INSERT INTO table_row_count_deltas (table_name, delta)
+        SELECT 'survey_invitation', delta FROM drift WHERE delta <> 0
+        RETURNING 1
+    )
+    SELECT COUNT(*) INTO v_rows FROM fixed;
+    v_fixed := v_fixed + v_rows;
+
+    -- Drop buckets that have stayed empty (e.g. deleted batches)
+    DELETE FROM link_pool_stats WHERE cnt = 0;
+
+    RETURN v_fixed;
+END;
+$$;
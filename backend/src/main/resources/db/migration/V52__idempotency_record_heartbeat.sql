@@ -0,0 +1,7 @@
+-- A PENDING claim used to be taken over once it was 5 minutes old, even while the request was
+-- still running (a long batch gift card send then ran twice on a client retry). The owner now
+-- refreshes heartbeat_at while it works, and only a claim whose heartbeat has stopped is taken over.
+ALTER TABLE idempotency_record
+    ADD COLUMN IF NOT EXISTS heartbeat_at TIMESTAMPTZ;
+
+COMMENT ON COLUMN idempotency_record.heartbeat_at IS 'Last sign of life from the request holding a PENDING claim';
@@ -0,0 +1,102 @@
+package edu.howard.research.smsbackend.repositories;
+
+import edu.howard.research.smsbackend.models.entities.DeliveryDeadLetter;
+import edu.howard.research.smsbackend.models.entities.DeliveryRetry;
+import edu.howard.research.smsbackend.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeliveryRetryRepositoryTest extends PostgresRepositoryTest {
+
+    private static final String KIND = "GIFT_CARD";
+
+    @Autowired
+    private DeliveryRetryRepository retryRepository;
+
+    @Autowired
+    private DeliveryDeadLetterRepository deadLetterRepository;
+
+    @Test
+    void enqueueTwiceKeepsScheduleAndAttempts() {
+        UUID target = UUID.randomUUID();
+        retryRepository.enqueue(KIND, target, "EMAIL", null, "admin", 8, 60, "first");
+        retryRepository.enqueue(KIND, target, "SMS", null, "admin", 8, 60, "second");
+
+        List<DeliveryRetry> queued = retryRepository.findAll();
+        assertThat(queued).hasSize(1);
+        assertThat(queued.get(0).getAttempts()).isEqualTo(1);
+        assertThat(queued.get(0).getChannel()).isEqualTo("SMS");
+        assertThat(queued.get(0).getLastError()).isEqualTo("second");
+    }
+
+    @Test
+    void dueItemsAreReturnedAndFutureOnesAreNot() {
+        UUID due = UUID.randomUUID();
+        retryRepository.enqueue(KIND, due, "EMAIL", null, "admin", 8, 0, "err");
+        retryRepository.enqueue(KIND, UUID.randomUUID(), "EMAIL", null, "admin", 8, 3600, "err");
+
+        assertThat(retryRepository.findDue(10)).extracting(DeliveryRetry::getTargetId).containsExactly(due);
+    }
+
+    @Test
+    void moveToDeadLetterKeepsIdAndRemovesFromQueue() {
+        UUID target = UUID.randomUUID();
+        retryRepository.enqueue(KIND, target, "EMAIL", null, "admin", 8, 0, "err");
+        UUID id = retryRepository.findAll().get(0).getId();
+
+        assertThat(retryRepository.moveToDeadLetter(id, 8, "still failing", "EXHAUSTED")).isEqualTo(1);
+
+        assertThat(retryRepository.findAll()).isEmpty();
+        DeliveryDeadLetter dead = deadLetterRepository.findById(id).orElseThrow();
+        assertThat(dead.getReason()).isEqualTo("EXHAUSTED");
+        assertThat(dead.getAttempts()).isEqualTo(8);
+    }
+
+    @Test
+    void enqueueRevivesADeadLetterForTheSameTarget() {
+        UUID target = UUID.randomUUID();
+        retryRepository.deadLetter(KIND, target, "EMAIL", null, "admin", "rejected");
+        retryRepository.enqueue(KIND, target, "EMAIL", null, "admin", 8, 60, "transient");
+
+        assertThat(deadLetterRepository.findAll()).isEmpty();
+        assertThat(retryRepository.findAll()).hasSize(1);
+    }
+
+    @Test
+    void cancelRemovesQueuedAndDeadLetteredTargets() {
+        UUID queued = UUID.randomUUID();
+        UUID dead = UUID.randomUUID();
+        retryRepository.enqueue(KIND, queued, "EMAIL", null, "admin", 8, 60, "err");
+        retryRepository.deadLetter(KIND, dead, "EMAIL", null, "admin", "rejected");
+
+        assertThat(retryRepository.cancel(KIND, queued)).isEqualTo(1);
+        assertThat(retryRepository.cancel(KIND, dead)).isEqualTo(1);
+        assertThat(retryRepository.cancel(KIND, UUID.randomUUID())).isZero();
+
+        assertThat(retryRepository.findAll()).isEmpty();
+        assertThat(deadLetterRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    void requeueAndDiscardDeadLetters() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        retryRepository.deadLetter(KIND, first, "EMAIL", null, "admin", "rejected");
+        retryRepository.deadLetter(KIND, second, "EMAIL", null, "admin", "rejected");
+        List<DeliveryDeadLetter> dead = deadLetterRepository.findAll();
+        UUID firstId = dead.stream().filter(d -> d.getTargetId().equals(first)).findFirst().orElseThrow().getId();
+        UUID secondId = dead.stream().filter(d -> d.getTargetId().equals(second)).findFirst().orElseThrow().getId();
+
+        assertThat(deadLetterRepository.requeue(List.of(firstId), 8)).containsExactly(firstId);
+        assertThat(retryRepository.findDue(10)).extracting(DeliveryRetry::getTargetId).containsExactly(first);
+
+        assertThat(deadLetterRepository.discard(List.of(secondId)))
+                .extracting(DeliveryDeadLetter::getTargetId).containsExactly(second);
+        assertThat(deadLetterRepository.findAll()).isEmpty();
+    }
+}
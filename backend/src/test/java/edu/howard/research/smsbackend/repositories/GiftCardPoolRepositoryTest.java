@@ -0,0 +1,127 @@
+package edu.howard.research.smsbackend.repositories;
+
+import edu.howard.research.smsbackend.support.PostgresRepositoryTest;
+import edu.howard.research.smsbackend.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Commits for real, so the concurrency test can use its own connections. Each test uses its own batch label.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GiftCardPoolRepositoryTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private GiftCardPoolRepository poolRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private TestData data;
+    private String batch;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbc);
+        batch = "batch-" + UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        data.deleteCreated();
+    }
+
+    private Map<String, Long> countsByStatus() {
+        return poolRepository.findPoolCounters().stream()
+                .filter(c -> batch.equals(c.getBatchLabel()))
+                .collect(Collectors.toMap(GiftCardPoolRepository.PoolCounter::getStatus,
+                        GiftCardPoolRepository.PoolCounter::getCardCount));
+    }
+
+    @Test
+    void countersFollowInsertsAndStatusChangesAndSurviveCompaction() {
+        UUID first = data.poolCard(batch);
+        data.poolCard(batch);
+        data.poolCard(batch);
+        jdbc.update("UPDATE gift_card_pool SET status = 'ASSIGNED' WHERE id = ?", first);
+
+        assertThat(countsByStatus()).containsOnly(Map.entry("AVAILABLE", 2L), Map.entry("ASSIGNED", 1L));
+
+        assertThat(poolRepository.compactCounters()).isPositive();
+        assertThat(data.count("SELECT count(*) FROM gift_card_pool_counter_deltas WHERE batch_label = ?", batch))
+                .isZero();
+        assertThat(countsByStatus()).containsOnly(Map.entry("AVAILABLE", 2L), Map.entry("ASSIGNED", 1L));
+    }
+
+    @Test
+    void reconcileCorrectsDriftWithADelta() {
+        data.poolCard(batch);
+        jdbc.update("""
+                INSERT INTO gift_card_pool_counter_deltas (status, card_type, card_value, batch_label, delta)
+                VALUES ('AVAILABLE', 'AMAZON', 25.00, ?, 5)
+                """, batch);
+        assertThat(countsByStatus()).containsOnly(Map.entry("AVAILABLE", 6L));
+
+        assertThat(poolRepository.reconcileCounters()).isEqualTo(1);
+        assertThat(countsByStatus()).containsOnly(Map.entry("AVAILABLE", 1L));
+        assertThat(poolRepository.reconcileCounters()).isZero();
+    }
+
+    @Test
+    void searchByCodeFindsThePoolCard() {
+        UUID id = data.poolCard(batch);
+        String code = jdbc.queryForObject("SELECT card_code FROM gift_card_pool WHERE id = ?", String.class, id);
+
+        var rows = poolRepository.searchByCode("%" + code.substring(5).toLowerCase() + "%", 10);
+
+        assertThat(rows).extracting(GiftCardPoolRepository.PoolCodeSearchRow::getId).containsExactly(id);
+        assertThat(rows.get(0).getUploadedAt()).isNotNull();
+    }
+
+    @Test
+    void concurrentAllocationsFromTheSameBucketDoNotWaitForEachOther() throws Exception {
+        UUID first = data.poolCard(batch);
+        UUID second = data.poolCard(batch);
+
+        try (Connection a = dataSource.getConnection(); Connection b = dataSource.getConnection()) {
+            a.setAutoCommit(false);
+            b.setAutoCommit(false);
+            assign(a, first);
+            // Before the delta log this blocked on the shared AVAILABLE counter row until a committed
+            try (Statement s = b.createStatement()) {
+                s.execute("SET LOCAL lock_timeout = '2s'");
+            }
+            assign(b, second);
+            a.commit();
+            b.commit();
+        }
+
+        assertThat(countsByStatus()).containsOnly(Map.entry("ASSIGNED", 2L));
+    }
+
+    private static void assign(Connection connection, UUID poolId) throws Exception {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "UPDATE gift_card_pool SET status = 'ASSIGNED' WHERE id = ?")) {
+            ps.setObject(1, poolId);
+            assertThat(ps.executeUpdate()).isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package edu.howard.research.smsbackend.repositories;
+
+import edu.howard.research.smsbackend.support.PostgresRepositoryTest;
+import edu.howard.research.smsbackend.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Commits for real, so the concurrency test can use its own connections.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GiftCardRepositoryTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private GiftCardRepository giftCardRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TestData data;
+    private String batch;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbc);
+        batch = "batch-" + UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        data.deleteCreated();
+    }
+
+    private boolean queued(UUID invitationId) {
+        return data.count("SELECT count(*) FROM gift_card_eligibility WHERE invitation_id = ?", invitationId) == 1;
+    }
+
+    @Test
+    void eligibleParticipantsArePagedFromTheQueue() {
+        UUID verified = data.participant();
+        jdbc.update("UPDATE participant SET verified_at = now() WHERE id = ?", verified);
+        UUID older = data.invitation(data.participant(), batch);
+        UUID newer = data.invitation(verified, batch);
+        data.complete(older, OffsetDateTime.now().minusHours(1));
+        data.complete(newer, OffsetDateTime.now());
+
+        var firstPage = giftCardRepository.findEligibleParticipants(PageRequest.of(0, 1));
+
+        assertThat(firstPage.getTotalElements()).isEqualTo(2);
+        assertThat(firstPage.getContent()).extracting(GiftCardRepository.EligibleParticipantRow::getInvitationId)
+                .containsExactly(newer);
+        assertThat(giftCardRepository.findEligibleParticipants(PageRequest.of(1, 1)).getContent())
+                .extracting(GiftCardRepository.EligibleParticipantRow::getInvitationId)
+                .containsExactly(older);
+        assertThat(firstPage.getContent().get(0).getSurveyCompletedAt()).isNotNull();
+        assertThat(firstPage.getContent().get(0).getParticipantVerifiedAt()).isNotNull();
+    }
+
+    @Test
+    void unsendHistoryKeepsTheCardAsItWasSent() {
+        UUID participant = data.participant();
+        UUID giftCard = data.giftCard(participant, data.invitation(participant, batch));
+        OffsetDateTime sentAt = OffsetDateTime.parse("2026-01-02T03:04:05Z");
+        jdbc.update("UPDATE gift_cards SET status = 'SENT', sent_at = ?, sent_by = 'admin' WHERE id = ?", sentAt, giftCard);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                giftCardRepository.recordUnsendHistory(giftCard, "reviewer"));
+
+        var row = giftCardRepository.findUnsendHistory(PageRequest.of(0, 50)).stream()
+                .filter(r -> r.getGiftCardId().equals(giftCard))
+                .findFirst().orElseThrow();
+        assertThat(row.getPreviousStatus()).isEqualTo("SENT");
+        assertThat(row.getSentAt()).isEqualTo(sentAt.toInstant());
+        assertThat(row.getUnsentBy()).isEqualTo("reviewer");
+        assertThat(row.getUnsentAt()).isNotNull();
+    }
+
+    @Test
+    void reconcileRepairsOnlyTheDriftedInvitations() {
+        UUID missing = data.invitation(data.participant(), batch);
+        data.complete(missing, OffsetDateTime.now());
+        UUID participant = data.participant();
+        UUID stale = data.invitation(participant, batch);
+        data.complete(stale, OffsetDateTime.now());
+        data.giftCard(participant, stale);
+        assertThat(queued(missing)).isTrue();
+        assertThat(queued(stale)).isFalse();
+
+        jdbc.update("DELETE FROM gift_card_eligibility WHERE invitation_id = ?", missing);
+        jdbc.update("INSERT INTO gift_card_eligibility (invitation_id, participant_id, completed_at) VALUES (?, ?, now())",
+                stale, participant);
+
+        assertThat(giftCardRepository.reconcileEligibility()).isEqualTo(2);
+        assertThat(queued(missing)).isTrue();
+        assertThat(queued(stale)).isFalse();
+        assertThat(giftCardRepository.reconcileEligibility()).isZero();
+    }
+
+    @Test
+    void reconcileDoesNotWaitForUnrelatedCompletions() throws Exception {
+        UUID participant = data.participant();
+        UUID link = data.link(batch);
+        UUID drifted = data.invitation(data.participant(), batch);
+        data.complete(drifted, OffsetDateTime.now());
+        jdbc.update("DELETE FROM gift_card_eligibility WHERE invitation_id = ?", drifted);
+
+        try (Connection writer = dataSource.getConnection(); Connection reconciler = dataSource.getConnection()) {
+            writer.setAutoCommit(false);
+            try (PreparedStatement insert = writer.prepareStatement("""
+                    INSERT INTO survey_invitation (participant_id, link_id, link_url, message_status, completed_at)
+                    SELECT ?, id, link_url, 'completed', now() FROM survey_link_pool WHERE id = ?
+                    """)) {
+                insert.setObject(1, participant);
+                insert.setObject(2, link);
+                assertThat(insert.executeUpdate()).isEqualTo(1);
+            }
+
+            // The old version took SHARE locks on survey_invitation and gift_cards and timed out here
+            reconciler.setAutoCommit(false);
+            try (Statement s = reconciler.createStatement()) {
+                s.execute("SET LOCAL lock_timeout = '2s'");
+                try (ResultSet rs = s.executeQuery("SELECT reconcile_gift_card_eligibility()")) {
+                    assertThat(rs.next()).isTrue();
+                    assertThat(rs.getInt(1)).isEqualTo(1);
+                }
+            }
+            reconciler.commit();
+            writer.commit();
+        }
+
+        assertThat(queued(drifted)).isTrue();
+        assertThat(data.count("""
+                SELECT count(*) FROM gift_card_eligibility e JOIN survey_invitation si ON si.id = e.invitation_id
+                 WHERE si.participant_id = ?
+                """, participant)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,51 @@
+package edu.howard.research.smsbackend.repositories;
+
+import edu.howard.research.smsbackend.support.PostgresRepositoryTest;
+import edu.howard.research.smsbackend.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParticipantRepositoryTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private ParticipantRepository participantRepo;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private TestData data;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbc);
+    }
+
+    private UUID participant(String name, OffsetDateTime createdAt) {
+        UUID id = data.participant();
+        jdbc.update("UPDATE participant SET name = ?, created_at = ? WHERE id = ?", name, createdAt, id);
+        return id;
+    }
+
+    @Test
+    void searchReturnsTheNewestMatchesWhenThereAreMoreThanTheLimit() {
+        OffsetDateTime now = OffsetDateTime.now();
+        // Inserted oldest first, so an unordered LIMIT in the arm would keep the oldest
+        participant("Needle One", now.minusDays(4));
+        participant("Needle Two", now.minusDays(3));
+        UUID third = participant("Needle Three", now.minusDays(2));
+        UUID fourth = participant("Needle Four", now.minusDays(1));
+        participant("Haystack", now);
+
+        var rows = participantRepo.search("%needle%", null, 2);
+
+        assertThat(rows).extracting(ParticipantRepository.ParticipantSearchRow::getId).containsExactly(fourth, third);
+        assertThat(rows.get(0).getCreatedAt()).isNotNull();
+    }
+}
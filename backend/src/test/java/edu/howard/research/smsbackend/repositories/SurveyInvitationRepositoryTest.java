@@ -0,0 +1,159 @@
+package edu.howard.research.smsbackend.repositories;
+
+import edu.howard.research.smsbackend.support.PostgresRepositoryTest;
+import edu.howard.research.smsbackend.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SurveyInvitationRepositoryTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private SurveyInvitationRepository inviteRepo;
+
+    @Autowired
+    private SurveyLinkPoolRepository linkRepo;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private TestData data;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbc);
+    }
+
+    @Test
+    void completeAllCompletesOnlyOpenInvitationsAndQueuesThemForGiftCards() {
+        UUID open = data.invitation(data.participant(), "A");
+        UUID done = data.invitation(data.participant(), "A");
+        data.complete(done, OffsetDateTime.now().minusDays(1));
+
+        List<UUID> completed = inviteRepo.completeAll(List.of(open, done, UUID.randomUUID()), OffsetDateTime.now());
+        linkRepo.markExhaustedForInvitations(completed);
+
+        assertThat(completed).containsExactly(open);
+        assertThat(data.count("SELECT count(*) FROM gift_card_eligibility WHERE invitation_id IN (?, ?)", open, done))
+                .isEqualTo(2);
+        assertThat(data.count("""
+                SELECT count(*) FROM survey_link_pool l JOIN survey_invitation si ON si.link_id = l.id
+                 WHERE si.id = ? AND l.status = 'EXHAUSTED'
+                """, open)).isEqualTo(1);
+    }
+
+    @Test
+    void uncompleteAllReopensCompletedInvitationsAndLeavesTheEligibilityQueue() {
+        UUID first = data.invitation(data.participant(), "A");
+        UUID second = data.invitation(data.participant(), "A");
+        UUID open = data.invitation(data.participant(), "A");
+        data.complete(first, OffsetDateTime.now());
+        data.complete(second, OffsetDateTime.now());
+
+        List<UUID> reopened = inviteRepo.uncompleteAll(List.of(first, second, open));
+
+        assertThat(reopened).containsExactlyInAnyOrder(first, second);
+        assertThat(data.count("SELECT count(*) FROM survey_invitation WHERE id IN (?, ?) AND completed_at IS NULL",
+                first, second)).isEqualTo(2);
+        assertThat(data.count("SELECT count(*) FROM gift_card_eligibility")).isZero();
+    }
+
+    private UUID verifiedParticipant() {
+        UUID id = data.participant();
+        jdbc.update("UPDATE participant SET phone_verified = true, verified_at = now() WHERE id = ?", id);
+        return id;
+    }
+
+    @Test
+    void assignLinksPairsOnlyEligibleParticipantsWithLinksFromTheBatch() {
+        UUID first = verifiedParticipant();
+        UUID second = verifiedParticipant();
+        UUID unverified = data.participant();
+        UUID optedOut = verifiedParticipant();
+        jdbc.update("UPDATE participant SET status = 'OPTED_OUT' WHERE id = ?", optedOut);
+        UUID invited = verifiedParticipant();
+        data.invitation(invited, "B");
+        UUID[] batchLinks = {data.link("B"), data.link("B"), data.link("B")};
+        UUID otherBatchLink = data.link("C");
+
+        List<SurveyInvitationRepository.AssignedLinkRow> rows =
+                inviteRepo.assignLinks(List.of(first, second, unverified, optedOut, invited), "B", 10);
+
+        assertThat(rows).extracting(SurveyInvitationRepository.AssignedLinkRow::getParticipantId)
+                .containsExactlyInAnyOrder(first, second);
+        assertThat(rows).extracting(SurveyInvitationRepository.AssignedLinkRow::getLinkId)
+                .doesNotHaveDuplicates()
+                .isSubsetOf(batchLinks);
+        for (SurveyInvitationRepository.AssignedLinkRow row : rows) {
+            assertThat(data.count("""
+                    SELECT count(*) FROM survey_invitation si JOIN survey_link_pool l ON l.id = si.link_id
+                     WHERE si.id = ? AND si.participant_id = ? AND si.message_status = 'pending'
+                       AND l.status = 'CLAIMED' AND si.link_url = l.link_url
+                    """, row.getInvitationId(), row.getParticipantId())).isEqualTo(1);
+        }
+        assertThat(data.count("SELECT count(*) FROM survey_link_pool WHERE id IN (?, ?, ?, ?) AND status = 'AVAILABLE'",
+                batchLinks[0], batchLinks[1], batchLinks[2], otherBatchLink)).isEqualTo(2);
+    }
+
+    @Test
+    void assignLinksStopsAtMaxCountAndWhenTheBatchRunsOut() {
+        List<UUID> participants = List.of(verifiedParticipant(), verifiedParticipant(), verifiedParticipant());
+        data.link("D");
+        data.link("D");
+
+        assertThat(inviteRepo.assignLinks(participants, "D", 1)).hasSize(1);
+        assertThat(inviteRepo.assignLinks(participants, "D", 10)).hasSize(1);
+        assertThat(inviteRepo.assignLinks(participants, "D", 10)).isEmpty();
+        assertThat(data.count("SELECT count(*) FROM survey_invitation WHERE participant_id IN (?, ?, ?)",
+                participants.get(0), participants.get(1), participants.get(2))).isEqualTo(2);
+    }
+
+    @Test
+    void findReminderCandidatesSkipsOptedOutParticipants() {
+        OffsetDateTime now = OffsetDateTime.now();
+        UUID subscribed = data.participant();
+        UUID optedOut = data.participant();
+        jdbc.update("UPDATE participant SET status = 'OPTED_OUT' WHERE id = ?", optedOut);
+        UUID due = data.invitation(subscribed, "A");
+        UUID optedOutDue = data.invitation(optedOut, "A");
+        jdbc.update("UPDATE survey_invitation SET queued_at = ?, completed_at = NULL WHERE id IN (?, ?)",
+                now.minusDays(4), due, optedOutDue);
+
+        var rows = inviteRepo.findReminderCandidates(0, now.minusDays(3), now.minusDays(10), now.minusHours(1), 10);
+
+        assertThat(rows).extracting(SurveyInvitationRepository.ReminderCandidate::getInvitationId)
+                .contains(due)
+                .doesNotContain(optedOutDue);
+    }
+
+    @Test
+    void searchReturnsTheNewestInvitationsAcrossAllArms() {
+        OffsetDateTime now = OffsetDateTime.now();
+        UUID[] invitations = new UUID[4];
+        for (int i = 0; i < invitations.length; i++) {
+            UUID participant = data.participant();
+            jdbc.update("UPDATE participant SET name = ?, created_at = ? WHERE id = ?",
+                    "Needle " + i, now.minusDays(10 - i), participant);
+            invitations[i] = data.invitation(participant, "A");
+            jdbc.update("UPDATE survey_invitation SET created_at = ?, sent_at = ? WHERE id = ?",
+                    now.minusDays(4 - i), now.minusDays(4 - i), invitations[i]);
+        }
+        // The oldest participant has the newest invitation
+        jdbc.update("UPDATE survey_invitation SET created_at = ? WHERE id = ?", now, invitations[0]);
+
+        var rows = inviteRepo.search("%needle%", null, 2);
+
+        assertThat(rows).extracting(SurveyInvitationRepository.InvitationSearchRow::getId)
+                .containsExactly(invitations[0], invitations[3]);
+        assertThat(rows.get(0).getSentAt()).isNotNull();
+        assertThat(rows.get(0).getCompletedAt()).isNull();
+        assertThat(rows.get(0).getClickCount()).isZero();
+    }
+}
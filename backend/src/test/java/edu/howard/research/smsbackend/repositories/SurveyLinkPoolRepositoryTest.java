@@ -0,0 +1,196 @@
+package edu.howard.research.smsbackend.repositories;
+
+import edu.howard.research.smsbackend.support.PostgresRepositoryTest;
+import edu.howard.research.smsbackend.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Commits for real, so the concurrency test can use its own connections. Each test uses its own batch label.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SurveyLinkPoolRepositoryTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private SurveyLinkPoolRepository linkRepo;
+
+    @Autowired
+    private SurveyInvitationRepository inviteRepo;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private TestData data;
+    private String batch;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbc);
+        batch = "batch-" + UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        data.deleteCreated();
+    }
+
+    private Map<String, Long> statsByStatus() {
+        return linkRepo.fetchStats().stream()
+                .filter(row -> batch.equals(row.getBatchLabel()))
+                .collect(Collectors.toMap(SurveyLinkPoolRepository.LinkPoolStatsRow::getStatus,
+                        SurveyLinkPoolRepository.LinkPoolStatsRow::getCnt));
+    }
+
+    private long invitationCount() {
+        return inviteRepo.countFromCounters().orElseThrow();
+    }
+
+    @Test
+    void statsAndInvitationCountFollowClaimsAndSurviveCompaction() {
+        long invitationsBefore = invitationCount();
+        data.link(batch);
+        data.invitation(data.participant(), batch);
+        data.invitation(data.participant(), batch);
+
+        assertThat(statsByStatus()).containsOnly(Map.entry("AVAILABLE", 1L), Map.entry("CLAIMED", 2L));
+        assertThat(invitationCount()).isEqualTo(invitationsBefore + 2);
+
+        assertThat(linkRepo.compactStats()).isPositive();
+        assertThat(data.count("SELECT count(*) FROM link_pool_stat_deltas")).isZero();
+        assertThat(data.count("SELECT count(*) FROM table_row_count_deltas")).isZero();
+        assertThat(statsByStatus()).containsOnly(Map.entry("AVAILABLE", 1L), Map.entry("CLAIMED", 2L));
+        assertThat(invitationCount()).isEqualTo(invitationsBefore + 2);
+        assertThat(invitationCount()).isEqualTo(inviteRepo.count());
+    }
+
+    @Test
+    void reconcileCorrectsDriftWithDeltas() {
+        data.link(batch);
+        jdbc.update("INSERT INTO link_pool_stat_deltas (batch_label, status, delta) VALUES (?, 'AVAILABLE', 3)", batch);
+        jdbc.update("INSERT INTO table_row_count_deltas (table_name, delta) VALUES ('survey_invitation', -2)");
+
+        assertThat(linkRepo.reconcileStats()).isEqualTo(2);
+        assertThat(statsByStatus()).containsOnly(Map.entry("AVAILABLE", 1L));
+        assertThat(invitationCount()).isEqualTo(inviteRepo.count());
+        assertThat(linkRepo.reconcileStats()).isZero();
+    }
+
+    @Test
+    void reconcileRepairsNegativeBucketsInOneRun() {
+        data.link(batch);
+        data.link(batch);
+        // Both buckets are below zero, so v_link_pool_stats hides them
+        jdbc.update("INSERT INTO link_pool_stat_deltas (batch_label, status, delta) VALUES (?, 'AVAILABLE', -5)", batch);
+        jdbc.update("INSERT INTO link_pool_stat_deltas (batch_label, status, delta) VALUES (?, 'EXHAUSTED', -3)", batch);
+        linkRepo.compactStats();
+        assertThat(statsByStatus()).isEmpty();
+
+        assertThat(linkRepo.reconcileStats()).isEqualTo(2);
+        assertThat(statsByStatus()).containsOnly(Map.entry("AVAILABLE", 2L));
+        assertThat(linkRepo.reconcileStats()).isZero();
+
+        linkRepo.compactStats();
+        linkRepo.reconcileStats();
+        assertThat(data.count("SELECT count(*) FROM link_pool_stats WHERE batch_label = ?", batch)).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentSendsFromTheSameBatchDoNotWaitForEachOther() throws Exception {
+        UUID firstParticipant = data.participant();
+        UUID secondParticipant = data.participant();
+        UUID firstLink = data.link(batch);
+        UUID secondLink = data.link(batch);
+
+        try (Connection a = dataSource.getConnection(); Connection b = dataSource.getConnection()) {
+            a.setAutoCommit(false);
+            b.setAutoCommit(false);
+            claimAndInvite(a, firstLink, firstParticipant);
+            // Before the delta log this blocked on the batch's AVAILABLE row and on the single
+            // table_row_counts row until the first transaction ended
+            try (Statement s = b.createStatement()) {
+                s.execute("SET LOCAL lock_timeout = '2s'");
+            }
+            claimAndInvite(b, secondLink, secondParticipant);
+            a.commit();
+            b.commit();
+        }
+
+        assertThat(statsByStatus()).containsOnly(Map.entry("CLAIMED", 2L));
+        assertThat(invitationCount()).isEqualTo(inviteRepo.count());
+    }
+
+    @Test
+    void concurrentBulkClaimsSkipEachOthersLinks() throws Exception {
+        Set<UUID> links = Set.of(data.link(batch), data.link(batch), data.link(batch));
+
+        Set<UUID> claimedByA;
+        Set<UUID> claimedByB;
+        try (Connection a = dataSource.getConnection(); Connection b = dataSource.getConnection()) {
+            a.setAutoCommit(false);
+            b.setAutoCommit(false);
+            claimedByA = claimLinks(a, 2);
+            // The first claimer's rows stay locked until it commits; the second gets what is left
+            try (Statement s = b.createStatement()) {
+                s.execute("SET LOCAL lock_timeout = '2s'");
+            }
+            claimedByB = claimLinks(b, 2);
+            a.commit();
+            b.commit();
+        }
+
+        assertThat(claimedByA).hasSize(2);
+        assertThat(claimedByB).hasSize(1).doesNotContainAnyElementsOf(claimedByA);
+        assertThat(links).containsAll(claimedByA).containsAll(claimedByB);
+        assertThat(statsByStatus()).containsOnly(Map.entry("CLAIMED", 3L));
+    }
+
+    private Set<UUID> claimLinks(Connection connection, int count) throws Exception {
+        Set<UUID> claimed = new HashSet<>();
+        try (PreparedStatement claim = connection.prepareStatement("SELECT link_id FROM claim_available_links(?, ?)")) {
+            claim.setString(1, batch);
+            claim.setInt(2, count);
+            try (ResultSet rs = claim.executeQuery()) {
+                while (rs.next()) {
+                    claimed.add(rs.getObject(1, UUID.class));
+                }
+            }
+        }
+        return claimed;
+    }
+
+    private static void claimAndInvite(Connection connection, UUID linkId, UUID participantId) throws Exception {
+        try (PreparedStatement claim = connection.prepareStatement(
+                "UPDATE survey_link_pool SET status = 'CLAIMED' WHERE id = ?");
+             PreparedStatement invite = connection.prepareStatement("""
+                     INSERT INTO survey_invitation (participant_id, link_id, link_url, message_status)
+                     SELECT ?, id, link_url, 'queued' FROM survey_link_pool WHERE id = ?
+                     """)) {
+            claim.setObject(1, linkId);
+            assertThat(claim.executeUpdate()).isEqualTo(1);
+            invite.setObject(1, participantId);
+            invite.setObject(2, linkId);
+            assertThat(invite.executeUpdate()).isEqualTo(1);
+        }
+    }
+}
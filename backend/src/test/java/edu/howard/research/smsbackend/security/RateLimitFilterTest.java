@@ -0,0 +1,134 @@
+package edu.howard.research.smsbackend.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.howard.research.smsbackend.services.RateLimiter;
+import edu.howard.research.smsbackend.util.PhoneNumberService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private final RateLimitFilter filter = new RateLimitFilter(
+            new RateLimiter(new MockEnvironment()
+                    .withProperty("app.rateLimit.otp-start.phone.capacity", "1")
+                    .withProperty("app.rateLimit.participants.phone.capacity", "1"),
+                    null, new SimpleMeterRegistry()),
+            new ObjectMapper(),
+            new PhoneNumberService("US", List.of("US"), 100));
+
+    private static MockHttpServletRequest request(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/otp/start");
+        request.setRemoteAddr(remoteAddr);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+
+    @Test
+    void forwardedForIsOnlyBelievedFromTrustedProxies() {
+        assertThat(filter.clientIp(request("127.0.0.1", "198.51.100.7, 203.0.113.9"))).isEqualTo("203.0.113.9");
+        assertThat(filter.clientIp(request("127.0.0.1", null))).isEqualTo("127.0.0.1");
+        // A client talking to the app directly can't choose its bucket
+        assertThat(filter.clientIp(request("198.51.100.7", "203.0.113.9"))).isEqualTo("198.51.100.7");
+    }
+
+    @Test
+    void bodyIsReplayedAfterThePhoneIsReadAndTheSecondRequestIsLimited() throws Exception {
+        String body = "{\"phone\":\"+1 (202) 555-0100\"}";
+
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(jsonRequest(body), new MockHttpServletResponse(), chain);
+        assertThat(new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8))
+                .isEqualTo(body);
+
+        MockHttpServletResponse limited = new MockHttpServletResponse();
+        MockFilterChain second = new MockFilterChain();
+        filter.doFilter(jsonRequest("{\"phone\":\"12025550100\"}"), limited, second);
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader("Retry-After")).isNotBlank();
+        assertThat(second.getRequest()).isNull();
+    }
+
+    @Test
+    void everySpellingOfANumberSharesOneBucket() throws Exception {
+        filter.doFilter(jsonRequest("{\"phone\":\"2025550123\"}"), new MockHttpServletResponse(), new MockFilterChain());
+
+        for (String phone : List.of("12025550123", "+1 202-555-0123")) {
+            MockHttpServletResponse limited = new MockHttpServletResponse();
+            filter.doFilter(jsonRequest("{\"phone\":\"" + phone + "\"}"), limited, new MockFilterChain());
+            assertThat(limited.getStatus()).as(phone).isEqualTo(429);
+        }
+    }
+
+    @Test
+    void aPercentEncodedPathPhoneSharesTheBucketOfThePlainOne() throws Exception {
+        filter.doFilter(checkVerification("%2B12025550123"), new MockHttpServletResponse(), new MockFilterChain());
+
+        MockHttpServletResponse limited = new MockHttpServletResponse();
+        filter.doFilter(checkVerification("+12025550123"), limited, new MockFilterChain());
+        assertThat(limited.getStatus()).isEqualTo(429);
+    }
+
+    private static MockHttpServletRequest checkVerification(String phoneSegment) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET",
+                "/api/participants/check-verification/" + phoneSegment);
+        request.setRemoteAddr("198.51.100.7");
+        return request;
+    }
+
+    @Test
+    void replayedBodyCanBeReadThroughAReadListener() throws Exception {
+        String body = "{\"phone\":\"+12025550111\"}";
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(jsonRequest(body), new MockHttpServletResponse(), chain);
+
+        ServletInputStream in = ((HttpServletRequest) chain.getRequest()).getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        boolean[] allRead = {false};
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                byte[] buf = new byte[8];
+                int n;
+                while (in.isReady() && (n = in.read(buf)) != -1) {
+                    read.write(buf, 0, n);
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allRead[0] = true;
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                throw new AssertionError(t);
+            }
+        });
+
+        assertThat(read.toString(StandardCharsets.UTF_8)).isEqualTo(body);
+        assertThat(allRead[0]).isTrue();
+    }
+
+    private static MockHttpServletRequest jsonRequest(String body) {
+        MockHttpServletRequest request = request("127.0.0.1", "203.0.113.9");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,108 @@
+package edu.howard.research.smsbackend.services;
+
+import edu.howard.research.smsbackend.config.ThreadingConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.howard.research.smsbackend.models.entities.DistributionAction;
+import edu.howard.research.smsbackend.support.PostgresRepositoryTest;
+import edu.howard.research.smsbackend.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Commits for real: the writer only sees entries after commit, and the point is that they end up in the table.
+ */
+@Import({ThreadingConfig.class, DistributionAuditWriter.class, ObjectMapper.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "app.audit.queueCapacity=2",
+        "app.audit.offerTimeoutMillis=1",
+        "app.audit.flushIntervalMillis=50"
+})
+class DistributionAuditWriterTest extends PostgresRepositoryTest {
+
+    private static final String COUNT_LOGS = "SELECT count(*) FROM gift_card_distribution_logs WHERE gift_card_id = ?";
+
+    @Autowired
+    private DistributionAuditWriter writer;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TestData data;
+    private UUID giftCardId;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbc);
+        UUID participant = data.participant();
+        giftCardId = data.giftCard(participant, data.invitation(participant, "A"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (!writer.isRunning()) {
+            writer.start();
+        }
+        data.deleteCreated();
+    }
+
+    @Test
+    void entriesThatOverflowTheQueueAreStillWrittenAfterCommit() throws InterruptedException {
+        int entries = 200;
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < entries; i++) {
+                writer.record(giftCardId, DistributionAction.EMAIL_SENT, "test", Map.of("n", i));
+            }
+        });
+
+        awaitCount(entries);
+        assertThat(data.count(COUNT_LOGS, giftCardId)).isEqualTo(entries);
+    }
+
+    @Test
+    void entriesAreWrittenInlineWhileTheWriterIsStopped() {
+        writer.stop();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                writer.record(giftCardId, DistributionAction.CREATED, "test", Map.of("reason", "stopped")));
+
+        assertThat(data.count(COUNT_LOGS, giftCardId)).isEqualTo(1);
+    }
+
+    @Test
+    void entriesOfARolledBackTransactionAreDropped() throws InterruptedException {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            writer.record(giftCardId, DistributionAction.EMAIL_SENT, "test", null);
+            status.setRollbackOnly();
+        });
+        writer.record(giftCardId, DistributionAction.EMAIL_FAILED, "test", null);
+
+        awaitCount(1);
+        assertThat(jdbc.queryForObject("SELECT action FROM gift_card_distribution_logs WHERE gift_card_id = ?",
+                String.class, giftCardId)).isEqualTo("EMAIL_FAILED");
+    }
+
+    private void awaitCount(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (data.count(COUNT_LOGS, giftCardId) < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package edu.howard.research.smsbackend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.howard.research.smsbackend.config.ThreadingConfig;
+import edu.howard.research.smsbackend.models.dto.BatchSendGiftCardRequest;
+import edu.howard.research.smsbackend.models.dto.BatchSendGiftCardResult;
+import edu.howard.research.smsbackend.models.dto.BulkEmailRecipient;
+import edu.howard.research.smsbackend.models.dto.DeliveryAttemptResult;
+import edu.howard.research.smsbackend.models.dto.EmailSendResult;
+import edu.howard.research.smsbackend.support.PostgresRepositoryTest;
+import edu.howard.research.smsbackend.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Commits for real, so what the providers see can be checked from another connection. The audit
+ * writer is stopped, so distribution logs are written inline and can be asserted right away.
+ */
+@Import({ThreadingConfig.class, GiftCardServiceImpl.class, DistributionAuditWriter.class, DeliveryRetryQueue.class,
+        ObjectMapper.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GiftCardServiceImplTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private GiftCardService giftCardService;
+
+    @Autowired
+    private DistributionAuditWriter auditWriter;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @MockitoBean
+    private EmailService emailService;
+
+    @MockitoBean
+    private SmsService smsService;
+
+    private TestData data;
+    private UUID participant;
+    private UUID invitation;
+
+    @BeforeEach
+    void setUp() {
+        auditWriter.stop();
+        data = new TestData(jdbc);
+        participant = data.participant();
+        invitation = data.invitation(participant, "batch-" + UUID.randomUUID());
+        data.poolCard(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        auditWriter.start();
+        List<UUID> giftCards = jdbc.queryForList("SELECT id FROM gift_cards WHERE participant_id = ?",
+                UUID.class, participant);
+        for (UUID id : giftCards) {
+            jdbc.update("DELETE FROM delivery_retry_queue WHERE target_id = ?", id);
+            jdbc.update("DELETE FROM delivery_dead_letter WHERE target_id = ?", id);
+            jdbc.update("DELETE FROM gift_card_distribution_logs WHERE gift_card_id = ?", id);
+            jdbc.update("UPDATE gift_card_pool SET assigned_to_gift_card_id = NULL WHERE assigned_to_gift_card_id = ?", id);
+            jdbc.update("DELETE FROM gift_cards WHERE id = ?", id);
+        }
+        data.deleteCreated();
+    }
+
+    private BatchSendGiftCardRequest request(String deliveryMethod) {
+        BatchSendGiftCardRequest request = new BatchSendGiftCardRequest();
+        request.setParticipants(List.of(new BatchSendGiftCardRequest.ParticipantInvitationPair(participant, invitation)));
+        request.setDeliveryMethod(deliveryMethod);
+        return request;
+    }
+
+    @Test
+    void batchSendCommitsTheAllocationBeforeCallingTheProviders() {
+        List<String> seenBySendGrid = new ArrayList<>();
+        when(emailService.sendBulk(anyString(), anyString(), any())).thenAnswer(call -> {
+            List<BulkEmailRecipient> recipients = call.getArgument(2);
+            seenBySendGrid.add("transaction=" + TransactionSynchronizationManager.isActualTransactionActive());
+            // Read on another connection: only committed rows are visible
+            seenBySendGrid.add(jdbc.queryForObject("""
+                    SELECT g.status || '/' || p.status FROM gift_cards g JOIN gift_card_pool p ON p.id = g.pool_id
+                     WHERE g.id = ?::uuid
+                    """, String.class, recipients.get(0).getReferenceId()));
+            return recipients.stream().collect(Collectors.toMap(BulkEmailRecipient::getReferenceId,
+                    recipient -> EmailSendResult.success()));
+        });
+        when(smsService.send(anyString(), anyString())).thenReturn(Map.of("ok", true));
+
+        BatchSendGiftCardResult result = giftCardService.batchSendGiftCards(request("BOTH"), "admin");
+
+        assertThat(result.getSuccessful()).isEqualTo(1);
+        assertThat(seenBySendGrid).containsExactly("transaction=false", "SENT/ASSIGNED");
+        UUID giftCardId = result.getSuccesses().get(0).getGiftCardId();
+        assertThat(jdbc.queryForList("SELECT action FROM gift_card_distribution_logs WHERE gift_card_id = ?",
+                String.class, giftCardId)).containsExactlyInAnyOrder("EMAIL_SENT", "SMS_SENT");
+    }
+
+    @Test
+    void failedBatchDeliveryKeepsThePoolCardAndQueuesARetry() {
+        when(emailService.sendBulk(anyString(), anyString(), any())).thenAnswer(call -> {
+            List<BulkEmailRecipient> recipients = call.getArgument(2);
+            return recipients.stream().collect(Collectors.toMap(BulkEmailRecipient::getReferenceId,
+                    recipient -> EmailSendResult.unavailable("SendGrid timed out")));
+        });
+
+        BatchSendGiftCardResult result = giftCardService.batchSendGiftCards(request("EMAIL"), "admin");
+
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getFailures().get(0).getErrorMessage()).contains("queued for automatic retry");
+        assertThat(jdbc.queryForObject("""
+                SELECT g.status || '/' || p.status FROM gift_cards g JOIN gift_card_pool p ON p.id = g.pool_id
+                 WHERE g.participant_id = ?
+                """, String.class, participant)).isEqualTo("PENDING/ASSIGNED");
+        assertThat(data.count("""
+                SELECT count(*) FROM delivery_retry_queue q JOIN gift_cards g ON g.id = q.target_id
+                 WHERE g.participant_id = ?
+                """, participant)).isEqualTo(1);
+    }
+
+    @Test
+    void retryDeliveryCallsTheProvidersWithNoTransactionOpen() {
+        when(emailService.sendBulk(anyString(), anyString(), any())).thenAnswer(call -> {
+            List<BulkEmailRecipient> recipients = call.getArgument(2);
+            return recipients.stream().collect(Collectors.toMap(BulkEmailRecipient::getReferenceId,
+                    recipient -> EmailSendResult.unavailable("SendGrid timed out")));
+        });
+        giftCardService.batchSendGiftCards(request("EMAIL"), "admin");
+        UUID giftCardId = jdbc.queryForObject("SELECT id FROM gift_cards WHERE participant_id = ?",
+                UUID.class, participant);
+
+        List<Boolean> transactionDuringSend = new ArrayList<>();
+        when(emailService.sendGiftCardWithDetails(anyString(), any(), anyString(), any())).thenAnswer(call -> {
+            transactionDuringSend.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return EmailSendResult.success();
+        });
+
+        DeliveryAttemptResult result = giftCardService.retryDelivery(giftCardId, "EMAIL", "delivery-retry");
+
+        assertThat(result.getOutcome()).isEqualTo(DeliveryAttemptResult.Outcome.DELIVERED);
+        assertThat(transactionDuringSend).containsExactly(false);
+        assertThat(jdbc.queryForObject("SELECT status FROM gift_cards WHERE id = ?", String.class, giftCardId))
+                .isEqualTo("SENT");
+        assertThat(jdbc.queryForList("SELECT action FROM gift_card_distribution_logs WHERE gift_card_id = ?",
+                String.class, giftCardId)).contains("RESENT");
+    }
+}
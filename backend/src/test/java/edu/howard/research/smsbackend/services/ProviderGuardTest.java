@@ -0,0 +1,180 @@
+package edu.howard.research.smsbackend.services;
+
+import com.twilio.exception.ApiException;
+import edu.howard.research.smsbackend.exceptions.ProviderUnavailableException;
+import edu.howard.research.smsbackend.services.ProviderGuard.Provider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProviderGuardTest {
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+    private ProviderGuard guard(String... settings) {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("app.providers.windowSize", "4")
+                .withProperty("app.providers.minimumCalls", "4")
+                .withProperty("app.providers.failureRateThreshold", "50")
+                .withProperty("app.providers.openSeconds", "1")
+                .withProperty("app.providers.halfOpenCalls", "2");
+        for (int i = 0; i < settings.length; i += 2) {
+            env.setProperty(settings[i], settings[i + 1]);
+        }
+        return new ProviderGuard(env, meters);
+    }
+
+    private static void fail(ProviderGuard guard, Provider provider) {
+        assertThatThrownBy(() -> guard.call(provider, () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static void succeed(ProviderGuard guard, Provider provider) {
+        assertThat(guard.call(provider, () -> "ok")).isEqualTo("ok");
+    }
+
+    private double rejections(Provider provider, String reason) {
+        return meters.get("provider.rejections").tag("provider", provider.key()).tag("reason", reason).counter().count();
+    }
+
+    @Test
+    void opensAtTheFailureRateAndRefusesWithoutCallingTheProvider() {
+        ProviderGuard guard = guard();
+        succeed(guard, Provider.SENDGRID);
+        succeed(guard, Provider.SENDGRID);
+        fail(guard, Provider.SENDGRID);
+        assertThat(guard.isOpen(Provider.SENDGRID)).isFalse();
+        fail(guard, Provider.SENDGRID);
+        assertThat(guard.isOpen(Provider.SENDGRID)).isTrue();
+
+        AtomicInteger calls = new AtomicInteger();
+        assertThatThrownBy(() -> guard.call(Provider.SENDGRID, calls::incrementAndGet))
+                .isInstanceOf(ProviderUnavailableException.class)
+                .hasMessageContaining("circuit open");
+        assertThat(calls).hasValue(0);
+        assertThat(rejections(Provider.SENDGRID, "circuit_open")).isEqualTo(1);
+    }
+
+    @Test
+    void providersHaveIndependentCircuits() {
+        ProviderGuard guard = guard();
+        for (int i = 0; i < 4; i++) {
+            fail(guard, Provider.TWILIO_LOOKUP);
+        }
+        assertThat(guard.isOpen(Provider.TWILIO_LOOKUP)).isTrue();
+        succeed(guard, Provider.TWILIO_MESSAGING);
+    }
+
+    @Test
+    void twilioClientErrorsDoNotCountButRateLimitsDo() {
+        ProviderGuard guard = guard();
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> guard.call(Provider.TWILIO_VERIFY, () -> {
+                throw new ApiException("Invalid parameter", 60200, null, 400, null);
+            })).isInstanceOf(ApiException.class);
+        }
+        assertThat(guard.isOpen(Provider.TWILIO_VERIFY)).isFalse();
+
+        // Two 429s next to the two latest 400s in the window reach the 50% threshold
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> guard.call(Provider.TWILIO_VERIFY, () -> {
+                throw new ApiException("Too many requests", 20429, null, 429, null);
+            })).isInstanceOf(ApiException.class);
+        }
+        assertThat(guard.isOpen(Provider.TWILIO_VERIFY)).isTrue();
+    }
+
+    @Test
+    void resultPredicateDecidesWhatCountsAsAFailure() throws Exception {
+        ProviderGuard guard = guard();
+        for (int i = 0; i < 4; i++) {
+            assertThat(guard.call(Provider.SENDGRID, () -> 503, status -> status >= 500)).isEqualTo(503);
+        }
+        assertThat(guard.isOpen(Provider.SENDGRID)).isTrue();
+    }
+
+    @Test
+    void opensAtTheSlowCallRate() {
+        ProviderGuard guard = guard("app.providers.slowCallMillis", "0", "app.providers.slowCallRateThreshold", "100");
+        for (int i = 0; i < 4; i++) {
+            succeed(guard, Provider.TWILIO_MESSAGING);
+        }
+        assertThat(guard.isOpen(Provider.TWILIO_MESSAGING)).isTrue();
+    }
+
+    @Test
+    void halfOpenTrialsCloseTheCircuitAgain() throws InterruptedException {
+        ProviderGuard guard = guard();
+        for (int i = 0; i < 4; i++) {
+            fail(guard, Provider.SENDGRID);
+        }
+        TimeUnit.MILLISECONDS.sleep(1100);
+
+        succeed(guard, Provider.SENDGRID);
+        assertThat(((Map<?, ?>) guard.describe().get("sendgrid")).get("state"))
+                .hasToString("HALF_OPEN");
+        succeed(guard, Provider.SENDGRID);
+        assertThat(((Map<?, ?>) guard.describe().get("sendgrid")).get("state"))
+                .hasToString("CLOSED");
+    }
+
+    @Test
+    void aFailedHalfOpenTrialReopensTheCircuit() throws InterruptedException {
+        ProviderGuard guard = guard();
+        for (int i = 0; i < 4; i++) {
+            fail(guard, Provider.SENDGRID);
+        }
+        TimeUnit.MILLISECONDS.sleep(1100);
+
+        fail(guard, Provider.SENDGRID);
+        assertThat(guard.isOpen(Provider.SENDGRID)).isTrue();
+        assertThatThrownBy(() -> succeed(guard, Provider.SENDGRID)).isInstanceOf(ProviderUnavailableException.class);
+    }
+
+    @Test
+    void bulkheadRefusesCallsBeyondMaxConcurrent() throws Exception {
+        ProviderGuard guard = guard("app.providers.twilio-verify.maxConcurrent", "1",
+                "app.providers.twilio-verify.maxWaitMillis", "20");
+        CountDownLatch inCall = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> first = executor.submit(() -> guard.call(Provider.TWILIO_VERIFY, () -> {
+                inCall.countDown();
+                try {
+                    finish.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "first";
+            }));
+            assertThat(inCall.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> succeed(guard, Provider.TWILIO_VERIFY))
+                    .isInstanceOf(ProviderUnavailableException.class)
+                    .hasMessageContaining("too many concurrent calls");
+            assertThat(rejections(Provider.TWILIO_VERIFY, "bulkhead_full")).isEqualTo(1);
+            // The per-provider override leaves the others at the shared default
+            succeed(guard, Provider.TWILIO_MESSAGING);
+
+            finish.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+            succeed(guard, Provider.TWILIO_VERIFY);
+        } finally {
+            finish.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package edu.howard.research.smsbackend.services;
+
+import edu.howard.research.smsbackend.services.RateLimiter.Dimension;
+import edu.howard.research.smsbackend.services.RateLimiter.Rule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+    private RateLimiter limiter(String... settings) {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("app.rateLimit.otp-start.phone.capacity", "3")
+                .withProperty("app.rateLimit.otp-start.phone.periodSeconds", "600");
+        for (int i = 0; i < settings.length; i += 2) {
+            env.setProperty(settings[i], settings[i + 1]);
+        }
+        return new RateLimiter(env, null, meters);
+    }
+
+    @Test
+    void bucketAllowsItsCapacityThenReportsTheRefillWait() {
+        RateLimiter limiter = limiter();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire(Rule.OTP_START, Dimension.PHONE, "12025550100")).isZero();
+        }
+        // One token refills every 200s
+        assertThat(limiter.tryAcquire(Rule.OTP_START, Dimension.PHONE, "12025550100")).isBetween(199L, 200L);
+        assertThat(limiter.tryAcquire(Rule.OTP_START, Dimension.PHONE, "12025550199")).isZero();
+        assertThat(limiter.tryAcquire(Rule.OTP_CHECK, Dimension.PHONE, "12025550100")).isZero();
+        assertThat(meters.get("rate_limit.rejections").tag("rule", "otp-start").tag("dimension", "phone")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentRequestsForOneKeyGetExactlyTheCapacity() throws Exception {
+        RateLimiter limiter = limiter("app.rateLimit.otp-start.phone.capacity", "50");
+        List<Future<Long>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < 400; i++) {
+                results.add(pool.submit(() -> limiter.tryAcquire(Rule.OTP_START, Dimension.PHONE, "12025550100")));
+            }
+        }
+
+        long allowed = 0;
+        for (Future<Long> result : results) {
+            allowed += result.get() == 0 ? 1 : 0;
+        }
+        assertThat(allowed).isEqualTo(50);
+    }
+
+    @Test
+    void onlyConfiguredPeersAreTrustedProxies() {
+        RateLimiter defaults = limiter();
+        assertThat(defaults.isTrustedProxy("127.0.0.1")).isTrue();
+        assertThat(defaults.isTrustedProxy("::1")).isTrue();
+        assertThat(defaults.isTrustedProxy("172.18.0.1")).isFalse();
+        assertThat(defaults.isTrustedProxy("203.0.113.9")).isFalse();
+        assertThat(defaults.isTrustedProxy(null)).isFalse();
+
+        RateLimiter docker = limiter("app.rateLimit.trustedProxies", "127.0.0.1, 172.16.0.0/12");
+        assertThat(docker.isTrustedProxy("172.18.0.1")).isTrue();
+        assertThat(docker.isTrustedProxy("::1")).isFalse();
+    }
+}
@@ -0,0 +1,94 @@
+package edu.howard.research.smsbackend.services;
+
+import edu.howard.research.smsbackend.config.ThreadingConfig;
+import edu.howard.research.smsbackend.repositories.SurveyInvitationRepository;
+import edu.howard.research.smsbackend.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Flushes are triggered by hand (the interval is set to an hour) and commit for real.
+ */
+@Import({ThreadingConfig.class, ShortLinkClickTracker.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "app.shortlinkClicks.flushIntervalSeconds=3600")
+class ShortLinkClickTrackerTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private ShortLinkClickTracker tracker;
+
+    @Autowired
+    private SurveyInvitationRepository inviteRepo;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private final String first = shortCode();
+    private final String second = shortCode();
+
+    private static String shortCode() {
+        return "t" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracker.flush();
+        jdbc.update("DELETE FROM short_link_click_stats WHERE short_code IN (?, ?)", first, second);
+    }
+
+    private Map<String, Long> clickCounts() {
+        return inviteRepo.findClickStats(List.of(first, second)).stream()
+                .collect(Collectors.toMap(SurveyInvitationRepository.ClickStatsRow::getShortCode,
+                        SurveyInvitationRepository.ClickStatsRow::getClickCount));
+    }
+
+    @Test
+    void concurrentClicksAreAllCountedAndFlushesAddUp() throws InterruptedException {
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 1000; i++) {
+                String code = i % 4 == 0 ? second : first;
+                pool.submit(() -> tracker.record(code));
+            }
+        }
+
+        assertThat(tracker.flush()).isEqualTo(2);
+        assertThat(clickCounts()).containsOnly(Map.entry(first, 750L), Map.entry(second, 250L));
+
+        tracker.record(first);
+        assertThat(tracker.flush()).isEqualTo(1);
+        assertThat(clickCounts()).containsOnly(Map.entry(first, 751L), Map.entry(second, 250L));
+        assertThat(inviteRepo.findClickStats(List.of(first)).get(0).getFirstClickAt()).isNotNull();
+    }
+
+    @Test
+    void countsFromAFailedFlushAreKeptForTheNextOne() {
+        tracker.record(first);
+        tracker.record(first);
+        jdbc.execute("ALTER TABLE short_link_click_stats RENAME TO short_link_click_stats_away");
+        try {
+            assertThat(tracker.flush()).isZero();
+            tracker.record(first);
+            assertThat(tracker.getPendingKeys()).isEqualTo(1);
+        } finally {
+            jdbc.execute("ALTER TABLE short_link_click_stats_away RENAME TO short_link_click_stats");
+        }
+
+        assertThat(tracker.flush()).isEqualTo(1);
+        assertThat(clickCounts()).containsOnly(Map.entry(first, 3L));
+    }
+}
@@ -0,0 +1,156 @@
+package edu.howard.research.smsbackend.services;
+
+import edu.howard.research.smsbackend.models.dto.BulkDeleteResultDto;
+import edu.howard.research.smsbackend.support.PostgresRepositoryTest;
+import edu.howard.research.smsbackend.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Import(UserDeletionService.class)
+class UserDeletionServiceTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private UserDeletionService deletionService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private TestData data;
+    private String batch;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbc);
+        batch = "batch-" + UUID.randomUUID();
+    }
+
+    private long participants(UUID... ids) {
+        String placeholders = String.join(", ", Collections.nCopies(ids.length, "?"));
+        return data.count("SELECT count(*) FROM participant WHERE id IN (" + placeholders + ")", (Object[]) ids);
+    }
+
+    @Test
+    void deletesInvitationsAndFreeParticipantsAndReportsTheRest() {
+        UUID invitedOnce = data.participant();
+        UUID invitation = data.invitation(invitedOnce, batch);
+        UUID withoutInvitations = data.participant();
+        UUID stillInvited = data.participant();
+        data.invitation(stillInvited, batch);
+        UUID unknown = UUID.randomUUID();
+
+        BulkDeleteResultDto result = deletionService.deleteUsers(
+                List.of(invitation, withoutInvitations, unknown, stillInvited, invitation));
+
+        assertThat(result.getRequested()).isEqualTo(4);
+        assertThat(result.getInvitationsDeleted()).isEqualTo(1);
+        assertThat(result.getParticipantsDeleted()).isEqualTo(2);
+        assertThat(result.getNotFound()).containsExactly(unknown);
+        assertThat(result.getBlocked()).containsExactly(stillInvited);
+        assertThat(participants(invitedOnce, withoutInvitations)).isZero();
+        assertThat(participants(stillInvited)).isEqualTo(1);
+        assertThat(data.count("SELECT count(*) FROM survey_invitation WHERE id = ?", invitation)).isZero();
+        assertThat(data.count("SELECT count(*) FROM survey_link_pool WHERE batch_label = ? AND status = 'AVAILABLE'", batch))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void aRedeemedGiftCardRefusesTheWholeRequest() {
+        UUID redeemer = data.participant();
+        UUID redeemed = data.invitation(redeemer, batch);
+        jdbc.update("UPDATE gift_cards SET status = 'REDEEMED' WHERE id = ?", data.giftCard(redeemer, redeemed));
+        UUID other = data.participant();
+        UUID otherInvitation = data.invitation(other, batch);
+
+        assertThatThrownBy(() -> deletionService.deleteUsers(List.of(otherInvitation, redeemed)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("redeemed");
+
+        assertThat(data.count("SELECT count(*) FROM survey_invitation WHERE id IN (?, ?)", otherInvitation, redeemed))
+                .isEqualTo(2);
+        assertThat(participants(redeemer, other)).isEqualTo(2);
+    }
+
+    @Test
+    void aParticipantWithAnotherInvitationSurvives() {
+        UUID participant = data.participant();
+        UUID earlier = data.invitation(participant, batch);
+        data.complete(earlier, OffsetDateTime.now().minusDays(30));
+        UUID current = data.invitation(participant, batch);
+
+        BulkDeleteResultDto result = deletionService.deleteUsers(List.of(current));
+
+        assertThat(result.getInvitationsDeleted()).isEqualTo(1);
+        assertThat(result.getParticipantsDeleted()).isZero();
+        assertThat(participants(participant)).isEqualTo(1);
+        assertThat(data.count("SELECT count(*) FROM survey_invitation WHERE participant_id = ?", participant))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void unsentGiftCardsLeaveTheRetryQueueAndTheDeadLetters() {
+        UUID queuedParticipant = data.participant();
+        UUID queuedInvitation = data.invitation(queuedParticipant, batch);
+        UUID queued = data.giftCard(queuedParticipant, queuedInvitation);
+        UUID deadParticipant = data.participant();
+        UUID deadInvitation = data.invitation(deadParticipant, batch);
+        UUID dead = data.giftCard(deadParticipant, deadInvitation);
+        jdbc.update("""
+                INSERT INTO delivery_retry_queue (kind, target_id, channel, performed_by, max_attempts, next_attempt_at)
+                VALUES ('GIFT_CARD', ?, 'EMAIL', 'admin', 8, now())
+                """, queued);
+        jdbc.update("""
+                INSERT INTO delivery_dead_letter (kind, target_id, channel, performed_by, attempts, reason, first_failed_at)
+                VALUES ('GIFT_CARD', ?, 'SMS', 'admin', 1, 'PERMANENT', now())
+                """, dead);
+
+        BulkDeleteResultDto result = deletionService.deleteUsers(List.of(queuedInvitation, deadInvitation));
+
+        assertThat(result.getGiftCardsUnsent()).isEqualTo(2);
+        assertThat(data.count("SELECT count(*) FROM delivery_retry_queue WHERE target_id IN (?, ?)", queued, dead))
+                .isZero();
+        assertThat(data.count("SELECT count(*) FROM delivery_dead_letter WHERE target_id IN (?, ?)", queued, dead))
+                .isZero();
+    }
+
+    @Test
+    void giftCardsAreUnsentWithHistoryAndTheirPoolCardsReturnToTheShelf() {
+        UUID participant = data.participant();
+        UUID invitation = data.invitation(participant, batch);
+        data.complete(invitation, OffsetDateTime.now().minusDays(1));
+        UUID giftCard = data.giftCard(participant, invitation);
+        UUID poolCard = data.poolCard("cards");
+        jdbc.update("UPDATE gift_card_pool SET status = 'ASSIGNED', assigned_at = now(), assigned_to_gift_card_id = ? WHERE id = ?",
+                giftCard, poolCard);
+        jdbc.update("UPDATE gift_cards SET status = 'SENT', sent_at = now(), pool_id = ? WHERE id = ?", poolCard, giftCard);
+
+        BulkDeleteResultDto result = deletionService.deleteUsers(List.of(invitation));
+
+        assertThat(result.getGiftCardsUnsent()).isEqualTo(1);
+        assertThat(result.getParticipantsDeleted()).isEqualTo(1);
+        assertThat(data.count("""
+                SELECT count(*) FROM gift_card_pool
+                 WHERE id = ? AND status = 'AVAILABLE' AND assigned_at IS NULL AND assigned_to_gift_card_id IS NULL
+                """, poolCard)).isEqualTo(1);
+        assertThat(data.count("""
+                SELECT count(*) FROM gift_cards
+                 WHERE id = ? AND status = 'UNSENT' AND participant_id IS NULL AND invitation_id IS NULL
+                """, giftCard)).isEqualTo(1);
+        assertThat(data.count("""
+                SELECT count(*) FROM gift_card_unsend_history
+                 WHERE gift_card_id = ? AND previous_status = 'SENT' AND pool_id = ? AND unsent_by = ?
+                """, giftCard, poolCard, UserDeletionService.DELETE_PERFORMER)).isEqualTo(1);
+        assertThat(data.count("SELECT count(*) FROM gift_card_distribution_logs WHERE gift_card_id = ? AND action = 'UNSENT'",
+                giftCard)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,107 @@
+package edu.howard.research.smsbackend.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Minimal rows for repository tests, inserted with plain SQL so the triggers behind
+ * the counters and the eligibility queue fire exactly as they do in production.
+ * Tests that commit call deleteCreated() afterwards; the others just roll back.
+ */
+public final class TestData {
+
+    private final JdbcTemplate jdbc;
+    private final List<UUID> participants = new ArrayList<>();
+    private final List<UUID> links = new ArrayList<>();
+    private final List<UUID> giftCards = new ArrayList<>();
+    private final List<UUID> poolCards = new ArrayList<>();
+    private int sequence;
+
+    public TestData(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public UUID participant() {
+        int n = ++sequence;
+        UUID id = jdbc.queryForObject(
+                // status as the entity writes it (the column default is lowercase)
+                "INSERT INTO participant (phone, email, name, status) VALUES (?, ?, ?, 'SUBSCRIBED') RETURNING id",
+                UUID.class, String.format("+1202555%04d", n), "p" + n + "@example.org", "Participant " + n);
+        participants.add(id);
+        return id;
+    }
+
+    public UUID link(String batchLabel) {
+        UUID id = jdbc.queryForObject(
+                "INSERT INTO survey_link_pool (batch_label, link_url) VALUES (?, ?) RETURNING id",
+                UUID.class, batchLabel, "https://survey.example.org/s/" + UUID.randomUUID());
+        links.add(id);
+        return id;
+    }
+
+    public UUID invitation(UUID participantId, String batchLabel) {
+        UUID linkId = link(batchLabel);
+        jdbc.update("UPDATE survey_link_pool SET status = 'CLAIMED' WHERE id = ?", linkId);
+        return jdbc.queryForObject("""
+                INSERT INTO survey_invitation (participant_id, link_id, link_url, message_status)
+                SELECT ?, id, link_url, 'delivered' FROM survey_link_pool WHERE id = ?
+                RETURNING id
+                """, UUID.class, participantId, linkId);
+    }
+
+    public void complete(UUID invitationId, OffsetDateTime completedAt) {
+        jdbc.update("UPDATE survey_invitation SET completed_at = ?, message_status = 'completed' WHERE id = ?",
+                completedAt, invitationId);
+    }
+
+    public UUID giftCard(UUID participantId, UUID invitationId) {
+        UUID id = jdbc.queryForObject("""
+                INSERT INTO gift_cards (participant_id, invitation_id, card_code, card_type, card_value, redemption_url)
+                VALUES (?, ?, ?, 'AMAZON', 25.00, 'https://www.amazon.com/gc/redeem')
+                RETURNING id
+                """, UUID.class, participantId, invitationId, "CODE-" + UUID.randomUUID());
+        giftCards.add(id);
+        return id;
+    }
+
+    public UUID poolCard(String batchLabel) {
+        UUID id = jdbc.queryForObject("""
+                INSERT INTO gift_card_pool (card_code, card_type, card_value, batch_label)
+                VALUES (?, 'AMAZON', 25.00, ?)
+                RETURNING id
+                """, UUID.class, "POOL-" + UUID.randomUUID(), batchLabel);
+        poolCards.add(id);
+        return id;
+    }
+
+    /** Remove everything this instance inserted (for tests that commit) */
+    public void deleteCreated() {
+        for (UUID id : giftCards) {
+            jdbc.update("DELETE FROM gift_card_distribution_logs WHERE gift_card_id = ?", id);
+            jdbc.update("DELETE FROM gift_card_unsend_history WHERE gift_card_id = ?", id);
+            jdbc.update("DELETE FROM gift_cards WHERE id = ?", id);
+        }
+        for (UUID id : poolCards) {
+            jdbc.update("DELETE FROM gift_card_pool WHERE id = ?", id);
+        }
+        for (UUID id : participants) {
+            jdbc.update("DELETE FROM participant WHERE id = ?", id);
+        }
+        for (UUID id : links) {
+            jdbc.update("DELETE FROM survey_link_pool WHERE id = ?", id);
+        }
+        giftCards.clear();
+        poolCards.clear();
+        participants.clear();
+        links.clear();
+    }
+
+    public long count(String sql, Object... args) {
+        Long count = jdbc.queryForObject(sql, Long.class, args);
+        return count == null ? 0 : count;
+    }
+}
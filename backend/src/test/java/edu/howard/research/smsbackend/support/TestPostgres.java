@@ -0,0 +1,45 @@
+package edu.howard.research.smsbackend.support;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * One embedded Postgres 16 per test JVM, shared by every test that needs a real database.
+ * The schema comes from the Flyway migrations, applied when the Spring context starts.
+ */
+public final class TestPostgres {
+
+    private static EmbeddedPostgres postgres;
+
+    private TestPostgres() {
+    }
+
+    public static synchronized EmbeddedPostgres get() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.builder().start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start embedded Postgres", e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    postgres.close();
+                } catch (IOException ignored) {
+                    // JVM is exiting anyway
+                }
+            }));
+        }
+        return postgres;
+    }
+
+    /** Point spring.datasource at the embedded database */
+    public static void register(DynamicPropertyRegistry registry) {
+        EmbeddedPostgres pg = get();
+        registry.add("spring.datasource.url", () -> pg.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+}
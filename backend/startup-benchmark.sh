@@ -0,0 +1,66 @@
+#!/bin/bash
+#
+# Startup benchmark: time from JVM launch to the first successful /actuator/health/readiness,
+# default boot vs. fast startup (Spring AOT + AppCDS).
+#
+# Prerequisites:
+#   mvn -Pfast-startup package     (produces target/*.jar and target/fast-startup/, incl. app.jsa)
+#   a reachable database and the usual env (DB_*, JWT_SECRET, ...), exactly as for a normal boot
+#
+# Usage: ./startup-benchmark.sh [runs]      (default 5 runs per mode; SERVER_PORT defaults to 8080)
+
+RUNS=${1:-5}
+PORT=${SERVER_PORT:-8080}
+URL="http://localhost:$PORT/actuator/health/readiness"
+
+FAT_JAR=$(ls target/*-SNAPSHOT.jar 2>/dev/null | head -n 1)
+FAST_DIR=target/fast-startup
+FAST_JAR=$(ls $FAST_DIR/*-SNAPSHOT.jar 2>/dev/null | head -n 1)
+
+if [ -z "$FAT_JAR" ] || [ -z "$FAST_JAR" ] || [ ! -f "$FAST_DIR/app.jsa" ]; then
+    echo "❌ Build first: mvn -Pfast-startup package"
+    exit 1
+fi
+if curl -fsS -o /dev/null "$URL" 2>/dev/null; then
+    echo "❌ Something is already answering on port $PORT"
+    exit 1
+fi
+
+now_ms() {
+    date +%s%3N
+}
+
+# Launch the app with the given JVM args, poll readiness every 50 ms, print elapsed ms
+measure() {
+    local start pid elapsed
+    start=$(now_ms)
+    java $JAVA_OPTS "$@" > /tmp/startup-benchmark.log 2>&1 &
+    pid=$!
+    until curl -fsS -o /dev/null "$URL" 2>/dev/null; do
+        if ! kill -0 $pid 2>/dev/null; then
+            echo "❌ App exited during startup, see /tmp/startup-benchmark.log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    elapsed=$(( $(now_ms) - start ))
+    kill $pid
+    wait $pid 2>/dev/null
+    echo $elapsed
+}
+
+run_mode() {
+    local label=$1 total=0 t i
+    shift
+    printf "%-10s" "$label"
+    for i in $(seq 1 "$RUNS"); do
+        t=$(measure "$@") || exit 1
+        total=$((total + t))
+        printf " %6d" "$t"
+    done
+    printf "   avg %6d ms\n" $((total / RUNS))
+}
+
+echo "⏱  Time to first successful readiness ($RUNS runs each, ms)"
+run_mode "default" -jar "$FAT_JAR"
+run_mode "fast" -Dspring.aot.enabled=true -XX:SharedArchiveFile="$FAST_DIR/app.jsa" -jar "$FAST_JAR"
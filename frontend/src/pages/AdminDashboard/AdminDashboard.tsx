@@ -1,7 +1,7 @@
 import React, { useEffect, useState } from 'react';
 import { useNavigate } from 'react-router-dom';
 import AdminLayout from '../../components/AdminLayout';
-import { api } from '../../utils/api';
+import { api, subscribeAdminEvents } from '../../utils/api';
 
 interface Stats {
   totalVerifications: number;
@@ -22,6 +22,9 @@ interface VerificationRecord {
   email_status: string; // Email status (placeholder for future)
   email_sent_at: string | null; // Email timestamp (placeholder for future)
   completed_at: string | null; // Survey completion timestamp
+  click_count: number; // Short link clicks
+  first_click_at: string | null;
+  last_click_at: string | null;
 }
 
 // LinkRecord interface removed - no longer used
@@ -205,6 +208,22 @@ const AdminDashboard: React.FC = () => {
   }, [navigate]);
 
 
+  // Live updates: refetch (debounced) when invitations or links change on the server
+  useEffect(() => {
+    let timer: ReturnType<typeof setTimeout> | undefined;
+    const unsubscribe = subscribeAdminEvents((event) => {
+      if (event.type === 'invitations' || event.type === 'link_pool' || event.type === 'resync') {
+        clearTimeout(timer);
+        timer = setTimeout(() => fetchStatsAndRecords(), 1000);
+      }
+    });
+    return () => {
+      clearTimeout(timer);
+      unsubscribe();
+    };
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, []);
+
   const fetchStatsAndRecords = () => {
     console.log('Fetching stats and records...');
     // 1) stats
@@ -235,7 +254,10 @@ const AdminDashboard: React.FC = () => {
             // Email fields - show actual data
             email_status: invitation.participant?.email || 'N/A', // Show actual email address
             email_sent_at: invitation.sentAt || invitation.queuedAt || 'N/A',  // Show actual timestamp
-            completed_at: invitation.completedAt || null // Survey completion timestamp
+            completed_at: invitation.completedAt || null, // Survey completion timestamp
+            click_count: invitation.clickCount || 0, // Short link clicks (flushed every few seconds)
+            first_click_at: invitation.firstClickAt || null,
+            last_click_at: invitation.lastClickAt || null
           }));
           console.log('Converted records:', convertedRecords);
           setRecords(convertedRecords);
@@ -626,24 +648,27 @@ const AdminDashboard: React.FC = () => {
     const token = localStorage.getItem('adminToken');
     if (!token || selectedRecordIds.length === 0) return;
 
-    // Delete each selected record
-    Promise.all(
-      selectedRecordIds.map((id) =>
-        api.delete(`/api/admin/delete-user/${id}`, { headers: { Authorization: `Bearer ${token}` } })
-      )
-    )
-      .then(() => {
+    // Delete all selected records in one request
+    api.deleteUsers(selectedRecordIds)
+      .then((result: any) => {
         // Refresh data immediately
         fetchStatsAndRecords();
         // Clear selection and close modal
         setSelectedRecordIds([]);
         setShowBulkDeleteModal(false);
         // Show success message
-        setBulkActionMessage('Selected users deleted successfully');
+        let message = 'Selected users deleted successfully';
+        if (result && result.blocked && result.blocked.length > 0) {
+          message += `. ${result.blocked.length} participant(s) were skipped because they still have invitations.`;
+        }
+        if (result && result.giftCardsUnsent > 0) {
+          message += ` ${result.giftCardsUnsent} gift card(s) have been made available again and will appear in the unsent history.`;
+        }
+        setBulkActionMessage(message);
       })
       .catch((err) => {
         console.error('Bulk delete error:', err);
-        setBulkActionMessage('Failed to delete some users');
+        setBulkActionMessage(err.message || 'Failed to delete some users');
       });
   };
 
@@ -847,6 +872,7 @@ const AdminDashboard: React.FC = () => {
                     <th className="p-2 w-32">Survey Status</th>
                     <th className="p-2 w-36">Email Address</th>
                     <th className="p-2 w-48">Assigned Link</th>
+                    <th className="p-2 w-24">Link Clicks</th>
                     <th className="p-2 w-36">SMS Sent At</th>
                     <th className="p-2 w-36">Email Sent At</th>
                     <th className="p-2 w-20"></th>
@@ -928,6 +954,18 @@ const AdminDashboard: React.FC = () => {
                               <span className="text-gray-500">—</span>
                             )}
                           </td>
+                          <td className="p-2 break-words">
+                            {r.click_count > 0 ? (
+                              <div>
+                                <div className="font-medium text-gray-800">{r.click_count}</div>
+                                <div className="text-xs text-gray-500" title={`First: ${formatSmsSentAt(r.first_click_at)}`}>
+                                  Last: {formatSmsSentAt(r.last_click_at)}
+                                </div>
+                              </div>
+                            ) : (
+                              <span className="text-gray-500">Not opened</span>
+                            )}
+                          </td>
                           <td className="p-2 break-words">
                             {formatSmsSentAt(r.sms_sent_at)}
                           </td>
@@ -1877,10 +1915,7 @@ const AdminDashboard: React.FC = () => {
                     }
                     setIsAssigningLink(true);
                     try {
-                      const response = await api.post('/api/admin/invitations/send-with-link', {
-                        phone: selectedParticipantForLink.phone,
-                        linkId: selectedLinkId
-                      });
+                      const response = await api.sendInvitationWithLink(selectedParticipantForLink.phone, selectedLinkId);
                       if (response && response.ok) {
                         setBulkActionMessage(`Survey link sent successfully to ${selectedParticipantForLink.phone}`);
                         // Immediately remove the assigned link from available links
@@ -2,7 +2,7 @@ import React, { useEffect, useState, useRef } from 'react';
 import { createPortal } from 'react-dom';
 import { useNavigate } from 'react-router-dom';
 import AdminLayout from '../../components/AdminLayout';
-import { api } from '../../utils/api';
+import { api, subscribeAdminEvents } from '../../utils/api';
 
 interface GiftCardPoolStatus {
   totalCards: number;
@@ -96,8 +96,12 @@ const GiftCardManagement: React.FC = () => {
   const [poolTotalPages, setPoolTotalPages] = useState<number>(0);
   const [poolStatusFilter, setPoolStatusFilter] = useState<string>('ALL'); // 'ALL', 'AVAILABLE', 'ASSIGNED', 'EXPIRED', 'INVALID'
   
-  // Eligible participants
+  // Eligible participants (paginated)
   const [eligibleParticipants, setEligibleParticipants] = useState<EligibleParticipant[]>([]);
+  const [eligiblePage, setEligiblePage] = useState<number>(0);
+  const [eligiblePageSize, setEligiblePageSize] = useState<number>(50);
+  const [eligibleTotalPages, setEligibleTotalPages] = useState<number>(0);
+  const [eligibleTotalElements, setEligibleTotalElements] = useState<number>(0);
   
   // Bulk selection for eligible participants
   const [selectedParticipantIds, setSelectedParticipantIds] = useState<string[]>([]);
@@ -255,12 +259,10 @@ const GiftCardManagement: React.FC = () => {
     
     if (activeTab === 'pool') {
       fetchPoolData();
-    } else if (activeTab === 'eligible') {
-      fetchEligibleParticipants();
     } else if (activeTab === 'unsent') {
       fetchUnsentGiftCards();
     }
-    // Sent tab is handled by the effect below (so pagination refetches work)
+    // Eligible and sent tabs are handled by the effects below (so pagination refetches work)
     // eslint-disable-next-line react-hooks/exhaustive-deps
   }, [activeTab, poolStatusFilter]);
 
@@ -272,6 +274,16 @@ const GiftCardManagement: React.FC = () => {
     // eslint-disable-next-line react-hooks/exhaustive-deps
   }, [poolStatusFilter, poolPage, poolPageSize, poolSearch]);
 
+  // Refetch eligible participants when on eligible tab and page/size change.
+  // Selections only cover the page being shown, since bulk send looks participants up in it.
+  useEffect(() => {
+    if (activeTab === 'eligible') {
+      setSelectedParticipantIds([]);
+      fetchEligibleParticipants();
+    }
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [activeTab, eligiblePage, eligiblePageSize]);
+
   // Refetch sent gift cards when on sent tab and page/size change
   useEffect(() => {
     if (activeTab === 'sent') {
@@ -280,6 +292,22 @@ const GiftCardManagement: React.FC = () => {
     // eslint-disable-next-line react-hooks/exhaustive-deps
   }, [activeTab, sentPage, sentPageSize]);
 
+  // Live updates: keep the pool counters current as cards are uploaded, assigned or sent
+  useEffect(() => {
+    let timer: ReturnType<typeof setTimeout> | undefined;
+    const unsubscribe = subscribeAdminEvents((event) => {
+      if (event.type === 'gift_card_pool' || event.type === 'gift_cards') {
+        clearTimeout(timer);
+        timer = setTimeout(() => fetchPoolStatus(), 1000);
+      }
+    });
+    return () => {
+      clearTimeout(timer);
+      unsubscribe();
+    };
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, []);
+
   const fetchData = async () => {
     await Promise.all([
       fetchPoolStatus(),
@@ -317,8 +345,10 @@ const GiftCardManagement: React.FC = () => {
 
   const fetchEligibleParticipants = async () => {
     try {
-      const participants = await api.getEligibleParticipants();
-      setEligibleParticipants(participants || []);
+      const response = await api.getEligibleParticipants(eligiblePage, eligiblePageSize);
+      setEligibleParticipants(response.content || []);
+      setEligibleTotalPages(response.totalPages ?? 0);
+      setEligibleTotalElements(response.totalElements ?? 0);
     } catch (error) {
       console.error('Error fetching eligible participants:', error);
     }
@@ -1112,7 +1142,7 @@ const GiftCardManagement: React.FC = () => {
                     : 'border-transparent text-gray-500 hover:text-gray-700 hover:border-gray-300'
                 }`}
               >
-                Eligible Participants ({eligibleParticipants.length})
+                Eligible Participants ({eligibleTotalElements})
               </button>
               <button
                 onClick={() => setActiveTab('sent')}
@@ -1584,6 +1614,45 @@ const GiftCardManagement: React.FC = () => {
                     </tbody>
                   </table>
                 </div>
+                    <div className="flex items-center justify-between px-4 py-3 bg-white border-t border-gray-200 flex-shrink-0">
+                      <div className="text-sm text-gray-600">
+                        Showing {eligibleTotalElements === 0 ? 0 : eligiblePage * eligiblePageSize + 1}–{Math.min((eligiblePage + 1) * eligiblePageSize, eligibleTotalElements)} of {eligibleTotalElements}
+                      </div>
+                      <div className="flex items-center space-x-2">
+                        <button
+                          onClick={() => setEligiblePage(Math.max(eligiblePage - 1, 0))}
+                          disabled={eligiblePage === 0}
+                          className="px-3 py-1.5 text-sm border border-gray-300 rounded-lg bg-white hover:bg-gray-50 disabled:opacity-50 disabled:cursor-not-allowed"
+                        >
+                          Previous
+                        </button>
+                        <span className="text-sm text-gray-600">
+                          Page {eligiblePage + 1} of {eligibleTotalPages || 1}
+                        </span>
+                        <button
+                          onClick={() => setEligiblePage(eligiblePage + 1)}
+                          disabled={eligibleTotalPages ? eligiblePage + 1 >= eligibleTotalPages : false}
+                          className="px-3 py-1.5 text-sm border border-gray-300 rounded-lg bg-white hover:bg-gray-50 disabled:opacity-50 disabled:cursor-not-allowed"
+                        >
+                          Next
+                        </button>
+                        <div className="relative">
+                          <select
+                            value={eligiblePageSize}
+                            onChange={(e) => { setEligiblePageSize(parseInt(e.target.value, 10)); setEligiblePage(0); }}
+                            className="h-9 pl-3 pr-8 text-sm border border-gray-300 rounded-lg bg-white hover:border-gray-400 focus:outline-none focus:ring-2 focus:ring-blue-500 focus:border-blue-500 appearance-none"
+                          >
+                            <option value={20}>20 per page</option>
+                            <option value={50}>50 per page</option>
+                            <option value={100}>100 per page</option>
+                            <option value={200}>200 per page</option>
+                          </select>
+                          <svg className="pointer-events-none w-3.5 h-3.5 text-gray-500 absolute right-2.5 top-1/2 -translate-y-1/2" fill="none" stroke="currentColor" viewBox="0 0 24 24">
+                            <path strokeLinecap="round" strokeLinejoin="round" strokeWidth={2} d="M19 9l-7 7-7-7" />
+                          </svg>
+                        </div>
+                      </div>
+                    </div>
                   </div>
                 )}
               </div>
@@ -38,6 +38,84 @@ export const normalizePhoneNumber = (phone: string): string => {
   return `+1${digits}`;
 };
 
+// Idempotency keys for send endpoints - the backend replays its stored response
+// instead of sending again when it sees a key it has already processed.
+// One key per user action: retrying the same action (same endpoint and body) after a
+// failure or a timeout reuses its key, and the key is dropped once the action succeeds.
+const pendingIdempotencyKeys = new Map<string, string>();
+
+const idempotentPost = async (endpoint: string, data: any) => {
+  const action = `${endpoint} ${JSON.stringify(data)}`;
+  let key = pendingIdempotencyKeys.get(action);
+  if (!key) {
+    key = crypto.randomUUID();
+    pendingIdempotencyKeys.set(action, key);
+  }
+  const result = await api.post(endpoint, data, { headers: { 'Idempotency-Key': key } });
+  pendingIdempotencyKeys.delete(action);
+  return result;
+};
+
+// Live dashboard feed (Server-Sent Events). Uses fetch rather than EventSource so the
+// admin JWT can go in the Authorization header. Reconnects with backoff until aborted.
+export type AdminEvent = { type: string; op?: string; count?: number; ids?: string[] };
+
+export const subscribeAdminEvents = (onEvent: (event: AdminEvent) => void): (() => void) => {
+  const controller = new AbortController();
+  let retryMs = 1000;
+
+  const connect = async () => {
+    while (!controller.signal.aborted) {
+      const token = localStorage.getItem('adminToken');
+      if (!token || isTokenExpired(token)) {
+        return; // the page's own token check handles the redirect
+      }
+      try {
+        const response = await fetch(getApiUrl('/api/admin/events/stream'), {
+          headers: { Authorization: `Bearer ${token}`, Accept: 'text/event-stream' },
+          signal: controller.signal,
+        });
+        if (!response.ok || !response.body) {
+          throw new Error(`Event stream failed: ${response.status}`);
+        }
+        retryMs = 1000;
+        const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+        let buffer = '';
+        for (;;) {
+          const { value, done } = await reader.read();
+          if (done) break;
+          buffer += value;
+          let boundary;
+          while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+            const frame = buffer.slice(0, boundary);
+            buffer = buffer.slice(boundary + 2);
+            let name = 'message';
+            let data = '';
+            for (const line of frame.split('\n')) {
+              if (line.startsWith('event:')) name = line.slice(6).trim();
+              else if (line.startsWith('data:')) data += line.slice(5).trim();
+            }
+            if (!data) continue; // heartbeat comment
+            try {
+              onEvent({ ...JSON.parse(data), type: name });
+            } catch {
+              // ignore malformed frames
+            }
+          }
+        }
+      } catch (error) {
+        if (controller.signal.aborted) return;
+        console.warn('Live dashboard feed disconnected, retrying:', error);
+      }
+      await new Promise((resolve) => setTimeout(resolve, retryMs));
+      retryMs = Math.min(retryMs * 2, 30000);
+    }
+  };
+
+  connect();
+  return () => controller.abort();
+};
+
 // Utility function to check if token is expired
 const isTokenExpired = (token: string): boolean => {
   try {
@@ -325,8 +403,8 @@ export const api = {
     return api.get(`/api/admin/gift-cards/pool?page=${page}&size=${size}${statusParam}${codeParam}`);
   },
 
-  getEligibleParticipants: async () => {
-    return api.get('/api/admin/gift-cards/eligible');
+  getEligibleParticipants: async (page = 0, size = 50) => {
+    return api.get(`/api/admin/gift-cards/eligible?page=${page}&size=${size}`);
   },
 
   getGiftCards: async (filters: any = {}) => {
@@ -369,11 +447,11 @@ export const api = {
   },
 
   sendGiftCard: async (participantId: string, giftCardData: any) => {
-    return api.post(`/api/admin/gift-cards/send/${participantId}`, giftCardData);
+    return idempotentPost(`/api/admin/gift-cards/send/${participantId}`, giftCardData);
   },
 
   batchSendGiftCards: async (participants: Array<{ participantId: string; invitationId: string }>, deliveryMethod: string, notes?: string) => {
-    return api.post('/api/admin/gift-cards/batch-send', {
+    return idempotentPost('/api/admin/gift-cards/batch-send', {
       participants,
       deliveryMethod,
       notes: notes || ''
@@ -409,6 +487,14 @@ export const api = {
   },
 
   // Survey management API calls
+  sendInvitation: async (phone: string, batchLabel?: string) => {
+    return idempotentPost('/api/admin/invitations/send', batchLabel ? { phone, batchLabel } : { phone });
+  },
+
+  sendInvitationWithLink: async (phone: string, linkId: string) => {
+    return idempotentPost('/api/admin/invitations/send-with-link', { phone, linkId });
+  },
+
   markSurveyCompleted: async (invitationId: string) => {
     return api.post(`/api/admin/invitations/${invitationId}/complete`, {});
   },
@@ -438,10 +524,14 @@ export const api = {
     return api.delete(`/api/admin/delete-user/${userId}`);
   },
 
+  deleteUsers: async (userIds: string[]) => {
+    return api.post('/api/admin/delete-users', { ids: userIds });
+  },
+
   // Enrollment Management
   getEnrollmentStatus: async () => {
-    // Add timestamp to prevent browser caching
-    return api.get(`/api/enrollment/status?t=${Date.now()}`);
+    // The server sends a short max-age and an ETag, so let the browser cache and revalidate it
+    return api.get('/api/enrollment/status');
   },
 
   getEnrollmentConfig: async () => {